@@ -30,15 +30,20 @@ USE url_shortener_service;
 
 -- Bảng lưu trữ các URL
 CREATE TABLE `urls` (
-    `id` BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    `id` BIGINT NOT NULL PRIMARY KEY,           -- Assigned from id_blocks by IdBlockAllocator
     `original_url` TEXT NOT NULL,
+    `original_url_hash` BINARY(32) NOT NULL,    -- SHA-256 of original_url, dedup key (UrlHashUtil)
     `title` VARCHAR(500) NULL,
     `password_hash` VARCHAR(255) NULL,
     `status` ENUM('active', 'expired', 'disabled') NULL DEFAULT 'active',
     `created_at` TIMESTAMP NULL DEFAULT CURRENT_TIMESTAMP,
     `updated_at` TIMESTAMP NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
-    `expires_at` TIMESTAMP NULL
+    `expires_at` TIMESTAMP NULL,
+    UNIQUE KEY `uk_urls_original_url_hash` (`original_url_hash`),
+    KEY `idx_urls_status_expires_at` (`status`, `expires_at`)    -- Upcoming expiries for the expiry timing wheel
 );
+-- Existing tables: ADD COLUMN `original_url_hash` BINARY(32) NULL, backfill with
+-- UPDATE `urls` SET `original_url_hash` = UNHEX(SHA2(`original_url`, 256)), then make it NOT NULL and add the key
 
 -- Bảng quản lý tham chiếu cross-service (tối giản)
 CREATE TABLE `service_references` (
@@ -50,6 +55,27 @@ CREATE TABLE `service_references` (
     UNIQUE KEY `service_ref_unique` (`local_table`, `local_id`, `target_table`, `target_id`)
 );
 
+-- Id sequences leased out in blocks by each node (IdBlockAllocator), urls.id is assigned from here
+CREATE TABLE `id_blocks` (
+    `sequence_name` VARCHAR(64) NOT NULL PRIMARY KEY,
+    `next_val` BIGINT NOT NULL                  -- First id not handed out yet
+);
+
+INSERT INTO `id_blocks` (`sequence_name`, `next_val`) SELECT 'urls', COALESCE(MAX(`id`), 0) + 1 FROM `urls`;
+
+-- One row per leased block; open rows (closed_at NULL) are blocks a node may still hand ids out of
+CREATE TABLE `id_block_leases` (
+    `sequence_name` VARCHAR(64) NOT NULL,
+    `block_start` BIGINT NOT NULL,              -- First id of the block
+    `block_end` BIGINT NOT NULL,                -- First id after the block
+    `used_end` BIGINT NULL,                     -- First id not handed out, set when the block is closed
+    `owner` VARCHAR(128) NOT NULL,              -- host:pid of the node holding the lease
+    `leased_at` DATETIME NOT NULL,
+    `closed_at` DATETIME NULL,
+    PRIMARY KEY (`sequence_name`, `block_start`),
+    KEY `idx_id_block_leases_open` (`sequence_name`, `closed_at`)
+);
+
 -- Ghi dữ liệu mẫu để demo cross-service reference
 -- INSERT INTO `service_references` (`local_id`, `local_table`, `target_id`, `target_table`) 
 -- VALUES (1, 'urls', 1001, 'users'),
@@ -1,5 +1,7 @@
 package org.example.config.cache;
 
+import org.example.common.cache.codec.BinaryCacheSerializer;
+import org.example.common.cache.codec.CacheValueCodec;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.CacheManager;
 import org.springframework.context.annotation.Bean;
@@ -13,6 +15,7 @@ import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 import java.time.Duration;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Configuration
@@ -27,12 +30,27 @@ public class CacheConfig {
     @Value("${cache.analytics.url-ownership.ttl}")
     private long urlOwnershipTtl;
 
+    @Value("${cache.codec.format:binary}")
+    private String codecFormat;
+
+    @Value("${cache.codec.compression-threshold-bytes:512}")
+    private int compressionThreshold;
+
+    /**
+     * Binary values for every type with a {@link CacheValueCodec} bean, JSON for the rest
+     */
+    @Bean
+    public BinaryCacheSerializer cacheValueSerializer(List<CacheValueCodec<?>> codecs) {
+        return new BinaryCacheSerializer(codecs, new GenericJackson2JsonRedisSerializer(),
+                "binary".equalsIgnoreCase(codecFormat), compressionThreshold);
+    }
+
     @Bean
-    public CacheManager cacheManager(RedisConnectionFactory redisConnectionFactory) {
+    public CacheManager cacheManager(RedisConnectionFactory redisConnectionFactory, BinaryCacheSerializer cacheValueSerializer) {
         RedisCacheConfiguration defaultCacheConfig = RedisCacheConfiguration.defaultCacheConfig()
                 .entryTtl(Duration.ofSeconds(3600)) // Default 1 hour
                 .serializeKeysWith(RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer()))
-                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(new GenericJackson2JsonRedisSerializer()))
+                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(cacheValueSerializer))
                 .disableCachingNullValues();
 
         Map<String, RedisCacheConfiguration> cacheConfigurations = new HashMap<>();
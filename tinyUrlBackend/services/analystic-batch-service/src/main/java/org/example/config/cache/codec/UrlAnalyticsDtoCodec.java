@@ -0,0 +1,80 @@
+package org.example.config.cache.codec;
+
+import org.example.common.cache.codec.CacheBinaryReader;
+import org.example.common.cache.codec.CacheBinaryWriter;
+import org.example.common.cache.codec.CacheValueCodec;
+import org.example.dto.UrlAnalyticsDto;
+import org.springframework.stereotype.Component;
+
+/**
+ * dailyStats and latestAnalytics (lists) and analyticsSummary values.
+ * <pre>
+ * v1: varint presence bits, then the present fields in bit order:
+ *     urlId long, date epoch day, clickCount long, lastProcessedAt date-time
+ * </pre>
+ */
+@Component
+public class UrlAnalyticsDtoCodec implements CacheValueCodec<UrlAnalyticsDto> {
+
+    private static final int URL_ID = 1;
+    private static final int DATE = 1 << 1;
+    private static final int CLICK_COUNT = 1 << 2;
+    private static final int LAST_PROCESSED_AT = 1 << 3;
+
+    @Override
+    public int typeId() {
+        return 1;
+    }
+
+    @Override
+    public Class<UrlAnalyticsDto> type() {
+        return UrlAnalyticsDto.class;
+    }
+
+    @Override
+    public int version() {
+        return 1;
+    }
+
+    @Override
+    public void encode(UrlAnalyticsDto value, CacheBinaryWriter writer) {
+        int present = (value.getUrlId() != null ? URL_ID : 0)
+                | (value.getDate() != null ? DATE : 0)
+                | (value.getClickCount() != null ? CLICK_COUNT : 0)
+                | (value.getLastProcessedAt() != null ? LAST_PROCESSED_AT : 0);
+        writer.writeVarLong(present);
+
+        if ((present & URL_ID) != 0) {
+            writer.writeLong(value.getUrlId());
+        }
+        if ((present & DATE) != 0) {
+            writer.writeDate(value.getDate());
+        }
+        if ((present & CLICK_COUNT) != 0) {
+            writer.writeLong(value.getClickCount());
+        }
+        if ((present & LAST_PROCESSED_AT) != 0) {
+            writer.writeDateTime(value.getLastProcessedAt());
+        }
+    }
+
+    @Override
+    public UrlAnalyticsDto decode(CacheBinaryReader reader, int version) {
+        long present = reader.readVarLong();
+
+        UrlAnalyticsDto value = new UrlAnalyticsDto();
+        if ((present & URL_ID) != 0) {
+            value.setUrlId(reader.readLong());
+        }
+        if ((present & DATE) != 0) {
+            value.setDate(reader.readDate());
+        }
+        if ((present & CLICK_COUNT) != 0) {
+            value.setClickCount(reader.readLong());
+        }
+        if ((present & LAST_PROCESSED_AT) != 0) {
+            value.setLastProcessedAt(reader.readDateTime());
+        }
+        return value;
+    }
+}
@@ -2,6 +2,7 @@ package org.example.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.example.common.id.SnowflakeIdGenerator;
 import org.example.dto.ClickEventDto;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.Cacheable;
@@ -14,7 +15,6 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.util.List;
-import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
@@ -29,6 +29,8 @@ import java.util.concurrent.TimeUnit;
 public class ExternalServiceClient {
 
     private final KafkaTemplate<String, Object> kafkaTemplate;
+
+    private final SnowflakeIdGenerator idGenerator;
     
     // For tracking pending requests (simple in-memory store)
     private final ConcurrentHashMap<String, CompletableFuture<Boolean>> pendingOwnershipRequests = new ConcurrentHashMap<>();
@@ -90,7 +92,7 @@ public class ExternalServiceClient {
      */
     @Cacheable(value = "urlOwnership", key = "#urlId + '_' + #userId")
     public CompletableFuture<Boolean> verifyUrlOwnership(String urlId, String userId) {
-        String correlationId = UUID.randomUUID().toString();
+        String correlationId = idGenerator.nextIdString();
         log.info("Verifying URL ownership - urlId: {}, userId: {}, correlationId: {}", urlId, userId, correlationId);
 
         CompletableFuture<Boolean> future = new CompletableFuture<>();
@@ -141,7 +143,7 @@ public class ExternalServiceClient {
      * Fetch click events from realtime service for a specific date using Kafka request-reply pattern
      */
     public CompletableFuture<List<ClickEventDto>> fetchClickEventsFromRealtimeService(LocalDate date) {
-        String correlationId = UUID.randomUUID().toString();
+        String correlationId = idGenerator.nextIdString();
         log.info("Fetching click events from realtime service - date: {}, correlationId: {}", date, correlationId);
 
         CompletableFuture<List<ClickEventDto>> future = new CompletableFuture<>();
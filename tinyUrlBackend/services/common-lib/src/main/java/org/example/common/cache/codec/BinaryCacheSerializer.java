@@ -0,0 +1,237 @@
+package org.example.common.cache.codec;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Redis cache value serializer: registered types (and lists of them) are written with their {@link CacheValueCodec},
+ * anything else goes to the fallback (JSON) serializer.
+ * <pre>
+ * byte    magic (0xCA)
+ * byte    flags: FLAG_COMPRESSED, FLAG_LIST
+ * varint  type id (element type for lists)
+ * varint  schema version
+ * varint  uncompressed payload length, only if FLAG_COMPRESSED
+ * payload the value, or varint count + values for lists; raw DEFLATE if FLAG_COMPRESSED
+ * </pre>
+ * Payloads of at least compressionThreshold bytes are compressed when that makes them smaller.
+ * <p>
+ * Values that do not start with the magic byte (JSON written before the switch, unregistered types) are read by the
+ * fallback. A value of an unknown type or a newer schema version, or holding an enum constant this node does not
+ * know, written by a newer node during a rolling deploy, reads as a cache miss so the caller reloads it.
+ * With writeBinary false the serializer writes JSON only but still reads binary, which is the rollback setting.
+ */
+@Slf4j
+public class BinaryCacheSerializer implements RedisSerializer<Object> {
+
+    public static final byte MAGIC = (byte) 0xCA;
+
+    private static final int FLAG_COMPRESSED = 1;
+    private static final int FLAG_LIST = 1 << 1;
+
+    // Refuse to inflate anything claiming more than this, the header may be corrupt
+    private static final int MAX_UNCOMPRESSED_LENGTH = 64 * 1024 * 1024;
+
+    private final Map<Class<?>, CacheValueCodec<?>> codecsByType = new HashMap<>();
+    private final Map<Integer, CacheValueCodec<?>> codecsById = new HashMap<>();
+    private final RedisSerializer<Object> fallback;
+    private final boolean writeBinary;
+    private final int compressionThreshold;
+
+    public BinaryCacheSerializer(Collection<? extends CacheValueCodec<?>> codecs, RedisSerializer<Object> fallback,
+                                 boolean writeBinary, int compressionThreshold) {
+        for (CacheValueCodec<?> codec : codecs) {
+            if (codec.typeId() < 1 || codec.version() < 1) {
+                throw new IllegalStateException("Cache codec type id and version must be >= 1: " + codec.getClass().getName());
+            }
+            CacheValueCodec<?> previous = codecsById.putIfAbsent(codec.typeId(), codec);
+            if (previous != null) {
+                throw new IllegalStateException("Cache codecs " + previous.getClass().getName() + " and "
+                        + codec.getClass().getName() + " share type id " + codec.typeId());
+            }
+            codecsByType.put(codec.type(), codec);
+        }
+        this.fallback = fallback;
+        this.writeBinary = writeBinary;
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null || !writeBinary) {
+            return fallback.serialize(value);
+        }
+
+        CacheValueCodec<?> codec = codecsByType.get(value.getClass());
+        if (codec != null) {
+            CacheBinaryWriter payload = new CacheBinaryWriter(128);
+            encode(codec, value, payload);
+            return frame(codec, 0, payload);
+        }
+
+        if (value instanceof List<?> list && !list.isEmpty()) {
+            codec = listCodec(list);
+            if (codec != null) {
+                CacheBinaryWriter payload = new CacheBinaryWriter(16 + list.size() * 48);
+                payload.writeVarLong(list.size());
+                for (Object element : list) {
+                    encode(codec, element, payload);
+                }
+                return frame(codec, FLAG_LIST, payload);
+            }
+        }
+
+        return fallback.serialize(value);
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes[0] != MAGIC) {
+            return fallback.deserialize(bytes);
+        }
+
+        try {
+            CacheBinaryReader header = new CacheBinaryReader(bytes);
+            header.readByte();
+            int flags = header.readByte();
+            int typeId = header.readVarInt();
+            int version = header.readVarInt();
+
+            CacheValueCodec<?> codec = codecsById.get(typeId);
+            if (codec == null || version < 1 || version > codec.version()) {
+                log.debug("Cache value of unknown type {} version {}, treating as a miss", typeId, version);
+                return null;
+            }
+
+            CacheBinaryReader reader;
+            if ((flags & FLAG_COMPRESSED) != 0) {
+                int length = header.readVarInt();
+                reader = new CacheBinaryReader(inflate(bytes, header.position(), length));
+            } else {
+                reader = new CacheBinaryReader(bytes, header.position(), bytes.length);
+            }
+
+            if ((flags & FLAG_LIST) == 0) {
+                return codec.decode(reader, version);
+            }
+            int count = reader.readVarInt();
+            List<Object> list = new ArrayList<>(Math.min(count, 1024));
+            for (int i = 0; i < count; i++) {
+                list.add(codec.decode(reader, version));
+            }
+            return list;
+        } catch (UnknownCacheValueException e) {
+            log.debug("Cache value not readable by this node, treating as a miss: {}", e.getMessage());
+            return null;
+        } catch (IllegalArgumentException | DataFormatException e) {
+            throw new SerializationException("Could not read binary cache value", e);
+        }
+    }
+
+    /**
+     * Codec of the list's elements if they all have the same registered type, else null
+     */
+    private CacheValueCodec<?> listCodec(List<?> list) {
+        Object first = list.get(0);
+        if (first == null) {
+            return null;
+        }
+        Class<?> elementType = first.getClass();
+        for (Object element : list) {
+            if (element == null || element.getClass() != elementType) {
+                return null;
+            }
+        }
+        return codecsByType.get(elementType);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> void encode(CacheValueCodec<T> codec, Object value, CacheBinaryWriter writer) {
+        codec.encode((T) value, writer);
+    }
+
+    private byte[] frame(CacheValueCodec<?> codec, int flags, CacheBinaryWriter payload) {
+        byte[] body = payload.buffer();
+        int bodyLength = payload.size();
+        int uncompressedLength = 0;
+
+        if (bodyLength >= compressionThreshold) {
+            byte[] compressed = deflate(body, bodyLength);
+            if (compressed.length < bodyLength) {
+                flags |= FLAG_COMPRESSED;
+                uncompressedLength = bodyLength;
+                body = compressed;
+                bodyLength = compressed.length;
+            }
+        }
+
+        CacheBinaryWriter writer = new CacheBinaryWriter(bodyLength + 16);
+        writer.writeByte(MAGIC);
+        writer.writeByte(flags);
+        writer.writeVarLong(codec.typeId());
+        writer.writeVarLong(codec.version());
+        if ((flags & FLAG_COMPRESSED) != 0) {
+            writer.writeVarLong(uncompressedLength);
+        }
+        writer.writeBytes(body, 0, bodyLength);
+        return writer.toByteArray();
+    }
+
+    /**
+     * Raw DEFLATE at BEST_SPEED. Only values past the threshold get here, so the Deflater is not pooled.
+     */
+    private static byte[] deflate(byte[] data, int length) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED, true);
+        try {
+            deflater.setInput(data, 0, length);
+            deflater.finish();
+            CacheBinaryWriter out = new CacheBinaryWriter(length / 2 + 16);
+            byte[] chunk = new byte[Math.min(length, 8192)];
+            while (!deflater.finished()) {
+                int written = deflater.deflate(chunk);
+                out.writeBytes(chunk, 0, written);
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] data, int offset, int length) throws DataFormatException {
+        if (length > MAX_UNCOMPRESSED_LENGTH) {
+            throw new DataFormatException("Uncompressed length too large: " + length);
+        }
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(data, offset, data.length - offset);
+            byte[] result = new byte[length];
+            int read = 0;
+            while (read < length) {
+                int n = inflater.inflate(result, read, length - read);
+                if (n == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                read += n;
+            }
+            if (read != length) {
+                throw new DataFormatException("Compressed cache value is truncated");
+            }
+            return result;
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package org.example.common.cache.codec;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Reads what {@link CacheBinaryWriter} wrote. Truncated or malformed input fails with IllegalArgumentException,
+ * well-formed input this node does not know fails with {@link UnknownCacheValueException}.
+ */
+public final class CacheBinaryReader {
+
+    private final byte[] data;
+    private final int limit;
+    private int position;
+
+    public CacheBinaryReader(byte[] data) {
+        this(data, 0, data.length);
+    }
+
+    public CacheBinaryReader(byte[] data, int offset, int limit) {
+        this.data = data;
+        this.position = offset;
+        this.limit = limit;
+    }
+
+    public int readByte() {
+        require(1);
+        return data[position++] & 0xFF;
+    }
+
+    public long readVarLong() {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            require(1);
+            byte b = data[position++];
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+
+    /**
+     * Unsigned varint that must fit an int, for lengths and counts
+     */
+    public int readVarInt() {
+        long value = readVarLong();
+        if (value < 0 || value > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Length out of range: " + value);
+        }
+        return (int) value;
+    }
+
+    public long readLong() {
+        long value = readVarLong();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    public String readString() {
+        int length = readVarInt();
+        require(length);
+        String value = new String(data, position, length, StandardCharsets.UTF_8);
+        position += length;
+        return value;
+    }
+
+    public LocalDateTime readDateTime() {
+        long epochSecond = readLong();
+        int nano = readVarInt();
+        return LocalDateTime.ofEpochSecond(epochSecond, nano, ZoneOffset.UTC);
+    }
+
+    public LocalDate readDate() {
+        return LocalDate.ofEpochDay(readLong());
+    }
+
+    /**
+     * @throws UnknownCacheValueException for an index past the table, a constant added by a newer node
+     */
+    public <E extends Enum<E>> E readEnum(E[] table) {
+        int index = readVarInt();
+        if (index >= table.length) {
+            throw new UnknownCacheValueException("Unknown enum code " + index + " for " + table.getClass().getComponentType().getSimpleName());
+        }
+        return table[index];
+    }
+
+    public int position() {
+        return position;
+    }
+
+    private void require(int length) {
+        if (length > limit - position) {
+            throw new IllegalArgumentException("Truncated cache value");
+        }
+    }
+}
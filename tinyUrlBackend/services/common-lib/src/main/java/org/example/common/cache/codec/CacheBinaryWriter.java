@@ -0,0 +1,101 @@
+package org.example.common.cache.codec;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+/**
+ * Growable output buffer for {@link CacheValueCodec}s.
+ * Integers are zig-zag varints, strings are varint(UTF-8 length) followed by the bytes. Nothing is nullable here:
+ * codecs write a presence bitmask first and skip the absent fields.
+ */
+public final class CacheBinaryWriter {
+
+    private byte[] buffer;
+    private int position;
+
+    public CacheBinaryWriter(int initialCapacity) {
+        this.buffer = new byte[Math.max(16, initialCapacity)];
+    }
+
+    public void writeByte(int value) {
+        ensureCapacity(1);
+        buffer[position++] = (byte) value;
+    }
+
+    /**
+     * Unsigned varint, for lengths, counts and bitmasks
+     */
+    public void writeVarLong(long value) {
+        ensureCapacity(10);
+        while ((value & ~0x7FL) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+    }
+
+    /**
+     * Signed value as a zig-zag varint, so small negative numbers stay short
+     */
+    public void writeLong(long value) {
+        writeVarLong((value << 1) ^ (value >> 63));
+    }
+
+    public void writeString(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(bytes.length);
+        writeBytes(bytes, 0, bytes.length);
+    }
+
+    /**
+     * UTC epoch second plus nano of second; the nano varint is a single byte for whole seconds
+     */
+    public void writeDateTime(LocalDateTime value) {
+        writeLong(value.toEpochSecond(ZoneOffset.UTC));
+        writeVarLong(value.getNano());
+    }
+
+    public void writeDate(LocalDate value) {
+        writeLong(value.toEpochDay());
+    }
+
+    /**
+     * Enum as its index in a codec-owned table, so reordering the enum declaration does not change the wire format
+     */
+    public <E extends Enum<E>> void writeEnum(E value, E[] table) {
+        for (int i = 0; i < table.length; i++) {
+            if (table[i] == value) {
+                writeVarLong(i);
+                return;
+            }
+        }
+        throw new IllegalArgumentException("No wire code for " + value);
+    }
+
+    public void writeBytes(byte[] bytes, int offset, int length) {
+        ensureCapacity(length);
+        System.arraycopy(bytes, offset, buffer, position, length);
+        position += length;
+    }
+
+    public int size() {
+        return position;
+    }
+
+    byte[] buffer() {
+        return buffer;
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, position);
+    }
+
+    private void ensureCapacity(int extra) {
+        if (position + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + extra));
+        }
+    }
+}
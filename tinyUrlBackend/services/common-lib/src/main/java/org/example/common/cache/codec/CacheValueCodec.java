@@ -0,0 +1,30 @@
+package org.example.common.cache.codec;
+
+/**
+ * Binary schema of one cache value type, registered with {@link BinaryCacheSerializer} as a bean.
+ * <p>
+ * The type id and version are written in front of every value. A codec must bump its version whenever the layout
+ * changes and keep decoding every older version; the id of a removed type is never reused. Type ids are per service,
+ * each service registers its own codecs.
+ */
+public interface CacheValueCodec<T> {
+
+    /**
+     * Wire id of the type, unique within the service
+     */
+    int typeId();
+
+    Class<T> type();
+
+    /**
+     * Schema version written with new values
+     */
+    int version();
+
+    void encode(T value, CacheBinaryWriter writer);
+
+    /**
+     * Decode a value written with the given schema version, 1 to {@link #version()}
+     */
+    T decode(CacheBinaryReader reader, int version);
+}
@@ -0,0 +1,12 @@
+package org.example.common.cache.codec;
+
+/**
+ * A cache value holds something this node cannot represent, e.g. an enum constant added by a newer node during a
+ * rolling deploy. Unlike a malformed value it is valid data, so {@link BinaryCacheSerializer} reads it as a miss.
+ */
+public class UnknownCacheValueException extends RuntimeException {
+
+    public UnknownCacheValueException(String message) {
+        super(message);
+    }
+}
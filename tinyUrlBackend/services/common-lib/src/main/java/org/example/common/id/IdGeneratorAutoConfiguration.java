@@ -0,0 +1,38 @@
+package org.example.common.id;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
+
+/**
+ * {@link SnowflakeIdGenerator} for any service with this jar on its classpath.
+ * {@code id-generator.node-id} must be set to a value unique per running instance: a derived id can collide with
+ * another instance's and silently produce duplicate ids, so startup fails without it. Only the {@code dev} profile
+ * falls back to an id derived from the host name and pid. The bean is lazy, services that never inject it (and only
+ * use other parts of this jar) need no node id.
+ */
+@Slf4j
+@AutoConfiguration
+public class IdGeneratorAutoConfiguration {
+
+    @Bean
+    @Lazy
+    @ConditionalOnMissingBean
+    public SnowflakeIdGenerator snowflakeIdGenerator(@Value("${id-generator.node-id:-1}") int nodeId,
+                                                     Environment environment) {
+        if (nodeId < 0) {
+            if (!environment.acceptsProfiles(Profiles.of("dev"))) {
+                throw new IllegalStateException("id-generator.node-id is not set: give every instance its own node id "
+                        + "(0-" + SnowflakeIdGenerator.MAX_NODE_ID + "), or run with the dev profile");
+            }
+            nodeId = SnowflakeIdGenerator.derivedNodeId();
+            log.warn("id-generator.node-id is not set, derived node id {} from host name and pid (dev profile only)", nodeId);
+        }
+        return new SnowflakeIdGenerator(nodeId);
+    }
+}
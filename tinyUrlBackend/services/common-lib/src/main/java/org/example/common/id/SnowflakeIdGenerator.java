@@ -0,0 +1,138 @@
+package org.example.common.id;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free, monotonic, time-ordered 64-bit ids for correlation ids and Kafka keys.
+ * <pre>
+ * | 41 bits millis since 2024-01-01 UTC | 10 bits node id | 12 bits sequence |
+ * </pre>
+ * A single CAS per id, no SecureRandom and no blocking: when the sequence of the current millisecond is exhausted,
+ * or the wall clock moves backwards, the generator keeps counting on a logical clock slightly ahead of real time
+ * instead of waiting, so ids from one node are strictly increasing.
+ * <p>
+ * Ids are unique across nodes as long as every instance gets its own {@code id-generator.node-id} (0-1023),
+ * see {@link IdGeneratorAutoConfiguration}.
+ * The string form is 13 Crockford Base32 characters and sorts in id order, the binary form is 8 big-endian bytes.
+ */
+public class SnowflakeIdGenerator {
+
+    public static final long EPOCH_MILLIS = 1704067200000L; // 2024-01-01T00:00:00Z
+
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    public static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    public static final int STRING_LENGTH = 13;
+    private static final char[] BASE32 = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final byte[] BASE32_DIGITS = new byte[128];
+
+    static {
+        java.util.Arrays.fill(BASE32_DIGITS, (byte) -1);
+        for (int i = 0; i < BASE32.length; i++) {
+            BASE32_DIGITS[BASE32[i]] = (byte) i;
+            BASE32_DIGITS[Character.toLowerCase(BASE32[i])] = (byte) i;
+        }
+    }
+
+    private final long nodeBits;
+
+    // (millis since epoch << SEQUENCE_BITS) | sequence of the last id handed out
+    private final AtomicLong state = new AtomicLong();
+
+    public SnowflakeIdGenerator(int nodeId) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("id-generator.node-id must be between 0 and " + MAX_NODE_ID);
+        }
+        this.nodeBits = (long) nodeId << SEQUENCE_BITS;
+    }
+
+    public long nextId() {
+        while (true) {
+            long last = state.get();
+            long now = System.currentTimeMillis() - EPOCH_MILLIS;
+            // Same millisecond, sequence overflow (carries into the next logical millisecond) or clock moved back
+            long next = now > (last >>> SEQUENCE_BITS) ? now << SEQUENCE_BITS : last + 1;
+            if (state.compareAndSet(last, next)) {
+                return ((next >>> SEQUENCE_BITS) << (NODE_BITS + SEQUENCE_BITS)) | nodeBits | (next & SEQUENCE_MASK);
+            }
+        }
+    }
+
+    public String nextIdString() {
+        return toString(nextId());
+    }
+
+    public byte[] nextIdBytes() {
+        return toBytes(nextId());
+    }
+
+    /**
+     * Fixed width Crockford Base32, lexicographic order equals id order
+     */
+    public static String toString(long id) {
+        char[] chars = new char[STRING_LENGTH];
+        for (int i = STRING_LENGTH - 1; i >= 0; i--) {
+            chars[i] = BASE32[(int) (id & 31)];
+            id >>>= 5;
+        }
+        return new String(chars);
+    }
+
+    public static long parse(CharSequence value) {
+        if (value == null || value.length() != STRING_LENGTH) {
+            throw new IllegalArgumentException("Invalid id: " + value);
+        }
+        long id = 0;
+        for (int i = 0; i < STRING_LENGTH; i++) {
+            char c = value.charAt(i);
+            int digit = c < 128 ? BASE32_DIGITS[c] : -1;
+            if (digit < 0 || (i == 0 && digit > 15)) {
+                throw new IllegalArgumentException("Invalid id: " + value);
+            }
+            id = (id << 5) | digit;
+        }
+        return id;
+    }
+
+    /**
+     * 8 bytes big-endian, byte-wise order equals id order
+     */
+    public static byte[] toBytes(long id) {
+        byte[] bytes = new byte[8];
+        for (int i = 7; i >= 0; i--) {
+            bytes[i] = (byte) id;
+            id >>>= 8;
+        }
+        return bytes;
+    }
+
+    public static long fromBytes(byte[] bytes) {
+        if (bytes == null || bytes.length != 8) {
+            throw new IllegalArgumentException("Id must be 8 bytes");
+        }
+        long id = 0;
+        for (byte b : bytes) {
+            id = (id << 8) | (b & 0xFF);
+        }
+        return id;
+    }
+
+    public static long timestampMillis(long id) {
+        return (id >>> (NODE_BITS + SEQUENCE_BITS)) + EPOCH_MILLIS;
+    }
+
+    public static int nodeId(long id) {
+        return (int) ((id >>> SEQUENCE_BITS) & MAX_NODE_ID);
+    }
+
+    /**
+     * Node id hashed from host name and pid, for single-developer setups only: two instances can get the same id
+     */
+    static int derivedNodeId() {
+        String host = System.getenv("HOSTNAME");
+        int hash = (host != null ? host.hashCode() : 0) * 31 + Long.hashCode(ProcessHandle.current().pid());
+        return (hash ^ (hash >>> 16)) & MAX_NODE_ID;
+    }
+}
@@ -0,0 +1,223 @@
+package org.example.common.cache.codec;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BinaryCacheSerializerTest {
+
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2026, 3, 14, 15, 9, 26);
+
+    private final RedisSerializer<Object> fallback = new TextSerializer();
+
+    @Test
+    void valuesAndListsRoundTrip() {
+        BinaryCacheSerializer serializer = serializer(new SampleCodec(2, Status.values()));
+        Sample value = new Sample(42, "short link", Status.ACTIVE, CREATED_AT);
+        Sample absent = new Sample(-7, null, null, null);
+
+        byte[] bytes = serializer.serialize(value);
+        assertEquals(BinaryCacheSerializer.MAGIC, bytes[0]);
+        assertEquals(value, serializer.deserialize(bytes));
+        assertEquals(absent, serializer.deserialize(serializer.serialize(absent)));
+
+        List<Sample> list = List.of(value, absent, new Sample(3, "third", Status.DISABLED, CREATED_AT));
+        byte[] listBytes = serializer.serialize(list);
+        assertEquals(BinaryCacheSerializer.MAGIC, listBytes[0]);
+        assertEquals(list, serializer.deserialize(listBytes));
+    }
+
+    @Test
+    void largeValuesAreCompressedWhenThatHelps() {
+        BinaryCacheSerializer serializer = serializer(new SampleCodec(2, Status.values()));
+        Sample value = new Sample(1, "https://example.com/?q=".repeat(100), Status.ACTIVE, CREATED_AT);
+
+        byte[] bytes = serializer.serialize(value);
+        assertTrue(bytes.length < value.name().length() / 2, "not compressed: " + bytes.length + " bytes");
+        assertEquals(value, serializer.deserialize(bytes));
+
+        List<Sample> list = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            list.add(new Sample(i, "item " + i, Status.ACTIVE, CREATED_AT.plusSeconds(i)));
+        }
+        assertEquals(list, serializer.deserialize(serializer.serialize(list)));
+    }
+
+    @Test
+    void unregisteredTypesMixedListsAndForeignBytesGoThroughTheFallback() {
+        BinaryCacheSerializer serializer = serializer(new SampleCodec(2, Status.values()));
+        assertArrayEquals(fallback.serialize("plain"), serializer.serialize("plain"));
+        assertEquals("plain", serializer.deserialize(serializer.serialize("plain")));
+
+        List<Object> mixed = List.of(new Sample(1, "a", Status.ACTIVE, CREATED_AT), "b");
+        assertArrayEquals(fallback.serialize(mixed), serializer.serialize(mixed));
+        assertArrayEquals(fallback.serialize(List.of()), serializer.serialize(List.of()));
+
+        // JSON written before binary values were switched on
+        assertEquals("{\"legacy\":true}", serializer.deserialize("{\"legacy\":true}".getBytes(StandardCharsets.UTF_8)));
+        assertNull(serializer.deserialize(null));
+        assertNull(serializer.deserialize(new byte[0]));
+    }
+
+    @Test
+    void rollbackSettingWritesFallbackButStillReadsBinary() {
+        BinaryCacheSerializer binary = serializer(new SampleCodec(2, Status.values()));
+        BinaryCacheSerializer rollback = new BinaryCacheSerializer(List.of(new SampleCodec(2, Status.values())), fallback, false, 64);
+        Sample value = new Sample(42, "short link", Status.ACTIVE, CREATED_AT);
+
+        assertArrayEquals(fallback.serialize(value), rollback.serialize(value));
+        assertEquals(value, rollback.deserialize(binary.serialize(value)));
+    }
+
+    @Test
+    void olderSchemaVersionsAreStillDecoded() {
+        BinaryCacheSerializer oldNode = serializer(new SampleCodec(1, Status.values()));
+        BinaryCacheSerializer newNode = serializer(new SampleCodec(2, Status.values()));
+
+        byte[] written = oldNode.serialize(new Sample(42, "dropped by v1", Status.ACTIVE, CREATED_AT));
+        assertEquals(new Sample(42, null, Status.ACTIVE, CREATED_AT), newNode.deserialize(written));
+    }
+
+    @Test
+    void valuesFromANewerNodeReadAsAMiss() {
+        Sample value = new Sample(42, "short link", Status.ACTIVE, CREATED_AT);
+        BinaryCacheSerializer oldNode = serializer(new SampleCodec(1, Status.values()));
+
+        // Newer schema version of a known type
+        assertNull(oldNode.deserialize(serializer(new SampleCodec(2, Status.values())).serialize(value)));
+
+        // Type id the old node has no codec for
+        SampleCodec otherType = new SampleCodec(1, Status.values()) {
+            @Override
+            public int typeId() {
+                return 9;
+            }
+        };
+        assertNull(oldNode.deserialize(serializer(otherType).serialize(value)));
+
+        // Enum constant the old node does not know, in a value and in a list
+        BinaryCacheSerializer newerEnums = serializer(new SampleCodec(1, Status.values()));
+        BinaryCacheSerializer olderEnums = serializer(new SampleCodec(1, new Status[]{Status.ACTIVE, Status.DISABLED}));
+        Sample active = new Sample(42, null, Status.ACTIVE, CREATED_AT);
+        Sample archived = new Sample(7, null, Status.ARCHIVED, CREATED_AT);
+        assertNull(olderEnums.deserialize(newerEnums.serialize(archived)));
+        assertNull(olderEnums.deserialize(newerEnums.serialize(List.of(active, archived))));
+        assertEquals(active, olderEnums.deserialize(newerEnums.serialize(active)));
+    }
+
+    @Test
+    void corruptValuesFail() {
+        BinaryCacheSerializer serializer = serializer(new SampleCodec(2, Status.values()));
+        byte[] bytes = serializer.serialize(new Sample(42, "short link", Status.ACTIVE, CREATED_AT));
+        assertThrows(SerializationException.class, () -> serializer.deserialize(Arrays.copyOf(bytes, bytes.length - 3)));
+
+        byte[] compressed = serializer.serialize(new Sample(1, "x".repeat(2000), Status.ACTIVE, CREATED_AT));
+        assertThrows(SerializationException.class,
+                () -> serializer.deserialize(Arrays.copyOf(compressed, compressed.length - 2)));
+    }
+
+    @Test
+    void rejectsInvalidOrCollidingCodecs() {
+        assertThrows(IllegalStateException.class, () -> serializer(new SampleCodec(0, Status.values())));
+        assertThrows(IllegalStateException.class,
+                () -> serializer(new SampleCodec(1, Status.values()), new SampleCodec(2, Status.values())));
+    }
+
+    private BinaryCacheSerializer serializer(CacheValueCodec<?>... codecs) {
+        return new BinaryCacheSerializer(List.of(codecs), fallback, true, 64);
+    }
+
+    private enum Status { ACTIVE, DISABLED, ARCHIVED }
+
+    private record Sample(long id, String name, Status status, LocalDateTime createdAt) {
+    }
+
+    /**
+     * v1: presence bits, id, status, createdAt; v2 appends name
+     */
+    private static class SampleCodec implements CacheValueCodec<Sample> {
+
+        private static final int STATUS = 1;
+        private static final int CREATED_AT = 1 << 1;
+        private static final int NAME = 1 << 2;
+
+        private final int version;
+        private final Status[] statuses;
+
+        SampleCodec(int version, Status[] statuses) {
+            this.version = version;
+            this.statuses = statuses;
+        }
+
+        @Override
+        public int typeId() {
+            return 1;
+        }
+
+        @Override
+        public Class<Sample> type() {
+            return Sample.class;
+        }
+
+        @Override
+        public int version() {
+            return version;
+        }
+
+        @Override
+        public void encode(Sample value, CacheBinaryWriter writer) {
+            int present = (value.status() != null ? STATUS : 0)
+                    | (value.createdAt() != null ? CREATED_AT : 0)
+                    | (version >= 2 && value.name() != null ? NAME : 0);
+            writer.writeVarLong(present);
+            writer.writeLong(value.id());
+            if ((present & STATUS) != 0) {
+                writer.writeEnum(value.status(), statuses);
+            }
+            if ((present & CREATED_AT) != 0) {
+                writer.writeDateTime(value.createdAt());
+            }
+            if ((present & NAME) != 0) {
+                writer.writeString(value.name());
+            }
+        }
+
+        @Override
+        public Sample decode(CacheBinaryReader reader, int version) {
+            long present = reader.readVarLong();
+            long id = reader.readLong();
+            Status status = (present & STATUS) != 0 ? reader.readEnum(statuses) : null;
+            LocalDateTime createdAt = (present & CREATED_AT) != 0 ? reader.readDateTime() : null;
+            String name = version >= 2 && (present & NAME) != 0 ? reader.readString() : null;
+            return new Sample(id, name, status, createdAt);
+        }
+    }
+
+    /**
+     * Stands in for the JSON serializer: strings as UTF-8, anything else as its toString
+     */
+    private static class TextSerializer implements RedisSerializer<Object> {
+
+        @Override
+        public byte[] serialize(Object value) {
+            return value == null ? null : value.toString().getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public Object deserialize(byte[] bytes) {
+            return bytes == null ? null : new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
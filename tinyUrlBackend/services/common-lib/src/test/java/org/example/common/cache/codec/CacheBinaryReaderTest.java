@@ -0,0 +1,100 @@
+package org.example.common.cache.codec;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CacheBinaryReaderTest {
+
+    private enum Color { RED, GREEN, BLUE }
+
+    // Wire order differs from the declaration order on purpose
+    private static final Color[] COLORS = {Color.BLUE, Color.RED, Color.GREEN};
+
+    @Test
+    void readsBackEverythingTheWriterWrote() {
+        LocalDateTime dateTime = LocalDateTime.of(2026, Month.MARCH, 14, 15, 9, 26, 535_897_000);
+        CacheBinaryWriter writer = new CacheBinaryWriter(0);
+        writer.writeByte(0xCA);
+        writer.writeVarLong(0);
+        writer.writeVarLong(300);
+        writer.writeVarLong(-1);
+        writer.writeLong(Long.MIN_VALUE);
+        writer.writeLong(-1);
+        writer.writeLong(Long.MAX_VALUE);
+        writer.writeString("");
+        writer.writeString("héllo, 世界 😀");
+        writer.writeDateTime(dateTime);
+        writer.writeDateTime(LocalDateTime.of(1969, 12, 31, 23, 59, 59));
+        writer.writeDate(LocalDate.of(2026, 2, 28));
+        writer.writeEnum(Color.GREEN, COLORS);
+        writer.writeBytes(new byte[]{1, 2, 3, 4}, 1, 2);
+
+        CacheBinaryReader reader = new CacheBinaryReader(writer.toByteArray());
+        assertEquals(0xCA, reader.readByte());
+        assertEquals(0, reader.readVarLong());
+        assertEquals(300, reader.readVarLong());
+        assertEquals(-1, reader.readVarLong());
+        assertEquals(Long.MIN_VALUE, reader.readLong());
+        assertEquals(-1, reader.readLong());
+        assertEquals(Long.MAX_VALUE, reader.readLong());
+        assertEquals("", reader.readString());
+        assertEquals("héllo, 世界 😀", reader.readString());
+        assertEquals(dateTime, reader.readDateTime());
+        assertEquals(LocalDateTime.of(1969, 12, 31, 23, 59, 59), reader.readDateTime());
+        assertEquals(LocalDate.of(2026, 2, 28), reader.readDate());
+        assertEquals(Color.GREEN, reader.readEnum(COLORS));
+        assertEquals(2, reader.readByte());
+        assertEquals(3, reader.readByte());
+        assertEquals(writer.size(), reader.position());
+    }
+
+    @Test
+    void smallValuesTakeOneByte() {
+        CacheBinaryWriter writer = new CacheBinaryWriter(16);
+        writer.writeVarLong(127);
+        writer.writeLong(-64);
+        writer.writeLong(63);
+        assertArrayEquals(new byte[]{127, 127, 126}, writer.toByteArray());
+    }
+
+    @Test
+    void enumsAreWrittenAsTheirTableIndex() {
+        CacheBinaryWriter writer = new CacheBinaryWriter(16);
+        writer.writeEnum(Color.BLUE, COLORS);
+        assertArrayEquals(new byte[]{0}, writer.toByteArray());
+        assertThrows(IllegalArgumentException.class, () -> writer.writeEnum(Color.RED, new Color[]{Color.BLUE}));
+    }
+
+    @Test
+    void enumIndexPastTheTableIsAnUnknownValueNotAMalformedOne() {
+        CacheBinaryWriter writer = new CacheBinaryWriter(16);
+        writer.writeVarLong(COLORS.length);
+        CacheBinaryReader reader = new CacheBinaryReader(writer.toByteArray());
+        assertThrows(UnknownCacheValueException.class, () -> reader.readEnum(COLORS));
+    }
+
+    @Test
+    void truncatedOrMalformedInputFails() {
+        CacheBinaryWriter writer = new CacheBinaryWriter(16);
+        writer.writeString("truncated");
+        byte[] bytes = writer.toByteArray();
+        assertThrows(IllegalArgumentException.class, () -> new CacheBinaryReader(bytes, 0, bytes.length - 1).readString());
+        assertThrows(IllegalArgumentException.class, () -> new CacheBinaryReader(new byte[0]).readByte());
+        // Varint continuation bit set on every byte
+        byte[] endless = new byte[11];
+        Arrays.fill(endless, (byte) 0x80);
+        assertThrows(IllegalArgumentException.class, () -> new CacheBinaryReader(endless).readVarLong());
+        // A length must fit an int
+        CacheBinaryWriter huge = new CacheBinaryWriter(16);
+        huge.writeVarLong(1L << 40);
+        assertThrows(IllegalArgumentException.class, () -> new CacheBinaryReader(huge.toByteArray()).readVarInt());
+    }
+}
@@ -0,0 +1,43 @@
+package org.example.ratelimit;
+
+import lombok.Getter;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Outcome of a rate limit check. Allowed decisions are a shared instance, so the common case allocates nothing.
+ */
+@Getter
+public final class RateLimitDecision {
+
+    public static final RateLimitDecision ALLOWED = new RateLimitDecision(true, 0);
+
+    private final boolean allowed;
+    // How long until the same request would be allowed, Long.MAX_VALUE if never
+    private final long retryAfterNanos;
+
+    private RateLimitDecision(boolean allowed, long retryAfterNanos) {
+        this.allowed = allowed;
+        this.retryAfterNanos = retryAfterNanos;
+    }
+
+    public static RateLimitDecision denied(long retryAfterNanos) {
+        return new RateLimitDecision(false, Math.max(1, retryAfterNanos));
+    }
+
+    public long getRetryAfterMillis() {
+        return retryAfterNanos == Long.MAX_VALUE ? Long.MAX_VALUE : TimeUnit.NANOSECONDS.toMillis(retryAfterNanos + 999_999);
+    }
+
+    /**
+     * Rounded up, as sent in a Retry-After header
+     */
+    public long getRetryAfterSeconds() {
+        return retryAfterNanos == Long.MAX_VALUE ? Long.MAX_VALUE : TimeUnit.NANOSECONDS.toSeconds(retryAfterNanos + 999_999_999);
+    }
+
+    @Override
+    public String toString() {
+        return allowed ? "ALLOWED" : "DENIED(retryAfterMillis=" + getRetryAfterMillis() + ")";
+    }
+}
@@ -0,0 +1,63 @@
+package org.example.ratelimit;
+
+import org.example.ratelimit.bucket.BucketPolicy;
+import org.example.ratelimit.bucket.TokenBucketTable;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Entry point of the rate limiter, for the standalone server and for services embedding it as a library.
+ * A key is whatever the caller limits on (client IP, user id, API key, short code); it is only ever hashed.
+ * <p>
+ * Decisions are made against the local {@link TokenBucketTable} and never wait on the network. With
+ * {@link org.example.ratelimit.sync.BucketSyncService} running, tokens taken on other nodes are charged to the same
+ * buckets a sync interval later.
+ */
+public class RateLimiter {
+
+    private final TokenBucketTable table;
+    private final Map<String, BucketPolicy> policies;
+
+    public RateLimiter(TokenBucketTable table, Collection<BucketPolicy> policies) {
+        this.table = table;
+        this.policies = policies.stream().collect(Collectors.toUnmodifiableMap(BucketPolicy::getName, Function.identity()));
+    }
+
+    /**
+     * @throws IllegalArgumentException if no policy has that name
+     */
+    public RateLimitDecision tryAcquire(String policyName, String key, int permits) {
+        return tryAcquire(getPolicy(policyName), key, permits);
+    }
+
+    public RateLimitDecision tryAcquire(BucketPolicy policy, String key, int permits) {
+        if (permits <= 0) {
+            throw new IllegalArgumentException("permits must be positive");
+        }
+        if (permits > policy.getCapacity()) {
+            // More than the bucket holds, no amount of waiting helps
+            return RateLimitDecision.denied(Long.MAX_VALUE);
+        }
+        long waitNanos = table.tryAcquire(policy.hash(key), permits, policy, System.nanoTime());
+        return waitNanos == 0 ? RateLimitDecision.ALLOWED : RateLimitDecision.denied(waitNanos);
+    }
+
+    public BucketPolicy getPolicy(String policyName) {
+        BucketPolicy policy = policies.get(policyName);
+        if (policy == null) {
+            throw new IllegalArgumentException("Unknown rate limit policy: " + policyName);
+        }
+        return policy;
+    }
+
+    public BucketPolicy findPolicy(String policyName) {
+        return policies.get(policyName);
+    }
+
+    public Collection<BucketPolicy> getPolicies() {
+        return policies.values();
+    }
+}
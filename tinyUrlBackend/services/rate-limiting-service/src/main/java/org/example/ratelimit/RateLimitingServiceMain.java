@@ -0,0 +1,28 @@
+package org.example.ratelimit;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+
+import java.util.Map;
+
+/**
+ * Standalone rate limit server.
+ * <p>
+ * This jar is also a library. Services embedding it scan org.example too, so this class and the server
+ * configuration only load with {@code ratelimit.server.enabled=true}, which only this main sets; for the same reason
+ * the server's configuration is rate-limiting-service.properties rather than an application.properties that would
+ * shadow the embedding service's.
+ */
+@SpringBootApplication
+@ConditionalOnProperty(name = "ratelimit.server.enabled", havingValue = "true")
+public class RateLimitingServiceMain {
+    public static void main(String[] args) {
+        SpringApplication application = new SpringApplication(RateLimitingServiceMain.class);
+        application.setDefaultProperties(Map.of(
+                "spring.config.name", "rate-limiting-service",
+                "spring.main.web-application-type", "none",
+                "ratelimit.server.enabled", "true"));
+        application.run(args);
+    }
+}
@@ -0,0 +1,42 @@
+package org.example.ratelimit.bucket;
+
+import lombok.Getter;
+
+/**
+ * Shape of a token bucket: {@code capacity} tokens at most, refilled at {@code refillPerSecond}.
+ * <p>
+ * Buckets are kept in GCRA form, as the time the bucket will be full again, so a policy is turned into the time one
+ * token takes to refill (interval) and the time an empty bucket takes to refill (burst).
+ */
+@Getter
+public class BucketPolicy {
+
+    private final String name;
+    private final long capacity;
+    private final double refillPerSecond;
+    private final long intervalNanos;
+    private final long burstNanos;
+    // Hash of the name, seeds the key hash so equal keys of different policies get different buckets
+    private final long keySeed;
+
+    public BucketPolicy(String name, long capacity, double refillPerSecond) {
+        if (name == null || name.isEmpty() || capacity <= 0 || !(refillPerSecond > 0)) {
+            throw new IllegalArgumentException("Rate limit policy needs a name, a positive capacity and a positive refill rate");
+        }
+        this.name = name;
+        this.capacity = capacity;
+        this.refillPerSecond = refillPerSecond;
+        this.intervalNanos = Math.max(1, Math.round(1_000_000_000d / refillPerSecond));
+        this.burstNanos = Math.multiplyExact(capacity, intervalNanos);
+        this.keySeed = KeyHash.seed(name);
+    }
+
+    public long hash(String key) {
+        return KeyHash.hash(keySeed, key);
+    }
+
+    @Override
+    public String toString() {
+        return name + "(capacity=" + capacity + ", refillPerSecond=" + refillPerSecond + ")";
+    }
+}
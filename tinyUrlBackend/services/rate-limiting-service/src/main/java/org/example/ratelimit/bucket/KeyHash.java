@@ -0,0 +1,35 @@
+package org.example.ratelimit.bucket;
+
+/**
+ * 64-bit hash of a bucket key. Buckets are identified by this hash alone, the key itself is never stored; at 64 bits
+ * two live keys sharing a bucket is not a practical concern.
+ */
+public final class KeyHash {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private KeyHash() {
+    }
+
+    public static long seed(String name) {
+        return hash(FNV_OFFSET, name);
+    }
+
+    /**
+     * FNV-1a over the UTF-16 chars of the key, finished with the murmur3 mixer so every bit of the result depends on
+     * every char. Never 0, that marks an empty slot.
+     */
+    public static long hash(long seed, String key) {
+        long h = seed;
+        for (int i = 0; i < key.length(); i++) {
+            h = (h ^ key.charAt(i)) * FNV_PRIME;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h != 0 ? h : 1;
+    }
+}
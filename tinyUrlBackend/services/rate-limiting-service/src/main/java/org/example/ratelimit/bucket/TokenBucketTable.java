@@ -0,0 +1,199 @@
+package org.example.ratelimit.bucket;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Token buckets for any number of keys in fixed memory, striped over primitive arrays.
+ * <p>
+ * A bucket is a single long, its theoretical arrival time (GCRA): the time at which it will be full again. Taking n
+ * tokens pushes it n intervals further; the take is refused when that would put it more than the policy's burst
+ * ahead of now. That is exactly a token bucket of {@code capacity} tokens refilled every interval, without storing a
+ * token count or doing any refill arithmetic.
+ * <p>
+ * Keys hash to a stripe, each with its own lock and open addressing arrays probed linearly for at most
+ * {@value #MAX_PROBES} slots. When all of them are taken, the bucket closest to full is replaced and the newcomer
+ * inherits its state instead of starting full (at most an empty bucket of its own policy). Evicting a full bucket
+ * loses nothing. Evicting a drained one cannot refill it either: the least drained bucket of a probe window only
+ * moves forward, so a key that returns after eviction, or a flood of fresh keys, starts no fuller than the bucket
+ * it replaced.
+ * <p>
+ * Tokens taken locally are also counted per bucket until {@link #drain} hands them to the cross-node sync, and
+ * {@link #applyRemote} charges tokens taken on other nodes.
+ */
+public class TokenBucketTable {
+
+    static final int MAX_PROBES = 8;
+
+    @FunctionalInterface
+    public interface DeltaSink {
+        void accept(long keyHash, int permits, BucketPolicy policy);
+    }
+
+    private final Stripe[] stripes;
+    private final int stripeMask;
+
+    public TokenBucketTable(int stripes, int slotsPerStripe) {
+        if (stripes <= 0 || slotsPerStripe < MAX_PROBES) {
+            throw new IllegalArgumentException("Need at least one stripe and " + MAX_PROBES + " slots per stripe");
+        }
+        int stripeCount = powerOfTwo(stripes);
+        int slotCount = powerOfTwo(slotsPerStripe);
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            this.stripes[i] = new Stripe(slotCount);
+        }
+        this.stripeMask = stripeCount - 1;
+    }
+
+    /**
+     * Take {@code permits} tokens from the bucket of {@code keyHash}
+     *
+     * @return 0 if taken, otherwise nanoseconds until they would be available
+     */
+    public long tryAcquire(long keyHash, int permits, BucketPolicy policy, long nowNanos) {
+        Stripe stripe = stripe(keyHash);
+        stripe.lock.lock();
+        try {
+            int slot = stripe.slot(keyHash, nowNanos, policy.getBurstNanos());
+            long tat = Math.max(stripe.tat[slot], nowNanos);
+            long newTat = tat + permits * policy.getIntervalNanos();
+            long ahead = newTat - nowNanos;
+            if (ahead > policy.getBurstNanos()) {
+                return ahead - policy.getBurstNanos();
+            }
+            stripe.tat[slot] = newTat;
+            stripe.policies[slot] = policy;
+            stripe.addPending(slot, permits);
+            return 0;
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Charge tokens taken on another node. The bucket is at most emptied, never pushed into debt.
+     */
+    public void applyRemote(long keyHash, int permits, long intervalNanos, long burstNanos, long nowNanos) {
+        Stripe stripe = stripe(keyHash);
+        stripe.lock.lock();
+        try {
+            int slot = stripe.slot(keyHash, nowNanos, burstNanos);
+            long charge = permits >= burstNanos / intervalNanos ? burstNanos : permits * intervalNanos;
+            long tat = Math.max(stripe.tat[slot], nowNanos) + charge;
+            stripe.tat[slot] = Math.min(tat, nowNanos + burstNanos);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Hand the tokens taken locally since the last drain to {@code sink} and reset the counts.
+     * The sink runs under a stripe lock and must not block.
+     */
+    public void drain(DeltaSink sink) {
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                stripe.drain(sink);
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+    }
+
+    private Stripe stripe(long keyHash) {
+        return stripes[(int) (keyHash >>> 32) & stripeMask];
+    }
+
+    private static int powerOfTwo(int n) {
+        return n <= 1 ? 1 : Integer.highestOneBit(n - 1) << 1;
+    }
+
+    private static final class Stripe {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final int mask;
+        private final long[] keys;
+        private final long[] tat;
+        private final BucketPolicy[] policies;
+        // Tokens taken since the last drain, and the slots that have any
+        private final int[] pending;
+        private final int[] dirty;
+        private int dirtyCount;
+        private boolean dirtyOverflow;
+
+        private Stripe(int slots) {
+            this.mask = slots - 1;
+            this.keys = new long[slots];
+            this.tat = new long[slots];
+            this.policies = new BucketPolicy[slots];
+            this.pending = new int[slots];
+            this.dirty = new int[slots];
+        }
+
+        /**
+         * Slot of the key, claimed for it if the key has none. A free slot starts as a full bucket, an evicted one
+         * keeps the evicted bucket's theoretical arrival time, capped to an empty bucket of {@code burstNanos}.
+         */
+        private int slot(long keyHash, long nowNanos, long burstNanos) {
+            int start = (int) keyHash & mask;
+            int victim = start;
+            boolean free = false;
+            for (int i = 0; i < MAX_PROBES; i++) {
+                int slot = (start + i) & mask;
+                long key = keys[slot];
+                if (key == keyHash) {
+                    return slot;
+                }
+                if (key == 0) {
+                    victim = slot;
+                    free = true;
+                    break;
+                }
+                if (tat[slot] < tat[victim]) {
+                    victim = slot;
+                }
+            }
+
+            keys[victim] = keyHash;
+            tat[victim] = free ? nowNanos : Math.min(Math.max(tat[victim], nowNanos), nowNanos + burstNanos);
+            policies[victim] = null;
+            // The evicted bucket's unsynced tokens are dropped with it
+            pending[victim] = 0;
+            return victim;
+        }
+
+        private void addPending(int slot, int permits) {
+            if (pending[slot] == 0) {
+                if (dirtyCount < dirty.length) {
+                    dirty[dirtyCount++] = slot;
+                } else {
+                    // Slots reused after eviction can be listed twice; past the end, fall back to a full scan
+                    dirtyOverflow = true;
+                }
+            }
+            int sum = pending[slot] + permits;
+            pending[slot] = sum < 0 ? Integer.MAX_VALUE : sum;
+        }
+
+        private void drain(DeltaSink sink) {
+            if (dirtyOverflow) {
+                for (int slot = 0; slot < pending.length; slot++) {
+                    drainSlot(slot, sink);
+                }
+            } else {
+                for (int i = 0; i < dirtyCount; i++) {
+                    drainSlot(dirty[i], sink);
+                }
+            }
+            dirtyCount = 0;
+            dirtyOverflow = false;
+        }
+
+        private void drainSlot(int slot, DeltaSink sink) {
+            if (pending[slot] > 0) {
+                sink.accept(keys[slot], pending[slot], policies[slot]);
+                pending[slot] = 0;
+            }
+        }
+    }
+}
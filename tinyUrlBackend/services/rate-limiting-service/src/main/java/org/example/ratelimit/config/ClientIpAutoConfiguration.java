@@ -0,0 +1,24 @@
+package org.example.ratelimit.config;
+
+import org.example.ratelimit.web.ClientIpResolver;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * {@link ClientIpResolver} for servlet web applications, used by {@link RateLimitWebAutoConfiguration} and by the
+ * services' controllers. Registered even with {@code ratelimit.enabled=false}, controllers need client IPs either way.
+ */
+@AutoConfiguration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class ClientIpAutoConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public ClientIpResolver clientIpResolver(RateLimitProperties properties) {
+        return new ClientIpResolver(properties.getWeb().getTrustedProxies());
+    }
+}
@@ -0,0 +1,73 @@
+package org.example.ratelimit.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@code ratelimit.*}, shared by the standalone server and every service embedding the limiter
+ */
+@Data
+@ConfigurationProperties(prefix = "ratelimit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    private Buckets buckets = new Buckets();
+
+    private Sync sync = new Sync();
+
+    private Redis redis = new Redis();
+
+    private Web web = new Web();
+
+    // Policy name to bucket shape
+    private Map<String, Policy> policies = new LinkedHashMap<>();
+
+    @Data
+    public static class Buckets {
+        private int stripes = 64;
+        // About 28 bytes per slot, 64 x 16384 slots take 28 MB
+        private int slotsPerStripe = 16384;
+    }
+
+    @Data
+    public static class Sync {
+        private boolean enabled = true;
+        private long intervalMs = 100;
+        private String topic = "rateLimit:sync";
+    }
+
+    @Data
+    public static class Redis {
+        private boolean enabled = false;
+        private String keyPrefix = "rateLimit:";
+        private Lease lease = new Lease();
+    }
+
+    @Data
+    public static class Lease {
+        // Tokens taken from Redis at once, at most a quarter of the policy's capacity
+        private int size = 10;
+        private long ttlMs = 1000;
+        private long maxKeys = 100000;
+    }
+
+    @Data
+    public static class Web {
+        private boolean enabled = true;
+        // Peers whose X-Forwarded-For / X-Real-IP are believed, addresses or CIDR ranges; default loopback and private
+        private List<String> trustedProxies = new ArrayList<>(List.of(
+                "127.0.0.0/8", "10.0.0.0/8", "172.16.0.0/12", "192.168.0.0/16", "::1", "fc00::/7"));
+    }
+
+    @Data
+    public static class Policy {
+        private long capacity;
+        private double refillPerSecond;
+    }
+}
@@ -0,0 +1,54 @@
+package org.example.ratelimit.config;
+
+import org.example.ratelimit.RateLimiter;
+import org.example.ratelimit.web.ClientIpResolver;
+import org.example.ratelimit.web.RateLimitInterceptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+/**
+ * Registers {@link RateLimitInterceptor} in servlet web applications, so controllers only need {@code @RateLimit}.
+ * Turned off with {@code ratelimit.web.enabled=false}.
+ */
+@AutoConfiguration(after = {RateLimiterAutoConfiguration.class, ClientIpAutoConfiguration.class})
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnClass(WebMvcConfigurer.class)
+@ConditionalOnBean(RateLimiter.class)
+@ConditionalOnProperty(name = "ratelimit.web.enabled", matchIfMissing = true)
+public class RateLimitWebAutoConfiguration {
+
+    @Bean
+    public RateLimitInterceptor rateLimitInterceptor(RateLimiter rateLimiter, ClientIpResolver clientIpResolver) {
+        return new RateLimitInterceptor(rateLimiter, clientIpResolver);
+    }
+
+    @Bean
+    public WebMvcConfigurer rateLimitWebMvcConfigurer(RateLimitInterceptor rateLimitInterceptor) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(rateLimitInterceptor);
+            }
+        };
+    }
+
+    /**
+     * Resolve every annotated endpoint at startup, so a policy missing from the configuration fails the start
+     * instead of the first request
+     */
+    @Bean
+    public SmartInitializingSingleton rateLimitPolicyCheck(RateLimitInterceptor rateLimitInterceptor,
+                                                           ObjectProvider<RequestMappingHandlerMapping> handlerMappings) {
+        return () -> handlerMappings.orderedStream()
+                .forEach(mapping -> mapping.getHandlerMethods().values().forEach(rateLimitInterceptor::limitsOf));
+    }
+}
@@ -0,0 +1,67 @@
+package org.example.ratelimit.config;
+
+import org.example.ratelimit.RateLimiter;
+import org.example.ratelimit.bucket.BucketPolicy;
+import org.example.ratelimit.bucket.TokenBucketTable;
+import org.example.ratelimit.redis.LeasedRateLimiter;
+import org.example.ratelimit.redis.RedisRateLimiter;
+import org.example.ratelimit.sync.BucketSyncService;
+import org.example.ratelimit.sync.RedisBucketSyncTransport;
+import org.redisson.api.RedissonClient;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+
+import java.util.List;
+
+/**
+ * Local token buckets and their cross-node sync, for the standalone server and for any service with this jar on
+ * its classpath. Turned off with {@code ratelimit.enabled=false}. The Redis limiter, for limits that must hold
+ * exactly across nodes, is added with {@code ratelimit.redis.enabled=true}.
+ */
+@AutoConfiguration
+@EnableConfigurationProperties(RateLimitProperties.class)
+@ConditionalOnProperty(name = "ratelimit.enabled", matchIfMissing = true)
+public class RateLimiterAutoConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public TokenBucketTable tokenBucketTable(RateLimitProperties properties) {
+        return new TokenBucketTable(properties.getBuckets().getStripes(), properties.getBuckets().getSlotsPerStripe());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public RateLimiter rateLimiter(TokenBucketTable tokenBucketTable, RateLimitProperties properties) {
+        List<BucketPolicy> policies = properties.getPolicies().entrySet().stream()
+                .map(entry -> new BucketPolicy(entry.getKey(), entry.getValue().getCapacity(), entry.getValue().getRefillPerSecond()))
+                .toList();
+        return new RateLimiter(tokenBucketTable, policies);
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(name = "ratelimit.sync.enabled", matchIfMissing = true)
+    public BucketSyncService bucketSyncService(TokenBucketTable tokenBucketTable, RedissonClient redissonClient,
+                                               RateLimitProperties properties) {
+        RedisBucketSyncTransport transport = new RedisBucketSyncTransport(redissonClient, properties.getSync().getTopic());
+        return new BucketSyncService(tokenBucketTable, transport, properties.getSync().getIntervalMs());
+    }
+
+    @Bean(initMethod = "start")
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(name = "ratelimit.redis.enabled", havingValue = "true")
+    public RedisRateLimiter redisRateLimiter(RedissonClient redissonClient, RateLimitProperties properties) {
+        return new RedisRateLimiter(redissonClient, properties.getRedis().getKeyPrefix());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(name = "ratelimit.redis.enabled", havingValue = "true")
+    public LeasedRateLimiter leasedRateLimiter(RedisRateLimiter redisRateLimiter, RateLimitProperties properties) {
+        RateLimitProperties.Lease lease = properties.getRedis().getLease();
+        return new LeasedRateLimiter(redisRateLimiter, lease.getSize(), lease.getTtlMs(), lease.getMaxKeys());
+    }
+}
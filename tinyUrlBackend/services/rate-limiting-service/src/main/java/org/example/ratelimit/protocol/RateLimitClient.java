@@ -0,0 +1,140 @@
+package org.example.ratelimit.protocol;
+
+import org.example.ratelimit.RateLimitDecision;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Client of {@link RateLimitServer} over one connection, opened on first use and again after a failure.
+ * Thread safe; calls on the same client are serialized, use one client per thread or a small pool for throughput.
+ */
+public class RateLimitClient implements Closeable {
+
+    private final String host;
+    private final int port;
+    private final int timeoutMs;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private Socket socket;
+    private DataInputStream in;
+    private DataOutputStream out;
+    private int nextRequestId;
+
+    public RateLimitClient(String host, int port, int timeoutMs) {
+        this.host = host;
+        this.port = port;
+        this.timeoutMs = timeoutMs;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the server has no such policy
+     */
+    public RateLimitDecision acquire(String policy, String key, int permits) throws IOException {
+        return acquireAll(policy, List.of(key), permits).get(0);
+    }
+
+    /**
+     * Check many keys in one round trip, e.g. the requests a gateway has in flight
+     *
+     * @return decisions in the order of {@code keys}
+     */
+    public List<RateLimitDecision> acquireAll(String policy, List<String> keys, int permits) throws IOException {
+        lock.lock();
+        try {
+            connect();
+            int firstId = nextRequestId;
+            nextRequestId += keys.size();
+            try {
+                for (int i = 0; i < keys.size(); i++) {
+                    RateLimitProtocol.writeRequest(out, firstId + i, policy, keys.get(i), permits);
+                }
+                out.flush();
+
+                List<RateLimitDecision> decisions = new ArrayList<>(keys.size());
+                for (int i = 0; i < keys.size(); i++) {
+                    decisions.add(readResponse(firstId + i, policy));
+                }
+                return decisions;
+            } catch (IOException | RuntimeException e) {
+                // Requests or responses may be left half written or unread
+                disconnect();
+                throw e;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            disconnect();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private RateLimitDecision readResponse(int expectedId, String policy) throws IOException {
+        int requestId = in.readInt();
+        byte status = in.readByte();
+        long retryAfterMillis = in.readInt() & 0xFFFFFFFFL;
+        if (requestId != expectedId) {
+            throw new IOException("Rate limit response out of order: expected " + expectedId + ", got " + requestId);
+        }
+
+        switch (status) {
+            case RateLimitProtocol.STATUS_ALLOWED:
+                return RateLimitDecision.ALLOWED;
+            case RateLimitProtocol.STATUS_DENIED:
+                return RateLimitDecision.denied(TimeUnit.MILLISECONDS.toNanos(retryAfterMillis));
+            case RateLimitProtocol.STATUS_UNKNOWN_POLICY:
+                throw new IllegalArgumentException("Unknown rate limit policy: " + policy);
+            default:
+                throw new IllegalArgumentException("Rate limit server rejected the request: status " + status);
+        }
+    }
+
+    private void connect() throws IOException {
+        if (socket != null) {
+            return;
+        }
+        Socket newSocket = new Socket();
+        try {
+            newSocket.setTcpNoDelay(true);
+            newSocket.setSoTimeout(timeoutMs);
+            newSocket.connect(new InetSocketAddress(host, port), timeoutMs);
+            in = new DataInputStream(new BufferedInputStream(newSocket.getInputStream()));
+            out = new DataOutputStream(new BufferedOutputStream(newSocket.getOutputStream()));
+            socket = newSocket;
+        } catch (IOException e) {
+            newSocket.close();
+            throw e;
+        }
+    }
+
+    private void disconnect() {
+        if (socket == null) {
+            return;
+        }
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // Nothing left to do with it
+        }
+        socket = null;
+        in = null;
+        out = null;
+    }
+}
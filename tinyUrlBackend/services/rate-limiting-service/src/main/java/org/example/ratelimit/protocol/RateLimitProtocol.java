@@ -0,0 +1,66 @@
+package org.example.ratelimit.protocol;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Wire format of the rate limit server, big endian, over a plain TCP connection.
+ * <pre>
+ * request:  op (1) | request id (4) | permits (2) | policy length (1) | policy (UTF-8) | key length (1) | key (UTF-8)
+ * response: request id (4) | status (1) | retry after millis (4)
+ * </pre>
+ * The request id is echoed back untouched. Responses come in request order, so a client may write many requests
+ * before reading any response.
+ */
+public final class RateLimitProtocol {
+
+    public static final byte OP_ACQUIRE = 1;
+
+    public static final byte STATUS_ALLOWED = 0;
+    public static final byte STATUS_DENIED = 1;
+    public static final byte STATUS_UNKNOWN_POLICY = 2;
+    public static final byte STATUS_BAD_REQUEST = 3;
+
+    public static final int MAX_NAME_BYTES = 255;
+    public static final int MAX_PERMITS = 0xFFFF;
+
+    private RateLimitProtocol() {
+    }
+
+    public static void writeRequest(DataOutputStream out, int requestId, String policy, String key, int permits) throws IOException {
+        if (permits <= 0 || permits > MAX_PERMITS) {
+            throw new IllegalArgumentException("permits must be between 1 and " + MAX_PERMITS);
+        }
+        byte[] policyBytes = nameBytes(policy);
+        byte[] keyBytes = nameBytes(key);
+        out.writeByte(OP_ACQUIRE);
+        out.writeInt(requestId);
+        out.writeShort(permits);
+        out.writeByte(policyBytes.length);
+        out.write(policyBytes);
+        out.writeByte(keyBytes.length);
+        out.write(keyBytes);
+    }
+
+    public static void writeResponse(DataOutputStream out, int requestId, byte status, long retryAfterMillis) throws IOException {
+        out.writeInt(requestId);
+        out.writeByte(status);
+        out.writeInt((int) Math.min(retryAfterMillis, Integer.MAX_VALUE));
+    }
+
+    static String readName(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readUnsignedByte()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] nameBytes(String name) {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_NAME_BYTES) {
+            throw new IllegalArgumentException("Policy names and keys are limited to " + MAX_NAME_BYTES + " bytes");
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,153 @@
+package org.example.ratelimit.protocol;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.ratelimit.RateLimitDecision;
+import org.example.ratelimit.RateLimiter;
+import org.example.ratelimit.bucket.BucketPolicy;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TCP server for {@link RateLimitProtocol}, a thread per connection. Clients are gateways and services holding a few
+ * long-lived connections each, not end users, so connections are capped at {@code maxConnections} and refused
+ * beyond that.
+ * <p>
+ * Responses are flushed once no further request is buffered, so a pipelining client gets a whole batch of
+ * responses in one write.
+ */
+@Slf4j
+public class RateLimitServer {
+
+    private final RateLimiter rateLimiter;
+    private final int port;
+    private final ThreadPoolExecutor connectionExecutor;
+    private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+
+    private ServerSocket serverSocket;
+    private Thread acceptThread;
+
+    public RateLimitServer(RateLimiter rateLimiter, int port, int maxConnections) {
+        this.rateLimiter = rateLimiter;
+        this.port = port;
+        this.connectionExecutor = new ThreadPoolExecutor(0, maxConnections, 60, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), new CustomizableThreadFactory("rate-limit-conn-"));
+    }
+
+    public void start() throws IOException {
+        serverSocket = new ServerSocket();
+        serverSocket.bind(new InetSocketAddress(port));
+        acceptThread = new Thread(this::acceptLoop, "rate-limit-accept");
+        acceptThread.start();
+        log.info("Rate limit server listening on port {}", port);
+    }
+
+    public void stop() {
+        try {
+            if (serverSocket != null) {
+                serverSocket.close();
+            }
+        } catch (IOException e) {
+            log.warn("Failed to close rate limit server socket: {}", e.getMessage());
+        }
+        connections.forEach(this::closeQuietly);
+        connectionExecutor.shutdownNow();
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            Socket socket;
+            try {
+                socket = serverSocket.accept();
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    log.warn("Rate limit server accept failed: {}", e.getMessage());
+                }
+                continue;
+            }
+
+            try {
+                connectionExecutor.execute(() -> serve(socket));
+            } catch (RejectedExecutionException e) {
+                log.warn("Refusing rate limit connection from {}, {} connections open",
+                        socket.getRemoteSocketAddress(), connections.size());
+                closeQuietly(socket);
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        connections.add(socket);
+        try {
+            socket.setTcpNoDelay(true);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            while (true) {
+                byte op = in.readByte();
+                if (op != RateLimitProtocol.OP_ACQUIRE) {
+                    // Cannot tell where the next request starts
+                    log.warn("Closing rate limit connection from {}: unknown op {}", socket.getRemoteSocketAddress(), op);
+                    break;
+                }
+                handleAcquire(in, out);
+                if (in.available() == 0) {
+                    out.flush();
+                }
+            }
+        } catch (EOFException | SocketException e) {
+            // Client went away, or the server is stopping
+        } catch (IOException e) {
+            log.warn("Rate limit connection from {} failed: {}", socket.getRemoteSocketAddress(), e.getMessage());
+        } finally {
+            connections.remove(socket);
+            closeQuietly(socket);
+        }
+    }
+
+    private void handleAcquire(DataInputStream in, DataOutputStream out) throws IOException {
+        int requestId = in.readInt();
+        int permits = in.readUnsignedShort();
+        String policyName = RateLimitProtocol.readName(in);
+        String key = RateLimitProtocol.readName(in);
+
+        BucketPolicy policy = rateLimiter.findPolicy(policyName);
+        if (policy == null) {
+            RateLimitProtocol.writeResponse(out, requestId, RateLimitProtocol.STATUS_UNKNOWN_POLICY, 0);
+            return;
+        }
+        if (permits == 0) {
+            RateLimitProtocol.writeResponse(out, requestId, RateLimitProtocol.STATUS_BAD_REQUEST, 0);
+            return;
+        }
+
+        RateLimitDecision decision = rateLimiter.tryAcquire(policy, key, permits);
+        if (decision.isAllowed()) {
+            RateLimitProtocol.writeResponse(out, requestId, RateLimitProtocol.STATUS_ALLOWED, 0);
+        } else {
+            RateLimitProtocol.writeResponse(out, requestId, RateLimitProtocol.STATUS_DENIED, decision.getRetryAfterMillis());
+        }
+    }
+
+    private void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // Nothing left to do with it
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package org.example.ratelimit.redis;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.example.ratelimit.RateLimitDecision;
+import org.example.ratelimit.bucket.BucketPolicy;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * {@link RedisRateLimiter} with local token leases: instead of one token per call, a node takes a slice of up to
+ * {@code leaseSize} tokens from the Redis bucket and hands them out locally, so most decisions never leave the JVM.
+ * A denial is remembered until its retry-after, so a client hammering a limit does not hammer Redis too.
+ * <p>
+ * Leased tokens are already gone from the shared bucket, so the limit is never exceeded; the cost is that tokens a
+ * node leased but did not use within {@code leaseTtlMs} are lost, and a key close to its limit can be refused on one
+ * node while another still holds part of a slice. Keep slices small against the capacity, they are capped at a
+ * quarter of it.
+ * <p>
+ * A request checked against several limits takes what its leases cover locally and everything else from Redis in one
+ * all-or-none script call. That call takes exactly the permits of the request, slices are only leased by single-limit
+ * checks.
+ * <p>
+ * If Redis fails, requests are allowed: losing rate limiting for a moment is preferable to failing every request.
+ */
+@Slf4j
+public class LeasedRateLimiter {
+
+    private final RedisRateLimiter redisRateLimiter;
+    private final int leaseSize;
+    private final long leaseTtlNanos;
+    private final Cache<Long, Lease> leases;
+
+    public LeasedRateLimiter(RedisRateLimiter redisRateLimiter, int leaseSize, long leaseTtlMs, long maxKeys) {
+        if (leaseSize <= 0 || leaseTtlMs <= 0 || maxKeys <= 0) {
+            throw new IllegalArgumentException("Lease size, TTL and key count must be positive");
+        }
+        this.redisRateLimiter = redisRateLimiter;
+        this.leaseSize = leaseSize;
+        this.leaseTtlNanos = TimeUnit.MILLISECONDS.toNanos(leaseTtlMs);
+        this.leases = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(Duration.ofMinutes(1))
+                .build();
+    }
+
+    public RateLimitDecision tryAcquire(LimitKey limit, int permits) {
+        if (permits <= 0) {
+            throw new IllegalArgumentException("permits must be positive");
+        }
+        if (permits > limit.policy().getCapacity()) {
+            return RateLimitDecision.denied(Long.MAX_VALUE);
+        }
+
+        Lease lease = leases.get(limit.policy().hash(limit.key()), hash -> new Lease());
+        lease.lock.lock();
+        try {
+            long now = System.nanoTime();
+            if (now - lease.deniedUntilNanos < 0) {
+                return RateLimitDecision.denied(lease.deniedUntilNanos - now);
+            }
+            if (now - lease.expiresAtNanos >= 0) {
+                lease.remaining = 0;
+            }
+            if (lease.remaining >= permits) {
+                lease.remaining -= permits;
+                return RateLimitDecision.ALLOWED;
+            }
+            return claim(lease, limit, permits, now);
+        } finally {
+            lease.lock.unlock();
+        }
+    }
+
+    /**
+     * Take {@code permits} from every limit, or from none if any of them is short
+     */
+    public RateLimitDecision tryAcquire(List<LimitKey> limits, int permits) {
+        if (limits.isEmpty() || permits <= 0) {
+            throw new IllegalArgumentException("Need at least one limit and a positive number of permits");
+        }
+        int count = limits.size();
+        long[] hashes = new long[count];
+        for (int i = 0; i < count; i++) {
+            LimitKey limit = limits.get(i);
+            if (permits > limit.policy().getCapacity()) {
+                return RateLimitDecision.denied(Long.MAX_VALUE);
+            }
+            hashes[i] = limit.policy().hash(limit.key());
+        }
+
+        // Always locked in hash order, so two requests sharing limits cannot deadlock
+        List<Integer> lockOrder = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            lockOrder.add(i);
+        }
+        lockOrder.sort(Comparator.comparingLong(i -> hashes[i]));
+        Lease[] held = new Lease[count];
+        int locked = 0;
+        try {
+            for (int i : lockOrder) {
+                held[i] = leases.get(hashes[i], hash -> new Lease());
+                held[i].lock.lock();
+                locked++;
+            }
+            return acquireLocked(limits, held, permits, System.nanoTime());
+        } finally {
+            for (int i : lockOrder) {
+                if (locked-- == 0) {
+                    break;
+                }
+                held[i].lock.unlock();
+            }
+        }
+    }
+
+    private RateLimitDecision acquireLocked(List<LimitKey> limits, Lease[] held, int permits, long now) {
+        List<Integer> uncovered = new ArrayList<>();
+        for (int i = 0; i < held.length; i++) {
+            Lease lease = held[i];
+            if (now - lease.deniedUntilNanos < 0) {
+                return RateLimitDecision.denied(lease.deniedUntilNanos - now);
+            }
+            if (now - lease.expiresAtNanos >= 0) {
+                lease.remaining = 0;
+            }
+            if (lease.remaining < permits) {
+                uncovered.add(i);
+            }
+        }
+
+        if (!uncovered.isEmpty()) {
+            List<LimitKey> fromRedis = new ArrayList<>(uncovered.size());
+            for (int i : uncovered) {
+                fromRedis.add(limits.get(i));
+            }
+            RateLimitDecision decision;
+            int[] deniedBy = {-1};
+            try {
+                decision = redisRateLimiter.acquire(fromRedis, permits, index -> deniedBy[0] = index);
+            } catch (RuntimeException e) {
+                log.warn("Rate limit check failed, allowing the request: limits={}, error={}",
+                        fromRedis.size(), e.getMessage());
+                return RateLimitDecision.ALLOWED;
+            }
+            if (!decision.isAllowed()) {
+                if (deniedBy[0] >= 0) {
+                    Lease lease = held[uncovered.get(deniedBy[0])];
+                    lease.deniedUntilNanos = now + Math.min(decision.getRetryAfterNanos(), leaseTtlNanos);
+                }
+                return decision;
+            }
+        }
+
+        // Redis agreed, or was not needed: now the covered limits spend their leases
+        for (int i = 0, next = 0; i < held.length; i++) {
+            if (next < uncovered.size() && uncovered.get(next) == i) {
+                next++;
+            } else {
+                held[i].remaining -= permits;
+            }
+        }
+        return RateLimitDecision.ALLOWED;
+    }
+
+    private RateLimitDecision claim(Lease lease, LimitKey limit, int permits, long now) {
+        int slice = Math.max(permits, sliceSize(limit.policy()));
+        RateLimitDecision decision;
+        try {
+            decision = redisRateLimiter.acquire(limit, slice);
+            if (!decision.isAllowed() && slice > permits) {
+                // Not enough left for a whole slice, the request alone may still fit
+                slice = permits;
+                decision = redisRateLimiter.acquire(limit, slice);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Rate limit check failed, allowing the request: policy={}, error={}",
+                    limit.policy().getName(), e.getMessage());
+            return RateLimitDecision.ALLOWED;
+        }
+
+        if (!decision.isAllowed()) {
+            long retryAfterNanos = Math.min(decision.getRetryAfterNanos(), leaseTtlNanos);
+            lease.deniedUntilNanos = now + retryAfterNanos;
+            return decision;
+        }
+        lease.remaining += slice - permits;
+        lease.expiresAtNanos = now + leaseTtlNanos;
+        return RateLimitDecision.ALLOWED;
+    }
+
+    private int sliceSize(BucketPolicy policy) {
+        return (int) Math.max(1, Math.min(leaseSize, policy.getCapacity() / 4));
+    }
+
+    private static final class Lease {
+        private final ReentrantLock lock = new ReentrantLock();
+        private int remaining;
+        private long expiresAtNanos;
+        private long deniedUntilNanos;
+
+        private Lease() {
+            long now = System.nanoTime();
+            this.expiresAtNanos = now;
+            this.deniedUntilNanos = now;
+        }
+    }
+}
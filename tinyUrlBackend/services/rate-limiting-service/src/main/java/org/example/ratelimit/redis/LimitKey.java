@@ -0,0 +1,9 @@
+package org.example.ratelimit.redis;
+
+import org.example.ratelimit.bucket.BucketPolicy;
+
+/**
+ * One limit a request is checked against, e.g. policy "login-ip" for key "203.0.113.7"
+ */
+public record LimitKey(BucketPolicy policy, String key) {
+}
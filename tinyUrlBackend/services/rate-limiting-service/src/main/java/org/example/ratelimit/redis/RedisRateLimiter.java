@@ -0,0 +1,197 @@
+package org.example.ratelimit.redis;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.ratelimit.RateLimitDecision;
+import org.example.ratelimit.bucket.BucketPolicy;
+import org.redisson.api.BatchOptions;
+import org.redisson.api.RBatch;
+import org.redisson.api.RScript;
+import org.redisson.api.RScriptAsync;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.RedisException;
+import org.redisson.client.codec.StringCodec;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+
+/**
+ * Rate limits shared through Redis, for limits that must hold exactly across nodes.
+ * <p>
+ * Buckets live in Redis in GCRA form (one key per bucket, see ratelimit/gcra.lua) and are checked by one Lua script,
+ * loaded once and called with EVALSHA. A request checked against several limits (per IP, per user, per route) costs
+ * a single round trip and takes its tokens from all of them or from none. {@link #acquireAll} pipelines the checks
+ * of many requests into one round trip as well.
+ * <p>
+ * Where a round trip per request is still too much, put {@link LeasedRateLimiter} in front.
+ */
+@Slf4j
+public class RedisRateLimiter {
+
+    private static final String SCRIPT_RESOURCE = "/ratelimit/gcra.lua";
+
+    private final RedissonClient redissonClient;
+    private final String keyPrefix;
+    private final String script;
+    private volatile String scriptSha;
+
+    public RedisRateLimiter(RedissonClient redissonClient, String keyPrefix) {
+        this.redissonClient = redissonClient;
+        this.keyPrefix = keyPrefix;
+        this.script = readScript();
+    }
+
+    public void start() {
+        loadScript();
+    }
+
+    public RateLimitDecision acquire(LimitKey limit, int permits) {
+        return acquire(List.of(limit), permits);
+    }
+
+    /**
+     * Take {@code permits} from every limit, or from none if any of them is short
+     */
+    public RateLimitDecision acquire(List<LimitKey> limits, int permits) {
+        return acquire(limits, permits, index -> { });
+    }
+
+    /**
+     * {@link #acquire(List, int)} that also tells which limit refused
+     *
+     * @param deniedBy receives the index into {@code limits} of the limit that denied, not called when allowed
+     */
+    RateLimitDecision acquire(List<LimitKey> limits, int permits, IntConsumer deniedBy) {
+        if (denyOversized(limits, permits)) {
+            return RateLimitDecision.denied(Long.MAX_VALUE);
+        }
+        List<Object> keys = keys(limits);
+        Object[] args = args(limits, permits);
+        List<?> result;
+        try {
+            result = evalSha(keys, args);
+        } catch (RedisException e) {
+            if (!isNoScript(e)) {
+                throw e;
+            }
+            // Redis restarted or its script cache was flushed
+            loadScript();
+            result = evalSha(keys, args);
+        }
+        RateLimitDecision decision = decision(result);
+        if (!decision.isAllowed()) {
+            // The script counts limits from 1
+            deniedBy.accept(((Number) result.get(2)).intValue() - 1);
+        }
+        return decision;
+    }
+
+    /**
+     * Check many requests in one pipelined round trip, e.g. everything a gateway has in flight. Each request is
+     * still all or none on its own limits.
+     *
+     * @param requests the limits of each request
+     * @return decisions in the order of {@code requests}
+     */
+    public List<RateLimitDecision> acquireAll(List<List<LimitKey>> requests, int permits) {
+        try {
+            return pipeline(requests, permits);
+        } catch (RedisException e) {
+            if (!isNoScript(e)) {
+                throw e;
+            }
+            // Nothing of a batch is taken when the script is missing, every EVALSHA in it failed the same way
+            loadScript();
+            return pipeline(requests, permits);
+        }
+    }
+
+    private List<RateLimitDecision> pipeline(List<List<LimitKey>> requests, int permits) {
+        RBatch batch = redissonClient.createBatch(BatchOptions.defaults());
+        RScriptAsync batchScript = batch.getScript(StringCodec.INSTANCE);
+        List<Integer> sent = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            List<LimitKey> limits = requests.get(i);
+            if (!denyOversized(limits, permits)) {
+                batchScript.evalShaAsync(RScript.Mode.READ_WRITE, scriptSha, RScript.ReturnType.MULTI,
+                        keys(limits), args(limits, permits));
+                sent.add(i);
+            }
+        }
+
+        List<?> responses = sent.isEmpty() ? List.of() : batch.execute().getResponses();
+        List<RateLimitDecision> decisions = new ArrayList<>(requests.size());
+        for (int i = 0, next = 0; i < requests.size(); i++) {
+            if (next < sent.size() && sent.get(next) == i) {
+                decisions.add(decision((List<?>) responses.get(next++)));
+            } else {
+                decisions.add(RateLimitDecision.denied(Long.MAX_VALUE));
+            }
+        }
+        return decisions;
+    }
+
+    private List<?> evalSha(List<Object> keys, Object[] args) {
+        return redissonClient.getScript(StringCodec.INSTANCE)
+                .evalSha(RScript.Mode.READ_WRITE, scriptSha, RScript.ReturnType.MULTI, keys, args);
+    }
+
+    private void loadScript() {
+        scriptSha = redissonClient.getScript(StringCodec.INSTANCE).scriptLoad(script);
+        log.info("Loaded rate limit script: sha={}", scriptSha);
+    }
+
+    private List<Object> keys(List<LimitKey> limits) {
+        List<Object> keys = new ArrayList<>(limits.size());
+        for (LimitKey limit : limits) {
+            keys.add(keyPrefix + limit.policy().getName() + ":" + limit.key());
+        }
+        return keys;
+    }
+
+    private static Object[] args(List<LimitKey> limits, int permits) {
+        Object[] args = new Object[1 + 2 * limits.size()];
+        args[0] = Integer.toString(permits);
+        for (int i = 0; i < limits.size(); i++) {
+            BucketPolicy policy = limits.get(i).policy();
+            args[1 + 2 * i] = Long.toString(Math.max(1, TimeUnit.NANOSECONDS.toMicros(policy.getIntervalNanos())));
+            args[2 + 2 * i] = Long.toString(TimeUnit.NANOSECONDS.toMicros(policy.getBurstNanos()));
+        }
+        return args;
+    }
+
+    private static boolean denyOversized(List<LimitKey> limits, int permits) {
+        if (limits.isEmpty() || permits <= 0) {
+            throw new IllegalArgumentException("Need at least one limit and a positive number of permits");
+        }
+        // More than a bucket holds, no amount of waiting helps
+        return limits.stream().anyMatch(limit -> permits > limit.policy().getCapacity());
+    }
+
+    private static RateLimitDecision decision(List<?> result) {
+        if (((Number) result.get(0)).longValue() == 1) {
+            return RateLimitDecision.ALLOWED;
+        }
+        return RateLimitDecision.denied(TimeUnit.MICROSECONDS.toNanos(((Number) result.get(1)).longValue()));
+    }
+
+    private static boolean isNoScript(RedisException e) {
+        return e.getMessage() != null && e.getMessage().contains("NOSCRIPT");
+    }
+
+    private static String readScript() {
+        try (InputStream in = RedisRateLimiter.class.getResourceAsStream(SCRIPT_RESOURCE)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing " + SCRIPT_RESOURCE);
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
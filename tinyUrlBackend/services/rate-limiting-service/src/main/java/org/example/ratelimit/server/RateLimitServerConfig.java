@@ -0,0 +1,27 @@
+package org.example.ratelimit.server;
+
+import org.example.ratelimit.RateLimiter;
+import org.example.ratelimit.protocol.RateLimitServer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Binary protocol server of the standalone service, see {@link org.example.ratelimit.RateLimitingServiceMain}
+ */
+@Configuration
+@ConditionalOnProperty(name = "ratelimit.server.enabled", havingValue = "true")
+public class RateLimitServerConfig {
+
+    @Value("${ratelimit.server.port:7070}")
+    private int port;
+
+    @Value("${ratelimit.server.max-connections:256}")
+    private int maxConnections;
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public RateLimitServer rateLimitServer(RateLimiter rateLimiter) {
+        return new RateLimitServer(rateLimiter, port, maxConnections);
+    }
+}
@@ -0,0 +1,148 @@
+package org.example.ratelimit.sync;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.ratelimit.bucket.BucketPolicy;
+import org.example.ratelimit.bucket.TokenBucketTable;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the buckets of several nodes in step. Every {@code intervalMs} the tokens taken locally since the last round
+ * are drained from the {@link TokenBucketTable} and broadcast; every other node charges them to its own copy of the
+ * bucket with {@link TokenBucketTable#applyRemote}. Only deltas travel, so node clocks never have to agree.
+ * <p>
+ * Across N nodes a key can exceed its limit by what the other nodes allow within one interval, then the charges
+ * arrive and every node denies until the bucket refills.
+ * <p>
+ * Message: version (1 byte), sender id (8), entry count (4), then per entry key hash (8), permits (4), interval
+ * nanos (8) and burst nanos (8). The bucket shape travels with the delta so receivers need no policy lookup.
+ */
+@Slf4j
+public class BucketSyncService {
+
+    private static final byte VERSION = 1;
+    private static final int HEADER_BYTES = 1 + 8 + 4;
+    private static final int ENTRY_BYTES = 8 + 4 + 8 + 8;
+    private static final int MAX_ENTRIES = 2048;
+
+    private final TokenBucketTable table;
+    private final BucketSyncTransport transport;
+    private final long intervalMs;
+    // Redis topics echo messages back to the sender
+    private final long nodeId = ThreadLocalRandom.current().nextLong();
+
+    // Confined to the sync thread
+    private final ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + MAX_ENTRIES * ENTRY_BYTES);
+    private final List<byte[]> outgoing = new ArrayList<>();
+    private int entries;
+
+    private ScheduledExecutorService executor;
+
+    public BucketSyncService(TokenBucketTable table, BucketSyncTransport transport, long intervalMs) {
+        if (intervalMs <= 0) {
+            throw new IllegalArgumentException("Sync interval must be positive");
+        }
+        this.table = table;
+        this.transport = transport;
+        this.intervalMs = intervalMs;
+    }
+
+    public void start() {
+        transport.subscribe(this::onMessage);
+        executor = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("rate-limit-sync-"));
+        executor.scheduleWithFixedDelay(this::flush, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+        log.info("Rate limit sync started: interval={} ms", intervalMs);
+    }
+
+    public void stop() {
+        if (executor == null) {
+            return;
+        }
+        transport.unsubscribe();
+        try {
+            // Last round, so tokens taken just before shutdown still count on the other nodes
+            executor.submit(this::flush).get(5, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            log.warn("Failed to send the last rate limit sync: {}", e.getMessage());
+        }
+        executor.shutdownNow();
+    }
+
+    private void flush() {
+        try {
+            startMessage();
+            table.drain(this::append);
+            finishMessage();
+            for (byte[] message : outgoing) {
+                transport.publish(message);
+            }
+        } catch (RuntimeException e) {
+            // Keep the thread alive; the tokens of this round are not charged elsewhere
+            log.warn("Rate limit sync failed: {}", e.getMessage());
+        } finally {
+            outgoing.clear();
+        }
+    }
+
+    private void append(long keyHash, int permits, BucketPolicy policy) {
+        if (entries == MAX_ENTRIES) {
+            finishMessage();
+            startMessage();
+        }
+        buffer.putLong(keyHash)
+                .putInt(permits)
+                .putLong(policy.getIntervalNanos())
+                .putLong(policy.getBurstNanos());
+        entries++;
+    }
+
+    private void startMessage() {
+        buffer.clear();
+        buffer.put(VERSION).putLong(nodeId).putInt(0);
+        entries = 0;
+    }
+
+    private void finishMessage() {
+        if (entries == 0) {
+            return;
+        }
+        buffer.putInt(1 + 8, entries);
+        outgoing.add(Arrays.copyOf(buffer.array(), buffer.position()));
+    }
+
+    private void onMessage(byte[] message) {
+        try {
+            ByteBuffer in = ByteBuffer.wrap(message);
+            byte version = in.get();
+            if (version != VERSION) {
+                log.warn("Ignoring rate limit sync message of version {}", version);
+                return;
+            }
+            if (in.getLong() == nodeId) {
+                return;
+            }
+            int count = in.getInt();
+            long now = System.nanoTime();
+            for (int i = 0; i < count; i++) {
+                long keyHash = in.getLong();
+                int permits = in.getInt();
+                long intervalNanos = in.getLong();
+                long burstNanos = in.getLong();
+                if (permits > 0 && intervalNanos > 0 && burstNanos > 0) {
+                    table.applyRemote(keyHash, permits, intervalNanos, burstNanos, now);
+                }
+            }
+        } catch (BufferUnderflowException e) {
+            log.warn("Ignoring truncated rate limit sync message: {} bytes", message.length);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package org.example.ratelimit.sync;
+
+import java.util.function.Consumer;
+
+/**
+ * Broadcast channel between the nodes sharing rate limits. Delivery is best effort: a lost message only means the
+ * other nodes allow a few more requests than the limit for one sync interval.
+ */
+public interface BucketSyncTransport {
+
+    /**
+     * Send to every node, possibly including this one. Must not block.
+     */
+    void publish(byte[] message);
+
+    void subscribe(Consumer<byte[]> listener);
+
+    void unsubscribe();
+}
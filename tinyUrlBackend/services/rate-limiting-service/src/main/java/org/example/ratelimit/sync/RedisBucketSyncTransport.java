@@ -0,0 +1,43 @@
+package org.example.ratelimit.sync;
+
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.ByteArrayCodec;
+
+import java.util.function.Consumer;
+
+/**
+ * {@link BucketSyncTransport} over a Redis pub/sub topic, messages as raw bytes
+ */
+@Slf4j
+public class RedisBucketSyncTransport implements BucketSyncTransport {
+
+    private final RTopic topic;
+    private int listenerId = -1;
+
+    public RedisBucketSyncTransport(RedissonClient redissonClient, String topicName) {
+        this.topic = redissonClient.getTopic(topicName, ByteArrayCodec.INSTANCE);
+    }
+
+    @Override
+    public void publish(byte[] message) {
+        topic.publishAsync(message).exceptionally(e -> {
+            log.warn("Failed to publish rate limit sync message: {}", e.getMessage());
+            return null;
+        });
+    }
+
+    @Override
+    public void subscribe(Consumer<byte[]> listener) {
+        listenerId = topic.addListener(byte[].class, (channel, message) -> listener.accept(message));
+    }
+
+    @Override
+    public void unsubscribe() {
+        if (listenerId != -1) {
+            topic.removeListener(listenerId);
+            listenerId = -1;
+        }
+    }
+}
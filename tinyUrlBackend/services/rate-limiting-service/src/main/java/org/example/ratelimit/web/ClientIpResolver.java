@@ -0,0 +1,156 @@
+package org.example.ratelimit.web;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Client IP of a request. Proxy headers are only believed when they come from a trusted proxy:
+ * <ul>
+ *     <li>peer not a trusted proxy: the peer address, whatever headers it sent</li>
+ *     <li>X-Forwarded-For: read from the right, where each proxy appended the address it saw, the first hop that
+ *     is not a trusted proxy is the client; anything left of it was written by the client and may be forged</li>
+ *     <li>no X-Forwarded-For: X-Real-IP if the proxy set one</li>
+ *     <li>otherwise, or when every hop is a trusted proxy: the peer address</li>
+ * </ul>
+ * Trusted proxies are addresses or CIDR ranges, see {@code ratelimit.web.trusted-proxies}.
+ */
+public class ClientIpResolver {
+
+    private final List<Range> trustedProxies;
+
+    public ClientIpResolver(List<String> trustedProxies) {
+        this.trustedProxies = trustedProxies.stream().map(Range::parse).toList();
+    }
+
+    public String resolve(HttpServletRequest request) {
+        return resolve(request.getRemoteAddr(), Collections.list(request.getHeaders("X-Forwarded-For")),
+                request.getHeader("X-Real-IP"));
+    }
+
+    /**
+     * @param forwardedFor X-Forwarded-For header lines in arrival order
+     */
+    String resolve(String remoteAddr, List<String> forwardedFor, String realIp) {
+        if (!isTrusted(remoteAddr)) {
+            return remoteAddr;
+        }
+        for (int i = forwardedFor.size() - 1; i >= 0; i--) {
+            String[] hops = forwardedFor.get(i).split(",");
+            for (int j = hops.length - 1; j >= 0; j--) {
+                String hop = hops[j].trim();
+                if (!hop.isEmpty() && !isTrusted(hop)) {
+                    return hop;
+                }
+            }
+        }
+        if (forwardedFor.isEmpty() && realIp != null && !realIp.isBlank()) {
+            return realIp.trim();
+        }
+        return remoteAddr;
+    }
+
+    private boolean isTrusted(String address) {
+        byte[] bytes = parseAddress(address);
+        if (bytes == null) {
+            return false;
+        }
+        for (Range range : trustedProxies) {
+            if (range.contains(bytes)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * IP literal to bytes, null for anything else. Never resolves a host name: header values come from clients.
+     */
+    private static byte[] parseAddress(String text) {
+        if (text == null || text.isEmpty()) {
+            return null;
+        }
+        if (text.indexOf(':') >= 0) {
+            // InetAddress only parses literals that start like this, anything else would be looked up in DNS
+            char first = text.charAt(0);
+            if (first != ':' && Character.digit(first, 16) < 0) {
+                return null;
+            }
+            try {
+                return InetAddress.getByName(text).getAddress();
+            } catch (UnknownHostException e) {
+                return null;
+            }
+        }
+
+        String[] parts = text.split("\\.", -1);
+        if (parts.length != 4) {
+            return null;
+        }
+        byte[] bytes = new byte[4];
+        for (int i = 0; i < 4; i++) {
+            String part = parts[i];
+            if (part.isEmpty() || part.length() > 3) {
+                return null;
+            }
+            int value = 0;
+            for (int j = 0; j < part.length(); j++) {
+                int digit = Character.digit(part.charAt(j), 10);
+                if (digit < 0) {
+                    return null;
+                }
+                value = value * 10 + digit;
+            }
+            if (value > 255) {
+                return null;
+            }
+            bytes[i] = (byte) value;
+        }
+        return bytes;
+    }
+
+    private record Range(byte[] address, int prefixBits) {
+
+        static Range parse(String cidr) {
+            int slash = cidr.indexOf('/');
+            String addressPart = (slash < 0 ? cidr : cidr.substring(0, slash)).trim();
+            byte[] address = parseAddress(addressPart);
+            if (address == null) {
+                throw new IllegalArgumentException("Trusted proxy is not an IP address or CIDR range: " + cidr);
+            }
+            int prefixBits = address.length * 8;
+            if (slash >= 0) {
+                try {
+                    prefixBits = Integer.parseInt(cidr.substring(slash + 1).trim());
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Invalid prefix length in trusted proxy: " + cidr);
+                }
+                if (prefixBits < 0 || prefixBits > address.length * 8) {
+                    throw new IllegalArgumentException("Invalid prefix length in trusted proxy: " + cidr);
+                }
+            }
+            return new Range(address, prefixBits);
+        }
+
+        boolean contains(byte[] other) {
+            if (other.length != address.length) {
+                return false;
+            }
+            int fullBytes = prefixBits / 8;
+            for (int i = 0; i < fullBytes; i++) {
+                if (other[i] != address[i]) {
+                    return false;
+                }
+            }
+            int remainingBits = prefixBits % 8;
+            if (remainingBits == 0) {
+                return true;
+            }
+            int mask = 0xFF << (8 - remainingBits);
+            return (other[fullBytes] & mask) == (address[fullBytes] & mask);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package org.example.ratelimit.web;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Repeatable;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Rate limit a controller method (or every method of a controller) with the named {@code ratelimit.policies.*}
+ * policy. Repeat it to apply several limits, e.g. per client IP and per short code; the request is refused with
+ * 429 and Retry-After as soon as one of them is exhausted.
+ */
+@Documented
+@Repeatable(RateLimits.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface RateLimit {
+
+    String policy();
+
+    Key key() default Key.IP;
+
+    /**
+     * Path variable or header name, for {@link Key#PATH_VARIABLE} and {@link Key#HEADER}
+     */
+    String name() default "";
+
+    int permits() default 1;
+
+    enum Key {
+        // Client IP, resolved by ClientIpResolver
+        IP,
+        // Authenticated user, the client IP for anonymous requests
+        USER,
+        PATH_VARIABLE,
+        HEADER
+    }
+}
@@ -0,0 +1,121 @@
+package org.example.ratelimit.web;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.example.ratelimit.RateLimitDecision;
+import org.example.ratelimit.RateLimiter;
+import org.example.ratelimit.bucket.BucketPolicy;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.security.Principal;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Enforces {@link RateLimit} on controller methods against the in-process {@link RateLimiter}, so a check is a map
+ * lookup and a bucket update, with no network call; other nodes learn of the tokens taken through the bucket sync.
+ * <p>
+ * A refused request gets 429 with Retry-After in seconds and the services' usual error body.
+ */
+@Slf4j
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+    private static final Limit[] NONE = new Limit[0];
+    private static final long MAX_RETRY_AFTER_SECONDS = 86400;
+
+    private final RateLimiter rateLimiter;
+    private final ClientIpResolver clientIpResolver;
+    private final Map<Method, Limit[]> limitsByMethod = new ConcurrentHashMap<>();
+
+    public RateLimitInterceptor(RateLimiter rateLimiter, ClientIpResolver clientIpResolver) {
+        this.rateLimiter = rateLimiter;
+        this.clientIpResolver = clientIpResolver;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws IOException {
+        if (!(handler instanceof HandlerMethod handlerMethod)) {
+            return true;
+        }
+        for (Limit limit : limitsOf(handlerMethod)) {
+            RateLimitDecision decision = rateLimiter.tryAcquire(limit.policy(), resolveKey(limit, request), limit.permits());
+            if (!decision.isAllowed()) {
+                reject(response, limit, decision);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Limits of a handler method, resolved once
+     *
+     * @throws IllegalStateException if an annotation names a policy that is not configured
+     */
+    public Limit[] limitsOf(HandlerMethod handlerMethod) {
+        return limitsByMethod.computeIfAbsent(handlerMethod.getMethod(), method -> {
+            Set<RateLimit> annotations = AnnotatedElementUtils.findMergedRepeatableAnnotations(method, RateLimit.class);
+            if (annotations.isEmpty()) {
+                annotations = AnnotatedElementUtils.findMergedRepeatableAnnotations(handlerMethod.getBeanType(), RateLimit.class);
+            }
+            if (annotations.isEmpty()) {
+                return NONE;
+            }
+            return annotations.stream().map(annotation -> {
+                BucketPolicy policy = rateLimiter.findPolicy(annotation.policy());
+                if (policy == null) {
+                    throw new IllegalStateException("@RateLimit on " + method + " names unknown policy '"
+                            + annotation.policy() + "', configure ratelimit.policies." + annotation.policy() + ".*");
+                }
+                return new Limit(policy, annotation.key(), annotation.name(), annotation.permits());
+            }).toArray(Limit[]::new);
+        });
+    }
+
+    private String resolveKey(Limit limit, HttpServletRequest request) {
+        switch (limit.key()) {
+            case USER: {
+                Principal principal = request.getUserPrincipal();
+                return principal != null ? "user:" + principal.getName() : clientIpResolver.resolve(request);
+            }
+            case PATH_VARIABLE: {
+                @SuppressWarnings("unchecked")
+                Map<String, String> variables = (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+                String value = variables != null ? variables.get(limit.name()) : null;
+                return value != null ? value : "";
+            }
+            case HEADER: {
+                String value = request.getHeader(limit.name());
+                return value != null ? value : "";
+            }
+            default:
+                return clientIpResolver.resolve(request);
+        }
+    }
+
+    private static void reject(HttpServletResponse response, Limit limit, RateLimitDecision decision) throws IOException {
+        long retryAfterSeconds = Math.min(decision.getRetryAfterSeconds(), MAX_RETRY_AFTER_SECONDS);
+        log.debug("Rate limited: policy={}, retryAfter={} s", limit.policy().getName(), retryAfterSeconds);
+
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getWriter().write("{\"success\":false,\"message\":\"Too many requests, retry after " + retryAfterSeconds
+                + " seconds\",\"errorCode\":\"RATE_LIMITED\",\"data\":null}");
+    }
+
+    public record Limit(BucketPolicy policy, RateLimit.Key key, String name, int permits) {
+    }
+}
@@ -0,0 +1,42 @@
+-- Take ARGV[1] tokens from every bucket in KEYS, all or none (GCRA).
+-- KEYS[i]   bucket of limit i, holding its theoretical arrival time in microseconds
+-- ARGV[1]   permits
+-- ARGV[2i]  interval of limit i: microseconds one token takes to refill
+-- ARGV[2i+1] burst of limit i: microseconds an empty bucket takes to refill
+-- Returns {1, 0, 0} when taken, otherwise {0, microseconds to wait, index of the limit that denied}.
+-- The clock is the Redis server's, so the nodes calling this never have to agree on time.
+redis.replicate_commands()
+
+local time = redis.call('TIME')
+local now = tonumber(time[1]) * 1000000 + tonumber(time[2])
+local permits = tonumber(ARGV[1])
+
+local tats = {}
+local wait = 0
+local denied = 0
+for i = 1, #KEYS do
+    local interval = tonumber(ARGV[2 * i])
+    local burst = tonumber(ARGV[2 * i + 1])
+    local tat = tonumber(redis.call('GET', KEYS[i])) or now
+    if tat < now then
+        tat = now
+    end
+    local new_tat = tat + permits * interval
+    local over = new_tat - now - burst
+    if over > wait then
+        wait = over
+        denied = i
+    end
+    tats[i] = new_tat
+end
+
+if denied > 0 then
+    return {0, wait, denied}
+end
+
+for i = 1, #KEYS do
+    -- The key lives until the bucket is full again, a missing key is a full bucket
+    local ttl = math.ceil((tats[i] - now) / 1000) + 1
+    redis.call('SET', KEYS[i], string.format('%.0f', tats[i]), 'PX', ttl)
+end
+return {1, 0, 0}
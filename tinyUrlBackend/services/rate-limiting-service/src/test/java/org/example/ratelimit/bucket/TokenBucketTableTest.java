@@ -0,0 +1,142 @@
+package org.example.ratelimit.bucket;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenBucketTableTest {
+
+    private static final long MS = 1_000_000L;
+    // nanoTime can be negative, the arithmetic must not care
+    private static final long T0 = -5_000 * MS;
+
+    // 5 tokens, one every 100 ms, empty to full in 500 ms
+    private final BucketPolicy policy = new BucketPolicy("test", 5, 10);
+
+    @Test
+    void newBucketAllowsCapacityThenReportsTheWaitForTheNextToken() {
+        TokenBucketTable table = new TokenBucketTable(4, 64);
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, table.tryAcquire(1, 1, policy, T0));
+        }
+        assertEquals(100 * MS, table.tryAcquire(1, 1, policy, T0));
+        assertEquals(60 * MS, table.tryAcquire(1, 1, policy, T0 + 40 * MS));
+        assertEquals(0, table.tryAcquire(1, 1, policy, T0 + 100 * MS));
+        assertEquals(100 * MS, table.tryAcquire(1, 1, policy, T0 + 100 * MS));
+    }
+
+    @Test
+    void multiplePermitsAreTakenAllOrNothing() {
+        TokenBucketTable table = new TokenBucketTable(4, 64);
+        assertEquals(0, table.tryAcquire(1, 3, policy, T0));
+        // 2 tokens left, 3 more need one extra interval
+        assertEquals(100 * MS, table.tryAcquire(1, 3, policy, T0));
+        assertEquals(0, table.tryAcquire(1, 2, policy, T0));
+        // More than the capacity is never available
+        assertTrue(table.tryAcquire(2, 6, policy, T0) > 0);
+    }
+
+    @Test
+    void refillIsCappedAtCapacity() {
+        TokenBucketTable table = new TokenBucketTable(4, 64);
+        assertEquals(0, table.tryAcquire(1, 5, policy, T0));
+        long later = T0 + 60_000 * MS;
+        assertEquals(0, table.tryAcquire(1, 5, policy, later));
+        assertEquals(100 * MS, table.tryAcquire(1, 1, policy, later));
+    }
+
+    @Test
+    void keysHaveIndependentBuckets() {
+        TokenBucketTable table = new TokenBucketTable(4, 64);
+        long alice = policy.hash("alice");
+        long bob = policy.hash("bob");
+        assertEquals(0, table.tryAcquire(alice, 5, policy, T0));
+        assertTrue(table.tryAcquire(alice, 1, policy, T0) > 0);
+        assertEquals(0, table.tryAcquire(bob, 5, policy, T0));
+    }
+
+    @Test
+    void remoteChargesEmptyTheBucketButNeverPushItIntoDebt() {
+        TokenBucketTable table = new TokenBucketTable(4, 64);
+        table.applyRemote(1, 2, policy.getIntervalNanos(), policy.getBurstNanos(), T0);
+        assertEquals(0, table.tryAcquire(1, 3, policy, T0));
+        assertEquals(100 * MS, table.tryAcquire(1, 1, policy, T0));
+
+        table.applyRemote(2, 1_000, policy.getIntervalNanos(), policy.getBurstNanos(), T0);
+        assertEquals(100 * MS, table.tryAcquire(2, 1, policy, T0));
+        assertEquals(0, table.tryAcquire(2, 1, policy, T0 + 100 * MS));
+    }
+
+    @Test
+    void drainReportsLocalTakesOnceAndIgnoresRemoteCharges() {
+        TokenBucketTable table = new TokenBucketTable(4, 64);
+        table.tryAcquire(1, 2, policy, T0);
+        table.tryAcquire(1, 1, policy, T0);
+        table.tryAcquire(2, 4, policy, T0);
+        table.tryAcquire(2, 4, policy, T0); // refused, not counted
+        table.applyRemote(3, 2, policy.getIntervalNanos(), policy.getBurstNanos(), T0);
+
+        Map<Long, Integer> drained = new HashMap<>();
+        table.drain((keyHash, permits, bucketPolicy) -> drained.merge(keyHash, permits, Integer::sum));
+        assertEquals(Map.of(1L, 3, 2L, 4), drained);
+
+        drained.clear();
+        table.drain((keyHash, permits, bucketPolicy) -> drained.merge(keyHash, permits, Integer::sum));
+        assertTrue(drained.isEmpty());
+    }
+
+    @Test
+    void evictedDrainedBucketDoesNotComeBackFull() {
+        // One stripe of 8 slots, every key shares the probe window
+        TokenBucketTable table = new TokenBucketTable(1, 8);
+        for (long key = 1; key <= 8; key++) {
+            assertEquals(0, table.tryAcquire(key, 5, policy, T0));
+        }
+
+        // A flood of fresh keys evicts the drained buckets but inherits their state
+        for (long key = 100; key < 200; key++) {
+            assertTrue(table.tryAcquire(key, 1, policy, T0 + 10 * MS) > 0, "fresh key " + key + " got a full bucket");
+        }
+        // The drained keys, evicted by now, return no fuller than they left
+        for (long key = 1; key <= 8; key++) {
+            assertTrue(table.tryAcquire(key, 1, policy, T0 + 20 * MS) > 0, "evicted key " + key + " came back full");
+        }
+        // Once the inherited state has refilled, everyone gets tokens again
+        assertEquals(0, table.tryAcquire(1, 1, policy, T0 + 500 * MS));
+    }
+
+    @Test
+    void evictionReplacesFullBucketsFirst() {
+        TokenBucketTable table = new TokenBucketTable(1, 8);
+        for (long key = 1; key <= 7; key++) {
+            assertEquals(0, table.tryAcquire(key, 5, policy, T0));
+        }
+        // Key 8 takes one token and is full again long before the others
+        assertEquals(0, table.tryAcquire(8, 1, policy, T0));
+
+        long now = T0 + 100 * MS;
+        assertEquals(0, table.tryAcquire(9, 5, policy, now), "the full bucket should have been replaced");
+        // One token refilled since, two are still unavailable
+        for (long key = 1; key <= 7; key++) {
+            assertTrue(table.tryAcquire(key, 2, policy, now) > 0, "drained key " + key + " was evicted");
+        }
+    }
+
+    @Test
+    void inheritedStateIsCappedAtAnEmptyBucketOfTheNewPolicy() {
+        TokenBucketTable table = new TokenBucketTable(1, 8);
+        // 60 s to refill
+        BucketPolicy slow = new BucketPolicy("slow", 60, 1);
+        for (long key = 1; key <= 8; key++) {
+            assertEquals(0, table.tryAcquire(key, 60, slow, T0));
+        }
+
+        // Replaces a bucket 60 s from full, but waits at most one interval of its own policy
+        assertEquals(100 * MS, table.tryAcquire(100, 1, policy, T0));
+        assertEquals(0, table.tryAcquire(100, 1, policy, T0 + 100 * MS));
+    }
+}
@@ -0,0 +1,63 @@
+package org.example.ratelimit.web;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ClientIpResolverTest {
+
+    private final ClientIpResolver resolver = new ClientIpResolver(List.of("10.0.0.0/8", "192.168.1.7", "::1"));
+
+    @Test
+    void untrustedPeerIsTheClientWhateverItClaims() {
+        assertEquals("203.0.113.9", resolver.resolve("203.0.113.9", List.of("1.2.3.4"), "5.6.7.8"));
+        assertEquals("203.0.113.9", resolver.resolve("203.0.113.9", List.of(), null));
+    }
+
+    @Test
+    void forwardedForIsReadFromTheRightSkippingTrustedProxies() {
+        // The client prepended a forged hop, the ingress appended the real peer
+        assertEquals("198.51.100.4",
+                resolver.resolve("10.1.2.3", List.of("6.6.6.6, 198.51.100.4, 10.9.9.9"), null));
+        assertEquals("198.51.100.4", resolver.resolve("::1", List.of("198.51.100.4,192.168.1.7"), null));
+        // Several header lines are one list in arrival order
+        assertEquals("198.51.100.4", resolver.resolve("10.1.2.3", List.of("6.6.6.6", "198.51.100.4, 10.0.0.1"), null));
+    }
+
+    @Test
+    void peerAddressWhenEveryHopIsTrusted() {
+        assertEquals("10.1.2.3", resolver.resolve("10.1.2.3", List.of("10.0.0.1, 192.168.1.7"), "5.6.7.8"));
+    }
+
+    @Test
+    void realIpOnlyFromATrustedPeerWithoutForwardedFor() {
+        assertEquals("5.6.7.8", resolver.resolve("10.1.2.3", List.of(), " 5.6.7.8 "));
+        assertEquals("10.1.2.3", resolver.resolve("10.1.2.3", List.of(), null));
+    }
+
+    @Test
+    void rangesMatchOnThePrefixOnly() {
+        ClientIpResolver slash20 = new ClientIpResolver(List.of("172.16.16.0/20"));
+        assertEquals("1.1.1.1", slash20.resolve("172.16.31.255", List.of("1.1.1.1"), null));
+        assertEquals("172.16.32.0", slash20.resolve("172.16.32.0", List.of("1.1.1.1"), null));
+        // 192.168.1.70 is not the single trusted address 192.168.1.7
+        assertEquals("192.168.1.70", resolver.resolve("192.168.1.70", List.of("1.1.1.1"), null));
+    }
+
+    @Test
+    void malformedHopsAreNeverTrusted() {
+        assertEquals("unknown", resolver.resolve("10.1.2.3", List.of("1.1.1.1, unknown"), null));
+        assertEquals("10.0.0.256", resolver.resolve("10.1.2.3", List.of("10.0.0.256"), null));
+        assertEquals("proxy.internal", resolver.resolve("10.1.2.3", List.of("proxy.internal"), null));
+    }
+
+    @Test
+    void rejectsInvalidTrustedProxies() {
+        assertThrows(IllegalArgumentException.class, () -> new ClientIpResolver(List.of("localhost")));
+        assertThrows(IllegalArgumentException.class, () -> new ClientIpResolver(List.of("10.0.0.0/33")));
+        assertThrows(IllegalArgumentException.class, () -> new ClientIpResolver(List.of("10.0.0.0/x")));
+    }
+}
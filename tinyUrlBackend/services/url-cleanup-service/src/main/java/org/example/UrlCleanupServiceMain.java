@@ -0,0 +1,13 @@
+package org.example;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@SpringBootApplication
+@EnableScheduling
+public class UrlCleanupServiceMain {
+    public static void main(String[] args) {
+        SpringApplication.run(UrlCleanupServiceMain.class, args);
+    }
+}
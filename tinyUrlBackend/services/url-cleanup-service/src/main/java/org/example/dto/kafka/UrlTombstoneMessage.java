@@ -0,0 +1,21 @@
+package org.example.dto.kafka;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Published to url.tombstones for every purged batch, see kafka-schemas/url-tombstone.json.
+ * Ids rather than short codes: the code format is url-service configuration.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UrlTombstoneMessage {
+    private List<Long> urlIds;
+    private long purgedAt; // epoch millis
+}
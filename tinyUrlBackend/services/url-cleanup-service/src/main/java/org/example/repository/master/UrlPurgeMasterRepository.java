@@ -0,0 +1,95 @@
+package org.example.repository.master;
+
+import org.example.service.data.UrlArchiveRecord;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Locks, reads and deletes purgeable urls rows and their service_references on the master.
+ * Must run inside a masterTransactionManager transaction, the row locks are what keeps the archived copy
+ * identical to the deleted row.
+ */
+@Repository
+public class UrlPurgeMasterRepository {
+
+    /**
+     * Rows eligible for purging: expired, or disabled, for longer than the retention window ending at :cutoff
+     */
+    public static final String PURGEABLE_CONDITION =
+            "((status = 'EXPIRED' AND expires_at < :cutoff) OR (status = 'DISABLED' AND updated_at < :cutoff))";
+
+    // service_references.local_table holds the ServiceReference.LocalTable name of url-service
+    private static final String URLS_LOCAL_TABLE = "Urls";
+
+    private static final String LOCK_SQL =
+            "SELECT id, original_url, original_url_hash, title, password_hash, status, created_at, updated_at, expires_at "
+                    + "FROM urls WHERE id IN (:ids) AND " + PURGEABLE_CONDITION + " ORDER BY id FOR UPDATE";
+    private static final String REFERENCES_SQL =
+            "SELECT local_id, target_id, target_table FROM service_references "
+                    + "WHERE local_table = :localTable AND local_id IN (:ids)";
+    private static final String DELETE_REFERENCES_SQL =
+            "DELETE FROM service_references WHERE local_table = :localTable AND local_id IN (:ids)";
+    private static final String DELETE_URLS_SQL = "DELETE FROM urls WHERE id IN (:ids)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public UrlPurgeMasterRepository(@Qualifier("masterJdbcTemplate") JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
+    /**
+     * Lock the rows among {@code ids} that are still purgeable and read them with their references, by id.
+     * Candidates come from the slave, so rows changed or deleted since are skipped here.
+     */
+    public List<UrlArchiveRecord> lockPurgeable(Collection<Long> ids, LocalDateTime cutoff) {
+        MapSqlParameterSource params = new MapSqlParameterSource("ids", ids).addValue("cutoff", cutoff);
+        List<UrlArchiveRecord> records = jdbcTemplate.query(LOCK_SQL, params, (rs, rowNum) -> {
+            byte[] hash = rs.getBytes("original_url_hash");
+            return UrlArchiveRecord.builder()
+                    .id(rs.getLong("id"))
+                    .originalUrl(rs.getString("original_url"))
+                    .originalUrlHash(hash != null ? HexFormat.of().formatHex(hash) : null)
+                    .title(rs.getString("title"))
+                    .passwordHash(rs.getString("password_hash"))
+                    .status(rs.getString("status"))
+                    .createdAt(rs.getObject("created_at", LocalDateTime.class))
+                    .updatedAt(rs.getObject("updated_at", LocalDateTime.class))
+                    .expiresAt(rs.getObject("expires_at", LocalDateTime.class))
+                    .build();
+        });
+        if (records.isEmpty()) {
+            return records;
+        }
+
+        Map<Long, UrlArchiveRecord> byId = records.stream()
+                .collect(Collectors.toMap(UrlArchiveRecord::getId, Function.identity()));
+        MapSqlParameterSource referenceParams = new MapSqlParameterSource("ids", byId.keySet())
+                .addValue("localTable", URLS_LOCAL_TABLE);
+        jdbcTemplate.query(REFERENCES_SQL, referenceParams, rs -> {
+            byId.get(rs.getLong("local_id")).getReferences()
+                    .add(new UrlArchiveRecord.Reference(rs.getLong("target_id"), rs.getString("target_table")));
+        });
+        return records;
+    }
+
+    /**
+     * Delete locked rows and their references
+     *
+     * @return number of urls rows deleted
+     */
+    public int delete(Collection<Long> ids) {
+        jdbcTemplate.update(DELETE_REFERENCES_SQL, new MapSqlParameterSource("ids", ids).addValue("localTable", URLS_LOCAL_TABLE));
+        return jdbcTemplate.update(DELETE_URLS_SQL, new MapSqlParameterSource("ids", ids));
+    }
+}
@@ -0,0 +1,62 @@
+package org.example.repository.slave;
+
+import org.example.repository.master.UrlPurgeMasterRepository;
+import org.example.service.data.ReplicaStatus;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Candidate scan and replication state on the slave, so the search for purgeable rows stays off the master
+ */
+@Repository
+public class UrlPurgeSlaveRepository {
+
+    // Keyset pagination on the primary key: every page is a range scan that starts where the last one stopped
+    private static final String CANDIDATES_SQL =
+            "SELECT id FROM urls WHERE id > :afterId AND " + UrlPurgeMasterRepository.PURGEABLE_CONDITION
+                    + " ORDER BY id LIMIT :limit";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    public UrlPurgeSlaveRepository(@Qualifier("slaveJdbcTemplate") JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
+    public List<Long> findPurgeCandidateIds(long afterId, LocalDateTime cutoff, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource("afterId", afterId)
+                .addValue("cutoff", cutoff)
+                .addValue("limit", limit);
+        return namedJdbcTemplate.queryForList(CANDIDATES_SQL, params, Long.class);
+    }
+
+    /**
+     * SHOW REPLICA STATUS on MySQL 8.0.22+, SHOW SLAVE STATUS before that
+     */
+    public ReplicaStatus findReplicaStatus() {
+        try {
+            return jdbcTemplate.query("SHOW REPLICA STATUS", replicaStatus("Seconds_Behind_Source"));
+        } catch (BadSqlGrammarException e) {
+            return jdbcTemplate.query("SHOW SLAVE STATUS", replicaStatus("Seconds_Behind_Master"));
+        }
+    }
+
+    private static ResultSetExtractor<ReplicaStatus> replicaStatus(String lagColumn) {
+        return rs -> {
+            if (!rs.next()) {
+                return new ReplicaStatus(false, null);
+            }
+            long lag = rs.getLong(lagColumn);
+            return new ReplicaStatus(true, rs.wasNull() ? null : lag);
+        };
+    }
+}
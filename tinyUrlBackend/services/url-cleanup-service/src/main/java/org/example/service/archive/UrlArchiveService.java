@@ -0,0 +1,50 @@
+package org.example.service.archive;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Opens archive writers in {@code url.cleanup.archive.dir}, one set of files per purge run
+ */
+@Service
+public class UrlArchiveService {
+
+    private static final DateTimeFormatter RUN_ID_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'");
+
+    private final ObjectMapper objectMapper;
+    private final Path archiveDir;
+    private final int zstdLevel;
+    private final long maxRowsPerFile;
+
+    public UrlArchiveService(ObjectMapper objectMapper,
+                             @Value("${url.cleanup.archive.dir:./archive}") String archiveDir,
+                             @Value("${url.cleanup.archive.zstd-level:6}") int zstdLevel,
+                             @Value("${url.cleanup.archive.max-rows-per-file:1000000}") long maxRowsPerFile) {
+        if (maxRowsPerFile <= 0) {
+            throw new IllegalStateException("url.cleanup.archive.max-rows-per-file must be positive");
+        }
+        this.objectMapper = objectMapper;
+        this.archiveDir = Paths.get(archiveDir);
+        this.zstdLevel = zstdLevel;
+        this.maxRowsPerFile = maxRowsPerFile;
+    }
+
+    public Path getArchiveDir() {
+        return archiveDir;
+    }
+
+    public UrlArchiveWriter open() throws IOException {
+        Files.createDirectories(archiveDir);
+        String runId = ZonedDateTime.now(ZoneOffset.UTC).format(RUN_ID_FORMAT);
+        return new UrlArchiveWriter(objectMapper, archiveDir, "urls-" + runId, zstdLevel, maxRowsPerFile);
+    }
+}
@@ -0,0 +1,10 @@
+package org.example.service.data;
+
+/**
+ * Replication state of the slave.
+ *
+ * @param replica        false when the slave database is not configured as a replica
+ * @param secondsBehind  replication lag, null while replication is stopped or broken
+ */
+public record ReplicaStatus(boolean replica, Long secondsBehind) {
+}
@@ -0,0 +1,42 @@
+package org.example.service.data;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One line of an archive file: a urls row as it was when purged, with its service_references rows
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class UrlArchiveRecord {
+    private Long id;
+    private String originalUrl;
+    private String originalUrlHash; // hex
+    private String title;
+    private String passwordHash;
+    private String status;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private LocalDateTime expiresAt;
+
+    @Builder.Default
+    private List<Reference> references = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Reference {
+        private Long targetId;
+        private String targetTable;
+    }
+}
@@ -0,0 +1,65 @@
+package org.example.service.purge;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.repository.slave.UrlPurgeSlaveRepository;
+import org.example.service.data.ReplicaStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Holds the purge back while the slave lags. Deletes are binlog heavy, and the redirect path reads from the slave,
+ * so the purge only moves on while replication keeps up.
+ */
+@Slf4j
+@Component
+public class ReplicaLagGuard {
+
+    @Autowired
+    private UrlPurgeSlaveRepository urlPurgeSlaveRepository;
+
+    @Value("${url.cleanup.replica-lag.max-seconds:5}")
+    private long maxLagSeconds;
+
+    @Value("${url.cleanup.replica-lag.check-interval-ms:1000}")
+    private long checkIntervalMs;
+
+    @Value("${url.cleanup.replica-lag.max-wait-seconds:600}")
+    private long maxWaitSeconds;
+
+    private volatile boolean notReplicaLogged;
+
+    /**
+     * Wait until the slave is at most max-seconds behind
+     *
+     * @return false if it did not catch up within max-wait-seconds or the wait was interrupted
+     */
+    public boolean awaitCaughtUp() {
+        long deadline = System.nanoTime() + maxWaitSeconds * 1_000_000_000L;
+        while (true) {
+            ReplicaStatus status = urlPurgeSlaveRepository.findReplicaStatus();
+            if (!status.replica()) {
+                if (!notReplicaLogged) {
+                    log.warn("Slave database is not a replica, purging without the replica lag guard");
+                    notReplicaLogged = true;
+                }
+                return true;
+            }
+            if (status.secondsBehind() != null && status.secondsBehind() <= maxLagSeconds) {
+                return true;
+            }
+
+            if (System.nanoTime() >= deadline) {
+                log.warn("Replica still behind after {} s: secondsBehind={}", maxWaitSeconds, status.secondsBehind());
+                return false;
+            }
+            log.debug("Waiting for replica: secondsBehind={}, max={}", status.secondsBehind(), maxLagSeconds);
+            try {
+                Thread.sleep(checkIntervalMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package org.example.service.purge;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UrlPurgeSchedulerService {
+
+    private final UrlPurgeService urlPurgeService;
+
+    @Value("${url.cleanup.run-on-startup:false}")
+    private boolean runOnStartup;
+
+    /**
+     * Daily purge, off-peak by default (url.cleanup.cron, UTC)
+     */
+    @Scheduled(cron = "${url.cleanup.cron:0 30 3 * * *}", zone = "UTC")
+    public void schedulePurge() {
+        runPurge();
+    }
+
+    /**
+     * Optional run right after startup, e.g. for a one-off purge job
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (runOnStartup) {
+            runPurge();
+        }
+    }
+
+    private void runPurge() {
+        try {
+            long purged = urlPurgeService.purge();
+            log.info("Scheduled URL purge completed, {} URLs purged", purged);
+        } catch (Exception e) {
+            // Not re-thrown, that would stop the scheduler; the next run resumes from the checkpoint
+            log.error("Error occurred during scheduled URL purge", e);
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package org.example.service.purge;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.repository.master.UrlPurgeMasterRepository;
+import org.example.repository.slave.UrlPurgeSlaveRepository;
+import org.example.service.archive.UrlArchiveService;
+import org.example.service.archive.UrlArchiveWriter;
+import org.example.service.data.UrlArchiveRecord;
+import org.example.service.tombstone.UrlTombstonePublisher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Purges URLs that have been expired or disabled for longer than {@code url.cleanup.retention-days}.
+ * <p>
+ * Candidates are found on the slave in primary key order with keyset pagination. Each batch is then, in one short
+ * master transaction:
+ * <ol>
+ *     <li>locked and re-read, skipping rows that stopped being purgeable since the slave saw them,</li>
+ *     <li>appended to the archive (zstd NDJSON) and forced to disk,</li>
+ *     <li>deleted together with its service_references rows.</li>
+ * </ol>
+ * After the commit a tombstone with the purged ids goes to Kafka. Between batches the purge waits for the replica
+ * (see {@link ReplicaLagGuard}) and throttles itself to {@code url.cleanup.max-rows-per-second}.
+ * <p>
+ * The last id of every batch is checkpointed next to the archive, so an interrupted run resumes there.
+ * A MySQL named lock keeps runs from overlapping, also across instances.
+ */
+@Slf4j
+@Service
+public class UrlPurgeService {
+
+    private static final String RUN_LOCK_NAME = "url-cleanup:purge";
+    private static final String CHECKPOINT_FILE = "purge.checkpoint";
+
+    @Autowired
+    private UrlPurgeSlaveRepository urlPurgeSlaveRepository;
+
+    @Autowired
+    private UrlPurgeMasterRepository urlPurgeMasterRepository;
+
+    @Autowired
+    @Qualifier("masterTransactionTemplate")
+    private TransactionTemplate masterTransactionTemplate;
+
+    @Autowired
+    @Qualifier("masterDataSource")
+    private DataSource masterDataSource;
+
+    @Autowired
+    private UrlArchiveService urlArchiveService;
+
+    @Autowired
+    private ReplicaLagGuard replicaLagGuard;
+
+    @Autowired
+    private UrlTombstonePublisher urlTombstonePublisher;
+
+    @Value("${url.cleanup.retention-days:90}")
+    private long retentionDays;
+
+    @Value("${url.cleanup.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${url.cleanup.max-rows-per-second:2000}")
+    private long maxRowsPerSecond;
+
+    /**
+     * Run one purge
+     *
+     * @return number of URLs purged, 0 if another run holds the lock
+     */
+    public long purge() {
+        try (Connection lockConnection = masterDataSource.getConnection()) {
+            // GET_LOCK belongs to the connection, which is held for the whole run
+            if (!namedLock(lockConnection, "SELECT GET_LOCK(?, 0)")) {
+                log.info("URL purge is already running elsewhere");
+                return 0;
+            }
+            try {
+                return purgeLocked();
+            } finally {
+                namedLock(lockConnection, "SELECT RELEASE_LOCK(?)");
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to take the URL purge lock", e);
+        }
+    }
+
+    private long purgeLocked() {
+        LocalDateTime cutoff = LocalDateTime.ofInstant(Instant.now().minus(retentionDays, ChronoUnit.DAYS), ZoneOffset.UTC);
+        long lastId = readCheckpoint();
+        long purged = 0;
+        long startTime = System.currentTimeMillis();
+        log.info("Starting URL purge: cutoff={}, afterId={}", cutoff, lastId);
+
+        try (UrlArchiveWriter archive = urlArchiveService.open()) {
+            while (true) {
+                if (!replicaLagGuard.awaitCaughtUp()) {
+                    log.warn("Stopping URL purge at id {}, the next run resumes there", lastId);
+                    break;
+                }
+
+                long batchStart = System.nanoTime();
+                List<Long> candidates = urlPurgeSlaveRepository.findPurgeCandidateIds(lastId, cutoff, batchSize);
+                if (candidates.isEmpty()) {
+                    clearCheckpoint();
+                    break;
+                }
+
+                List<Long> purgedIds = purgeBatch(candidates, cutoff, archive);
+                lastId = candidates.get(candidates.size() - 1);
+                writeCheckpoint(lastId);
+                if (!purgedIds.isEmpty()) {
+                    purged += purgedIds.size();
+                    urlTombstonePublisher.publish(purgedIds);
+                }
+
+                if (candidates.size() < batchSize) {
+                    clearCheckpoint();
+                    break;
+                }
+                if (!throttle(batchStart, candidates.size())) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            // Nothing of a failed batch was deleted: its transaction rolled back, or never started
+            throw new UncheckedIOException("URL purge stopped, archive write failed", e);
+        }
+
+        log.info("Finished URL purge: {} URLs purged, took={} ms", purged, System.currentTimeMillis() - startTime);
+        return purged;
+    }
+
+    /**
+     * Lock, archive and delete one batch
+     *
+     * @return ids actually purged
+     */
+    private List<Long> purgeBatch(List<Long> candidates, LocalDateTime cutoff, UrlArchiveWriter archive) throws IOException {
+        try {
+            return masterTransactionTemplate.execute(status -> {
+                List<UrlArchiveRecord> records = urlPurgeMasterRepository.lockPurgeable(candidates, cutoff);
+                if (records.isEmpty()) {
+                    return List.of();
+                }
+                try {
+                    // On disk before the delete can commit
+                    archive.append(records);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                List<Long> ids = records.stream().map(UrlArchiveRecord::getId).toList();
+                urlPurgeMasterRepository.delete(ids);
+                return ids;
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Sleep off what is left of the batch's share of max-rows-per-second
+     *
+     * @return false if interrupted
+     */
+    private boolean throttle(long batchStartNanos, int rows) {
+        if (maxRowsPerSecond <= 0) {
+            return true;
+        }
+        long budgetNanos = TimeUnit.SECONDS.toNanos(rows) / maxRowsPerSecond;
+        long remainingNanos = budgetNanos - (System.nanoTime() - batchStartNanos);
+        if (remainingNanos <= 0) {
+            return true;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(remainingNanos);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private boolean namedLock(Connection connection, String sql) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setString(1, RUN_LOCK_NAME);
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() && rs.getInt(1) == 1;
+            }
+        }
+    }
+
+    private long readCheckpoint() {
+        Path checkpoint = checkpointPath();
+        try {
+            if (!Files.exists(checkpoint)) {
+                return 0;
+            }
+            long afterId = Long.parseLong(Files.readString(checkpoint, StandardCharsets.UTF_8).trim());
+            log.info("Resuming URL purge after id {}", afterId);
+            return afterId;
+        } catch (IOException | NumberFormatException e) {
+            log.warn("Ignoring unreadable purge checkpoint {}: {}", checkpoint, e.getMessage());
+            return 0;
+        }
+    }
+
+    private void writeCheckpoint(long lastId) {
+        try {
+            Files.writeString(checkpointPath(), Long.toString(lastId), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            // Only costs a rescan from an older id next time
+            log.warn("Failed to write purge checkpoint: {}", e.getMessage());
+        }
+    }
+
+    private void clearCheckpoint() {
+        try {
+            Files.deleteIfExists(checkpointPath());
+        } catch (IOException e) {
+            log.warn("Failed to delete purge checkpoint: {}", e.getMessage());
+        }
+    }
+
+    private Path checkpointPath() {
+        return urlArchiveService.getArchiveDir().resolve(CHECKPOINT_FILE);
+    }
+}
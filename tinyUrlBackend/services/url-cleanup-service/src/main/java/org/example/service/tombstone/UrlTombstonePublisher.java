@@ -0,0 +1,56 @@
+package org.example.service.tombstone;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.dto.kafka.UrlTombstoneMessage;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Tells url-service which URLs are gone, so it drops their cached redirects and counts them against its
+ * existence Bloom filter
+ */
+@Slf4j
+@Service
+public class UrlTombstonePublisher {
+
+    @Autowired
+    private KafkaTemplate<String, Object> kafkaTemplate;
+
+    @Value("${kafka.topics.url-tombstones:url.tombstones}")
+    private String tombstonesTopic;
+
+    @Value("${url.cleanup.tombstone.send-timeout-ms:10000}")
+    private long sendTimeoutMs;
+
+    /**
+     * Publish one tombstone for a purged batch and wait for the ack, which also paces the purge to Kafka.
+     * Best effort: the rows are already deleted, a lost tombstone only leaves cache entries to their TTL.
+     *
+     * @return true if Kafka acknowledged the tombstone
+     */
+    public boolean publish(List<Long> urlIds) {
+        UrlTombstoneMessage message = UrlTombstoneMessage.builder()
+                .urlIds(urlIds)
+                .purgedAt(System.currentTimeMillis())
+                .build();
+        try {
+            kafkaTemplate.send(tombstonesTopic, String.valueOf(urlIds.get(0)), message)
+                    .get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Interrupted while publishing URL tombstone: urlIds={}", urlIds.size());
+        } catch (ExecutionException | TimeoutException e) {
+            log.warn("Failed to publish URL tombstone: firstId={}, urlIds={}, error={}",
+                    urlIds.get(0), urlIds.size(), e.getMessage());
+        }
+        return false;
+    }
+}
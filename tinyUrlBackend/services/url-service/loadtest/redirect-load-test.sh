@@ -0,0 +1,70 @@
+#!/bin/bash
+
+# Redirect throughput / p99 comparison between platform and virtual threads.
+#
+# 1. Start url-service with the default configuration, run:
+#      ./redirect-load-test.sh platform
+# 2. Restart it with --spring.profiles.active=virtual (Java 21+), run:
+#      ./redirect-load-test.sh virtual
+# 3. Compare:
+#      ./redirect-load-test.sh compare
+#
+# Requires wrk (https://github.com/wg/wrk) and a file with existing short codes (one per line).
+# Redirects are not followed by wrk, so only url-service is measured.
+
+set -euo pipefail
+
+BASE_URL="${BASE_URL:-http://localhost:8080}"
+DURATION="${DURATION:-60s}"
+THREADS="${THREADS:-8}"
+CONCURRENCY_LEVELS="${CONCURRENCY_LEVELS:-50 200 1000 4000}"
+RESULT_DIR="${RESULT_DIR:-./results}"
+export SHORT_CODES_FILE="${SHORT_CODES_FILE:-./short-codes.txt}"
+
+SCRIPT_DIR="$(cd "$(dirname "$0")" && pwd)"
+MODE="${1:-}"
+
+run() {
+    local label=$1
+    local csv="$RESULT_DIR/$label.csv"
+    mkdir -p "$RESULT_DIR"
+    echo "connections,requests_per_sec,p50,p99,errors" > "$csv"
+
+    for connections in $CONCURRENCY_LEVELS; do
+        echo "[$label] $connections connections for $DURATION..."
+        output=$(wrk -t"$THREADS" -c"$connections" -d"$DURATION" --latency \
+            -s "$SCRIPT_DIR/redirect.lua" "$BASE_URL")
+
+        rps=$(echo "$output" | awk '/Requests\/sec/ {print $2}')
+        p50=$(echo "$output" | awk '$1 == "50%" {print $2}')
+        p99=$(echo "$output" | awk '$1 == "99%" {print $2}')
+        errors=$(echo "$output" | awk '/Non-2xx or 3xx/ {print $NF}')
+        echo "$connections,$rps,$p50,$p99,${errors:-0}" >> "$csv"
+    done
+
+    column -s, -t < "$csv"
+}
+
+compare() {
+    if [ ! -f "$RESULT_DIR/platform.csv" ] || [ ! -f "$RESULT_DIR/virtual.csv" ]; then
+        echo "Run '$0 platform' and '$0 virtual' first"
+        exit 1
+    fi
+    echo "connections | platform req/s | virtual req/s | platform p99 | virtual p99"
+    # Both runs use the same CONCURRENCY_LEVELS, so the rows line up
+    paste -d, <(tail -n +2 "$RESULT_DIR/platform.csv") <(tail -n +2 "$RESULT_DIR/virtual.csv") \
+        | awk -F, '{printf "%11s | %14s | %13s | %12s | %11s\n", $1, $2, $7, $4, $9}'
+}
+
+case "$MODE" in
+    platform|virtual)
+        run "$MODE"
+        ;;
+    compare)
+        compare
+        ;;
+    *)
+        echo "Usage: $0 platform|virtual|compare"
+        exit 1
+        ;;
+esac
@@ -0,0 +1,21 @@
+-- wrk script: spread GET /{shortCode} requests over the codes listed in $SHORT_CODES_FILE (one per line)
+local codes = {}
+local counter = 0
+
+local file = io.open(os.getenv("SHORT_CODES_FILE") or "short-codes.txt", "r")
+if file then
+  for line in file:lines() do
+    if #line > 0 then
+      codes[#codes + 1] = line
+    end
+  end
+  file:close()
+end
+if #codes == 0 then
+  error("no short codes found, set SHORT_CODES_FILE")
+end
+
+request = function()
+  counter = counter + 1
+  return wrk.format("GET", "/" .. codes[(counter % #codes) + 1])
+end
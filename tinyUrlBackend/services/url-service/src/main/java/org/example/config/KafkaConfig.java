@@ -4,6 +4,7 @@ import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.kafka.common.serialization.StringSerializer;
+import org.example.service.kafka.codec.ClickEventSerializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -11,7 +12,6 @@ import org.springframework.kafka.annotation.EnableKafka;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.*;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
-import org.springframework.kafka.support.serializer.JsonSerializer;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -29,13 +29,27 @@ public class KafkaConfig {
     @Value("${spring.kafka.producer.client-id:url-service}")
     private String clientId;
 
+    @Value("${spring.kafka.producer.compression-type:lz4}")
+    private String compressionType;
+
+    @Value("${spring.kafka.producer.batch-size:16384}")
+    private int batchSize;
+
+    @Value("${spring.kafka.producer.properties.linger.ms:5}")
+    private int lingerMs;
+
+    @Value("${kafka.click-events.format:json}")
+    private String clickEventFormat;
+
     @Bean
     public ProducerFactory<String, Object> producerFactory() {
         Map<String, Object> configProps = new HashMap<>();
         configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         configProps.put(ProducerConfig.CLIENT_ID_CONFIG, clientId);
         configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+        // JSON for everything except ClickEventMessage, which uses kafka.click-events.format (json | binary)
+        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ClickEventSerializer.class);
+        configProps.put(ClickEventSerializer.CLICK_EVENT_FORMAT_CONFIG, clickEventFormat);
         
         // Performance and reliability settings
         configProps.put(ProducerConfig.ACKS_CONFIG, "all"); // Wait for all replicas
@@ -43,9 +57,11 @@ public class KafkaConfig {
         configProps.put(ProducerConfig.RETRY_BACKOFF_MS_CONFIG, 1000);
         configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
         
-        // Batching for better throughput
-        configProps.put(ProducerConfig.BATCH_SIZE_CONFIG, 16384);
-        configProps.put(ProducerConfig.LINGER_MS_CONFIG, 5);
+        // Batching for better throughput, compression applies per batch so it also removes the
+        // user-agent/referrer strings repeated across click events
+        configProps.put(ProducerConfig.BATCH_SIZE_CONFIG, batchSize);
+        configProps.put(ProducerConfig.LINGER_MS_CONFIG, lingerMs);
+        configProps.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, compressionType);
         configProps.put(ProducerConfig.BUFFER_MEMORY_CONFIG, 33554432);
         
         return new DefaultKafkaProducerFactory<>(configProps);
@@ -90,4 +106,22 @@ public class KafkaConfig {
         
         return factory;
     }
+
+    /**
+     * Listener container for messages read as raw JSON strings and parsed by the listener itself
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, String> stringKafkaListenerContainerFactory() {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        configProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        configProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        configProps.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, true);
+        configProps.put(ConsumerConfig.AUTO_COMMIT_INTERVAL_MS_CONFIG, 1000);
+
+        ConcurrentKafkaListenerContainerFactory<String, String> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(new DefaultKafkaConsumerFactory<>(configProps));
+        factory.setCommonErrorHandler(new org.springframework.kafka.listener.DefaultErrorHandler());
+        return factory;
+    }
 }
\ No newline at end of file
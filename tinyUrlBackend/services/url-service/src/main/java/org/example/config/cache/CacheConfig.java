@@ -1,5 +1,8 @@
 package org.example.config.cache;
 
+import org.example.common.cache.codec.BinaryCacheSerializer;
+import org.example.common.cache.codec.CacheValueCodec;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -12,19 +15,35 @@ import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 import java.time.Duration;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Configuration
 @EnableCaching
 public class CacheConfig {
-    
+
+    @Value("${cache.codec.format:binary}")
+    private String codecFormat;
+
+    @Value("${cache.codec.compression-threshold-bytes:512}")
+    private int compressionThreshold;
+
+    /**
+     * Binary values for every type with a {@link CacheValueCodec} bean, JSON for the rest
+     */
+    @Bean
+    public BinaryCacheSerializer cacheValueSerializer(List<CacheValueCodec<?>> codecs) {
+        return new BinaryCacheSerializer(codecs, new GenericJackson2JsonRedisSerializer(),
+                "binary".equalsIgnoreCase(codecFormat), compressionThreshold);
+    }
+
     @Bean
-    public RedisCacheManager cacheManager(RedisConnectionFactory connectionFactory) {
+    public RedisCacheManager cacheManager(RedisConnectionFactory connectionFactory, BinaryCacheSerializer cacheValueSerializer) {
         // Default configuration
         RedisCacheConfiguration defaultConfig = RedisCacheConfiguration.defaultCacheConfig()
                 .entryTtl(Duration.ofMinutes(10)) // Default 10 minutes
                 .serializeValuesWith(
-                        RedisSerializationContext.SerializationPair.fromSerializer(new GenericJackson2JsonRedisSerializer())
+                        RedisSerializationContext.SerializationPair.fromSerializer(cacheValueSerializer)
                 )
                 .serializeKeysWith(
                         RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer())
@@ -46,11 +65,11 @@ public class CacheConfig {
     }
     
     @Bean
-    public RedisCacheConfiguration cacheConfiguration() {
+    public RedisCacheConfiguration cacheConfiguration(BinaryCacheSerializer cacheValueSerializer) {
         return RedisCacheConfiguration.defaultCacheConfig()
                 .entryTtl(Duration.ofMinutes(10))
                 .serializeValuesWith(
-                        RedisSerializationContext.SerializationPair.fromSerializer(new GenericJackson2JsonRedisSerializer())
+                        RedisSerializationContext.SerializationPair.fromSerializer(cacheValueSerializer)
                 )
                 .serializeKeysWith(
                         RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer())
@@ -0,0 +1,116 @@
+package org.example.config.cache.codec;
+
+import org.example.common.cache.codec.CacheBinaryReader;
+import org.example.common.cache.codec.CacheBinaryWriter;
+import org.example.common.cache.codec.CacheValueCodec;
+import org.example.entity.Url;
+import org.example.service.data.UrlInfoCacheData;
+import org.springframework.stereotype.Component;
+
+/**
+ * urlInfoCache values.
+ * <pre>
+ * v1: varint presence bits, then the present fields in bit order:
+ *     shortCode, originalUrl, title, passwordHash strings, status enum, createdAt, updatedAt, expiresAt date-times
+ * </pre>
+ */
+@Component
+public class UrlInfoCacheDataCodec implements CacheValueCodec<UrlInfoCacheData> {
+
+    // Append only, the index is the wire code
+    private static final Url.UrlStatus[] STATUSES = {Url.UrlStatus.ACTIVE, Url.UrlStatus.EXPIRED, Url.UrlStatus.DISABLED};
+
+    private static final int SHORT_CODE = 1;
+    private static final int ORIGINAL_URL = 1 << 1;
+    private static final int TITLE = 1 << 2;
+    private static final int PASSWORD_HASH = 1 << 3;
+    private static final int STATUS = 1 << 4;
+    private static final int CREATED_AT = 1 << 5;
+    private static final int UPDATED_AT = 1 << 6;
+    private static final int EXPIRES_AT = 1 << 7;
+
+    @Override
+    public int typeId() {
+        return 2;
+    }
+
+    @Override
+    public Class<UrlInfoCacheData> type() {
+        return UrlInfoCacheData.class;
+    }
+
+    @Override
+    public int version() {
+        return 1;
+    }
+
+    @Override
+    public void encode(UrlInfoCacheData value, CacheBinaryWriter writer) {
+        int present = (value.getShortCode() != null ? SHORT_CODE : 0)
+                | (value.getOriginalUrl() != null ? ORIGINAL_URL : 0)
+                | (value.getTitle() != null ? TITLE : 0)
+                | (value.getPasswordHash() != null ? PASSWORD_HASH : 0)
+                | (value.getStatus() != null ? STATUS : 0)
+                | (value.getCreatedAt() != null ? CREATED_AT : 0)
+                | (value.getUpdatedAt() != null ? UPDATED_AT : 0)
+                | (value.getExpiresAt() != null ? EXPIRES_AT : 0);
+        writer.writeVarLong(present);
+
+        if ((present & SHORT_CODE) != 0) {
+            writer.writeString(value.getShortCode());
+        }
+        if ((present & ORIGINAL_URL) != 0) {
+            writer.writeString(value.getOriginalUrl());
+        }
+        if ((present & TITLE) != 0) {
+            writer.writeString(value.getTitle());
+        }
+        if ((present & PASSWORD_HASH) != 0) {
+            writer.writeString(value.getPasswordHash());
+        }
+        if ((present & STATUS) != 0) {
+            writer.writeEnum(value.getStatus(), STATUSES);
+        }
+        if ((present & CREATED_AT) != 0) {
+            writer.writeDateTime(value.getCreatedAt());
+        }
+        if ((present & UPDATED_AT) != 0) {
+            writer.writeDateTime(value.getUpdatedAt());
+        }
+        if ((present & EXPIRES_AT) != 0) {
+            writer.writeDateTime(value.getExpiresAt());
+        }
+    }
+
+    @Override
+    public UrlInfoCacheData decode(CacheBinaryReader reader, int version) {
+        long present = reader.readVarLong();
+
+        UrlInfoCacheData value = new UrlInfoCacheData();
+        if ((present & SHORT_CODE) != 0) {
+            value.setShortCode(reader.readString());
+        }
+        if ((present & ORIGINAL_URL) != 0) {
+            value.setOriginalUrl(reader.readString());
+        }
+        if ((present & TITLE) != 0) {
+            value.setTitle(reader.readString());
+        }
+        if ((present & PASSWORD_HASH) != 0) {
+            value.setPasswordHash(reader.readString());
+        }
+        if ((present & STATUS) != 0) {
+            value.setStatus(reader.readEnum(STATUSES));
+        }
+        if ((present & CREATED_AT) != 0) {
+            value.setCreatedAt(reader.readDateTime());
+        }
+        if ((present & UPDATED_AT) != 0) {
+            value.setUpdatedAt(reader.readDateTime());
+        }
+        if ((present & EXPIRES_AT) != 0) {
+            value.setExpiresAt(reader.readDateTime());
+        }
+        return value;
+    }
+}
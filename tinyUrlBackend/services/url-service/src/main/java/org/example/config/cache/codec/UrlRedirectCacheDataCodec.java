@@ -0,0 +1,100 @@
+package org.example.config.cache.codec;
+
+import org.example.common.cache.codec.CacheBinaryReader;
+import org.example.common.cache.codec.CacheBinaryWriter;
+import org.example.common.cache.codec.CacheValueCodec;
+import org.example.entity.Url;
+import org.example.service.data.UrlRedirectCacheData;
+import org.springframework.stereotype.Component;
+
+/**
+ * urlRedirectCache values.
+ * <pre>
+ * v1: varint presence bits, then the present fields in bit order:
+ *     urlId long, shortCode string, originalUrl string, passwordHash string, status enum, expiresAtMillis long
+ * </pre>
+ */
+@Component
+public class UrlRedirectCacheDataCodec implements CacheValueCodec<UrlRedirectCacheData> {
+
+    // Append only, the index is the wire code
+    private static final Url.UrlStatus[] STATUSES = {Url.UrlStatus.ACTIVE, Url.UrlStatus.EXPIRED, Url.UrlStatus.DISABLED};
+
+    private static final int URL_ID = 1;
+    private static final int SHORT_CODE = 1 << 1;
+    private static final int ORIGINAL_URL = 1 << 2;
+    private static final int PASSWORD_HASH = 1 << 3;
+    private static final int STATUS = 1 << 4;
+    private static final int EXPIRES_AT = 1 << 5;
+
+    @Override
+    public int typeId() {
+        return 1;
+    }
+
+    @Override
+    public Class<UrlRedirectCacheData> type() {
+        return UrlRedirectCacheData.class;
+    }
+
+    @Override
+    public int version() {
+        return 1;
+    }
+
+    @Override
+    public void encode(UrlRedirectCacheData value, CacheBinaryWriter writer) {
+        int present = (value.getUrlId() != null ? URL_ID : 0)
+                | (value.getShortCode() != null ? SHORT_CODE : 0)
+                | (value.getOriginalUrl() != null ? ORIGINAL_URL : 0)
+                | (value.getPasswordHash() != null ? PASSWORD_HASH : 0)
+                | (value.getStatus() != null ? STATUS : 0)
+                | (value.getExpiresAtMillis() != null ? EXPIRES_AT : 0);
+        writer.writeVarLong(present);
+
+        if ((present & URL_ID) != 0) {
+            writer.writeLong(value.getUrlId());
+        }
+        if ((present & SHORT_CODE) != 0) {
+            writer.writeString(value.getShortCode());
+        }
+        if ((present & ORIGINAL_URL) != 0) {
+            writer.writeString(value.getOriginalUrl());
+        }
+        if ((present & PASSWORD_HASH) != 0) {
+            writer.writeString(value.getPasswordHash());
+        }
+        if ((present & STATUS) != 0) {
+            writer.writeEnum(value.getStatus(), STATUSES);
+        }
+        if ((present & EXPIRES_AT) != 0) {
+            writer.writeLong(value.getExpiresAtMillis());
+        }
+    }
+
+    @Override
+    public UrlRedirectCacheData decode(CacheBinaryReader reader, int version) {
+        long present = reader.readVarLong();
+
+        UrlRedirectCacheData value = new UrlRedirectCacheData();
+        if ((present & URL_ID) != 0) {
+            value.setUrlId(reader.readLong());
+        }
+        if ((present & SHORT_CODE) != 0) {
+            value.setShortCode(reader.readString());
+        }
+        if ((present & ORIGINAL_URL) != 0) {
+            value.setOriginalUrl(reader.readString());
+        }
+        if ((present & PASSWORD_HASH) != 0) {
+            value.setPasswordHash(reader.readString());
+        }
+        if ((present & STATUS) != 0) {
+            value.setStatus(reader.readEnum(STATUSES));
+        }
+        if ((present & EXPIRES_AT) != 0) {
+            value.setExpiresAtMillis(reader.readLong());
+        }
+        return value;
+    }
+}
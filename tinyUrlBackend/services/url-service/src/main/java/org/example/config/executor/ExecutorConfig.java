@@ -0,0 +1,80 @@
+package org.example.config.executor;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Dedicated executors for background work that must stay off the request threads.
+ * <p>
+ * When virtual threads are active (spring.threads.virtual.enabled=true on Java 21+) each task gets its own
+ * virtual thread and the queue capacity becomes a concurrency limit: tasks beyond it are rejected the same way
+ * a full queue rejects them on platform threads.
+ */
+@Configuration
+public class ExecutorConfig {
+
+    @Value("${cache.redirect.refresh.pool-size:2}")
+    private int redirectRefreshPoolSize;
+
+    @Value("${cache.redirect.refresh.queue-capacity:1000}")
+    private int redirectRefreshQueueCapacity;
+
+    @Value("${password-hashing.pool-size:0}")
+    private int passwordHashingPoolSize;
+
+    @Value("${password-hashing.queue-capacity:64}")
+    private int passwordHashingQueueCapacity;
+
+    /**
+     * Executor for early (before TTL) refreshes of hot redirect cache entries.
+     * Refreshes are best effort: when the queue is full the submit is rejected and the caller drops the refresh.
+     */
+    @Bean(name = "redirectRefreshExecutor")
+    public TaskExecutor redirectRefreshExecutor(Environment environment) {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            return virtualThreadExecutor("redirect-refresh-", redirectRefreshQueueCapacity);
+        }
+        return platformThreadExecutor("redirect-refresh-", redirectRefreshPoolSize, redirectRefreshQueueCapacity);
+    }
+
+    /**
+     * Executor for BCrypt hashing and verification, sized so password work can never take every core.
+     * Always platform threads: the work is pure CPU, a virtual thread would just pin its carrier.
+     * A full queue rejects the submit, see PasswordHashingService.
+     */
+    @Bean(name = "passwordHashingExecutor")
+    public ThreadPoolTaskExecutor passwordHashingExecutor() {
+        int poolSize = passwordHashingPoolSize > 0
+                ? passwordHashingPoolSize
+                : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        return platformThreadExecutor("password-hashing-", poolSize, passwordHashingQueueCapacity);
+    }
+
+    private ThreadPoolTaskExecutor platformThreadExecutor(String threadNamePrefix, int poolSize, int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix(threadNamePrefix);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    private TaskExecutor virtualThreadExecutor(String threadNamePrefix, int concurrencyLimit) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(threadNamePrefix);
+        executor.setVirtualThreads(true);
+        executor.setConcurrencyLimit(concurrencyLimit);
+        executor.setRejectTasksWhenLimitReached(true);
+        executor.setTaskTerminationTimeout(5000);
+        return executor;
+    }
+}
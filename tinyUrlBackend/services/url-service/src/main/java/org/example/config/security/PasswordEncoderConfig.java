@@ -0,0 +1,134 @@
+package org.example.config.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+import org.springframework.util.ClassUtils;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Password encoder with a pluggable algorithm and a cost calibrated to this machine.
+ * <p>
+ * New hashes are written as {@code {id}hash} with the encoder chosen by {@code password-hashing.encoder}
+ * (bcrypt, argon2 or pbkdf2). Verification accepts every registered encoder and any stored cost; hashes without
+ * a prefix are legacy BCrypt hashes. {@link PasswordEncoder#upgradeEncoding} reports hashes written with another
+ * encoder or a lower cost, which PasswordHashingService re-hashes after a successful verification.
+ * <p>
+ * Unless a cost is configured explicitly, bcrypt strength and argon2 iterations are picked at startup so one
+ * verification takes about {@code password-hashing.target-verify-ms}. PBKDF2 hashes do not record their iteration
+ * count, so PBKDF2 always uses the fixed Spring Security 5.8 parameters.
+ */
+@Slf4j
+@Configuration
+public class PasswordEncoderConfig {
+
+    private static final String BCRYPT = "bcrypt";
+    private static final String ARGON2 = "argon2";
+    private static final String PBKDF2 = "pbkdf2@SpringSecurity_v5_8";
+
+    private static final int BCRYPT_MIN_STRENGTH = 10;
+    private static final int BCRYPT_MAX_STRENGTH = 16;
+    private static final int ARGON2_MIN_ITERATIONS = 2;
+    private static final int ARGON2_MAX_ITERATIONS = 10;
+    private static final int ARGON2_MEMORY_KIB = 19 * 1024;
+    private static final String CALIBRATION_PASSWORD = "calibration-password";
+
+    @Value("${password-hashing.encoder:bcrypt}")
+    private String encoder;
+
+    @Value("${password-hashing.target-verify-ms:100}")
+    private long targetVerifyMs;
+
+    @Value("${password-hashing.bcrypt.strength:0}")
+    private int bcryptStrength;
+
+    @Value("${password-hashing.argon2.iterations:0}")
+    private int argon2Iterations;
+
+    @Bean
+    public PasswordEncoder passwordEncoder() {
+        String idForEncode = switch (encoder) {
+            case "bcrypt" -> BCRYPT;
+            case "argon2" -> ARGON2;
+            case "pbkdf2" -> PBKDF2;
+            default -> throw new IllegalStateException("password-hashing.encoder must be bcrypt, argon2 or pbkdf2 but was " + encoder);
+        };
+        boolean argon2Available = ClassUtils.isPresent("org.bouncycastle.crypto.generators.Argon2BytesGenerator", null);
+        if (idForEncode.equals(ARGON2) && !argon2Available) {
+            throw new IllegalStateException("password-hashing.encoder=argon2 needs org.bouncycastle:bcprov-jdk18on on the classpath");
+        }
+
+        // Only the encoder that writes new hashes is calibrated, the others only verify and read the cost from the hash
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(idForEncode.equals(BCRYPT) ? bcryptStrength() : BCRYPT_MIN_STRENGTH);
+        encoders.put(BCRYPT, bcrypt);
+        encoders.put(PBKDF2, Pbkdf2PasswordEncoder.defaultsForSpringSecurity_v5_8());
+        if (argon2Available) {
+            encoders.put(ARGON2, idForEncode.equals(ARGON2)
+                    ? argon2(argon2Iterations())
+                    : Argon2PasswordEncoder.defaultsForSpringSecurity_v5_8());
+        }
+
+        DelegatingPasswordEncoder passwordEncoder = new DelegatingPasswordEncoder(idForEncode, encoders);
+        // Hashes written before the delegating encoder have no {id} prefix
+        passwordEncoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        return passwordEncoder;
+    }
+
+    private int bcryptStrength() {
+        if (bcryptStrength > 0) {
+            return bcryptStrength;
+        }
+        // Every +1 doubles the work, extrapolate from a cheap probe
+        int probeStrength = 8;
+        long probeNanos = measureVerifyNanos(new BCryptPasswordEncoder(probeStrength));
+        int strength = probeStrength + (int) Math.floor(log2((double) targetVerifyMs * 1_000_000 / probeNanos));
+        strength = Math.max(BCRYPT_MIN_STRENGTH, Math.min(BCRYPT_MAX_STRENGTH, strength));
+        log.info("Calibrated bcrypt strength {} for a {} ms verification target (strength {} verified in {} us)",
+                strength, targetVerifyMs, probeStrength, probeNanos / 1000);
+        return strength;
+    }
+
+    private int argon2Iterations() {
+        if (argon2Iterations > 0) {
+            return argon2Iterations;
+        }
+        // Work grows linearly with iterations at fixed memory
+        long probeNanos = measureVerifyNanos(argon2(1));
+        int iterations = (int) ((double) targetVerifyMs * 1_000_000 / probeNanos);
+        iterations = Math.max(ARGON2_MIN_ITERATIONS, Math.min(ARGON2_MAX_ITERATIONS, iterations));
+        log.info("Calibrated argon2id iterations {} for a {} ms verification target (1 iteration verified in {} us)",
+                iterations, targetVerifyMs, probeNanos / 1000);
+        return iterations;
+    }
+
+    private static Argon2PasswordEncoder argon2(int iterations) {
+        return new Argon2PasswordEncoder(16, 32, 1, ARGON2_MEMORY_KIB, iterations);
+    }
+
+    /**
+     * Fastest of a few verifications, the first ones include class loading and JIT warm-up
+     */
+    private static long measureVerifyNanos(PasswordEncoder encoder) {
+        String hash = encoder.encode(CALIBRATION_PASSWORD);
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            long start = System.nanoTime();
+            encoder.matches(CALIBRATION_PASSWORD, hash);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return Math.max(best, 1);
+    }
+
+    private static double log2(double value) {
+        return Math.log(value) / Math.log(2);
+    }
+}
@@ -1,8 +1,11 @@
 package org.example.config.security;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.lang.NonNull;
+import org.springframework.security.authorization.AuthorizationDecision;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
@@ -10,6 +13,11 @@ import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 @Configuration
 public class SecurityConfig implements WebMvcConfigurer {
+
+    // -1 when actuator shares the public port, then only health and info are served
+    @Value("${management.server.port:-1}")
+    private int managementPort;
+
     @Override
     public void addCorsMappings(@NonNull CorsRegistry registry) {
         registry.addMapping("/**") // Cho phép tất cả path
@@ -25,6 +33,10 @@ public class SecurityConfig implements WebMvcConfigurer {
         http
                 .csrf(csrf -> csrf.disable()) // Tắt CSRF để test API
                 .authorizeHttpRequests(auth -> auth
+                        .requestMatchers(EndpointRequest.to("health", "info")).permitAll()
+                        // metrics and heavyhitters (client IPs) only on the management port, which the ingress does not route
+                        .requestMatchers(EndpointRequest.toAnyEndpoint()).access((authentication, context) ->
+                                new AuthorizationDecision(context.getRequest().getLocalPort() == managementPort))
                         .anyRequest().permitAll() // Cho phép tất cả request
                 )
                 .httpBasic(httpBasic -> httpBasic.disable()) // Tắt HTTP Basic Auth
@@ -8,6 +8,8 @@ public enum ErrorCode {
     URL_EXPIRED("URL_EXPIRED"),
     URL_DISABLED("URL_DISABLED"),
     PASSWORD_REQUIRED("PASSWORD_REQUIRED"),
+    INVALID_REQUEST("INVALID_REQUEST"),
+    SYSTEM_BUSY("SYSTEM_BUSY"),
     SYSTEM_ERROR("SYSTEM_ERROR");
 
     private final String message;
@@ -0,0 +1,29 @@
+package org.example.controller;
+
+import org.example.dto.response.HeavyHittersResponse;
+import org.example.service.heavyHitter.HeavyHitterService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+/**
+ * Admin view of the heavy hitters: GET /actuator/heavyhitters?limit=20 returns the top short codes and client IPs
+ * of the current window, plus the codes pinned in the near cache and the clients under rate limit escalation.
+ * Served only on management.server.port, see SecurityConfig; keep that port off the ingress.
+ */
+@Component
+@Endpoint(id = "heavyhitters")
+public class HeavyHittersEndpoint {
+
+    private static final int DEFAULT_LIMIT = 20;
+
+    @Autowired
+    private HeavyHitterService heavyHitterService;
+
+    @ReadOperation
+    public HeavyHittersResponse heavyHitters(@Nullable Integer limit) {
+        return heavyHitterService.getHeavyHitters(limit != null ? limit : DEFAULT_LIMIT);
+    }
+}
@@ -0,0 +1,88 @@
+package org.example.controller;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.example.ratelimit.RateLimitDecision;
+import org.example.ratelimit.web.ClientIpResolver;
+import org.example.service.UrlRedirect.RedirectGrantService;
+import org.example.service.UrlRedirect.UrlRedirectService;
+import org.example.service.data.RedirectDecision;
+import org.example.service.data.RedirectDirectIData;
+import org.example.service.heavyHitter.HeavyHitterService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Native HTTP redirect: GET /{shortCode} answers with a Location header and no body.
+ * Responses carry no JSON, the TimeZoneFilter is skipped for this path and click tracking is handed off asynchronously.
+ * Status code and headers come from the cached {@link RedirectDecision}, see RedirectDecisionFactory for the config.
+ */
+@RestController
+public class RedirectController {
+
+    @Autowired
+    private UrlRedirectService urlRedirectService;
+
+    @Autowired
+    private RedirectGrantService redirectGrantService;
+
+    @Autowired
+    private HeavyHitterService heavyHitterService;
+
+    @Autowired
+    private ClientIpResolver clientIpResolver;
+
+    @GetMapping("/{shortCode:[0-9a-zA-Z]{1,11}}")
+    public void redirect(@PathVariable String shortCode, HttpServletRequest request, HttpServletResponse response) {
+        String ipAddress = clientIpResolver.resolve(request);
+
+        // Clients currently among the heaviest IPs must also pass the stricter escalation policy
+        RateLimitDecision escalation = heavyHitterService.checkClient(ipAddress);
+        if (!escalation.isAllowed()) {
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(escalation.getRetryAfterSeconds()));
+            return;
+        }
+
+        RedirectDirectIData inputData = RedirectDirectIData.builder()
+                .shortCode(shortCode)
+                .userId(request.getHeader("X-User-Id"))
+                .ipAddress(ipAddress)
+                .userAgent(request.getHeader(HttpHeaders.USER_AGENT))
+                .referrer(request.getHeader(HttpHeaders.REFERER))
+                .grant(getGrant(request, shortCode))
+                .build();
+
+        // Status, Location and Cache-Control were resolved when the URL was cached, write them straight out
+        RedirectDecision decision = urlRedirectService.redirectDirect(inputData);
+
+        response.setStatus(decision.getHttpStatus());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, decision.getCacheControl());
+        if (decision.getLocation() != null) {
+            response.setHeader(HttpHeaders.LOCATION, decision.getLocation());
+        }
+    }
+
+    /**
+     * Grant cookie set by the password endpoints, only looked up when grants are enabled
+     */
+    private String getGrant(HttpServletRequest request, String shortCode) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null || !redirectGrantService.isEnabled()) {
+            return null;
+        }
+
+        String name = redirectGrantService.cookieName(shortCode);
+        for (Cookie cookie : cookies) {
+            if (name.equals(cookie.getName())) {
+                return cookie.getValue();
+            }
+        }
+        return null;
+    }
+}
@@ -1,5 +1,7 @@
 package org.example.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.example.constants.ErrorCode;
 import org.example.dto.CursorPageRequest;
 import org.example.dto.CursorPageResponse;
@@ -8,31 +10,74 @@ import org.example.dto.request.RedirectRequest;
 import org.example.dto.request.UpdateUrlRequest;
 import org.example.dto.response.*;
 import org.example.entity.Url;
+import org.example.ratelimit.RateLimitDecision;
+import org.example.ratelimit.web.ClientIpResolver;
+import org.example.ratelimit.web.RateLimit;
 import org.example.service.UrlManagement.UrlManagementService;
+import org.example.service.UrlRedirect.RedirectGrantService;
 import org.example.service.UrlRedirect.UrlRedirectService;
 import org.example.service.data.*;
+import org.example.service.heavyHitter.HeavyHitterService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/url")
 public class UrlController {
 
+    private static final String NDJSON = "application/x-ndjson";
+
+    private static final byte[] SYSTEM_ERROR_BODY =
+            "{\"success\":false,\"message\":\"Internal server error\",\"errorCode\":\"SYSTEM_ERROR\",\"data\":null}"
+                    .getBytes(StandardCharsets.UTF_8);
+
     @Autowired
     private UrlManagementService urlManagementService;
 
     @Autowired
     private UrlRedirectService urlRedirectService;
 
+    @Autowired
+    private RedirectGrantService redirectGrantService;
+
+    @Autowired
+    private HeavyHitterService heavyHitterService;
+
+    @Autowired
+    private ClientIpResolver clientIpResolver;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${url.batch.chunk-size:500}")
+    private int batchChunkSize;
+
+    @Value("${url.batch.max-items:100000}")
+    private int batchMaxItems;
+
     /**
      * Create a new short URL
      */
     @PostMapping
+    @RateLimit(policy = "url-create")
     public ResponseEntity<ApiResponse<CreateUrlResponse>> createUrl(@RequestBody CreateUrlRequest request) {
         try {
             // Convert request to service input data
@@ -42,18 +87,12 @@ public class UrlController {
                     .title(request.getTitle())
                     .password(request.getPassword())
                     .expiresAt(request.getExpiresAt())
+                    .idempotent(request.getIdempotent())
                     .build();
 
             // Call service
             CreateUrlInfoOData outputData = urlManagementService.createUrlInfo(inputData);
 
-            // Handle error cases
-            if (outputData.getErrorCode() != ErrorCode.SUCCESS) {
-                return ResponseEntity.badRequest()
-                        .body(ApiResponse.error(getErrorMessage(outputData.getErrorCode()),
-                                outputData.getErrorCode().toString()));
-            }
-
             // Convert to response
             CreateUrlResponse response = CreateUrlResponse.builder()
                     .shortCode(outputData.getShortCode())
@@ -62,8 +101,22 @@ public class UrlController {
                     .status(outputData.getStatus() != null ? outputData.getStatus().toString() : null)
                     .createdAt(outputData.getCreateAt())
                     .expiresAt(outputData.getExpiredAt())
+                    .existing(outputData.isExisting())
                     .build();
 
+            // Handle error cases, the owner of an existing URL still gets its short code
+            if (outputData.getErrorCode() != ErrorCode.SUCCESS) {
+                ApiResponse<CreateUrlResponse> body = ApiResponse.error(getErrorMessage(outputData.getErrorCode()),
+                        outputData.getErrorCode().toString());
+                if (outputData.isExisting()) {
+                    body.setData(response);
+                }
+                return ResponseEntity.status(getHttpStatus(outputData.getErrorCode())).body(body);
+            }
+
+            if (outputData.isExisting()) {
+                return ResponseEntity.ok(ApiResponse.success("URL already exists", response));
+            }
             return ResponseEntity.status(HttpStatus.CREATED)
                     .body(ApiResponse.success("URL created successfully", response));
 
@@ -73,6 +126,113 @@ public class UrlController {
         }
     }
 
+    /**
+     * Create many short URLs from an NDJSON stream of CreateUrlRequest objects.
+     * Answers with one NDJSON BatchCreateUrlResponse per non-blank input line, in input order, flushed after every
+     * chunk of {@code url.batch.chunk-size} lines, malformed ones included. A bad line only fails that line; lines past
+     * {@code url.batch.max-items} are not read.
+     */
+    @PostMapping(value = "/batch", consumes = NDJSON, produces = NDJSON)
+    @RateLimit(policy = "url-batch")
+    public void createUrlBatch(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(NDJSON);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        OutputStream out = response.getOutputStream();
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8));
+        List<BatchCreateUrlResponse> chunk = new ArrayList<>(batchChunkSize);
+        List<CreateUrlInfoIData> chunkInput = new ArrayList<>(batchChunkSize);
+        int lineNumber = 0;
+        int items = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            if (++items > batchMaxItems) {
+                chunk.add(batchError(lineNumber, ErrorCode.INVALID_REQUEST,
+                        "Batch is limited to " + batchMaxItems + " items, remaining lines were not processed"));
+                break;
+            }
+
+            // Parse errors are answered in place, the slot keeps results in input order
+            BatchCreateUrlResponse slot;
+            try {
+                CreateUrlRequest item = objectMapper.readValue(line, CreateUrlRequest.class);
+                chunkInput.add(CreateUrlInfoIData.builder()
+                        .userId(item.getUserId())
+                        .originalUrl(item.getOriginalUrl())
+                        .title(item.getTitle())
+                        .password(item.getPassword())
+                        .expiresAt(item.getExpiresAt())
+                        .idempotent(item.getIdempotent())
+                        .build());
+                slot = BatchCreateUrlResponse.builder().line(lineNumber).build();
+            } catch (JsonProcessingException e) {
+                slot = batchError(lineNumber, ErrorCode.INVALID_REQUEST, "Malformed JSON: " + e.getOriginalMessage());
+            }
+            chunk.add(slot);
+
+            // Counts error slots too, a stream of bad lines must not pile up unflushed
+            if (chunk.size() >= batchChunkSize) {
+                writeBatchChunk(out, chunk, chunkInput);
+                response.flushBuffer();
+            }
+        }
+        writeBatchChunk(out, chunk, chunkInput);
+        response.flushBuffer();
+    }
+
+    /**
+     * Create the chunk's parsed items in one service call and write one line per slot
+     */
+    private void writeBatchChunk(OutputStream out, List<BatchCreateUrlResponse> chunk,
+                                 List<CreateUrlInfoIData> chunkInput) throws IOException {
+        List<CreateUrlInfoOData> outputData = null;
+        if (!chunkInput.isEmpty()) {
+            try {
+                outputData = urlManagementService.createUrlInfoBatch(chunkInput);
+            } catch (Exception e) {
+                // Fails only this chunk, the slots below turn into SYSTEM_ERROR lines
+            }
+        }
+
+        int next = 0;
+        for (BatchCreateUrlResponse slot : chunk) {
+            if (slot.getErrorCode() == null) {
+                CreateUrlInfoOData result = outputData != null ? outputData.get(next) : null;
+                next++;
+                if (result == null) {
+                    slot = batchError(slot.getLine(), ErrorCode.SYSTEM_ERROR, getErrorMessage(ErrorCode.SYSTEM_ERROR));
+                } else {
+                    if (result.getErrorCode() != ErrorCode.SUCCESS) {
+                        slot = batchError(slot.getLine(), result.getErrorCode(), getErrorMessage(result.getErrorCode()));
+                    } else {
+                        slot.setSuccess(true);
+                    }
+                    slot.setShortCode(result.getShortCode());
+                    slot.setOriginalUrl(result.getOriginalUrl());
+                    slot.setExisting(result.isExisting() ? Boolean.TRUE : null);
+                }
+            }
+            out.write(objectMapper.writeValueAsBytes(slot));
+            out.write('\n');
+        }
+        chunk.clear();
+        chunkInput.clear();
+    }
+
+    private BatchCreateUrlResponse batchError(int line, ErrorCode errorCode, String message) {
+        return BatchCreateUrlResponse.builder()
+                .line(line)
+                .success(false)
+                .errorCode(errorCode.toString())
+                .message(message)
+                .build();
+    }
+
     /**
      * Get URL information by short code
      */
@@ -244,46 +404,21 @@ public class UrlController {
 
     /**
      * Get redirect URL (for backend API - frontend handles actual redirect)
+     * The JSON body is serialized once when the URL is cached, not per request.
      */
     @GetMapping("/{shortCode}/redirect")
-    public ResponseEntity<ApiResponse<RedirectResponse>> getRedirectUrl(@PathVariable String shortCode) {
+    public ResponseEntity<byte[]> getRedirectUrl(@PathVariable String shortCode) {
         try {
-            // Convert to service input data
-            RedirectWithoutPasswordIData inputData = RedirectWithoutPasswordIData.builder()
-                    .shortCode(shortCode)
-                    .build();
-
-            // Call service
-            RedirectWithoutPasswordOData outputData = urlRedirectService.redirectWithoutPassword(inputData);
-
-            // Handle specific cases
-            if (outputData.getErrorCode() == ErrorCode.PASSWORD_REQUIRED) {
-                RedirectResponse response = RedirectResponse.builder()
-                        .passwordRequired(true)
-                        .shortCode(outputData.getShortCode())
-                        .build();
-                return ResponseEntity.ok(ApiResponse.success("Password required", response));
-            }
-
-            // Handle other error cases
-            if (outputData.getErrorCode() != ErrorCode.SUCCESS) {
-                return ResponseEntity.status(getHttpStatus(outputData.getErrorCode()))
-                        .body(ApiResponse.error(getErrorMessage(outputData.getErrorCode()),
-                                outputData.getErrorCode().toString()));
-            }
-
-            // Success case - return original URL for frontend to redirect
-            RedirectResponse response = RedirectResponse.builder()
-                    .originalUrl(outputData.getOriginalUrl())
-                    .passwordRequired(false)
-                    .shortCode(shortCode)
-                    .build();
+            RedirectDecision decision = urlRedirectService.getRedirectDecision(shortCode);
 
-            return ResponseEntity.ok(ApiResponse.success("Redirect URL retrieved", response));
+            return ResponseEntity.status(decision.getJsonStatus())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(decision.getJsonBody());
 
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(ApiResponse.error("Internal server error", ErrorCode.SYSTEM_ERROR.toString()));
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(SYSTEM_ERROR_BODY);
         }
     }
 
@@ -291,14 +426,18 @@ public class UrlController {
      * Verify password and get redirect URL (for backend API)
      */
     @PostMapping("/{shortCode}/redirect")
+    @RateLimit(policy = "url-password")
     public ResponseEntity<ApiResponse<RedirectResponse>> verifyPasswordAndGetRedirectUrl(
             @PathVariable String shortCode,
-            @RequestBody RedirectRequest request) {
+            @RequestBody RedirectRequest request,
+            HttpServletRequest httpRequest) {
         try {
             // Convert to service input data
             RedirectWithPasswordIData inputData = RedirectWithPasswordIData.builder()
                     .shortCode(shortCode)
                     .password(request.getPassword())
+                    .ipAddress(clientIpResolver.resolve(httpRequest))
+                    .grant(getGrant(httpRequest, shortCode))
                     .build();
 
             // Call service
@@ -318,7 +457,8 @@ public class UrlController {
                     .shortCode(shortCode)
                     .build();
 
-            return ResponseEntity.ok(ApiResponse.success("Password verified, redirect URL retrieved", response));
+            return withGrant(ResponseEntity.ok(), shortCode, outputData.getGrant())
+                    .body(ApiResponse.success("Password verified, redirect URL retrieved", response));
 
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -331,19 +471,26 @@ public class UrlController {
      * This endpoint should be used by the frontend for actual redirects
      */
     @PostMapping("/{shortCode}/track")
+    @RateLimit(policy = "url-track")
     public ResponseEntity<ApiResponse<RedirectResponse>> redirectWithTracking(
             @PathVariable String shortCode,
             @RequestBody(required = false) RedirectRequest request,
             @RequestHeader(value = "X-User-Id", required = false) String userId,
-            @RequestHeader(value = "X-Real-IP", required = false) String realIp,
             @RequestHeader(value = "User-Agent", required = false) String userAgent,
             @RequestHeader(value = "Referer", required = false) String referer,
             HttpServletRequest httpRequest) {
         try {
-            // Extract IP address
-            String ipAddress = realIp;
-            if (ipAddress == null) {
-                ipAddress = getClientIpAddress(httpRequest);
+            // Proxy headers are only believed from trusted proxies
+            String ipAddress = clientIpResolver.resolve(httpRequest);
+
+            // Clients currently among the heaviest IPs must also pass the stricter escalation policy
+            RateLimitDecision escalation = heavyHitterService.checkClient(ipAddress);
+            if (!escalation.isAllowed()) {
+                long retryAfterSeconds = escalation.getRetryAfterSeconds();
+                return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                        .header(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds))
+                        .body(ApiResponse.error("Too many requests, retry after " + retryAfterSeconds + " seconds",
+                                "RATE_LIMITED"));
             }
 
             // Convert to service input data
@@ -354,6 +501,7 @@ public class UrlController {
                     .ipAddress(ipAddress)
                     .userAgent(userAgent != null ? userAgent : "Unknown")
                     .referrer(referer)
+                    .grant(getGrant(httpRequest, shortCode))
                     .build();
 
             // Call service
@@ -383,7 +531,8 @@ public class UrlController {
                     .correlationId(outputData.getCorrelationId())
                     .build();
 
-            return ResponseEntity.ok(ApiResponse.success("Redirect URL retrieved and tracked", response));
+            return withGrant(ResponseEntity.ok(), shortCode, outputData.getGrant())
+                    .body(ApiResponse.success("Redirect URL retrieved and tracked", response));
 
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -392,32 +541,40 @@ public class UrlController {
     }
 
     /**
-     * Extract client IP address from request
+     * Redirect grant from the X-Redirect-Grant header or the short code's grant cookie
      */
-    private String getClientIpAddress(HttpServletRequest request) {
-        String[] headerNames = {
-            "X-Forwarded-For",
-            "X-Real-IP", 
-            "Proxy-Client-IP",
-            "WL-Proxy-Client-IP",
-            "HTTP_X_FORWARDED_FOR",
-            "HTTP_X_FORWARDED",
-            "HTTP_X_CLUSTER_CLIENT_IP",
-            "HTTP_CLIENT_IP",
-            "HTTP_FORWARDED_FOR",
-            "HTTP_FORWARDED",
-            "HTTP_VIA",
-            "REMOTE_ADDR"
-        };
-
-        for (String headerName : headerNames) {
-            String ip = request.getHeader(headerName);
-            if (ip != null && !ip.isEmpty() && !"unknown".equalsIgnoreCase(ip)) {
-                return ip.split(",")[0].trim(); // Take first IP if multiple
+    private String getGrant(HttpServletRequest request, String shortCode) {
+        if (!redirectGrantService.isEnabled()) {
+            return null;
+        }
+
+        String grant = request.getHeader(RedirectGrantService.GRANT_HEADER);
+        if (grant != null) {
+            return grant;
+        }
+
+        Cookie[] cookies = request.getCookies();
+        if (cookies != null) {
+            String name = redirectGrantService.cookieName(shortCode);
+            for (Cookie cookie : cookies) {
+                if (name.equals(cookie.getName())) {
+                    return cookie.getValue();
+                }
             }
         }
+        return null;
+    }
 
-        return request.getRemoteAddr();
+    /**
+     * Hand a newly issued grant to browsers as a cookie and to API clients as a header
+     */
+    private ResponseEntity.BodyBuilder withGrant(ResponseEntity.BodyBuilder builder, String shortCode, String grant) {
+        if (grant == null) {
+            return builder;
+        }
+        return builder
+                .header(HttpHeaders.SET_COOKIE, redirectGrantService.cookie(shortCode, grant).toString())
+                .header(RedirectGrantService.GRANT_HEADER, grant);
     }
 
     /**
@@ -428,12 +585,15 @@ public class UrlController {
             case URL_NOT_FOUND:
                 return HttpStatus.NOT_FOUND;
             case URL_EXISTED:
+            case INVALID_REQUEST:
             case PASSWORD_IN_CORRECT:
             case PASSWORD_REQUIRED:
                 return HttpStatus.BAD_REQUEST;
             case URL_EXPIRED:
             case URL_DISABLED:
                 return HttpStatus.GONE;
+            case SYSTEM_BUSY:
+                return HttpStatus.SERVICE_UNAVAILABLE;
             case SYSTEM_ERROR:
             default:
                 return HttpStatus.INTERNAL_SERVER_ERROR;
@@ -457,6 +617,10 @@ public class UrlController {
                 return "URL has been disabled";
             case PASSWORD_REQUIRED:
                 return "Password is required";
+            case INVALID_REQUEST:
+                return "Invalid request";
+            case SYSTEM_BUSY:
+                return "Too many password checks in progress, please try again later";
             case SYSTEM_ERROR:
                 return "System error occurred";
             default:
@@ -0,0 +1,21 @@
+package org.example.dto.kafka;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * URLs purged by url-cleanup-service, see kafka-schemas/url-tombstone.json
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UrlTombstoneMessage {
+
+    private List<Long> urlIds;
+    private long purgedAt; // epoch millis
+}
@@ -17,4 +17,7 @@ public class CreateUrlRequest {
     private String password;
     private LocalDateTime expiresAt;
     private Long userId;
+    // Return the existing short code instead of URL_EXISTED when the user already shortened this URL with the same
+    // title and expiry, and neither has a password
+    private Boolean idempotent;
 }
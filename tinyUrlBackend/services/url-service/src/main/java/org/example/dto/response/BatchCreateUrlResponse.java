@@ -0,0 +1,25 @@
+package org.example.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One NDJSON result line of POST /api/url/batch, {@code line} is the 1-based line of the request it answers
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchCreateUrlResponse {
+    private int line;
+    private boolean success;
+    private String shortCode;
+    private String originalUrl;
+    private Boolean existing;
+    private String errorCode;
+    private String message;
+}
@@ -18,4 +18,5 @@ public class CreateUrlResponse {
     private String status;
     private LocalDateTime createdAt;
     private LocalDateTime expiresAt;
+    private boolean existing;
 }
@@ -0,0 +1,13 @@
+package org.example.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HeavyHitterEntry {
+    private String key;
+    private long count; // Count-Min estimate over the window, may overcount by up to the response's error bound
+}
@@ -0,0 +1,26 @@
+package org.example.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Set;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class HeavyHittersResponse {
+    private long windowSeconds;
+    private long clickTotal;
+    private long clickErrorBound;
+    private List<HeavyHitterEntry> shortCodes;
+    private long requestTotal;
+    private long requestErrorBound;
+    private List<HeavyHitterEntry> clientIps;
+    private Set<String> pinnedShortCodes; // Exempt from near cache size eviction
+    private Set<String> escalatedClients; // Held to the escalation rate limit policy
+    private long droppedEvents;
+}
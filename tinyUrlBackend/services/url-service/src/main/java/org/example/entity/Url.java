@@ -12,20 +12,25 @@ import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 
 @Entity
-@Table(name = "urls")
+// The status + expires_at index backs the expiry timing wheel, see UrlExpiryWheelService
+@Table(name = "urls", indexes = @Index(name = "idx_urls_status_expires_at", columnList = "status, expires_at"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class Url {
 
+    // Assigned from the id_blocks sequence (IdBlockAllocator) so inserts can be batched
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(name = "original_url", nullable = false, unique = true, columnDefinition = "TEXT")
+    @Column(name = "original_url", nullable = false, columnDefinition = "TEXT")
     private String originalUrl;
 
+    // SHA-256 of originalUrl (UrlHashUtil), uniqueness is enforced here instead of on the TEXT column
+    @Column(name = "original_url_hash", nullable = false, unique = true, columnDefinition = "BINARY(32)")
+    private byte[] originalUrlHash;
+
     @Column(name = "title", length = 500)
     private String title;
 
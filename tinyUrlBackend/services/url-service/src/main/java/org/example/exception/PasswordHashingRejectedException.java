@@ -0,0 +1,14 @@
+package org.example.exception;
+
+/**
+ * Password hashing or verification was not run because the password-hashing pool is saturated
+ */
+public class PasswordHashingRejectedException extends RuntimeException {
+    public PasswordHashingRejectedException(String message) {
+        super(message);
+    }
+
+    public PasswordHashingRejectedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -5,6 +5,7 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.example.timezone.TimeZoneContext;
+import org.example.util.Base62Util;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 import org.slf4j.Logger;
@@ -24,6 +25,16 @@ public class TimeZoneFilter extends OncePerRequestFilter {
     // Cache các timezone hợp lệ để tránh exception
     private static final Set<String> VALID_TIMEZONES = ZoneId.getAvailableZoneIds();
 
+    /**
+     * The native redirect endpoint (GET /{shortCode}) never serializes dates, so it skips this filter
+     */
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getServletPath();
+        return path.length() > 1 && path.charAt(0) == '/'
+                && Base62Util.decode(path, 1, path.length()) != Base62Util.INVALID;
+    }
+
     @Override
     protected void doFilterInternal(HttpServletRequest request,
                                     HttpServletResponse response,
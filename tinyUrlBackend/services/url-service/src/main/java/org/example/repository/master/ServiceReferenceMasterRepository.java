@@ -2,15 +2,19 @@ package org.example.repository.master;
 
 import org.example.entity.ServiceReference;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.util.Optional;
+import java.util.List;
 
 @Repository
 public interface ServiceReferenceMasterRepository extends JpaRepository<ServiceReference, Long> {
 
-    Optional<ServiceReference> findAllByLocalIdAndLocalTableAndTargetIdAndTargetTable(
-            Long localId, ServiceReference.LocalTable localTable, Long targetId, ServiceReference.TargetTable targetTable
-    );
+    // Prefix of service_ref_unique (local_table, local_id, target_table), an index-only lookup
+    @Query("SELECT r.targetId FROM ServiceReference r WHERE r.localTable = :localTable AND r.localId = :localId AND r.targetTable = :targetTable")
+    List<Long> findTargetIds(@Param("localId") Long localId,
+                             @Param("localTable") ServiceReference.LocalTable localTable,
+                             @Param("targetTable") ServiceReference.TargetTable targetTable);
 
 }
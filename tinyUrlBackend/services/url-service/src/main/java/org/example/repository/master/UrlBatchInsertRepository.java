@@ -0,0 +1,58 @@
+package org.example.repository.master;
+
+import org.example.entity.ServiceReference;
+import org.example.entity.Url;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Multi-row inserts for bulk URL creation. Urls must already carry their id (see IdBlockAllocator), that is what
+ * lets these go out as one JDBC batch instead of one IDENTITY round trip per row. With
+ * {@code rewriteBatchedStatements=true} on the master URL the driver sends each batch as a multi-row INSERT.
+ * <p>
+ * Runs on the master DataSource, so it joins the caller's masterTransactionManager transaction.
+ */
+@Repository
+public class UrlBatchInsertRepository {
+
+    private static final String INSERT_URL_SQL =
+            "INSERT INTO urls (id, original_url, original_url_hash, title, password_hash, status, created_at, updated_at, expires_at) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_REFERENCE_SQL =
+            "INSERT INTO service_references (local_id, local_table, target_id, target_table) VALUES (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public UrlBatchInsertRepository(@Qualifier("masterDataSource") DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    public void insertUrls(List<Url> urls) {
+        jdbcTemplate.batchUpdate(INSERT_URL_SQL, urls, urls.size(), (ps, url) -> {
+            ps.setLong(1, url.getId());
+            ps.setString(2, url.getOriginalUrl());
+            ps.setBytes(3, url.getOriginalUrlHash());
+            ps.setString(4, url.getTitle());
+            ps.setString(5, url.getPasswordHash());
+            ps.setString(6, url.getStatus().name());
+            // LocalDateTime is written as is, the values are already UTC like the ones Hibernate writes
+            ps.setObject(7, url.getCreatedAt());
+            ps.setObject(8, url.getUpdatedAt());
+            ps.setObject(9, url.getExpiresAt());
+        });
+    }
+
+    public void insertReferences(List<ServiceReference> references) {
+        jdbcTemplate.batchUpdate(INSERT_REFERENCE_SQL, references, references.size(), (ps, reference) -> {
+            ps.setLong(1, reference.getLocalId());
+            ps.setString(2, reference.getLocalTable().name());
+            ps.setLong(3, reference.getTargetId());
+            ps.setString(4, reference.getTargetTable().name());
+        });
+    }
+}
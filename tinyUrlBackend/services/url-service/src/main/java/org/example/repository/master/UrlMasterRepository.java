@@ -1,23 +1,51 @@
 package org.example.repository.master;
 
 import org.example.entity.Url;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface UrlMasterRepository extends JpaRepository<Url, Long> {
 
-    @Query("SELECT u FROM Url u WHERE u.expiresAt < :currentTime AND u.status = 'ACTIVE'")
-    List<Url> findExpiredActiveUrls(@Param("currentTime") LocalDateTime currentTime);
+    @Query("SELECT MAX(u.id) FROM Url u")
+    Long findMaxId();
 
+    // Bounded by the primary key range, so one sweep chunk never scans or locks more than [fromId, toId)
+    @Query("SELECT u.id FROM Url u WHERE u.id >= :fromId AND u.id < :toId AND u.expiresAt < :currentTime AND u.status = 'ACTIVE'")
+    List<Long> findExpiredActiveIdsInRange(@Param("fromId") Long fromId, @Param("toId") Long toId,
+                                           @Param("currentTime") LocalDateTime currentTime);
+
+    // Range scan on idx_urls_status_expires_at, loads the expiry timing wheel. Rows are [id, expiresAt].
+    @Query("SELECT u.id, u.expiresAt FROM Url u WHERE u.status = 'ACTIVE' AND u.expiresAt >= :from AND u.expiresAt < :to ORDER BY u.expiresAt")
+    List<Object[]> findActiveExpiringBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+                                             Pageable pageable);
+
+    // Re-checks expiry and status, a row updated since it was selected is left alone
     @Modifying
-    @Query("UPDATE Url u SET u.status = 'EXPIRED', u.updatedAt = :updatedTime WHERE u.expiresAt < :currentTime AND u.status = 'ACTIVE'")
-    int updateExpiredUrlsStatus(@Param("currentTime") LocalDateTime currentTime, @Param("updatedTime") LocalDateTime updatedTime);
+    @Query("UPDATE Url u SET u.status = 'EXPIRED', u.updatedAt = :updatedTime WHERE u.id IN :ids AND u.expiresAt < :currentTime AND u.status = 'ACTIVE'")
+    int expireActiveUrls(@Param("ids") Collection<Long> ids, @Param("currentTime") LocalDateTime currentTime,
+                         @Param("updatedTime") LocalDateTime updatedTime);
+
+    /**
+     * Replace a stale password hash with an upgraded hash of the same password.
+     * Only applies if the stored hash is unchanged, so a password changed in the meantime is never overwritten.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Url u SET u.passwordHash = :newHash WHERE u.id = :urlId AND u.passwordHash = :oldHash")
+    int upgradePasswordHash(@Param("urlId") Long urlId, @Param("oldHash") String oldHash, @Param("newHash") String newHash);
+
+    // Dedup lookup on the unique original_url_hash index, see UrlHashUtil
+    @Query("SELECT u FROM Url u WHERE u.originalUrlHash IN :hashes")
+    List<Url> findAllByOriginalUrlHashIn(@Param("hashes") Collection<byte[]> hashes);
 
 }
@@ -2,8 +2,18 @@ package org.example.repository.slave;
 
 import org.example.entity.ServiceReference;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface ServiceReferenceSlaveRepository extends JpaRepository<ServiceReference, Long> {
+
+    // Prefix of service_ref_unique (local_table, local_id, target_table), an index-only lookup
+    @Query("SELECT r.targetId FROM ServiceReference r WHERE r.localTable = :localTable AND r.localId = :localId AND r.targetTable = :targetTable")
+    List<Long> findTargetIds(@Param("localId") Long localId,
+                             @Param("localTable") ServiceReference.LocalTable localTable,
+                             @Param("targetTable") ServiceReference.TargetTable targetTable);
 }
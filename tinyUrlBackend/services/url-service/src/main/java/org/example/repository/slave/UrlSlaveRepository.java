@@ -1,6 +1,7 @@
 package org.example.repository.slave;
 
 import org.example.entity.Url;
+import org.example.service.data.UrlIdProjection;
 import org.example.service.data.UrlProjection;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -28,4 +29,8 @@ public interface UrlSlaveRepository extends JpaRepository<Url, Long> {
     
     @Query("SELECT u FROM Url u ORDER BY u.id DESC")
     List<UrlProjection> findAllFirstPageDesc(Pageable pageable);
+
+    // Keyset scan of ids, used to build the in-memory existence filter
+    @Query("SELECT u.id AS id, u.createdAt AS createdAt FROM Url u WHERE u.id > :cursor ORDER BY u.id ASC")
+    List<UrlIdProjection> findIdsAfter(@Param("cursor") Long cursor, Pageable pageable);
 }
@@ -17,6 +17,7 @@ public class UrlExpirationSchedulerService {
 
     /**
      * Scheduled job that runs daily at 00:00 UTC to process expired URLs
+     * URLs are normally expired within seconds by UrlExpiryWheelService, this catches anything it missed
      * Cron expression: "0 0 0 * * ?" means:
      * - Second: 0
      * - Minute: 0  
@@ -31,22 +32,14 @@ public class UrlExpirationSchedulerService {
         log.info("Starting scheduled URL expiration cleanup job at UTC: {}", startTime);
         
         try {
-            // Check count before processing
-            int expiredCount = urlExpirationService.getExpiredUrlCount();
-            log.info("Found {} URLs to expire in this run", expiredCount);
-            
-            if (expiredCount > 0) {
-                // Process expired URLs
-                urlExpirationService.processExpiredUrls();
-                log.info("Scheduled URL expiration cleanup completed successfully");
-            } else {
-                log.info("No expired URLs to process in this run");
-            }
-            
+            // Chunked and checkpointed, see UrlExpirationService; no up-front count, that would scan the table
+            long expiredCount = urlExpirationService.processExpiredUrls();
+            log.info("Scheduled URL expiration cleanup completed successfully, {} URLs expired", expiredCount);
         } catch (Exception e) {
             log.error("Error occurred during scheduled URL expiration cleanup", e);
             // Note: We don't re-throw here as it would stop the scheduler
             // Instead, we log the error and let the next scheduled run proceed
+            // An interrupted sweep resumes from its checkpoint on the next run
         }
         
         ZonedDateTime endTime = ZonedDateTime.now(ZoneId.of("UTC"));
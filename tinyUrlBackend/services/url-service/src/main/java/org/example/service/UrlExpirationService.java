@@ -1,71 +1,170 @@
 package org.example.service;
 
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.example.entity.Url;
 import org.example.repository.master.UrlMasterRepository;
+import org.example.service.cache.UrlRedirectCacheService;
+import org.example.service.shortCode.ShortCodeCodec;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.cache.CacheKeyPrefix;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.util.List;
 
+/**
+ * Expires URLs whose expiresAt has passed. {@link UrlExpiryWheelService} flips them within seconds of their deadline
+ * through {@link #expireUrls}; the daily sweep below is the backstop for anything the wheel missed.
+ * <p>
+ * The sweep walks the urls table in primary key ranges of {@code url.expiration.range-size} ids. Each range is one
+ * short transaction on the master, followed by eviction of the expired short codes from urlRedirectCache (both
+ * tiers, all nodes) and urlInfoCache, and a pause of {@code url.expiration.pause-ms} so replicas and foreground
+ * traffic keep up.
+ * <p>
+ * The next range is checkpointed in Redis after every range, so a sweep interrupted by a restart resumes there;
+ * a finished sweep clears the checkpoint. A Redisson lock keeps the sweep on one node at a time.
+ */
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class UrlExpirationService {
 
+    private static final String CHECKPOINT_KEY = "urlExpiration:checkpoint";
+    private static final String LOCK_KEY = "urlExpiration:sweepLock";
+    private static final String URL_INFO_CACHE_NAME = "urlInfoCache";
+
     private final UrlMasterRepository urlMasterRepository;
+    private final TransactionTemplate masterTransactionTemplate;
+    private final StringRedisTemplate redisTemplate;
+    private final RedissonClient redissonClient;
+    private final UrlRedirectCacheService urlRedirectCacheService;
+    private final ShortCodeCodec shortCodeCodec;
+
+    public UrlExpirationService(UrlMasterRepository urlMasterRepository,
+                                @Qualifier("masterTransactionTemplate") TransactionTemplate masterTransactionTemplate,
+                                StringRedisTemplate redisTemplate,
+                                RedissonClient redissonClient,
+                                UrlRedirectCacheService urlRedirectCacheService,
+                                ShortCodeCodec shortCodeCodec) {
+        this.urlMasterRepository = urlMasterRepository;
+        this.masterTransactionTemplate = masterTransactionTemplate;
+        this.redisTemplate = redisTemplate;
+        this.redissonClient = redissonClient;
+        this.urlRedirectCacheService = urlRedirectCacheService;
+        this.shortCodeCodec = shortCodeCodec;
+    }
+
+    @Value("${url.expiration.range-size:10000}")
+    private long rangeSize;
+
+    @Value("${url.expiration.pause-ms:20}")
+    private long pauseMs;
+
+    @Value("${url.expiration.checkpoint-ttl-hours:48}")
+    private long checkpointTtlHours;
 
     /**
-     * Process all expired URLs and update their status to EXPIRED
-     * This method runs in UTC timezone
+     * Sweep expired URLs to EXPIRED, resuming from the checkpoint of an interrupted sweep
+     *
+     * @return number of URLs expired by this call, 0 if another node is sweeping
      */
-    @Transactional
-    public void processExpiredUrls() {
-        LocalDateTime currentUtcTime = LocalDateTime.ofInstant(Instant.now(), ZoneOffset.UTC);
-        
-        log.info("Starting URL expiration process at UTC time: {}", currentUtcTime);
-        
+    public long processExpiredUrls() {
+        RLock lock = redissonClient.getLock(LOCK_KEY);
+        if (!lock.tryLock()) {
+            log.info("URL expiration sweep is already running on another node");
+            return 0;
+        }
+
         try {
-            // Find all expired URLs that are still active
-            List<Url> expiredUrls = urlMasterRepository.findExpiredActiveUrls(currentUtcTime);
-            
-            if (expiredUrls.isEmpty()) {
-                log.info("No expired URLs found");
-                return;
-            }
-            
-            log.info("Found {} expired URLs to process", expiredUrls.size());
-            
-            // Update status of expired URLs in batch
-            int updatedCount = urlMasterRepository.updateExpiredUrlsStatus(currentUtcTime, currentUtcTime);
-            
-            log.info("Successfully updated {} URLs from ACTIVE to EXPIRED status", updatedCount);
-            
-            // Log details of processed URLs (optional, for debugging)
-            if (log.isDebugEnabled()) {
-                expiredUrls.forEach(url -> 
-                    log.debug("Expired URL processed - ID: {}, Original URL: {}, Expired At: {}", 
-                        url.getId(), url.getOriginalUrl(), url.getExpiresAt())
-                );
+            return sweep();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long sweep() {
+        LocalDateTime currentUtcTime = LocalDateTime.ofInstant(Instant.now(), ZoneOffset.UTC);
+        Long maxId = urlMasterRepository.findMaxId();
+        long fromId = readCheckpoint();
+
+        log.info("Starting URL expiration sweep at UTC time: {}, ids [{}, {}]", currentUtcTime, fromId, maxId);
+        if (maxId == null) {
+            return 0;
+        }
+
+        long expired = 0;
+        while (fromId <= maxId) {
+            long toId = fromId + rangeSize;
+            expired += expireRange(fromId, toId, currentUtcTime);
+            fromId = toId;
+            writeCheckpoint(fromId);
+
+            if (pauseMs > 0 && fromId <= maxId) {
+                try {
+                    Thread.sleep(pauseMs);
+                } catch (InterruptedException e) {
+                    // The checkpoint is written, the next sweep continues from here
+                    Thread.currentThread().interrupt();
+                    log.warn("URL expiration sweep interrupted at id {}", fromId);
+                    return expired;
+                }
             }
-            
-        } catch (Exception e) {
-            log.error("Error occurred while processing expired URLs", e);
-            throw e; // Re-throw to ensure transaction rollback
         }
+
+        redisTemplate.delete(CHECKPOINT_KEY);
+        log.info("Finished URL expiration sweep: {} URLs expired", expired);
+        return expired;
     }
 
     /**
-     * Get count of expired URLs that need to be processed
+     * Flip the given URLs to EXPIRED, skipping any that are no longer ACTIVE or whose expiresAt has not passed,
+     * and evict them from the caches
+     *
+     * @return number of URLs expired
      */
-    @Transactional(readOnly = true)
-    public int getExpiredUrlCount() {
-        LocalDateTime currentUtcTime = LocalDateTime.ofInstant(Instant.now(), ZoneOffset.UTC);
-        List<Url> expiredUrls = urlMasterRepository.findExpiredActiveUrls(currentUtcTime);
-        return expiredUrls.size();
+    public int expireUrls(List<Long> ids, LocalDateTime currentUtcTime) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        Integer updated = masterTransactionTemplate.execute(status ->
+                urlMasterRepository.expireActiveUrls(ids, currentUtcTime, currentUtcTime));
+        // After the commit, so a reload racing with the eviction already reads EXPIRED
+        evictCaches(ids);
+        return updated != null ? updated : 0;
+    }
+
+    private int expireRange(long fromId, long toId, LocalDateTime currentUtcTime) {
+        return expireUrls(urlMasterRepository.findExpiredActiveIdsInRange(fromId, toId, currentUtcTime), currentUtcTime);
+    }
+
+    private void evictCaches(List<Long> ids) {
+        List<String> shortCodes = ids.stream().map(shortCodeCodec::encode).toList();
+        urlRedirectCacheService.evictAll(shortCodes);
+        try {
+            String prefix = CacheKeyPrefix.simple().compute(URL_INFO_CACHE_NAME);
+            redisTemplate.delete(shortCodes.stream().map(prefix::concat).toList());
+        } catch (RuntimeException e) {
+            log.warn("Failed to evict URL info cache: shortCodes={}, error={}", shortCodes.size(), e.getMessage());
+        }
+    }
+
+    private long readCheckpoint() {
+        String checkpoint = redisTemplate.opsForValue().get(CHECKPOINT_KEY);
+        if (checkpoint == null) {
+            return 0;
+        }
+        log.info("Resuming URL expiration sweep from id {}", checkpoint);
+        return Long.parseLong(checkpoint);
+    }
+
+    private void writeCheckpoint(long nextId) {
+        redisTemplate.opsForValue().set(CHECKPOINT_KEY, Long.toString(nextId), Duration.ofHours(checkpointTtlHours));
     }
-}
\ No newline at end of file
+}
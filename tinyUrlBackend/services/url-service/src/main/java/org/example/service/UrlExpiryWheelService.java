@@ -0,0 +1,234 @@
+package org.example.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.repository.master.UrlMasterRepository;
+import org.example.util.TimingWheel;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Near-real-time URL expiry: an in-memory {@link TimingWheel} of the ACTIVE URLs expiring within the next
+ * {@code url.expiration.wheel.horizon-seconds}, flipped to EXPIRED (and evicted from every cache) within a tick of
+ * their deadline through {@link UrlExpirationService#expireUrls}.
+ * <p>
+ * Only the node holding the Redisson lock drives the wheel. The other nodes try to take it every tick, so when the
+ * leader dies another node takes over once the lock's watchdog lease runs out and loads the wheel from scratch.
+ * The wheel is reloaded from idx_urls_status_expires_at every {@code url.expiration.wheel.reload-seconds}, which is
+ * also how deadlines set or changed on any node reach it. A deadline set closer than that may be flipped up to one
+ * reload late; redirects stop on time anyway, they compare the cached expiresAt (RedirectDecision#at).
+ * <p>
+ * Everything runs on one dedicated thread: the wheel is single threaded, and a Redisson lock belongs to the thread
+ * that took it. It is not a TaskScheduler bean, that would replace the scheduler of the @Scheduled jobs.
+ */
+@Slf4j
+@Service
+public class UrlExpiryWheelService {
+
+    private static final String LEADER_LOCK_KEY = "urlExpiration:wheelLeader";
+    private static final int WHEEL_SIZE = 64;
+
+    @Autowired
+    private UrlMasterRepository urlMasterRepository;
+
+    @Autowired
+    private UrlExpirationService urlExpirationService;
+
+    @Autowired
+    private RedissonClient redissonClient;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${url.expiration.wheel.enabled:true}")
+    private boolean enabled;
+
+    @Value("${url.expiration.wheel.tick-ms:1000}")
+    private long tickMs;
+
+    @Value("${url.expiration.wheel.horizon-seconds:900}")
+    private long horizonSeconds;
+
+    @Value("${url.expiration.wheel.reload-seconds:30}")
+    private long reloadSeconds;
+
+    @Value("${url.expiration.wheel.lookback-seconds:3600}")
+    private long lookbackSeconds;
+
+    @Value("${url.expiration.wheel.max-entries:200000}")
+    private int maxEntries;
+
+    @Value("${url.expiration.wheel.flip-batch-size:500}")
+    private int flipBatchSize;
+
+    private ScheduledExecutorService executor;
+
+    private RLock leaderLock;
+
+    private Counter expiredCounter;
+
+    private final AtomicInteger pending = new AtomicInteger();
+
+    private volatile boolean running;
+
+    // Confined to the wheel thread
+    private TimingWheel wheel;
+    // Deadline of the live timer per URL id; a timer whose deadline no longer matches was superseded by a reload
+    private final Map<Long, Long> deadlines = new HashMap<>();
+    private long nextReloadMillis;
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            log.info("URL expiry wheel is disabled, expired URLs are flipped by the daily sweep only");
+            return;
+        }
+        if (tickMs <= 0 || horizonSeconds <= 0 || reloadSeconds <= 0 || maxEntries <= 0 || flipBatchSize <= 0) {
+            throw new IllegalStateException("url.expiration.wheel.* sizes and intervals must be positive");
+        }
+
+        leaderLock = redissonClient.getLock(LEADER_LOCK_KEY);
+        expiredCounter = Counter.builder("url.expiration.wheel.expired")
+                .description("URLs flipped to EXPIRED by the expiry wheel")
+                .register(meterRegistry);
+        Gauge.builder("url.expiration.wheel.pending", pending, AtomicInteger::get)
+                .description("Timers in the expiry wheel, 0 on nodes that are not the leader")
+                .register(meterRegistry);
+
+        running = true;
+        executor = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("url-expiry-wheel-"));
+        executor.scheduleWithFixedDelay(this::tick, tickMs, tickMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (executor == null) {
+            return;
+        }
+        running = false;
+        try {
+            // Release leadership on the thread that holds the lock, so another node takes over without waiting for the lease
+            executor.submit(this::stepDown).get(5, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            log.warn("Failed to release URL expiry wheel leadership, it lapses with the lock lease: {}", e.getMessage());
+        }
+        executor.shutdownNow();
+    }
+
+    private void tick() {
+        if (!running) {
+            return;
+        }
+        try {
+            if (wheel == null) {
+                if (!leaderLock.tryLock()) {
+                    return;
+                }
+                long now = System.currentTimeMillis();
+                long spanMillis = TimeUnit.SECONDS.toMillis(horizonSeconds + reloadSeconds);
+                wheel = new TimingWheel(tickMs, WHEEL_SIZE, spanMillis, now);
+                nextReloadMillis = now;
+                log.info("This node now drives the URL expiry wheel");
+            } else if (!leaderLock.isHeldByCurrentThread()) {
+                // Lost the lock, e.g. Redis failed over without it; another node may be driving the wheel by now
+                log.warn("Lost URL expiry wheel leadership");
+                stepDown();
+                return;
+            }
+
+            long now = System.currentTimeMillis();
+            List<Long> due = new ArrayList<>();
+            wheel.advance(now, (urlId, deadlineMs) -> {
+                if (deadlines.remove(urlId, deadlineMs)) {
+                    due.add(urlId);
+                }
+            });
+
+            // After advancing, so the wheel's span always starts at the current tick; reloaded past deadlines fire next tick
+            if (now >= nextReloadMillis) {
+                reload(now);
+                nextReloadMillis = now + TimeUnit.SECONDS.toMillis(reloadSeconds);
+            }
+            pending.set(wheel.size());
+            expire(due);
+        } catch (RuntimeException e) {
+            // Keep the thread alive; a URL whose flip failed is picked up again by the next reload
+            log.warn("URL expiry wheel tick failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Schedule the ACTIVE URLs with an expiresAt from lookback-seconds ago to horizon-seconds ahead. The lookback
+     * catches deadlines that passed while no node was leading.
+     */
+    private void reload(long now) {
+        LocalDateTime from = toUtc(now - TimeUnit.SECONDS.toMillis(lookbackSeconds));
+        LocalDateTime to = toUtc(now + TimeUnit.SECONDS.toMillis(horizonSeconds));
+        List<Object[]> rows = urlMasterRepository.findActiveExpiringBetween(from, to, PageRequest.of(0, maxEntries));
+
+        int added = 0;
+        for (Object[] row : rows) {
+            Long urlId = (Long) row[0];
+            long deadlineMs = ((LocalDateTime) row[1]).toInstant(ZoneOffset.UTC).toEpochMilli();
+            Long scheduled = deadlines.put(urlId, deadlineMs);
+            if (scheduled == null || scheduled != deadlineMs) {
+                wheel.schedule(urlId, deadlineMs);
+                added++;
+            }
+        }
+
+        if (rows.size() == maxEntries) {
+            // Ordered by expiresAt, so what is cut off is the far end of the horizon; later reloads get to it
+            log.warn("URL expiry wheel reload hit url.expiration.wheel.max-entries={}", maxEntries);
+        }
+        log.debug("Reloaded URL expiry wheel: rows={}, added={}, pending={}", rows.size(), added, wheel.size());
+    }
+
+    private void expire(List<Long> due) {
+        if (due.isEmpty()) {
+            return;
+        }
+        LocalDateTime currentUtcTime = toUtc(System.currentTimeMillis());
+        int expired = 0;
+        for (int from = 0; from < due.size(); from += flipBatchSize) {
+            List<Long> batch = due.subList(from, Math.min(from + flipBatchSize, due.size()));
+            expired += urlExpirationService.expireUrls(batch, currentUtcTime);
+        }
+        expiredCounter.increment(expired);
+        log.debug("URL expiry wheel flipped {} of {} due URLs", expired, due.size());
+    }
+
+    private void stepDown() {
+        wheel = null;
+        deadlines.clear();
+        pending.set(0);
+        if (leaderLock != null && leaderLock.isHeldByCurrentThread()) {
+            leaderLock.unlock();
+        }
+    }
+
+    private static LocalDateTime toUtc(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneOffset.UTC);
+    }
+}
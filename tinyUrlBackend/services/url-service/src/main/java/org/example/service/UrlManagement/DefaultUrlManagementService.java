@@ -6,34 +6,56 @@ import org.example.dto.CursorPageRequest;
 import org.example.dto.CursorPageResponse;
 import org.example.entity.ServiceReference;
 import org.example.entity.Url;
-import org.example.repository.master.ServiceReferenceMasterRepository;
+import org.example.exception.PasswordHashingRejectedException;
+import org.example.repository.master.UrlBatchInsertRepository;
 import org.example.repository.master.UrlMasterRepository;
 import org.example.repository.slave.UrlSlaveRepository;
 import org.example.service.UrlManagement.UrlManagementService;
+import org.example.service.cache.UrlOwnershipCacheService;
+import org.example.service.cache.UrlRedirectCacheService;
 import org.example.service.data.*;
+import org.example.service.idAllocator.IdBlockAllocator;
+import org.example.service.password.PasswordHashingService;
+import org.example.service.shortCode.ShortCodeCodec;
 import org.example.util.Base62Util;
-import org.example.util.HashAndCompareUtil;
-import org.hibernate.exception.ConstraintViolationException;
+import org.example.util.UrlHashUtil;
 import org.redisson.api.RLock;
 import org.redisson.api.RedissonClient;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.DataAccessException;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Service;
-
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 
 @Service("DefaultUrlManagementService")
 public class DefaultUrlManagementService implements UrlManagementService {
 
+    private static final String URL_ID_SEQUENCE = "urls";
+
     @Autowired
     private UrlSlaveRepository urlSlaveRepository;
 
@@ -41,7 +63,7 @@ public class DefaultUrlManagementService implements UrlManagementService {
     private UrlMasterRepository urlMasterRepository;
 
     @Autowired
-    private ServiceReferenceMasterRepository serviceReferenceMasterRepository;
+    private UrlOwnershipCacheService urlOwnershipCacheService;
 
     @Autowired
     private StringRedisTemplate redisTemplate;
@@ -49,6 +71,30 @@ public class DefaultUrlManagementService implements UrlManagementService {
     @Autowired
     private RedissonClient redissonClient;
 
+    @Autowired
+    private UrlRedirectCacheService urlRedirectCacheService;
+
+    @Autowired
+    private ShortCodeCodec shortCodeCodec;
+
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+
+    @Autowired
+    private IdBlockAllocator idBlockAllocator;
+
+    @Autowired
+    private UrlBatchInsertRepository urlBatchInsertRepository;
+
+    @Autowired
+    @Qualifier("masterTransactionTemplate")
+    private TransactionTemplate masterTransactionTemplate;
+
+    // Creating a URL the user already owns, with the same attributes, answers SUCCESS with the existing short code
+    // instead of URL_EXISTED, see isSameCreate
+    @Value("${url.create.idempotent:false}")
+    private boolean idempotentCreate;
+
     @Override
     public Page<UrlProjection> getAllUrlInfo(int page, int size) {
         Pageable pageable = PageRequest.of(page, size);
@@ -100,26 +146,27 @@ public class DefaultUrlManagementService implements UrlManagementService {
     @Override
     public GetUrlInfoByIdOData getUrlInfoById(GetUrlInfoByIdIData inputData) {
         GetUrlInfoByIdOData ret = new GetUrlInfoByIdOData();
-        Long urlId = Base62Util.base62ToId(inputData.getShortCode());
-
-        // Try to get from cache first
-        UrlInfoCacheData cachedData = getCachedUrlInfo(inputData.getShortCode());
-        if (cachedData != null) {
-            // Verify user has access to this URL
-            if (isUserAuthorizedForUrl(urlId, inputData.getUserId())) {
-                ret = cachedData.toGetUrlInfoByIdOData();
-                ret.setErrorCode(ErrorCode.SUCCESS);
-                return ret;
-            }
+        Long urlId = shortCodeCodec.decode(inputData.getShortCode());
+        if (urlId == Base62Util.INVALID) {
+            ret.setErrorCode(ErrorCode.URL_NOT_FOUND);
+            return ret;
         }
 
-        // Cache miss or access denied - fetch from database
-        // Check if user has access to this url
+        // Check if user has access to this url, once for cache hits and misses alike
         if (!isUserAuthorizedForUrl(urlId, inputData.getUserId())) {
             ret.setErrorCode(ErrorCode.URL_NOT_FOUND);
             return ret;
         }
 
+        // Try to get from cache first
+        UrlInfoCacheData cachedData = getCachedUrlInfo(inputData.getShortCode());
+        if (cachedData != null) {
+            ret = cachedData.toGetUrlInfoByIdOData();
+            ret.setErrorCode(ErrorCode.SUCCESS);
+            return ret;
+        }
+
+        // Cache miss - fetch from database
         Optional<Url> optionalUrl = urlSlaveRepository.findById(urlId);
 
         if (optionalUrl.isEmpty()) {
@@ -158,7 +205,11 @@ public class DefaultUrlManagementService implements UrlManagementService {
         }
 
         try {
-            Long urlId = Base62Util.base62ToId(inputData.getShortCode());
+            Long urlId = shortCodeCodec.decode(inputData.getShortCode());
+            if (urlId == Base62Util.INVALID) {
+                ret.setErrorCode(ErrorCode.URL_NOT_FOUND);
+                return ret;
+            }
 
             // Check if user has access to this URL
             if (!isUserAuthorizedForUrl(urlId, inputData.getUserId())) {
@@ -175,7 +226,7 @@ public class DefaultUrlManagementService implements UrlManagementService {
             Url url = urlOpt.get();
 
             if (inputData.getTitle() != null) url.setTitle(inputData.getTitle());
-            if (inputData.getPassword() != null) url.setPasswordHash(HashAndCompareUtil.hash(inputData.getPassword()));
+            if (inputData.getPassword() != null) url.setPasswordHash(passwordHashingService.hash(inputData.getShortCode(), inputData.getPassword()));
             if (inputData.getStatus() != null) url.setStatus(inputData.getStatus());
             if (inputData.getExpiredAt() != null) url.setExpiresAt(inputData.getExpiredAt());
 
@@ -196,6 +247,8 @@ public class DefaultUrlManagementService implements UrlManagementService {
             ret.setStatus(url.getStatus());
             ret.setUpdateAt(url.getUpdatedAt());
             ret.setExpireAt(url.getExpiresAt());
+        } catch (PasswordHashingRejectedException ex) {
+            ret.setErrorCode(ErrorCode.SYSTEM_BUSY);
         } catch (RuntimeException ex) {
             ret.setErrorCode(ErrorCode.SYSTEM_ERROR);
         } finally {
@@ -210,61 +263,236 @@ public class DefaultUrlManagementService implements UrlManagementService {
 
 
     @Override
-//    @CachePut(
-//            value = "urlInfoCache",
-//            key = "",
-//            condition = "#result.errorCode == T(org.example.constants.ErrorCode).SUCCESS"
-//    )
-    @Transactional
     public CreateUrlInfoOData createUrlInfo(CreateUrlInfoIData inputData) {
-        CreateUrlInfoOData ret = new CreateUrlInfoOData();
+        return createUrlInfoBatch(List.of(inputData)).get(0);
+    }
 
-        // 1. hash password
-        String hashedPassword = null;
-        if (inputData.getPassword() != null && !inputData.getPassword().isEmpty()) {
-            hashedPassword = HashAndCompareUtil.hash(inputData.getPassword());
+    /**
+     * URLs that already exist are answered from the unique original_url_hash index without an insert or a password
+     * hash: the owner gets the existing short code, as SUCCESS in idempotent mode and URL_EXISTED otherwise.
+     * <p>
+     * New URLs get ids from this node's leased id block and are inserted with one JDBC batch per table in one
+     * transaction. If a row violates a constraint (a concurrent create of the same URL) the batch is replayed row by
+     * row, so only that row fails.
+     */
+    @Override
+    public List<CreateUrlInfoOData> createUrlInfoBatch(List<CreateUrlInfoIData> inputData) {
+        int size = inputData.size();
+        CreateUrlInfoOData[] results = new CreateUrlInfoOData[size];
+        LocalDateTime nowUtc = LocalDateTime.ofInstant(Instant.now(), ZoneOffset.UTC);
+
+        // 1. validate and compute dedup keys, a URL repeated within the batch is resolved against its first occurrence
+        byte[][] urlHashes = new byte[size][];
+        int[] firstOccurrence = new int[size];
+        Map<String, Integer> firstByHash = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            CreateUrlInfoIData item = inputData.get(i);
+            if (item.getUserId() == null || item.getOriginalUrl() == null || item.getOriginalUrl().isBlank()) {
+                results[i] = createError(ErrorCode.INVALID_REQUEST);
+                continue;
+            }
+            urlHashes[i] = UrlHashUtil.hash(item.getOriginalUrl());
+            Integer first = firstByHash.putIfAbsent(UrlHashUtil.toHex(urlHashes[i]), i);
+            firstOccurrence[i] = first != null ? first : i;
         }
 
-        // 2. create URL directly using master repository
-        Url newUrl = new Url();
-        newUrl.setOriginalUrl(inputData.getOriginalUrl());
-        newUrl.setTitle(inputData.getTitle());
-        newUrl.setPasswordHash(hashedPassword);
-        if (inputData.getExpiresAt() != null) {
-            newUrl.setExpiresAt(inputData.getExpiresAt());
+        // 2. fast path for URLs that already exist
+        Url[] urls = new Url[size];
+        if (!firstByHash.isEmpty()) {
+            List<byte[]> lookup = new ArrayList<>(firstByHash.size());
+            firstByHash.values().forEach(i -> lookup.add(urlHashes[i]));
+            try {
+                for (Url existing : urlMasterRepository.findAllByOriginalUrlHashIn(lookup)) {
+                    int i = firstByHash.get(UrlHashUtil.toHex(existing.getOriginalUrlHash()));
+                    urls[i] = existing;
+                    results[i] = existingResult(inputData.get(i), existing,
+                            isUserAuthorizedForUrl(existing.getId(), inputData.get(i).getUserId()));
+                }
+            } catch (DataAccessException ex) {
+                Arrays.fill(urls, null);
+                for (Integer i : firstByHash.values()) {
+                    results[i] = createError(ErrorCode.SYSTEM_ERROR);
+                }
+            }
         }
 
-        Url savedUrl = null;
-        try {
-            savedUrl = urlMasterRepository.save(newUrl);
-        } catch (DataIntegrityViolationException | ConstraintViolationException ex) {
-            ret.setErrorCode(ErrorCode.URL_EXISTED);
-            return ret;
+        // 3. hash passwords of the new URLs, a password repeated across the batch (one campaign password) is hashed once.
+        // Those URLs then store the same salted hash: equal hashes show they share a password, which the creator
+        // chose anyway, and one crack opens all of them, as it would with separate salts. The gain is one BCrypt
+        // per distinct password instead of per URL: at the calibrated cost, hashing each URL of a 500 URL campaign
+        // would hold the request for most of a minute.
+        // Grants stay per URL because they also sign the short code, and changing one URL's password re-hashes only it.
+        Map<String, String> hashedPasswords = new HashMap<>();
+        List<Integer> positions = new ArrayList<>();
+        List<Url> newUrls = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            if (results[i] != null || firstOccurrence[i] != i) {
+                continue;
+            }
+            CreateUrlInfoIData item = inputData.get(i);
+
+            String hashedPassword = null;
+            if (item.getPassword() != null && !item.getPassword().isEmpty()) {
+                try {
+                    // Capped per user so one account cannot fill the password-hashing pool
+                    hashedPassword = hashedPasswords.computeIfAbsent(item.getPassword(),
+                            password -> passwordHashingService.hash(String.valueOf(item.getUserId()), password));
+                } catch (PasswordHashingRejectedException ex) {
+                    results[i] = createError(ErrorCode.SYSTEM_BUSY);
+                    continue;
+                }
+            }
+
+            Url newUrl = new Url();
+            newUrl.setOriginalUrl(item.getOriginalUrl());
+            newUrl.setOriginalUrlHash(urlHashes[i]);
+            newUrl.setTitle(item.getTitle());
+            newUrl.setPasswordHash(hashedPassword);
+            newUrl.setStatus(Url.UrlStatus.ACTIVE);
+            newUrl.setCreatedAt(nowUtc);
+            newUrl.setUpdatedAt(nowUtc);
+            newUrl.setExpiresAt(item.getExpiresAt());
+            positions.add(i);
+            newUrls.add(newUrl);
         }
 
-        // 3. save reference key to service_reference using another thread
-        ServiceReference newReference = ServiceReference.builder()
-                .localId(savedUrl.getId())
-                .localTable(ServiceReference.LocalTable.Urls)
-                .targetId(inputData.getUserId())
-                .targetTable(ServiceReference.TargetTable.Users)
-                .build();
+        // 4. assign ids and insert urls + service_references
+        boolean[] inserted = new boolean[newUrls.size()];
+        if (!newUrls.isEmpty()) {
+            try {
+                long[] ids = idBlockAllocator.nextIds(URL_ID_SEQUENCE, newUrls.size());
+                for (int k = 0; k < newUrls.size(); k++) {
+                    newUrls.get(k).setId(ids[k]);
+                }
+
+                masterTransactionTemplate.executeWithoutResult(status -> insertUrls(newUrls, positions, inputData));
+                Arrays.fill(inserted, true);
+            } catch (DataIntegrityViolationException ex) {
+                // Replay row by row to find the offending rows, the ids were not committed and can be reused
+                for (int k = 0; k < newUrls.size(); k++) {
+                    List<Url> single = List.of(newUrls.get(k));
+                    List<Integer> singlePosition = List.of(positions.get(k));
+                    try {
+                        masterTransactionTemplate.executeWithoutResult(status -> insertUrls(single, singlePosition, inputData));
+                        inserted[k] = true;
+                    } catch (DuplicateKeyException rowEx) {
+                        results[positions.get(k)] = createError(ErrorCode.URL_EXISTED);
+                    } catch (DataIntegrityViolationException rowEx) {
+                        // Value too long or similar
+                        results[positions.get(k)] = createError(ErrorCode.INVALID_REQUEST);
+                    } catch (DataAccessException rowEx) {
+                        results[positions.get(k)] = createError(ErrorCode.SYSTEM_ERROR);
+                    }
+                }
+            } catch (DataAccessException | TransactionException ex) {
+                for (Integer position : positions) {
+                    results[position] = createError(ErrorCode.SYSTEM_ERROR);
+                }
+            }
+        }
 
-        try {
-            serviceReferenceMasterRepository.save(newReference);
-        } catch (Exception e) {
-            ret.setErrorCode(ErrorCode.SYSTEM_ERROR);
-            return ret;
+        // 5. register the new short codes and return response
+        List<Long> createdIds = new ArrayList<>();
+        List<String> createdShortCodes = new ArrayList<>();
+        for (int k = 0; k < newUrls.size(); k++) {
+            if (!inserted[k]) {
+                continue;
+            }
+            Url savedUrl = newUrls.get(k);
+            CreateUrlInfoOData ret = createdResult(savedUrl);
+            createdIds.add(savedUrl.getId());
+            createdShortCodes.add(ret.getShortCode());
+            urlOwnershipCacheService.onUrlCreated(savedUrl.getId(), inputData.get(positions.get(k)).getUserId());
+            urls[positions.get(k)] = savedUrl;
+            results[positions.get(k)] = ret;
+        }
+        urlRedirectCacheService.onUrlsCreated(createdIds, createdShortCodes);
+
+        for (int i = 0; i < size; i++) {
+            if (results[i] != null) {
+                continue;
+            }
+            int first = firstOccurrence[i];
+            if (urls[first] == null) {
+                results[i] = createError(results[first].getErrorCode());
+            } else {
+                // Owned if the first occurrence was created for or already belongs to the same user
+                boolean owned = inputData.get(first).getUserId().equals(inputData.get(i).getUserId())
+                        && (results[first].getErrorCode() == ErrorCode.SUCCESS || results[first].getShortCode() != null);
+                results[i] = existingResult(inputData.get(i), urls[first], owned);
+            }
+        }
+
+        return Arrays.asList(results);
+    }
+
+    private void insertUrls(List<Url> urls, List<Integer> positions, List<CreateUrlInfoIData> inputData) {
+        List<ServiceReference> references = new ArrayList<>(urls.size());
+        for (int k = 0; k < urls.size(); k++) {
+            references.add(ServiceReference.builder()
+                    .localId(urls.get(k).getId())
+                    .localTable(ServiceReference.LocalTable.Urls)
+                    .targetId(inputData.get(positions.get(k)).getUserId())
+                    .targetTable(ServiceReference.TargetTable.Users)
+                    .build());
+        }
+        urlBatchInsertRepository.insertUrls(urls);
+        urlBatchInsertRepository.insertReferences(references);
+    }
+
+    private CreateUrlInfoOData createdResult(Url url) {
+        CreateUrlInfoOData ret = new CreateUrlInfoOData();
+        ret.setErrorCode(ErrorCode.SUCCESS);
+        ret.setShortCode(shortCodeCodec.encode(url.getId()));
+        ret.setOriginalUrl(url.getOriginalUrl());
+        ret.setTitle(url.getTitle());
+        ret.setStatus(url.getStatus());
+        ret.setCreateAt(url.getCreatedAt());
+        ret.setExpiredAt(url.getExpiresAt());
+        return ret;
+    }
+
+    /**
+     * Another user's URL is only reported as existing, its short code is not disclosed
+     */
+    private CreateUrlInfoOData existingResult(CreateUrlInfoIData item, Url url, boolean owned) {
+        if (!owned) {
+            return createError(ErrorCode.URL_EXISTED);
         }
+        CreateUrlInfoOData ret = createdResult(url);
+        ret.setExisting(true);
+        boolean idempotent = item.getIdempotent() != null ? item.getIdempotent() : idempotentCreate;
+        ret.setErrorCode(idempotent && isSameCreate(item, url) ? ErrorCode.SUCCESS : ErrorCode.URL_EXISTED);
+        return ret;
+    }
 
-        // 4. return response
-        String shortCode = Base62Util.idToBase62(savedUrl.getId());
-        ret.setOriginalUrl(savedUrl.getOriginalUrl());
-        ret.setTitle(savedUrl.getTitle());
-        ret.setShortCode(shortCode);
-        ret.setCreateAt(savedUrl.getCreatedAt());
-        ret.setExpiredAt(savedUrl.getExpiresAt());
+    /**
+     * Whether a create would have produced the existing row: active, same title and expiry, and no password on either.
+     * A request with a password is never deduplicated, comparing it would cost a BCrypt verification per retry,
+     * and answering SUCCESS for a link that is unprotected or expires differently would hide the mismatch.
+     */
+    private static boolean isSameCreate(CreateUrlInfoIData item, Url url) {
+        boolean passwordGiven = item.getPassword() != null && !item.getPassword().isEmpty();
+        return !passwordGiven
+                && url.getPasswordHash() == null
+                && url.getStatus() == Url.UrlStatus.ACTIVE
+                && Objects.equals(item.getTitle(), url.getTitle())
+                && sameSecond(item.getExpiresAt(), url.getExpiresAt());
+    }
 
+    /**
+     * DATETIME columns keep whole seconds (MySQL rounds the fraction), so a stored expiry may differ by up to one
+     */
+    private static boolean sameSecond(LocalDateTime requested, LocalDateTime stored) {
+        if (requested == null || stored == null) {
+            return requested == stored;
+        }
+        return Duration.between(requested, stored).abs().compareTo(Duration.ofSeconds(1)) < 0;
+    }
+
+    private CreateUrlInfoOData createError(ErrorCode errorCode) {
+        CreateUrlInfoOData ret = new CreateUrlInfoOData();
+        ret.setErrorCode(errorCode);
         return ret;
     }
 
@@ -273,7 +501,11 @@ public class DefaultUrlManagementService implements UrlManagementService {
     public DeleteUrlInfoOData deleteUrlInfo(DeleteUrlInfoIData inputData) {
         DeleteUrlInfoOData ret = new DeleteUrlInfoOData();
 
-        Long urlId = Base62Util.base62ToId(inputData.getShortCode());
+        Long urlId = shortCodeCodec.decode(inputData.getShortCode());
+        if (urlId == Base62Util.INVALID) {
+            ret.setErrorCode(ErrorCode.URL_NOT_FOUND);
+            return ret;
+        }
 
         // Check if url belongs to user
         if (!isUserAuthorizedForUrl(urlId, inputData.getUserId())) {
@@ -283,6 +515,7 @@ public class DefaultUrlManagementService implements UrlManagementService {
 
         try {
             urlMasterRepository.deleteById(urlId);
+            urlOwnershipCacheService.onUrlDeleted(urlId);
             
             // Remove from cache after successful deletion
             evictUrlInfoCache(inputData.getShortCode());
@@ -347,27 +580,17 @@ public class DefaultUrlManagementService implements UrlManagementService {
     }
 
     /**
-     * Evict URL redirect cache when URL data changes
+     * Evict URL redirect cache when URL data changes (near cache on every node + Redis)
      */
-    @CacheEvict(value = "urlRedirectCache", key = "#shortCode")
     private void evictRedirectCache(String shortCode) {
-        // Cache will be evicted automatically
+        urlRedirectCacheService.evict(shortCode);
     }
 
     /**
-     * Check if a specific user has access to a specific URL
-     * More efficient than getting all authorized users when we only need to check one user
+     * Check if a specific user has access to a specific URL, from the ownership cache (slave on a miss)
      */
     private boolean isUserAuthorizedForUrl(Long urlId, Long userId) {
-        Optional<ServiceReference> reference = serviceReferenceMasterRepository
-                .findAllByLocalIdAndLocalTableAndTargetIdAndTargetTable(
-                        urlId,
-                        ServiceReference.LocalTable.Urls,
-                        userId,
-                        ServiceReference.TargetTable.Users
-                );
-        
-        return reference.isPresent();
+        return userId != null && urlOwnershipCacheService.isOwner(urlId, userId);
     }
 
 }
\ No newline at end of file
@@ -5,11 +5,16 @@ import org.example.dto.CursorPageResponse;
 import org.example.service.data.*;
 import org.springframework.data.domain.Page;
 
+import java.util.List;
+
 public interface UrlManagementService {
     GetUrlInfoByIdOData getUrlInfoById(GetUrlInfoByIdIData inputData);
 
     CreateUrlInfoOData createUrlInfo(CreateUrlInfoIData inputData);
 
+    // One result per input, in input order; a failing item does not fail the others
+    List<CreateUrlInfoOData> createUrlInfoBatch(List<CreateUrlInfoIData> inputData);
+
     UpdateUrlInfoOData updateUrlInfo(UpdateUrlInfoIData inputData);
 
     DeleteUrlInfoOData deleteUrlInfo(DeleteUrlInfoIData inputData);
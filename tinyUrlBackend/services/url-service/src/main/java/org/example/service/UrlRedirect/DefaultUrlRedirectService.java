@@ -2,15 +2,18 @@ package org.example.service.UrlRedirect;
 
 import org.example.constants.ErrorCode;
 import org.example.entity.Url;
+import org.example.exception.PasswordHashingRejectedException;
+import org.example.repository.master.UrlMasterRepository;
 import org.example.repository.slave.UrlSlaveRepository;
 import org.example.service.UrlRedirect.UrlRedirectService;
+import org.example.service.cache.UrlRedirectCacheService;
 import org.example.service.data.*;
+import org.example.service.heavyHitter.HeavyHitterService;
 import org.example.service.kafka.ClickTrackingService;
+import org.example.service.password.PasswordHashingService;
+import org.example.service.shortCode.ShortCodeCodec;
 import org.example.util.Base62Util;
-import org.example.util.HashAndCompareUtil;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.annotation.CachePut;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Service;
 
@@ -28,88 +31,67 @@ public class DefaultUrlRedirectService implements UrlRedirectService {
     @Autowired
     private ClickTrackingService clickTrackingService;
 
-    @Override
-    public RedirectWithPasswordOData redirectWithPassword(RedirectWithPasswordIData inputData) {
-        RedirectWithPasswordOData ret = new RedirectWithPasswordOData();
-
-        // Try to get from cache first
-        UrlRedirectCacheData cachedData = getCachedRedirectInfo(inputData.getShortCode());
-        if (cachedData != null) {
-            return processRedirectWithPassword(cachedData, inputData.getPassword(), ret);
-        }
+    @Autowired
+    private UrlRedirectCacheService urlRedirectCacheService;
 
-        // Cache miss - fetch from database
-        Long urlId = Base62Util.base62ToId(inputData.getShortCode());
-        Optional<Url> optionalUrl = urlSlaveRepository.findById(urlId);
+    @Autowired
+    private ShortCodeCodec shortCodeCodec;
 
-        if (optionalUrl.isEmpty()) {
-            ret.setErrorCode(ErrorCode.URL_NOT_FOUND);
-            return ret;
-        }
+    @Autowired
+    private RedirectGrantService redirectGrantService;
 
-        Url url = optionalUrl.get();
+    @Autowired
+    private PasswordHashingService passwordHashingService;
 
-        // Cache the URL redirect info for future use
-        UrlRedirectCacheData cacheData = UrlRedirectCacheData.fromUrl(url, inputData.getShortCode());
-        cacheRedirectInfo(inputData.getShortCode(), cacheData);
+    @Autowired
+    private UrlMasterRepository urlMasterRepository;
 
-        return processRedirectWithPassword(cacheData, inputData.getPassword(), ret);
-    }
+    @Autowired
+    private HeavyHitterService heavyHitterService;
 
     @Override
-    public RedirectWithoutPasswordOData redirectWithoutPassword(RedirectWithoutPasswordIData inputData) {
-        RedirectWithoutPasswordOData ret = new RedirectWithoutPasswordOData();
-
-        // Try to get from cache first
-        UrlRedirectCacheData cachedData = getCachedRedirectInfo(inputData.getShortCode());
-        if (cachedData != null) {
-            return processRedirectWithoutPassword(cachedData, ret);
-        }
-
-        // Cache miss - fetch from database
-        Long urlId = Base62Util.base62ToId(inputData.getShortCode());
-        Optional<Url> optionalUrl = urlSlaveRepository.findById(urlId);
+    public RedirectWithPasswordOData redirectWithPassword(RedirectWithPasswordIData inputData) {
+        RedirectWithPasswordOData ret = new RedirectWithPasswordOData();
 
-        if (optionalUrl.isEmpty()) {
-            ret.setErrorCode(ErrorCode.URL_NOT_FOUND);
+        // Cache first, concurrent misses for the same short code share one database load
+        RedirectDecision decision = findRedirectDecision(inputData.getShortCode());
+
+        // Status and password checks were resolved when the decision was cached
+        if (decision.isPasswordRequired()) {
+            // A valid grant replaces the BCrypt check
+            if (!redirectGrantService.isGranted(inputData.getGrant(), decision)) {
+                ErrorCode passwordCheck = checkPassword(inputData.getPassword(), inputData.getIpAddress(), decision);
+                if (passwordCheck != ErrorCode.SUCCESS) {
+                    ret.setErrorCode(passwordCheck);
+                    return ret;
+                }
+                ret.setGrant(redirectGrantService.issue(decision));
+            }
+        } else if (!decision.isRedirect()) {
+            ret.setErrorCode(decision.getErrorCode());
             return ret;
         }
 
-        Url url = optionalUrl.get();
-
-        // Cache the URL redirect info for future use
-        UrlRedirectCacheData cacheData = UrlRedirectCacheData.fromUrl(url, inputData.getShortCode());
-        cacheRedirectInfo(inputData.getShortCode(), cacheData);
+        // TODO: Track click event here for both password and non-password flows
 
-        return processRedirectWithoutPassword(cacheData, ret);
+        ret.setOriginUrl(decision.getOriginalUrl());
+        ret.setErrorCode(ErrorCode.SUCCESS);
+        return ret;
     }
 
-    /**
-     * Process redirect with password using cached data
-     */
-    private RedirectWithPasswordOData processRedirectWithPassword(UrlRedirectCacheData cacheData, String password, RedirectWithPasswordOData ret) {
-        // Check URL's status
-        if (!cacheData.isAvailableForRedirect()) {
-            ret.setErrorCode((cacheData.getStatus() == Url.UrlStatus.EXPIRED) ? ErrorCode.URL_EXPIRED : ErrorCode.URL_DISABLED);
-            return ret;
-        }
+    @Override
+    public RedirectWithoutPasswordOData redirectWithoutPassword(RedirectWithoutPasswordIData inputData) {
+        RedirectWithoutPasswordOData ret = new RedirectWithoutPasswordOData();
 
-        // Check password if URL is password protected
-        if (!cacheData.isPasswordProtected()) {
-            ret.setErrorCode(ErrorCode.SUCCESS);
-            ret.setOriginUrl(cacheData.getOriginalUrl());
-            return ret;
-        }
+        // Cache first, concurrent misses for the same short code share one database load
+        RedirectDecision decision = findRedirectDecision(inputData.getShortCode());
 
-        if (!HashAndCompareUtil.compare(password, cacheData.getPasswordHash())) {
-            ret.setErrorCode(ErrorCode.PASSWORD_IN_CORRECT);
-            return ret;
+        ret.setErrorCode(decision.getErrorCode());
+        if (decision.isPasswordRequired()) {
+            ret.setShortCode(decision.getShortCode());
+        } else if (decision.isRedirect()) {
+            ret.setOriginalUrl(decision.getOriginalUrl());
         }
-
-        // TODO: Track click event here for both password and non-password flows
-        
-        ret.setOriginUrl(cacheData.getOriginalUrl());
-        ret.setErrorCode(ErrorCode.SUCCESS);
         return ret;
     }
 
@@ -117,42 +99,37 @@ public class DefaultUrlRedirectService implements UrlRedirectService {
     public RedirectWithTrackingOData redirectWithTracking(RedirectWithTrackingIData inputData) {
         RedirectWithTrackingOData ret = new RedirectWithTrackingOData();
 
-        // Try to get from cache first
-        UrlRedirectCacheData cachedData = getCachedRedirectInfo(inputData.getShortCode());
-        if (cachedData == null) {
-            // Cache miss - fetch from database
-            Long urlId = Base62Util.base62ToId(inputData.getShortCode());
-            Optional<Url> optionalUrl = urlSlaveRepository.findById(urlId);
-
-            if (optionalUrl.isEmpty()) {
-                ret.setErrorCode(ErrorCode.URL_NOT_FOUND);
-                return ret;
+        // Cache first, concurrent misses for the same short code share one database load
+        RedirectDecision decision = findRedirectDecision(inputData.getShortCode());
+
+        // Check if URL requires password, a valid grant replaces the BCrypt check
+        if (decision.isPasswordRequired()) {
+            if (!redirectGrantService.isGranted(inputData.getGrant(), decision)) {
+                ErrorCode passwordCheck = inputData.getPassword() == null
+                        ? ErrorCode.PASSWORD_IN_CORRECT
+                        : checkPassword(inputData.getPassword(), inputData.getIpAddress(), decision);
+                if (passwordCheck == ErrorCode.SYSTEM_BUSY) {
+                    heavyHitterService.recordRequest(inputData.getIpAddress());
+                    ret.setErrorCode(passwordCheck);
+                    return ret;
+                }
+                if (passwordCheck != ErrorCode.SUCCESS) {
+                    heavyHitterService.recordRequest(inputData.getIpAddress());
+                    ret.setErrorCode(ErrorCode.PASSWORD_REQUIRED);
+                    ret.setShortCode(inputData.getShortCode());
+                    return ret;
+                }
+                ret.setGrant(redirectGrantService.issue(decision));
             }
-
-            Url url = optionalUrl.get();
-            cachedData = UrlRedirectCacheData.fromUrl(url, inputData.getShortCode());
-            cacheRedirectInfo(inputData.getShortCode(), cachedData);
-        }
-
-        // Check URL status
-        if (!cachedData.isAvailableForRedirect()) {
-            ret.setErrorCode((cachedData.getStatus() == Url.UrlStatus.EXPIRED) ? ErrorCode.URL_EXPIRED : ErrorCode.URL_DISABLED);
+        } else if (!decision.isRedirect()) {
+            heavyHitterService.recordRequest(inputData.getIpAddress());
+            ret.setErrorCode(decision.getErrorCode());
             return ret;
         }
 
-        // Check if URL requires password
-        if (cachedData.isPasswordProtected()) {
-            if (inputData.getPassword() == null || 
-                !HashAndCompareUtil.compare(inputData.getPassword(), cachedData.getPasswordHash())) {
-                ret.setErrorCode(ErrorCode.PASSWORD_REQUIRED);
-                ret.setShortCode(inputData.getShortCode());
-                return ret;
-            }
-        }
-
         // Track click event asynchronously
         String correlationId = clickTrackingService.trackClick(
-            cachedData.getUrlId().toString(),
+            decision.getUrlId().toString(),
             inputData.getShortCode(),
             inputData.getUserId(),
             inputData.getIpAddress(),
@@ -161,46 +138,85 @@ public class DefaultUrlRedirectService implements UrlRedirectService {
         );
 
         ret.setErrorCode(ErrorCode.SUCCESS);
-        ret.setOriginalUrl(cachedData.getOriginalUrl());
+        ret.setOriginalUrl(decision.getOriginalUrl());
         ret.setCorrelationId(correlationId);
         return ret;
     }
 
+    @Override
+    public RedirectDecision getRedirectDecision(String shortCode) {
+        return findRedirectDecision(shortCode);
+    }
+
+    @Override
+    public RedirectDecision redirectDirect(RedirectDirectIData inputData) {
+        RedirectDecision decision = findRedirectDecision(inputData.getShortCode());
+
+        // Protected links redirect directly for visitors holding a grant, everyone else goes to the password page
+        if (decision.isPasswordRequired() && redirectGrantService.isGranted(inputData.getGrant(), decision)) {
+            decision = decision.getUnlocked();
+        }
+
+        if (decision.isRedirect()) {
+            // Only enqueues the event, the Kafka send happens on the click pipeline's publisher threads
+            clickTrackingService.trackClick(
+                decision.getUrlId().toString(),
+                inputData.getShortCode(),
+                inputData.getUserId(),
+                inputData.getIpAddress(),
+                inputData.getUserAgent(),
+                inputData.getReferrer()
+            );
+        } else {
+            // No click to count, but scans of unknown or protected codes still count against the client IP
+            heavyHitterService.recordRequest(inputData.getIpAddress());
+        }
+
+        return decision;
+    }
+
     /**
-     * Process redirect without password using cached data
+     * SUCCESS, PASSWORD_IN_CORRECT, or SYSTEM_BUSY when the password-hashing pool turned the check away.
+     * Verification is capped per short code and client IP; a stale hash is upgraded in the background after a match.
      */
-    private RedirectWithoutPasswordOData processRedirectWithoutPassword(UrlRedirectCacheData cacheData, RedirectWithoutPasswordOData ret) {
-        // Check URL status
-        if (!cacheData.isAvailableForRedirect()) {
-            ret.setErrorCode((cacheData.getStatus() == Url.UrlStatus.EXPIRED) ? ErrorCode.URL_EXPIRED : ErrorCode.URL_DISABLED);
-            return ret;
+    private ErrorCode checkPassword(String password, String ipAddress, RedirectDecision decision) {
+        try {
+            String key = PasswordHashingService.clientKey(decision.getShortCode(), ipAddress);
+            boolean matches = passwordHashingService.matches(key, password,
+                    decision.getPasswordHash(), newHash -> upgradePasswordHash(decision, newHash));
+            return matches ? ErrorCode.SUCCESS : ErrorCode.PASSWORD_IN_CORRECT;
+        } catch (PasswordHashingRejectedException e) {
+            return ErrorCode.SYSTEM_BUSY;
         }
+    }
 
-        // Check if URL has password
-        if (cacheData.isPasswordProtected()) {
-            ret.setErrorCode(ErrorCode.PASSWORD_REQUIRED);
-            ret.setShortCode(cacheData.getShortCode());
-            return ret;
+    /**
+     * Store the re-hashed password and drop the cached decision that still holds the old hash
+     */
+    private void upgradePasswordHash(RedirectDecision decision, String newHash) {
+        if (urlMasterRepository.upgradePasswordHash(decision.getUrlId(), decision.getPasswordHash(), newHash) > 0) {
+            urlRedirectCacheService.evict(decision.getShortCode());
         }
-
-        ret.setOriginalUrl(cacheData.getOriginalUrl());
-        ret.setErrorCode(ErrorCode.SUCCESS);
-        return ret;
     }
 
     /**
-     * Cache URL redirect info using manual cache operations
+     * Get the redirect decision from cache, loading the URL from the slave database on a miss
      */
-    @CachePut(value = "urlRedirectCache", key = "#shortCode")
-    private UrlRedirectCacheData cacheRedirectInfo(String shortCode, UrlRedirectCacheData cacheData) {
-        return cacheData;
+    private RedirectDecision findRedirectDecision(String shortCode) {
+        return urlRedirectCacheService.getOrLoad(shortCode, this::loadRedirectInfo);
     }
 
     /**
-     * Get cached URL redirect info
+     * Load URL redirect info from the slave database, null if not found
      */
-    @Cacheable(value = "urlRedirectCache", key = "#shortCode")
-    private UrlRedirectCacheData getCachedRedirectInfo(String shortCode) {
-        return null; // Will be populated by cache if exists
+    private UrlRedirectCacheData loadRedirectInfo(String shortCode) {
+        long urlId = shortCodeCodec.decode(shortCode);
+        if (urlId == Base62Util.INVALID) {
+            return null;
+        }
+
+        Optional<Url> optionalUrl = urlSlaveRepository.findById(urlId);
+
+        return optionalUrl.map(url -> UrlRedirectCacheData.fromUrl(url, shortCode)).orElse(null);
     }
 }
@@ -0,0 +1,160 @@
+package org.example.service.UrlRedirect;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.constants.ErrorCode;
+import org.example.dto.response.ApiResponse;
+import org.example.dto.response.RedirectResponse;
+import org.example.entity.Url;
+import org.example.service.data.RedirectDecision;
+import org.example.service.data.UrlRedirectCacheData;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Resolves {@link UrlRedirectCacheData} into a {@link RedirectDecision}, including the configured native redirect
+ * response and the pre-serialized JSON redirect response.
+ */
+@Component
+public class RedirectDecisionFactory {
+
+    private static final String NO_STORE = CacheControl.noStore().getHeaderValue();
+
+    private final ObjectMapper objectMapper;
+    private final HttpStatus redirectStatus;
+    private final String redirectCacheControl;
+    private final String passwordPageUrl;
+    private final RedirectDecision notFound;
+
+    /**
+     * @param redirectStatusCode 301, 302, 307 or 308. Permanent redirects are cached by browsers, so later clicks are not tracked.
+     * @param cacheMaxAgeSeconds max-age for successful redirects, 0 means no-store
+     * @param passwordPageUrl frontend page that asks for the password, the short code is appended. Empty returns 403.
+     */
+    public RedirectDecisionFactory(ObjectMapper objectMapper,
+                                   @Value("${url.redirect.status:302}") int redirectStatusCode,
+                                   @Value("${url.redirect.cache-max-age-seconds:0}") long cacheMaxAgeSeconds,
+                                   @Value("${url.redirect.password-page-url:}") String passwordPageUrl) {
+        this.objectMapper = objectMapper;
+        this.redirectStatus = HttpStatus.valueOf(redirectStatusCode);
+        if (redirectStatus != HttpStatus.MOVED_PERMANENTLY && redirectStatus != HttpStatus.FOUND
+                && redirectStatus != HttpStatus.TEMPORARY_REDIRECT && redirectStatus != HttpStatus.PERMANENT_REDIRECT) {
+            throw new IllegalStateException("url.redirect.status must be 301, 302, 307 or 308 but was " + redirectStatusCode);
+        }
+        this.redirectCacheControl = cacheMaxAgeSeconds > 0
+                ? CacheControl.maxAge(Duration.ofSeconds(cacheMaxAgeSeconds)).cachePublic().getHeaderValue()
+                : NO_STORE;
+        this.passwordPageUrl = passwordPageUrl;
+        this.notFound = error(null, ErrorCode.URL_NOT_FOUND);
+    }
+
+    /**
+     * Shared decision for unknown short codes
+     */
+    public RedirectDecision notFound() {
+        return notFound;
+    }
+
+    public RedirectDecision create(UrlRedirectCacheData data) {
+        if (!data.isAvailableForRedirect()) {
+            return error(data, data.getStatus() == Url.UrlStatus.EXPIRED ? ErrorCode.URL_EXPIRED : ErrorCode.URL_DISABLED);
+        }
+
+        // Still ACTIVE but with an expiry: the decision carries its URL_EXPIRED counterpart, see RedirectDecision#at
+        RedirectDecision expired = data.getExpiresAtMillis() != null ? error(data, ErrorCode.URL_EXPIRED) : null;
+        if (expired != null && System.currentTimeMillis() >= data.getExpiresAtMillis()) {
+            return expired;
+        }
+
+        if (data.isPasswordProtected()) {
+            RedirectResponse response = RedirectResponse.builder()
+                    .passwordRequired(true)
+                    .shortCode(data.getShortCode())
+                    .build();
+            boolean hasPasswordPage = !passwordPageUrl.isEmpty();
+            return available(data, ErrorCode.PASSWORD_REQUIRED, expired)
+                    .httpStatus(hasPasswordPage ? HttpStatus.FOUND.value() : HttpStatus.FORBIDDEN.value())
+                    .location(hasPasswordPage ? passwordPageUrl + data.getShortCode() : null)
+                    .cacheControl(NO_STORE)
+                    .jsonStatus(HttpStatus.OK.value())
+                    .jsonBody(toJson(ApiResponse.success("Password required", response)))
+                    // Never cached by shared caches, it is only served to visitors that proved the password
+                    .unlocked(redirect(data, NO_STORE, expired))
+                    .build();
+        }
+        return redirect(data, redirectCacheControl, expired);
+    }
+
+    private RedirectDecision redirect(UrlRedirectCacheData data, String cacheControl, RedirectDecision expired) {
+        RedirectResponse response = RedirectResponse.builder()
+                .originalUrl(data.getOriginalUrl())
+                .passwordRequired(false)
+                .shortCode(data.getShortCode())
+                .build();
+        return available(data, ErrorCode.SUCCESS, expired)
+                .httpStatus(redirectStatus.value())
+                .location(data.getOriginalUrl())
+                .cacheControl(cacheControl)
+                .jsonStatus(HttpStatus.OK.value())
+                .jsonBody(toJson(ApiResponse.success("Redirect URL retrieved", response)))
+                .build();
+    }
+
+    private RedirectDecision error(UrlRedirectCacheData data, ErrorCode errorCode) {
+        HttpStatus status = errorCode == ErrorCode.URL_NOT_FOUND ? HttpStatus.NOT_FOUND : HttpStatus.GONE;
+        return base(data, errorCode)
+                .httpStatus(status.value())
+                .cacheControl(NO_STORE)
+                .jsonStatus(status.value())
+                .jsonBody(toJson(ApiResponse.error(getErrorMessage(errorCode), errorCode.toString())))
+                .build();
+    }
+
+    private RedirectDecision.RedirectDecisionBuilder available(UrlRedirectCacheData data, ErrorCode errorCode,
+                                                               RedirectDecision expired) {
+        RedirectDecision.RedirectDecisionBuilder builder = base(data, errorCode);
+        if (expired != null) {
+            builder.expiresAtMillis(data.getExpiresAtMillis()).expired(expired);
+        }
+        return builder;
+    }
+
+    private RedirectDecision.RedirectDecisionBuilder base(UrlRedirectCacheData data, ErrorCode errorCode) {
+        RedirectDecision.RedirectDecisionBuilder builder = RedirectDecision.builder().errorCode(errorCode);
+        if (data != null) {
+            builder.urlId(data.getUrlId())
+                    .shortCode(data.getShortCode())
+                    .originalUrl(data.getOriginalUrl())
+                    .passwordHash(data.getPasswordHash());
+        }
+        return builder;
+    }
+
+    private byte[] toJson(ApiResponse<?> response) {
+        try {
+            return objectMapper.writeValueAsBytes(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize redirect response", e);
+        }
+    }
+
+    /**
+     * Same messages as UrlController for the outcomes a redirect lookup can have
+     */
+    private String getErrorMessage(ErrorCode errorCode) {
+        switch (errorCode) {
+            case URL_NOT_FOUND:
+                return "URL not found";
+            case URL_EXPIRED:
+                return "URL has expired";
+            case URL_DISABLED:
+                return "URL has been disabled";
+            default:
+                return "Unknown error";
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package org.example.service.UrlRedirect;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.example.service.data.RedirectDecision;
+import org.example.service.password.PasswordHashingService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseCookie;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Password checks for protected links, with optional signed redirect grants.
+ * <p>
+ * After a successful BCrypt verification a grant is issued: {@code <expiry epoch seconds>.<HMAC-SHA256>} over the
+ * short code, the expiry and the stored password hash. Presenting the grant on later redirects of the same short code
+ * costs one HMAC instead of one BCrypt. Changing the password changes the hash, so all grants for the old password
+ * stop validating without any server side state.
+ * <p>
+ * Grants are off unless {@code url.redirect.grant.enabled=true}. All instances must share {@code url.redirect.grant.secret},
+ * otherwise a grant only validates on the instance that issued it; startup fails when grants are enabled and the
+ * secret is shorter than {@value #MIN_SECRET_BYTES} bytes.
+ */
+@Service
+public class RedirectGrantService {
+
+    public static final String GRANT_HEADER = "X-Redirect-Grant";
+    private static final String COOKIE_PREFIX = "rg_";
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    // HMAC-SHA256 output size, a shorter key weakens the signature
+    static final int MIN_SECRET_BYTES = 32;
+
+    private final boolean enabled;
+    private final long ttlSeconds;
+    private final boolean secureCookie;
+    private final Mac prototype;
+
+    private final PasswordHashingService passwordHashingService;
+
+    private final Timer grantVerifyTimer;
+    private final Counter grantsIssued;
+    private final Counter grantsAccepted;
+    private final Counter grantsRejected;
+    private final Counter bcryptCpuSaved;
+
+    public RedirectGrantService(PasswordHashingService passwordHashingService,
+                                MeterRegistry meterRegistry,
+                                @Value("${url.redirect.grant.enabled:false}") boolean enabled,
+                                @Value("${url.redirect.grant.ttl-seconds:900}") long ttlSeconds,
+                                @Value("${url.redirect.grant.secret:}") String secret,
+                                @Value("${url.redirect.grant.secure-cookie:true}") boolean secureCookie) {
+        this.enabled = enabled;
+        this.ttlSeconds = ttlSeconds;
+        this.secureCookie = secureCookie;
+        this.prototype = enabled ? createMac(secret) : null;
+        this.passwordHashingService = passwordHashingService;
+
+        this.grantVerifyTimer = Timer.builder("url.redirect.grant.verify")
+                .description("Wall time of redirect grant HMAC verifications")
+                .register(meterRegistry);
+        this.grantsIssued = Counter.builder("url.redirect.grant.issued").register(meterRegistry);
+        this.grantsAccepted = Counter.builder("url.redirect.grant.accepted")
+                .description("Protected redirects served from a grant instead of BCrypt")
+                .register(meterRegistry);
+        this.grantsRejected = Counter.builder("url.redirect.grant.rejected")
+                .description("Grants that were expired, malformed or signed for another password")
+                .register(meterRegistry);
+        this.bcryptCpuSaved = Counter.builder("url.redirect.grant.bcrypt.cpu.saved")
+                .description("Estimated BCrypt CPU time avoided by accepted grants")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * True if the grant was issued for this short code and its current password and has not expired
+     */
+    public boolean isGranted(String grant, RedirectDecision decision) {
+        if (!enabled || grant == null || grant.isEmpty()) {
+            return false;
+        }
+
+        long start = System.nanoTime();
+        boolean valid = validate(grant, decision);
+        grantVerifyTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        if (valid) {
+            grantsAccepted.increment();
+            bcryptCpuSaved.increment(passwordHashingService.getVerifyCpuNanosAverage() / 1_000_000_000d);
+        } else {
+            grantsRejected.increment();
+        }
+        return valid;
+    }
+
+    /**
+     * Grant for a password that was just verified, null when grants are disabled
+     */
+    public String issue(RedirectDecision decision) {
+        if (!enabled) {
+            return null;
+        }
+        long expiresAt = System.currentTimeMillis() / 1000 + ttlSeconds;
+        grantsIssued.increment();
+        return expiresAt + "." + Base64.getUrlEncoder().withoutPadding().encodeToString(sign(decision, expiresAt));
+    }
+
+    /**
+     * Grant cookies are per short code so a visitor can hold grants for several protected links
+     */
+    public String cookieName(String shortCode) {
+        return COOKIE_PREFIX + shortCode;
+    }
+
+    public ResponseCookie cookie(String shortCode, String grant) {
+        return ResponseCookie.from(cookieName(shortCode), grant)
+                .path("/")
+                .maxAge(Duration.ofSeconds(ttlSeconds))
+                .httpOnly(true)
+                .secure(secureCookie)
+                .sameSite("Lax")
+                .build();
+    }
+
+    private boolean validate(String grant, RedirectDecision decision) {
+        int dot = grant.indexOf('.');
+        if (dot <= 0 || decision.getPasswordHash() == null) {
+            return false;
+        }
+
+        long expiresAt;
+        byte[] signature;
+        try {
+            expiresAt = Long.parseLong(grant, 0, dot, 10);
+            signature = Base64.getUrlDecoder().decode(grant.substring(dot + 1));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+
+        if (expiresAt < System.currentTimeMillis() / 1000) {
+            return false;
+        }
+        return MessageDigest.isEqual(signature, sign(decision, expiresAt));
+    }
+
+    private byte[] sign(RedirectDecision decision, long expiresAt) {
+        Mac mac;
+        try {
+            mac = (Mac) prototype.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException("HMAC provider does not support clone", e);
+        }
+        mac.update(decision.getShortCode().getBytes(StandardCharsets.UTF_8));
+        mac.update((byte) '\n');
+        mac.update(Long.toString(expiresAt).getBytes(StandardCharsets.US_ASCII));
+        mac.update((byte) '\n');
+        // Binds the grant to the password version, a new password means a new hash
+        return mac.doFinal(decision.getPasswordHash().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Mac createMac(String secret) {
+        byte[] key = secret.getBytes(StandardCharsets.UTF_8);
+        if (key.length < MIN_SECRET_BYTES) {
+            throw new IllegalStateException("url.redirect.grant.secret must be at least " + MIN_SECRET_BYTES
+                    + " bytes when url.redirect.grant.enabled=true, and the same on every instance");
+        }
+
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(new SecretKeySpec(key, HMAC_ALGORITHM));
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Failed to initialize " + HMAC_ALGORITHM, e);
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package org.example.service.UrlRedirect;
 
+import org.example.service.data.RedirectDirectIData;
+import org.example.service.data.RedirectDecision;
 import org.example.service.data.RedirectWithPasswordIData;
 import org.example.service.data.RedirectWithPasswordOData;
 import org.example.service.data.RedirectWithoutPasswordIData;
@@ -16,4 +18,14 @@ public interface UrlRedirectService {
      * Redirect with click tracking - captures user information and sends to analytics
      */
     RedirectWithTrackingOData redirectWithTracking(RedirectWithTrackingIData inputData);
+
+    /**
+     * Precomputed redirect decision for a short code, without click tracking
+     */
+    RedirectDecision getRedirectDecision(String shortCode);
+
+    /**
+     * Resolve a short code for the native HTTP redirect endpoint, click tracking is handed off asynchronously
+     */
+    RedirectDecision redirectDirect(RedirectDirectIData inputData);
 }
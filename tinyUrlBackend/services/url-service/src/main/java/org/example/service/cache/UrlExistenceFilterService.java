@@ -0,0 +1,207 @@
+package org.example.service.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.repository.slave.UrlSlaveRepository;
+import org.example.service.data.UrlIdProjection;
+import org.example.service.idAllocator.IdBlockAllocator;
+import org.example.util.LongBloomFilter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory Bloom filter of allocated URL ids.
+ * Built from the urls table at startup, then kept up to date by createUrlInfo on this node
+ * and by a periodic catch-up scan of the slave for ids created on other nodes.
+ * <p>
+ * The filter only answers "definitely absent" for ids up to {@code authoritativeUpToId}: ids above it may have been
+ * created on another node since the last scan, so they always go through the normal lookup.
+ * The bound only moves past rows older than the settle window, so rows that commit or replicate late are not missed,
+ * and stays below the lowest id block still leased by any node, whose unused ids may be inserted later.
+ * <p>
+ * Ids cannot be removed from a Bloom filter. Purged URLs are counted instead, and once they reach
+ * {@code cache.redirect.filter.rebuild-purged-ratio} of the filter's ids the next catch-up rebuilds it without them.
+ */
+@Slf4j
+@Service
+public class UrlExistenceFilterService {
+
+    private static final String URL_ID_SEQUENCE = "urls";
+
+    @Autowired
+    private UrlSlaveRepository urlSlaveRepository;
+
+    @Autowired
+    private IdBlockAllocator idBlockAllocator;
+
+    @Value("${cache.redirect.filter.enabled:true}")
+    private boolean enabled;
+
+    @Value("${cache.redirect.filter.min-expected-insertions:1000000}")
+    private long minExpectedInsertions;
+
+    @Value("${cache.redirect.filter.false-positive-probability:0.01}")
+    private double falsePositiveProbability;
+
+    @Value("${cache.redirect.filter.scan-batch-size:10000}")
+    private int scanBatchSize;
+
+    @Value("${cache.redirect.filter.settle-window-seconds:120}")
+    private long settleWindowSeconds;
+
+    @Value("${cache.redirect.filter.rebuild-purged-ratio:0.1}")
+    private double rebuildPurgedRatio;
+
+    private volatile LongBloomFilter filter;
+
+    // Ids purged since the current filter was built, still in it as false positives
+    private final AtomicLong purgedSinceRebuild = new AtomicLong();
+
+    private volatile long authoritativeUpToId = -1;
+
+    // Not synchronized: a virtual thread holding a monitor during the JDBC scan would pin its carrier
+    private final ReentrantLock scanLock = new ReentrantLock();
+
+    /**
+     * Returns true only when the id is known not to exist, without any Redis or database I/O
+     */
+    public boolean isKnownAbsent(long urlId) {
+        LongBloomFilter current = filter;
+        return current != null && urlId <= authoritativeUpToId && !current.mightContain(urlId);
+    }
+
+    /**
+     * Record an id allocated on this node
+     */
+    public void add(long urlId) {
+        LongBloomFilter current = filter;
+        if (current != null) {
+            current.add(urlId);
+        }
+    }
+
+    /**
+     * Record ids deleted by the purge, see the class comment
+     */
+    public void onUrlsPurged(int count) {
+        purgedSinceRebuild.addAndGet(count);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Build a fresh filter from the whole urls table and swap it in
+     */
+    public void rebuild() {
+        scanLock.lock();
+        try {
+            doRebuild();
+        } finally {
+            scanLock.unlock();
+        }
+    }
+
+    private void doRebuild() {
+        long startTime = System.currentTimeMillis();
+        try {
+            // Purges from here on may or may not be seen by the scan, counting them again is the safe side
+            purgedSinceRebuild.set(0);
+            long expected = Math.max(minExpectedInsertions, urlSlaveRepository.count() * 2);
+            LongBloomFilter newFilter = new LongBloomFilter(expected, falsePositiveProbability);
+
+            long settledUpToId = settledBound(newFilter, 0);
+
+            filter = newFilter;
+            authoritativeUpToId = settledUpToId;
+
+            log.info("URL existence filter rebuilt: ids={}, authoritativeUpToId={}, took={} ms",
+                    newFilter.getInsertions(), authoritativeUpToId, System.currentTimeMillis() - startTime);
+        } catch (RuntimeException e) {
+            // Without a filter every lookup simply falls through to the cache/database
+            log.error("Failed to rebuild URL existence filter", e);
+        }
+    }
+
+    /**
+     * Pick up ids created on other nodes since the last scan
+     */
+    @Scheduled(fixedDelayString = "${cache.redirect.filter.catch-up-interval-ms:30000}")
+    public void catchUp() {
+        LongBloomFilter current = filter;
+        if (!enabled || current == null) {
+            return;
+        }
+
+        scanLock.lock();
+        try {
+            if (current.getInsertions() > current.getExpectedInsertions()
+                    || purgedSinceRebuild.get() > current.getInsertions() * rebuildPurgedRatio) {
+                doRebuild();
+                return;
+            }
+
+            // Rescan from the authoritative bound so rows that were not settled last time are looked at again
+            authoritativeUpToId = settledBound(current, authoritativeUpToId);
+        } catch (RuntimeException e) {
+            log.warn("URL existence filter catch-up failed: {}", e.getMessage());
+        } finally {
+            scanLock.unlock();
+        }
+    }
+
+    /**
+     * Scan after {@code cursor}, capped below the open id blocks. Leases are read first: blocks leased after that
+     * start above every row the scan can see.
+     */
+    private long settledBound(LongBloomFilter target, long cursor) {
+        long lowestOpenId = idBlockAllocator.lowestOpenId(URL_ID_SEQUENCE, settleWindowSeconds);
+        return Math.min(scan(target, cursor), lowestOpenId - 1);
+    }
+
+    /**
+     * Add every id after {@code cursor} to the filter.
+     * Returns the highest id below the first row younger than the settle window.
+     */
+    private long scan(LongBloomFilter target, long cursor) {
+        LocalDateTime settleBefore = LocalDateTime.ofInstant(Instant.now().minusSeconds(settleWindowSeconds), ZoneOffset.UTC);
+        boolean settled = true;
+        long lastId = cursor;
+        long settledBound = cursor;
+
+        while (true) {
+            List<UrlIdProjection> batch = urlSlaveRepository.findIdsAfter(lastId, PageRequest.of(0, scanBatchSize));
+            for (UrlIdProjection row : batch) {
+                target.add(row.getId());
+                if (settled && row.getCreatedAt() != null && row.getCreatedAt().isAfter(settleBefore)) {
+                    settled = false;
+                }
+                if (settled) {
+                    settledBound = row.getId();
+                }
+                lastId = row.getId();
+            }
+
+            if (batch.size() < scanBatchSize) {
+                break;
+            }
+        }
+
+        return settledBound;
+    }
+}
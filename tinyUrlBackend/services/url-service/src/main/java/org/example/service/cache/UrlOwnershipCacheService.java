@@ -0,0 +1,126 @@
+package org.example.service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.example.entity.ServiceReference;
+import org.example.repository.master.ServiceReferenceMasterRepository;
+import org.example.repository.slave.ServiceReferenceSlaveRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * On-heap cache of URL owners: url id to the user ids referencing it in service_references, almost always exactly
+ * one, kept as a long[] so an entry costs a few dozen bytes.
+ * <p>
+ * Misses read the slave. A URL without owners there is looked up again on the master, since it may simply not have
+ * replicated yet. A URL without owners on the master as well is remembered in a separate negative cache for
+ * {@code cache.ownership.negative.ttl-seconds}, so repeated checks of ids that do not exist stay off the master;
+ * the TTL is short because a URL created on another node in that window is denied until it runs out.
+ * Ownership only changes on create and delete, both write through on this node. Other nodes may keep a deleted URL's
+ * owner until the TTL, which is harmless because the URL itself is gone.
+ */
+@Slf4j
+@Service
+public class UrlOwnershipCacheService {
+
+    @Autowired
+    private ServiceReferenceSlaveRepository serviceReferenceSlaveRepository;
+
+    @Autowired
+    private ServiceReferenceMasterRepository serviceReferenceMasterRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${cache.ownership.max-size:200000}")
+    private long maxSize;
+
+    @Value("${cache.ownership.ttl-minutes:30}")
+    private long ttlMinutes;
+
+    @Value("${cache.ownership.negative.max-size:100000}")
+    private long negativeMaxSize;
+
+    @Value("${cache.ownership.negative.ttl-seconds:5}")
+    private long negativeTtlSeconds;
+
+    private Cache<Long, long[]> owners;
+
+    // URL ids without owners on the master
+    private Cache<Long, Boolean> noOwners;
+
+    @PostConstruct
+    public void init() {
+        owners = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .recordStats()
+                .build();
+
+        noOwners = Caffeine.newBuilder()
+                .maximumSize(negativeMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(negativeTtlSeconds))
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, owners, "urlOwnershipCache");
+        CaffeineCacheMetrics.monitor(meterRegistry, noOwners, "urlOwnershipNegativeCache");
+    }
+
+    public boolean isOwner(long urlId, long userId) {
+        long[] userIds = owners.getIfPresent(urlId);
+        if (userIds == null) {
+            if (noOwners.getIfPresent(urlId) != null) {
+                return false;
+            }
+            userIds = load(urlId);
+        }
+        for (long owner : userIds) {
+            if (owner == userId) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Write-through for a URL created on this node, after its service_references row committed
+     */
+    public void onUrlCreated(long urlId, long userId) {
+        noOwners.invalidate(urlId);
+        owners.put(urlId, new long[]{userId});
+    }
+
+    /**
+     * Write-through for a URL deleted on this node
+     */
+    public void onUrlDeleted(long urlId) {
+        owners.invalidate(urlId);
+    }
+
+    private long[] load(long urlId) {
+        List<Long> userIds = serviceReferenceSlaveRepository.findTargetIds(
+                urlId, ServiceReference.LocalTable.Urls, ServiceReference.TargetTable.Users);
+        if (userIds.isEmpty()) {
+            // Not replicated yet, or no such URL
+            userIds = serviceReferenceMasterRepository.findTargetIds(
+                    urlId, ServiceReference.LocalTable.Urls, ServiceReference.TargetTable.Users);
+            if (userIds.isEmpty()) {
+                noOwners.put(urlId, Boolean.TRUE);
+                return new long[0];
+            }
+        }
+
+        long[] loaded = userIds.stream().mapToLong(Long::longValue).toArray();
+        owners.put(urlId, loaded);
+        return loaded;
+    }
+}
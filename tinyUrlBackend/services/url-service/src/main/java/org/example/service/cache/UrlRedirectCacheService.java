@@ -0,0 +1,545 @@
+package org.example.service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.service.UrlRedirect.RedirectDecisionFactory;
+import org.example.service.data.RedirectDecision;
+import org.example.service.data.UrlRedirectCacheData;
+import org.example.service.shortCode.ShortCodeCodec;
+import org.example.util.Base62Util;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.redis.cache.CacheKeyPrefix;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+
+/**
+ * Two-tier cache for URL redirect info.
+ * L1 is a bounded on-heap near cache (size + TTL eviction) of precomputed {@link RedirectDecision}s,
+ * L2 is the Redis "urlRedirectCache" of {@link UrlRedirectCacheData}.
+ * Changes made on any node are broadcast over a Redis topic so every node drops its L1 copy.
+ * <p>
+ * Misses are single-flight per short code: only one load runs at a time and concurrent callers wait for its result.
+ * A load only caches its result if no invalidation of the short code happened while it ran, so a read that started
+ * before an update committed cannot put the old value back after the update's eviction.
+ * Hot entries are refreshed in the background shortly before they expire (probabilistic early expiration),
+ * so a popular link does not fall out of the cache all at once.
+ * <p>
+ * Unknown short codes are rejected before any Redis or database I/O, either by a short-lived negative cache
+ * or by the Bloom filter of allocated ids in {@link UrlExistenceFilterService}.
+ * <p>
+ * Short codes pinned by the heavy-hitter detection weigh nothing in the near cache, so size eviction never drops
+ * them; TTL and invalidations still apply.
+ */
+@Slf4j
+@Service
+public class UrlRedirectCacheService {
+
+    public static final String REDIRECT_CACHE_NAME = "urlRedirectCache";
+
+    // Power of two; more stripes only mean fewer loads discarded because another code in the stripe was invalidated
+    private static final int GENERATION_STRIPES = 4096;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired
+    private RedissonClient redissonClient;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private UrlExistenceFilterService urlExistenceFilterService;
+
+    @Autowired
+    private ShortCodeCodec shortCodeCodec;
+
+    @Autowired
+    private RedirectDecisionFactory redirectDecisionFactory;
+
+    @Value("${cache.redirect.near.max-size:100000}")
+    private long nearCacheMaxSize;
+
+    @Value("${cache.redirect.near.ttl-seconds:60}")
+    private long nearCacheTtlSeconds;
+
+    @Value("${cache.redirect.invalidation-topic:urlRedirectCache:invalidate}")
+    private String invalidationTopicName;
+
+    @Value("${cache.redirect.negative.max-size:100000}")
+    private long negativeCacheMaxSize;
+
+    @Value("${cache.redirect.negative.ttl-seconds:30}")
+    private long negativeCacheTtlSeconds;
+
+    @Value("${cache.redirect.load-timeout-ms:2000}")
+    private long loadTimeoutMs;
+
+    @Value("${cache.redirect.refresh.beta:1.0}")
+    private double refreshBeta;
+
+    @Value("${cache.redirect.refresh.min-delta-ms:1000}")
+    private long refreshMinDeltaMs;
+
+    @Autowired
+    @Qualifier("redirectRefreshExecutor")
+    private TaskExecutor redirectRefreshExecutor;
+
+    private final ConcurrentHashMap<String, CompletableFuture<RedirectDecision>> inFlightLoads = new ConcurrentHashMap<>();
+
+    // Invalidation generations striped by short code, bumped before every local invalidation
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+    private Cache<String, NearCacheEntry> nearCache;
+
+    private Cache<String, Boolean> negativeCache;
+
+    private volatile Set<String> pinnedShortCodes = Set.of();
+
+    private Counter coalescedLoadCounter;
+
+    private Counter redisLoadCounter;
+
+    private Counter databaseLoadCounter;
+
+    private Counter earlyRefreshCounter;
+
+    private Counter discardedLoadCounter;
+
+    private Counter negativeCacheRejectCounter;
+
+    private Counter filterRejectCounter;
+
+    private Counter invalidCodeRejectCounter;
+
+    private RTopic invalidationTopic;
+
+    private int invalidationListenerId;
+
+    @PostConstruct
+    public void init() {
+        nearCache = Caffeine.newBuilder()
+                .maximumWeight(nearCacheMaxSize)
+                .weigher((String shortCode, NearCacheEntry entry) -> pinnedShortCodes.contains(shortCode) ? 0 : 1)
+                .expireAfterWrite(Duration.ofSeconds(nearCacheTtlSeconds))
+                .recordStats()
+                .build();
+
+        // Exposes cache.gets{result=hit|miss}, cache.evictions, cache.size for the near cache
+        CaffeineCacheMetrics.monitor(meterRegistry, nearCache, "urlRedirectNearCache");
+
+        negativeCache = Caffeine.newBuilder()
+                .maximumSize(negativeCacheMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(negativeCacheTtlSeconds))
+                .build();
+
+        coalescedLoadCounter = Counter.builder("url.redirect.cache.load.coalesced")
+                .description("Cache miss loads that waited for an in-flight load of the same short code")
+                .register(meterRegistry);
+        redisLoadCounter = Counter.builder("url.redirect.cache.load")
+                .tag("source", "redis")
+                .register(meterRegistry);
+        databaseLoadCounter = Counter.builder("url.redirect.cache.load")
+                .tag("source", "database")
+                .register(meterRegistry);
+        earlyRefreshCounter = Counter.builder("url.redirect.cache.refresh.early")
+                .description("Background refreshes of hot entries before their TTL expired")
+                .register(meterRegistry);
+        discardedLoadCounter = Counter.builder("url.redirect.cache.load.discarded")
+                .description("Loads not cached because the short code was invalidated while they ran")
+                .register(meterRegistry);
+        negativeCacheRejectCounter = Counter.builder("url.redirect.cache.rejected")
+                .tag("reason", "negative-cache")
+                .register(meterRegistry);
+        filterRejectCounter = Counter.builder("url.redirect.cache.rejected")
+                .tag("reason", "bloom-filter")
+                .register(meterRegistry);
+        invalidCodeRejectCounter = Counter.builder("url.redirect.cache.rejected")
+                .tag("reason", "invalid-code")
+                .register(meterRegistry);
+
+        invalidationTopic = redissonClient.getTopic(invalidationTopicName, StringCodec.INSTANCE);
+        invalidationListenerId = invalidationTopic.addListener(String.class,
+                (channel, message) -> {
+                    // Bulk creation publishes a comma separated list, short codes never contain commas
+                    for (String shortCode : message.split(",")) {
+                        invalidateLocal(shortCode);
+                    }
+                });
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (invalidationTopic != null) {
+            invalidationTopic.removeListener(invalidationListenerId);
+        }
+    }
+
+    /**
+     * Get the redirect decision from the near cache, falling back to Redis and then to the loader.
+     * Concurrent misses for the same short code are collapsed into a single load.
+     * Returns the shared not-found decision when the loader does not find the short code.
+     */
+    public RedirectDecision getOrLoad(String shortCode, Function<String, UrlRedirectCacheData> loader) {
+        NearCacheEntry entry = nearCache.getIfPresent(shortCode);
+        if (entry != null) {
+            if (entry.shouldRefreshEarly(System.nanoTime(), refreshBeta)) {
+                refreshAsync(shortCode, loader);
+            }
+            // A cached ACTIVE decision may outlive its expiresAt until the expiry wheel evicts it
+            return entry.getDecision().at(System.currentTimeMillis());
+        }
+
+        if (negativeCache.getIfPresent(shortCode) != null) {
+            negativeCacheRejectCounter.increment();
+            return redirectDecisionFactory.notFound();
+        }
+
+        long urlId = shortCodeCodec.decode(shortCode);
+        if (urlId == Base62Util.INVALID) {
+            invalidCodeRejectCounter.increment();
+            return redirectDecisionFactory.notFound();
+        }
+
+        if (urlExistenceFilterService.isKnownAbsent(urlId)) {
+            filterRejectCounter.increment();
+            return redirectDecisionFactory.notFound();
+        }
+
+        CompletableFuture<RedirectDecision> pending = new CompletableFuture<>();
+        CompletableFuture<RedirectDecision> inFlight = inFlightLoads.putIfAbsent(shortCode, pending);
+        if (inFlight != null) {
+            coalescedLoadCounter.increment();
+            return awaitLoad(shortCode, inFlight, loader);
+        }
+
+        try {
+            RedirectDecision decision;
+            long generation = generation(shortCode);
+            UrlRedirectCacheData data = getFromRedis(shortCode);
+            if (data != null) {
+                redisLoadCounter.increment();
+                if (generation(shortCode) == generation) {
+                    decision = putNearCache(shortCode, data, 0);
+                } else {
+                    discardedLoadCounter.increment();
+                    decision = redirectDecisionFactory.create(data);
+                }
+            } else {
+                decision = loadAndCache(shortCode, loader);
+            }
+            pending.complete(decision);
+            return decision;
+        } catch (RuntimeException e) {
+            pending.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlightLoads.remove(shortCode, pending);
+        }
+    }
+
+    /**
+     * Store redirect info in both tiers
+     */
+    public void put(String shortCode, UrlRedirectCacheData data) {
+        putNearCache(shortCode, data, 0);
+        putRedis(shortCode, data);
+    }
+
+    /**
+     * Register a newly created URL: add it to the existence filter and drop any negative entry for its short code
+     */
+    public void onUrlCreated(Long urlId, String shortCode) {
+        urlExistenceFilterService.add(urlId);
+        negativeCache.invalidate(shortCode);
+
+        try {
+            invalidationTopic.publish(shortCode);
+        } catch (RuntimeException e) {
+            log.warn("Failed to publish redirect cache invalidation: shortCode={}, error={}", shortCode, e.getMessage());
+        }
+    }
+
+    /**
+     * Bulk variant of {@link #onUrlCreated}, one invalidation message for the whole batch
+     */
+    public void onUrlsCreated(List<Long> urlIds, List<String> shortCodes) {
+        if (shortCodes.isEmpty()) {
+            return;
+        }
+        urlIds.forEach(urlExistenceFilterService::add);
+        negativeCache.invalidateAll(shortCodes);
+
+        try {
+            invalidationTopic.publish(String.join(",", shortCodes));
+        } catch (RuntimeException e) {
+            log.warn("Failed to publish redirect cache invalidation: shortCodes={}, error={}", shortCodes.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * Evict redirect info from both tiers and tell the other nodes to drop their near cache copy
+     */
+    public void evict(String shortCode) {
+        invalidateLocal(shortCode);
+
+        try {
+            org.springframework.cache.Cache redisCache = cacheManager.getCache(REDIRECT_CACHE_NAME);
+            if (redisCache != null) {
+                redisCache.evict(shortCode);
+            }
+            invalidationTopic.publish(shortCode);
+        } catch (RuntimeException e) {
+            log.warn("Failed to evict redirect cache: shortCode={}, error={}", shortCode, e.getMessage());
+        }
+    }
+
+    /**
+     * Bulk variant of {@link #evict}: one Redis DEL and one invalidation message for all short codes
+     */
+    public void evictAll(List<String> shortCodes) {
+        if (shortCodes.isEmpty()) {
+            return;
+        }
+        shortCodes.forEach(this::invalidateLocal);
+
+        try {
+            String prefix = CacheKeyPrefix.simple().compute(REDIRECT_CACHE_NAME);
+            redisTemplate.delete(shortCodes.stream().map(prefix::concat).toList());
+            invalidationTopic.publish(String.join(",", shortCodes));
+        } catch (RuntimeException e) {
+            log.warn("Failed to evict redirect cache: shortCodes={}, error={}", shortCodes.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * Drop purged URLs from this node's near cache and from Redis. Every node handles the purge itself,
+     * so no invalidation message is published.
+     */
+    public void onUrlsPurged(List<String> shortCodes) {
+        shortCodes.forEach(this::bumpGeneration);
+        nearCache.invalidateAll(shortCodes);
+
+        try {
+            String prefix = CacheKeyPrefix.simple().compute(REDIRECT_CACHE_NAME);
+            redisTemplate.delete(shortCodes.stream().map(prefix::concat).toList());
+        } catch (RuntimeException e) {
+            log.warn("Failed to evict purged URLs from redirect cache: shortCodes={}, error={}", shortCodes.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * Replace the pinned short codes. An entry's weight is taken when it is written, so a pin takes effect with
+     * the entry's next load or early refresh, at most one near cache TTL later.
+     */
+    public void pin(Set<String> shortCodes) {
+        pinnedShortCodes = shortCodes;
+    }
+
+    /**
+     * Reload a hot entry from the database in the background, unless a load for it is already running
+     */
+    private void refreshAsync(String shortCode, Function<String, UrlRedirectCacheData> loader) {
+        CompletableFuture<RedirectDecision> pending = new CompletableFuture<>();
+        if (inFlightLoads.putIfAbsent(shortCode, pending) != null) {
+            return;
+        }
+
+        earlyRefreshCounter.increment();
+        try {
+            redirectRefreshExecutor.execute(() -> {
+                try {
+                    pending.complete(loadAndCache(shortCode, loader));
+                } catch (RuntimeException e) {
+                    log.warn("Early refresh of redirect cache failed: shortCode={}, error={}", shortCode, e.getMessage());
+                    pending.completeExceptionally(e);
+                } finally {
+                    inFlightLoads.remove(shortCode, pending);
+                }
+            });
+        } catch (RuntimeException e) {
+            // Executor rejected the refresh, the entry simply expires normally
+            inFlightLoads.remove(shortCode, pending);
+            pending.cancel(false);
+        }
+    }
+
+    private RedirectDecision awaitLoad(String shortCode, CompletableFuture<RedirectDecision> inFlight,
+                                       Function<String, UrlRedirectCacheData> loader) {
+        try {
+            return inFlight.get(loadTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            log.warn("Timed out waiting for in-flight redirect load, loading directly: shortCode={}", shortCode);
+            return toDecision(loader.apply(shortCode));
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for redirect load", e);
+        } catch (CancellationException e) {
+            return toDecision(loader.apply(shortCode));
+        }
+    }
+
+    /**
+     * Load from the database and cache the result, unless the short code was invalidated during the load.
+     * The generation is checked again after the writes: an invalidation that slipped in between the check and the
+     * writes would otherwise be overtaken by them, so they are undone instead.
+     */
+    private RedirectDecision loadAndCache(String shortCode, Function<String, UrlRedirectCacheData> loader) {
+        long generation = generation(shortCode);
+        long start = System.nanoTime();
+        UrlRedirectCacheData data = loader.apply(shortCode);
+        long loadNanos = System.nanoTime() - start;
+        databaseLoadCounter.increment();
+
+        if (generation(shortCode) != generation) {
+            discardedLoadCounter.increment();
+            return toDecision(data);
+        }
+
+        if (data == null) {
+            negativeCache.put(shortCode, Boolean.TRUE);
+            if (generation(shortCode) != generation) {
+                negativeCache.invalidate(shortCode);
+            }
+            return redirectDecisionFactory.notFound();
+        }
+
+        RedirectDecision decision = putNearCache(shortCode, data, loadNanos);
+        putRedis(shortCode, data);
+        if (generation(shortCode) != generation) {
+            discardedLoadCounter.increment();
+            nearCache.invalidate(shortCode);
+            deleteRedis(shortCode);
+        }
+        return decision;
+    }
+
+    private RedirectDecision toDecision(UrlRedirectCacheData data) {
+        return data != null ? redirectDecisionFactory.create(data) : redirectDecisionFactory.notFound();
+    }
+
+    private void invalidateLocal(String shortCode) {
+        bumpGeneration(shortCode);
+        nearCache.invalidate(shortCode);
+        negativeCache.invalidate(shortCode);
+    }
+
+    private long generation(String shortCode) {
+        return generations.get(generationStripe(shortCode));
+    }
+
+    private void bumpGeneration(String shortCode) {
+        generations.incrementAndGet(generationStripe(shortCode));
+    }
+
+    private static int generationStripe(String shortCode) {
+        int h = shortCode.hashCode();
+        return (h ^ (h >>> 16)) & (GENERATION_STRIPES - 1);
+    }
+
+    /**
+     * Resolve the decision once and keep it in the near cache
+     */
+    private RedirectDecision putNearCache(String shortCode, UrlRedirectCacheData data, long loadNanos) {
+        RedirectDecision decision = redirectDecisionFactory.create(data);
+        long delta = Math.max(loadNanos, TimeUnit.MILLISECONDS.toNanos(refreshMinDeltaMs));
+        long expiresAt = System.nanoTime() + TimeUnit.SECONDS.toNanos(nearCacheTtlSeconds);
+        nearCache.put(shortCode, new NearCacheEntry(decision, expiresAt, delta));
+        return decision;
+    }
+
+    private void putRedis(String shortCode, UrlRedirectCacheData data) {
+        try {
+            org.springframework.cache.Cache redisCache = cacheManager.getCache(REDIRECT_CACHE_NAME);
+            if (redisCache != null) {
+                redisCache.put(shortCode, data);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to write redirect cache to Redis: shortCode={}, error={}", shortCode, e.getMessage());
+        }
+    }
+
+    private void deleteRedis(String shortCode) {
+        try {
+            org.springframework.cache.Cache redisCache = cacheManager.getCache(REDIRECT_CACHE_NAME);
+            if (redisCache != null) {
+                redisCache.evict(shortCode);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to evict redirect cache from Redis: shortCode={}, error={}", shortCode, e.getMessage());
+        }
+    }
+
+    private UrlRedirectCacheData getFromRedis(String shortCode) {
+        try {
+            org.springframework.cache.Cache redisCache = cacheManager.getCache(REDIRECT_CACHE_NAME);
+            return redisCache != null ? redisCache.get(shortCode, UrlRedirectCacheData.class) : null;
+        } catch (RuntimeException e) {
+            // Redis being unavailable must not break redirects, the caller falls back to the database
+            log.warn("Failed to read redirect cache from Redis: shortCode={}, error={}", shortCode, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Near cache value: the resolved decision plus what is needed for probabilistic early refresh
+     */
+    private static final class NearCacheEntry {
+        private final RedirectDecision decision;
+        private final long expiresAtNanos;
+        private final long deltaNanos;
+
+        private NearCacheEntry(RedirectDecision decision, long expiresAtNanos, long deltaNanos) {
+            this.decision = decision;
+            this.expiresAtNanos = expiresAtNanos;
+            this.deltaNanos = deltaNanos;
+        }
+
+        RedirectDecision getDecision() {
+            return decision;
+        }
+
+        /**
+         * XFetch: refresh when now - delta * beta * ln(rand) passes the expiry time.
+         * The closer to expiry and the more often an entry is read, the more likely one read triggers a refresh.
+         */
+        boolean shouldRefreshEarly(long nowNanos, double beta) {
+            double gap = -deltaNanos * beta * Math.log(ThreadLocalRandom.current().nextDouble());
+            return nowNanos + (long) gap >= expiresAtNanos;
+        }
+    }
+}
@@ -14,4 +14,6 @@ public class CreateUrlInfoIData {
     private String title;
     private String password;
     private LocalDateTime expiresAt;
+    // null uses url.create.idempotent
+    private Boolean idempotent;
 }
@@ -18,4 +18,6 @@ public class CreateUrlInfoOData {
     private String title;
     private LocalDateTime createAt;
     private LocalDateTime expiredAt;
+    // The URL already existed, shortCode is the existing one
+    private boolean existing;
 }
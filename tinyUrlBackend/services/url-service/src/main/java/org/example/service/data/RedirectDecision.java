@@ -0,0 +1,55 @@
+package org.example.service.data;
+
+import lombok.Builder;
+import lombok.Getter;
+import org.example.constants.ErrorCode;
+
+/**
+ * Immutable outcome of a redirect lookup, resolved once when the URL is loaded into the near cache.
+ * Status, password and expiry checks, the HTTP response of the native redirect endpoint and the JSON body of
+ * GET /api/url/{shortCode}/redirect are all precomputed, so serving a cached redirect is a lookup plus a write.
+ * Expiry is the one check left for serving time, see {@link #at}.
+ */
+@Getter
+@Builder
+public class RedirectDecision {
+    /** SUCCESS, URL_NOT_FOUND, URL_EXPIRED, URL_DISABLED or PASSWORD_REQUIRED */
+    private final ErrorCode errorCode;
+    private final Long urlId;
+    private final String shortCode;
+    private final String originalUrl;
+    private final String passwordHash;
+
+    /** Response of the native redirect endpoint */
+    private final int httpStatus;
+    private final String location; // null when the response is not a redirect
+    private final String cacheControl;
+
+    /** Response of the JSON redirect endpoint; the array is shared and must not be modified */
+    private final int jsonStatus;
+    private final byte[] jsonBody;
+
+    /** For PASSWORD_REQUIRED: the redirect to serve once the password or a redirect grant has been verified */
+    private final RedirectDecision unlocked;
+
+    /** Epoch millis from which {@link #expired} is served instead, MAX_VALUE if the URL never expires */
+    @Builder.Default
+    private final long expiresAtMillis = Long.MAX_VALUE;
+    private final RedirectDecision expired;
+
+    /**
+     * The decision to serve at {@code nowMillis}: this one, or the URL_EXPIRED decision once expiresAt has passed.
+     * Covers the seconds between the deadline and the expiry wheel flipping the row and evicting the cached copies.
+     */
+    public RedirectDecision at(long nowMillis) {
+        return nowMillis < expiresAtMillis ? this : expired;
+    }
+
+    public boolean isRedirect() {
+        return errorCode == ErrorCode.SUCCESS;
+    }
+
+    public boolean isPasswordRequired() {
+        return errorCode == ErrorCode.PASSWORD_REQUIRED;
+    }
+}
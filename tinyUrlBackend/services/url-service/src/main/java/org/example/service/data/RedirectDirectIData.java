@@ -0,0 +1,19 @@
+package org.example.service.data;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RedirectDirectIData {
+    private String shortCode;
+    private String userId; // null for anonymous users
+    private String ipAddress;
+    private String userAgent;
+    private String referrer; // null if no referrer
+    private String grant; // redirect grant cookie, null if none
+}
@@ -12,4 +12,6 @@ import lombok.NoArgsConstructor;
 public class RedirectWithPasswordIData {
     private String shortCode;
     private String password;
+    private String ipAddress;
+    private String grant; // redirect grant from an earlier verification, null if none
 }
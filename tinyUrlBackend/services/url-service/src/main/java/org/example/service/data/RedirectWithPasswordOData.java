@@ -13,4 +13,5 @@ import org.example.constants.ErrorCode;
 public class RedirectWithPasswordOData {
     private ErrorCode errorCode;
     private String originUrl;
+    private String grant; // issued after a successful BCrypt check, null if grants are disabled
 }
@@ -12,6 +12,7 @@ import lombok.NoArgsConstructor;
 public class RedirectWithTrackingIData {
     private String shortCode;
     private String password; // null if no password required
+    private String grant; // redirect grant from an earlier verification, null if none
     private String userId; // null for anonymous users
     private String ipAddress;
     private String userAgent;
@@ -15,4 +15,5 @@ public class RedirectWithTrackingOData {
     private String originalUrl;
     private String shortCode; // for password required case
     private String correlationId; // for tracking the click event
+    private String grant; // issued after a successful BCrypt check, null if grants are disabled
 }
\ No newline at end of file
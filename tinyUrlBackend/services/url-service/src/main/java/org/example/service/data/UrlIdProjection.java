@@ -0,0 +1,8 @@
+package org.example.service.data;
+
+import java.time.LocalDateTime;
+
+public interface UrlIdProjection {
+    Long getId();
+    LocalDateTime getCreatedAt();
+}
@@ -6,6 +6,8 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.example.entity.Url;
 
+import java.time.ZoneOffset;
+
 /**
  * Unified cache DTO for URL redirect information
  * Contains fields needed for redirect operations
@@ -20,6 +22,8 @@ public class UrlRedirectCacheData {
     private String originalUrl;
     private String passwordHash;
     private Url.UrlStatus status;
+    // expiresAt as epoch millis (the cache serializer has no java.time support), null if the URL never expires
+    private Long expiresAtMillis;
     
     /**
      * Create from Url entity
@@ -31,11 +35,13 @@ public class UrlRedirectCacheData {
                 .originalUrl(url.getOriginalUrl())
                 .passwordHash(url.getPasswordHash())
                 .status(url.getStatus())
+                .expiresAtMillis(url.getExpiresAt() != null ? url.getExpiresAt().toInstant(ZoneOffset.UTC).toEpochMilli() : null)
                 .build();
     }
     
     /**
-     * Check if URL is available for redirect (not expired or disabled)
+     * Check if URL is available for redirect (not expired or disabled).
+     * Status only, a passed expiresAt is checked against the clock by {@link RedirectDecision#at}.
      */
     public boolean isAvailableForRedirect() {
         return status != Url.UrlStatus.EXPIRED && status != Url.UrlStatus.DISABLED;
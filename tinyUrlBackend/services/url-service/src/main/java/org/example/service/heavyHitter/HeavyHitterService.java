@@ -0,0 +1,365 @@
+package org.example.service.heavyHitter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.dto.response.HeavyHitterEntry;
+import org.example.dto.response.HeavyHittersResponse;
+import org.example.ratelimit.RateLimitDecision;
+import org.example.ratelimit.RateLimiter;
+import org.example.ratelimit.bucket.BucketPolicy;
+import org.example.service.cache.UrlRedirectCacheService;
+import org.example.util.RingBuffer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Streaming heavy-hitter detection of short codes (by clicks) and client IPs (by redirect lookups) over a rolling
+ * window, in fixed memory whatever the number of distinct keys, see {@link RollingHeavyHitters}.
+ * <p>
+ * Request threads only offer a hit into a bounded lock-free ring buffer and drop it when full; a single counter
+ * thread drains it into the sketches and, every refresh interval, publishes two snapshots:
+ * <ul>
+ *     <li>hot short codes, pinned in the redirect near cache so a flood of other codes cannot evict them</li>
+ *     <li>heavy client IPs, which must also pass the stricter escalation rate limit policy</li>
+ * </ul>
+ * The window covers between (sub-windows - 1) / sub-windows and all of window-seconds, depending on how far the
+ * current sub-window has run.
+ */
+@Slf4j
+@Service
+public class HeavyHitterService {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private UrlRedirectCacheService urlRedirectCacheService;
+
+    @Autowired
+    private ObjectProvider<RateLimiter> rateLimiterProvider;
+
+    @Value("${heavy-hitters.enabled:true}")
+    private boolean enabled;
+
+    @Value("${heavy-hitters.buffer-capacity:65536}")
+    private int bufferCapacity;
+
+    @Value("${heavy-hitters.window-seconds:60}")
+    private int windowSeconds;
+
+    @Value("${heavy-hitters.sub-windows:6}")
+    private int subWindows;
+
+    @Value("${heavy-hitters.sketch.depth:4}")
+    private int sketchDepth;
+
+    @Value("${heavy-hitters.sketch.width:4096}")
+    private int sketchWidth;
+
+    @Value("${heavy-hitters.top-k:256}")
+    private int topK;
+
+    @Value("${heavy-hitters.refresh-ms:1000}")
+    private long refreshMs;
+
+    @Value("${heavy-hitters.idle-wait-ms:5}")
+    private long idleWaitMs;
+
+    @Value("${heavy-hitters.pinning.enabled:true}")
+    private boolean pinningEnabled;
+
+    @Value("${heavy-hitters.pinning.max-codes:100}")
+    private int pinningMaxCodes;
+
+    @Value("${heavy-hitters.pinning.min-clicks:600}")
+    private long pinningMinClicks;
+
+    @Value("${heavy-hitters.escalation.enabled:true}")
+    private boolean escalationEnabled;
+
+    @Value("${heavy-hitters.escalation.policy:url-heavy-client}")
+    private String escalationPolicyName;
+
+    @Value("${heavy-hitters.escalation.max-clients:100}")
+    private int escalationMaxClients;
+
+    @Value("${heavy-hitters.escalation.min-requests:3000}")
+    private long escalationMinRequests;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private RingBuffer<Hit> buffer;
+
+    private RollingHeavyHitters shortCodes;
+
+    private RollingHeavyHitters clientIps;
+
+    private long subWindowNanos;
+
+    private long subWindowStartNanos;
+
+    private long lastRefreshNanos;
+
+    private RateLimiter rateLimiter;
+
+    private BucketPolicy escalationPolicy;
+
+    private volatile Set<String> pinnedShortCodes = Set.of();
+
+    private volatile Set<String> escalatedClients = Set.of();
+
+    private volatile boolean running;
+
+    private Thread counterThread;
+
+    private Counter droppedCounter;
+
+    private Counter escalationRejectedCounter;
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            log.info("Heavy-hitter detection disabled");
+            return;
+        }
+
+        if (windowSeconds < 1 || subWindows < 2) {
+            throw new IllegalStateException("heavy-hitters.window-seconds must be >= 1 and heavy-hitters.sub-windows >= 2");
+        }
+        buffer = new RingBuffer<>(bufferCapacity);
+        shortCodes = new RollingHeavyHitters(subWindows, sketchDepth, sketchWidth, topK);
+        clientIps = new RollingHeavyHitters(subWindows, sketchDepth, sketchWidth, topK);
+        subWindowNanos = TimeUnit.SECONDS.toNanos(windowSeconds) / subWindows;
+        subWindowStartNanos = System.nanoTime();
+        lastRefreshNanos = subWindowStartNanos;
+
+        if (escalationEnabled) {
+            rateLimiter = rateLimiterProvider.getIfAvailable();
+            if (rateLimiter == null) {
+                log.warn("Heavy-hitter rate limit escalation needs the rate limiter, which is disabled");
+            } else {
+                // Fails the start if the policy is not configured
+                escalationPolicy = rateLimiter.getPolicy(escalationPolicyName);
+            }
+        }
+
+        Gauge.builder("url.heavy-hitter.queue.depth", buffer, RingBuffer::size)
+                .description("Hits waiting to be counted")
+                .register(meterRegistry);
+        Gauge.builder("url.heavy-hitter.pinned", this, service -> service.pinnedShortCodes.size())
+                .description("Hot short codes pinned in the redirect near cache")
+                .register(meterRegistry);
+        Gauge.builder("url.heavy-hitter.escalated", this, service -> service.escalatedClients.size())
+                .description("Heavy client IPs held to the escalation rate limit policy")
+                .register(meterRegistry);
+        droppedCounter = Counter.builder("url.heavy-hitter.dropped")
+                .description("Hits dropped because the counter thread fell behind")
+                .register(meterRegistry);
+        escalationRejectedCounter = Counter.builder("url.heavy-hitter.escalation.rejected")
+                .description("Requests from heavy client IPs refused by the escalation policy")
+                .register(meterRegistry);
+
+        running = true;
+        counterThread = new Thread(this::runCounter, "heavy-hitter-counter");
+        counterThread.setDaemon(true);
+        counterThread.start();
+
+        log.info("Heavy-hitter detection started: window={}s, subWindows={}, sketch={}x{}, topK={}, escalation={}",
+                windowSeconds, subWindows, sketchDepth, sketchWidth, topK,
+                escalationPolicy != null ? escalationPolicyName : "off");
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (counterThread != null) {
+            LockSupport.unpark(counterThread);
+            try {
+                counterThread.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * A click on a short code, counted for both the short code and the client IP. Never blocks.
+     */
+    public void recordClick(String shortCode, String ipAddress) {
+        offer(new Hit(shortCode, ipAddress));
+    }
+
+    /**
+     * A redirect lookup that produced no click (unknown, expired, disabled or protected short code),
+     * counted for the client IP only. Never blocks.
+     */
+    public void recordRequest(String ipAddress) {
+        if (ipAddress != null) {
+            offer(new Hit(null, ipAddress));
+        }
+    }
+
+    /**
+     * ALLOWED unless the client IP is a current heavy hitter that exceeded the escalation policy
+     */
+    public RateLimitDecision checkClient(String ipAddress) {
+        if (escalationPolicy == null || ipAddress == null || !escalatedClients.contains(ipAddress)) {
+            return RateLimitDecision.ALLOWED;
+        }
+
+        RateLimitDecision decision = rateLimiter.tryAcquire(escalationPolicy, ipAddress, 1);
+        if (!decision.isAllowed()) {
+            escalationRejectedCounter.increment();
+        }
+        return decision;
+    }
+
+    /**
+     * Top short codes and client IPs over the current window
+     */
+    public HeavyHittersResponse getHeavyHitters(int limit) {
+        if (!enabled) {
+            return HeavyHittersResponse.builder()
+                    .windowSeconds(windowSeconds)
+                    .shortCodes(List.of())
+                    .clientIps(List.of())
+                    .pinnedShortCodes(Set.of())
+                    .escalatedClients(Set.of())
+                    .build();
+        }
+
+        int cappedLimit = Math.max(1, Math.min(limit, topK));
+        lock.lock();
+        try {
+            return HeavyHittersResponse.builder()
+                    .windowSeconds(windowSeconds)
+                    .clickTotal(shortCodes.total())
+                    .clickErrorBound(shortCodes.errorBound())
+                    .shortCodes(shortCodes.top(cappedLimit, 1))
+                    .requestTotal(clientIps.total())
+                    .requestErrorBound(clientIps.errorBound())
+                    .clientIps(clientIps.top(cappedLimit, 1))
+                    .pinnedShortCodes(pinnedShortCodes)
+                    .escalatedClients(escalatedClients)
+                    .droppedEvents((long) droppedCounter.count())
+                    .build();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void offer(Hit hit) {
+        if (buffer != null && !buffer.offer(hit)) {
+            droppedCounter.increment();
+        }
+    }
+
+    private void runCounter() {
+        List<Hit> batch = new ArrayList<>(1024);
+        long idleWaitNanos = TimeUnit.MILLISECONDS.toNanos(idleWaitMs);
+        long refreshNanos = TimeUnit.MILLISECONDS.toNanos(refreshMs);
+
+        while (running) {
+            batch.clear();
+            int drained = buffer.drainTo(batch, 1024);
+
+            long now = System.nanoTime();
+            lock.lock();
+            try {
+                rotate(now);
+                for (Hit hit : batch) {
+                    if (hit.shortCode() != null) {
+                        shortCodes.add(hit.shortCode());
+                    }
+                    if (hit.ipAddress() != null) {
+                        clientIps.add(hit.ipAddress());
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            if (now - lastRefreshNanos >= refreshNanos) {
+                lastRefreshNanos = now;
+                refresh();
+            }
+
+            if (drained == 0) {
+                LockSupport.parkNanos(idleWaitNanos);
+            }
+        }
+    }
+
+    private void rotate(long now) {
+        long elapsed = now - subWindowStartNanos;
+        if (elapsed < subWindowNanos) {
+            return;
+        }
+
+        long steps = elapsed / subWindowNanos;
+        if (steps >= subWindows) {
+            shortCodes.clear();
+            clientIps.clear();
+        } else {
+            for (long i = 0; i < steps; i++) {
+                shortCodes.rotate();
+                clientIps.rotate();
+            }
+        }
+        subWindowStartNanos += steps * subWindowNanos;
+    }
+
+    /**
+     * Recompute the hot short codes and heavy clients, and hand the hot codes to the near cache
+     */
+    private void refresh() {
+        List<HeavyHitterEntry> hotCodes;
+        List<HeavyHitterEntry> heavyClients;
+        lock.lock();
+        try {
+            hotCodes = pinningEnabled ? shortCodes.top(pinningMaxCodes, pinningMinClicks) : List.of();
+            heavyClients = escalationPolicy != null ? clientIps.top(escalationMaxClients, escalationMinRequests) : List.of();
+        } finally {
+            lock.unlock();
+        }
+
+        Set<String> pinned = keys(hotCodes);
+        if (!pinned.equals(pinnedShortCodes)) {
+            pinnedShortCodes = pinned;
+            urlRedirectCacheService.pin(pinned);
+        }
+
+        Set<String> escalated = keys(heavyClients);
+        if (!escalated.equals(escalatedClients)) {
+            if (log.isDebugEnabled()) {
+                log.debug("Heavy client IPs changed: {}", escalated);
+            }
+            escalatedClients = escalated;
+        }
+    }
+
+    private static Set<String> keys(List<HeavyHitterEntry> entries) {
+        Set<String> keys = new HashSet<>(entries.size() * 2);
+        for (HeavyHitterEntry entry : entries) {
+            keys.add(entry.getKey());
+        }
+        return Set.copyOf(keys);
+    }
+
+    private record Hit(String shortCode, String ipAddress) {
+    }
+}
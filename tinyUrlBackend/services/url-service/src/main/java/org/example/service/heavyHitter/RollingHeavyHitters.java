@@ -0,0 +1,102 @@
+package org.example.service.heavyHitter;
+
+import org.example.dto.response.HeavyHitterEntry;
+import org.example.util.CountMinSketch;
+import org.example.util.SpaceSaving;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Heavy hitters of one key dimension over a rolling window, kept as a ring of sub-windows that each hold a
+ * {@link CountMinSketch} and a {@link SpaceSaving} summary. Rotating clears the oldest sub-window, so memory is
+ * fixed by the configuration whatever the number of distinct keys.
+ * <p>
+ * Space-Saving picks the candidates, the summed sketch estimates rank them. Not thread-safe.
+ */
+final class RollingHeavyHitters {
+
+    private final CountMinSketch[] sketches;
+    private final SpaceSaving[] summaries;
+    private int current;
+
+    RollingHeavyHitters(int subWindows, int sketchDepth, int sketchWidth, int topK) {
+        this.sketches = new CountMinSketch[subWindows];
+        this.summaries = new SpaceSaving[subWindows];
+        for (int i = 0; i < subWindows; i++) {
+            sketches[i] = new CountMinSketch(sketchDepth, sketchWidth);
+            summaries[i] = new SpaceSaving(topK);
+        }
+    }
+
+    void add(String key) {
+        sketches[current].add(CountMinSketch.hash(key), 1);
+        summaries[current].add(key, 1);
+    }
+
+    /**
+     * Start a new sub-window, dropping the oldest one
+     */
+    void rotate() {
+        current = (current + 1) % sketches.length;
+        sketches[current].clear();
+        summaries[current].clear();
+    }
+
+    void clear() {
+        for (int i = 0; i < sketches.length; i++) {
+            sketches[i].clear();
+            summaries[i].clear();
+        }
+    }
+
+    long estimate(String key) {
+        long keyHash = CountMinSketch.hash(key);
+        long estimate = 0;
+        for (CountMinSketch sketch : sketches) {
+            estimate += sketch.estimate(keyHash);
+        }
+        return estimate;
+    }
+
+    long total() {
+        long total = 0;
+        for (CountMinSketch sketch : sketches) {
+            total += sketch.total();
+        }
+        return total;
+    }
+
+    long errorBound() {
+        long errorBound = 0;
+        for (CountMinSketch sketch : sketches) {
+            errorBound += sketch.errorBound();
+        }
+        return errorBound;
+    }
+
+    /**
+     * Up to limit keys with at least minCount estimated occurrences over the window, most frequent first
+     */
+    List<HeavyHitterEntry> top(int limit, long minCount) {
+        Set<String> candidates = new HashSet<>();
+        for (SpaceSaving summary : summaries) {
+            for (SpaceSaving.Entry entry : summary.entries()) {
+                candidates.add(entry.key());
+            }
+        }
+
+        List<HeavyHitterEntry> top = new ArrayList<>();
+        for (String key : candidates) {
+            long count = estimate(key);
+            if (count >= minCount) {
+                top.add(new HeavyHitterEntry(key, count));
+            }
+        }
+        top.sort(Comparator.comparingLong(HeavyHitterEntry::getCount).reversed());
+        return top.size() > limit ? new ArrayList<>(top.subList(0, limit)) : top;
+    }
+}
@@ -0,0 +1,208 @@
+package org.example.service.idAllocator;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Range-leasing id allocator backed by the {@code id_blocks} sequence table on the master.
+ * <p>
+ * Each node leases a block of {@code id-allocator.block-size} ids and hands them out locally with one atomic add per
+ * call, so only one id in a block costs a master round trip. Leasing bumps the sequence and records the block in
+ * {@code id_block_leases} in one transaction:
+ * <ul>
+ *     <li>a block is never handed out twice, even if the node crashes while holding it; unused ids become a gap,</li>
+ *     <li>exhausted, expired and shut down blocks are closed with the highest id actually handed out,</li>
+ *     <li>a lease is only used for {@code id-allocator.max-lease-seconds}, so a crashed node's block stops counting as
+ *     open after that, see {@link #lowestOpenId}.</li>
+ * </ul>
+ * Ids are unique but, across nodes, not in creation order. Use {@code url.short-code.mode=OBFUSCATED} when codes
+ * must not be guessable from their neighbours.
+ */
+@Slf4j
+@Component
+public class IdBlockAllocator {
+
+    private static final String RESERVE_SQL =
+            "UPDATE id_blocks SET next_val = LAST_INSERT_ID(next_val + ?) WHERE sequence_name = ?";
+    // LAST_INSERT_ID is per connection, the transaction keeps both statements on the same one
+    private static final String RESERVED_END_SQL = "SELECT LAST_INSERT_ID()";
+    private static final String INSERT_LEASE_SQL =
+            "INSERT INTO id_block_leases (sequence_name, block_start, block_end, owner, leased_at) VALUES (?, ?, ?, ?, ?)";
+    private static final String CLOSE_LEASE_SQL =
+            "UPDATE id_block_leases SET used_end = ?, closed_at = ? WHERE sequence_name = ? AND block_start = ?";
+    private static final String LOWEST_OPEN_SQL =
+            "SELECT MIN(block_start) FROM id_block_leases WHERE sequence_name = ? "
+                    + "AND ((closed_at IS NULL AND leased_at > ?) OR closed_at > ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int blockSize;
+    private final long maxLeaseSeconds;
+    private final long maxLeaseNanos;
+    private final String owner;
+
+    private final ConcurrentHashMap<String, Block> blocks = new ConcurrentHashMap<>();
+
+    // Not synchronized: a virtual thread holding a monitor during the lease round trip would pin its carrier
+    private final ReentrantLock renewLock = new ReentrantLock();
+
+    public IdBlockAllocator(@Qualifier("masterDataSource") DataSource dataSource,
+                            @Qualifier("masterTransactionManager") PlatformTransactionManager transactionManager,
+                            @Value("${id-allocator.block-size:1000}") int blockSize,
+                            @Value("${id-allocator.max-lease-seconds:300}") long maxLeaseSeconds) {
+        if (blockSize <= 0 || maxLeaseSeconds <= 0) {
+            throw new IllegalArgumentException("id-allocator.block-size and id-allocator.max-lease-seconds must be positive");
+        }
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.blockSize = blockSize;
+        this.maxLeaseSeconds = maxLeaseSeconds;
+        this.maxLeaseNanos = TimeUnit.SECONDS.toNanos(maxLeaseSeconds);
+        String host = System.getenv("HOSTNAME");
+        this.owner = (host != null ? host : "unknown") + ":" + ProcessHandle.current().pid();
+    }
+
+    public long nextId(String sequence) {
+        while (true) {
+            Block block = current(sequence);
+            long id = block.next.getAndIncrement();
+            if (id < block.end) {
+                return id;
+            }
+            renew(sequence, block);
+        }
+    }
+
+    /**
+     * {@code count} ids, ascending; consecutive unless they span a block boundary
+     */
+    public long[] nextIds(String sequence, int count) {
+        long[] ids = new long[count];
+        int filled = 0;
+        while (filled < count) {
+            Block block = current(sequence);
+            long first = block.next.getAndAdd(count - filled);
+            long last = Math.min(first + count - filled, block.end);
+            for (long id = first; id < last; id++) {
+                ids[filled++] = id;
+            }
+            if (filled < count) {
+                renew(sequence, block);
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Lowest id any node may still hand out or insert, {@code Long.MAX_VALUE} if no block is open.
+     * Ids below it that do not exist yet never will. Blocks count as open for another {@code settleWindowSeconds}
+     * after they were closed or their lease ran out, to cover inserts still in flight.
+     */
+    public long lowestOpenId(String sequence, long settleWindowSeconds) {
+        Instant now = Instant.now();
+        LocalDateTime leasedAfter = LocalDateTime.ofInstant(now.minusSeconds(maxLeaseSeconds + settleWindowSeconds), ZoneOffset.UTC);
+        LocalDateTime closedAfter = LocalDateTime.ofInstant(now.minusSeconds(settleWindowSeconds), ZoneOffset.UTC);
+        Long lowest = jdbcTemplate.queryForObject(LOWEST_OPEN_SQL, Long.class, sequence, leasedAfter, closedAfter);
+        return lowest != null ? lowest : Long.MAX_VALUE;
+    }
+
+    @PreDestroy
+    public void destroy() {
+        // Record how far each block got, the rest of it is a gap
+        blocks.forEach((sequence, block) -> close(block));
+        blocks.clear();
+    }
+
+    private Block current(String sequence) {
+        Block block = blocks.get(sequence);
+        if (block != null && System.nanoTime() - block.leasedAtNanos < maxLeaseNanos) {
+            return block;
+        }
+        return renew(sequence, block);
+    }
+
+    /**
+     * Swap in a new block unless another thread already replaced {@code stale}
+     */
+    private Block renew(String sequence, Block stale) {
+        renewLock.lock();
+        try {
+            Block block = blocks.get(sequence);
+            if (block != stale) {
+                return block;
+            }
+
+            Block leased = lease(sequence);
+            blocks.put(sequence, leased);
+            if (stale != null) {
+                close(stale);
+            }
+            return leased;
+        } finally {
+            renewLock.unlock();
+        }
+    }
+
+    private Block lease(String sequence) {
+        LocalDateTime nowUtc = LocalDateTime.ofInstant(Instant.now(), ZoneOffset.UTC);
+        Long end = transactionTemplate.execute(status -> {
+            int updated = jdbcTemplate.update(RESERVE_SQL, blockSize, sequence);
+            if (updated != 1) {
+                throw new IncorrectResultSizeDataAccessException("No id_blocks row for sequence " + sequence, 1, updated);
+            }
+            Long reservedEnd = jdbcTemplate.queryForObject(RESERVED_END_SQL, Long.class);
+            jdbcTemplate.update(INSERT_LEASE_SQL, sequence, reservedEnd - blockSize, reservedEnd, owner, nowUtc);
+            return reservedEnd;
+        });
+
+        log.debug("Leased id block: sequence={}, ids=[{}, {})", sequence, end - blockSize, end);
+        return new Block(sequence, end - blockSize, end);
+    }
+
+    /**
+     * Best effort: a block that is never closed counts as open until its lease runs out
+     */
+    private void close(Block block) {
+        long usedEnd = Math.min(block.next.get(), block.end);
+        try {
+            jdbcTemplate.update(CLOSE_LEASE_SQL, usedEnd, LocalDateTime.ofInstant(Instant.now(), ZoneOffset.UTC),
+                    block.sequence, block.start);
+        } catch (RuntimeException e) {
+            log.warn("Failed to close id block lease: sequence={}, start={}, error={}", block.sequence, block.start, e.getMessage());
+        }
+    }
+
+    private static final class Block {
+        private final String sequence;
+        private final long start;
+        private final long end;
+        private final long leasedAtNanos = System.nanoTime();
+        // Next id to hand out, may run past end when the block is exhausted
+        private final AtomicLong next;
+
+        private Block(String sequence, long start, long end) {
+            this.sequence = sequence;
+            this.start = start;
+            this.end = end;
+            this.next = new AtomicLong(start);
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package org.example.service.kafka;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.dto.kafka.ClickEventMessage;
+import org.example.util.RingBuffer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Decouples redirect latency from the Kafka producer.
+ * Request threads only offer a {@link PendingClickEvent} into a bounded lock-free ring buffer; dedicated publisher
+ * threads drain it in batches, build the messages and hand them to the producer.
+ * <p>
+ * When the buffer is full (Kafka slow or unavailable) the overload policy decides what happens on the request thread:
+ * <ul>
+ *     <li>DROP - drop the event immediately</li>
+ *     <li>SAMPLE - above the high watermark keep only 1 in sample-rate events, drop when full</li>
+ *     <li>BLOCK - wait up to block-timeout-ms for space, then drop</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+public class ClickEventPipeline {
+
+    public enum OverloadPolicy {
+        DROP, SAMPLE, BLOCK
+    }
+
+    private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    @Autowired
+    private KafkaTemplate<String, Object> kafkaTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${kafka.topics.click-events:url.click.events}")
+    private String clickEventsTopic;
+
+    @Value("${click-tracking.buffer-capacity:65536}")
+    private int bufferCapacity;
+
+    @Value("${click-tracking.publisher-threads:2}")
+    private int publisherThreads;
+
+    @Value("${click-tracking.batch-size:500}")
+    private int batchSize;
+
+    @Value("${click-tracking.idle-wait-ms:1}")
+    private long idleWaitMs;
+
+    @Value("${click-tracking.overload-policy:SAMPLE}")
+    private OverloadPolicy overloadPolicy;
+
+    @Value("${click-tracking.high-watermark:0.8}")
+    private double highWatermarkRatio;
+
+    @Value("${click-tracking.sample-rate:10}")
+    private int sampleRate;
+
+    @Value("${click-tracking.block-timeout-ms:5}")
+    private long blockTimeoutMs;
+
+    @Value("${click-tracking.shutdown-timeout-ms:5000}")
+    private long shutdownTimeoutMs;
+
+    private RingBuffer<PendingClickEvent> buffer;
+
+    private int highWatermark;
+
+    private final List<Thread> publishers = new ArrayList<>();
+
+    private volatile boolean running;
+
+    private Counter droppedFullCounter;
+    private Counter droppedSampledCounter;
+    private Counter droppedTimeoutCounter;
+    private Counter publishedCounter;
+    private Counter publishFailedCounter;
+    private Timer publishLatencyTimer;
+
+    @PostConstruct
+    public void start() {
+        buffer = new RingBuffer<>(bufferCapacity);
+        highWatermark = (int) (bufferCapacity * highWatermarkRatio);
+
+        Gauge.builder("url.click.queue.depth", buffer, RingBuffer::size)
+                .description("Click events waiting to be published")
+                .register(meterRegistry);
+        droppedFullCounter = droppedCounter("full");
+        droppedSampledCounter = droppedCounter("sampled");
+        droppedTimeoutCounter = droppedCounter("timeout");
+        publishedCounter = Counter.builder("url.click.published")
+                .description("Click events acknowledged by Kafka")
+                .register(meterRegistry);
+        publishFailedCounter = Counter.builder("url.click.publish.failed")
+                .description("Click events Kafka failed to accept")
+                .register(meterRegistry);
+        publishLatencyTimer = Timer.builder("url.click.publish.latency")
+                .description("Time from the redirect enqueuing a click event to the Kafka acknowledgement")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+
+        running = true;
+        for (int i = 0; i < publisherThreads; i++) {
+            Thread publisher = new Thread(this::runPublisher, "click-publisher-" + i);
+            publisher.setDaemon(true);
+            publisher.start();
+            publishers.add(publisher);
+        }
+
+        log.info("Click event pipeline started: capacity={}, publishers={}, batchSize={}, policy={}",
+                bufferCapacity, publisherThreads, batchSize, overloadPolicy);
+    }
+
+    /**
+     * Called on the request thread, never blocks unless the policy is BLOCK.
+     * Returns false if the event was dropped.
+     */
+    public boolean publish(PendingClickEvent event) {
+        if (overloadPolicy == OverloadPolicy.SAMPLE && buffer.size() >= highWatermark
+                && ThreadLocalRandom.current().nextInt(sampleRate) != 0) {
+            droppedSampledCounter.increment();
+            return false;
+        }
+
+        if (buffer.offer(event)) {
+            return true;
+        }
+
+        if (overloadPolicy == OverloadPolicy.BLOCK) {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(blockTimeoutMs);
+            while (System.nanoTime() < deadline) {
+                LockSupport.parkNanos(BLOCK_PARK_NANOS);
+                if (buffer.offer(event)) {
+                    return true;
+                }
+            }
+            droppedTimeoutCounter.increment();
+            return false;
+        }
+
+        droppedFullCounter.increment();
+        return false;
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        long deadline = System.currentTimeMillis() + shutdownTimeoutMs;
+        for (Thread publisher : publishers) {
+            LockSupport.unpark(publisher);
+            try {
+                publisher.join(Math.max(1, deadline - System.currentTimeMillis()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        kafkaTemplate.flush();
+        if (!buffer.isEmpty()) {
+            log.warn("Click event pipeline stopped with {} unpublished events", buffer.size());
+        }
+    }
+
+    private void runPublisher() {
+        List<PendingClickEvent> batch = new ArrayList<>(batchSize);
+        long idleWaitNanos = TimeUnit.MILLISECONDS.toNanos(idleWaitMs);
+
+        // Keep draining after stop() until the buffer is empty, bounded by the shutdown join timeout
+        while (running || !buffer.isEmpty()) {
+            batch.clear();
+            if (buffer.drainTo(batch, batchSize) == 0) {
+                LockSupport.parkNanos(idleWaitNanos);
+                continue;
+            }
+
+            for (PendingClickEvent event : batch) {
+                send(event);
+            }
+        }
+    }
+
+    private void send(PendingClickEvent event) {
+        try {
+            kafkaTemplate.send(clickEventsTopic, event.getCorrelationId(), toMessage(event))
+                    .whenComplete((result, exception) -> {
+                        if (exception == null) {
+                            publishedCounter.increment();
+                            publishLatencyTimer.record(System.nanoTime() - event.getEnqueuedNanos(), TimeUnit.NANOSECONDS);
+                        } else {
+                            publishFailedCounter.increment();
+                            log.debug("Failed to send click event: correlationId={}, urlId={}, error={}",
+                                    event.getCorrelationId(), event.getUrlId(), exception.getMessage());
+                        }
+                    });
+        } catch (RuntimeException e) {
+            // send() itself throws when the producer cannot take the record (buffer full past max.block.ms, closed, ...)
+            publishFailedCounter.increment();
+            log.debug("Failed to send click event: correlationId={}, urlId={}, error={}",
+                    event.getCorrelationId(), event.getUrlId(), e.getMessage());
+        }
+    }
+
+    private ClickEventMessage toMessage(PendingClickEvent event) {
+        return ClickEventMessage.builder()
+                .urlId(event.getUrlId())
+                .shortCode(event.getShortCode())
+                .userId(event.getUserId())
+                .timestamp(LocalDateTime.ofInstant(Instant.ofEpochMilli(event.getTimestampMillis()), ZoneOffset.UTC))
+                .ipAddress(event.getIpAddress())
+                .userAgent(event.getUserAgent())
+                .referrer(event.getReferrer())
+                .correlationId(event.getCorrelationId())
+                .location(extractLocationFromIP(event.getIpAddress())) // Simple implementation
+                .build();
+    }
+
+    /**
+     * Simple location extraction from IP
+     * In production, this should use a proper GeoIP service
+     */
+    private ClickEventMessage.LocationInfo extractLocationFromIP(String ipAddress) {
+        // Simple implementation - in production use MaxMind GeoIP2 or similar
+        return ClickEventMessage.LocationInfo.builder()
+                .country("Unknown")
+                .city("Unknown")
+                .region("Unknown")
+                .build();
+    }
+
+    private Counter droppedCounter(String reason) {
+        return Counter.builder("url.click.dropped")
+                .description("Click events dropped by the overload policy")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,22 @@
+package org.example.service.kafka;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Raw click captured on the request thread and queued for the publisher threads.
+ * Holds only what the request already has; the Kafka message is built on the publisher side.
+ */
+@Getter
+@AllArgsConstructor
+public class PendingClickEvent {
+    private final String urlId;
+    private final String shortCode;
+    private final String userId;
+    private final String ipAddress;
+    private final String userAgent;
+    private final String referrer;
+    private final String correlationId;
+    private final long timestampMillis;
+    private final long enqueuedNanos;
+}
@@ -5,6 +5,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.example.dto.kafka.UrlOwnershipRequest;
 import org.example.dto.kafka.UrlOwnershipResponse;
 import org.example.service.UrlManagement.UrlManagementService;
+import org.example.service.cache.UrlOwnershipCacheService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
@@ -28,6 +29,9 @@ public class UrlOwnershipVerificationService {
     @Autowired
     @Qualifier("DefaultUrlManagementService")
     private UrlManagementService urlManagementService;
+
+    @Autowired
+    private UrlOwnershipCacheService urlOwnershipCacheService;
     
     @Value("${kafka.topics.url-ownership-responses:url.ownership.responses}")
     private String ownershipResponsesTopic;
@@ -89,23 +93,12 @@ public class UrlOwnershipVerificationService {
     }
     
     /**
-     * Check if a specific user has access to a specific URL
-     * This method should use the same logic as in DefaultUrlManagementService
+     * Check if a specific user has access to a specific URL, same check as DefaultUrlManagementService
      */
     private boolean isUserAuthorizedForUrl(Long urlId, Long userId) {
         try {
-            // For now, we'll use a simple approach
-            // In a real implementation, you might want to inject ServiceReferenceRepository directly
-            // or call a shared service method
-            
-            // This is a simplified version - you should implement the actual logic
-            // based on your ServiceReference table structure
             log.debug("Verifying URL ownership: urlId={}, userId={}", urlId, userId);
-            
-            // TODO: Implement actual ownership verification
-            // For now returning true to allow testing - replace with actual logic
-            return true;
-            
+            return urlOwnershipCacheService.isOwner(urlId, userId);
         } catch (Exception e) {
             log.error("Error checking URL ownership: urlId={}, userId={}, error={}", 
                      urlId, userId, e.getMessage(), e);
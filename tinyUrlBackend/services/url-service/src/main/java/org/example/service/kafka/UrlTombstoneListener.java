@@ -0,0 +1,59 @@
+package org.example.service.kafka;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.dto.kafka.UrlTombstoneMessage;
+import org.example.service.cache.UrlExistenceFilterService;
+import org.example.service.cache.UrlRedirectCacheService;
+import org.example.service.shortCode.ShortCodeCodec;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Drops URLs purged by url-cleanup-service from this node's caches.
+ * <p>
+ * Every node consumes every tombstone (one consumer group per node): the near cache and the existence filter are
+ * per node. The group is named after {@code id-generator.node-id}, which is unique per instance and stable across
+ * restarts, so a restarted node reuses its group instead of leaving one more orphaned group behind. A new group starts
+ * from the latest offset, the node rebuilds both structures at startup anyway.
+ * urlInfoCache entries are left to their short TTL.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UrlTombstoneListener {
+
+    private final ObjectMapper objectMapper;
+    private final ShortCodeCodec shortCodeCodec;
+    private final UrlRedirectCacheService urlRedirectCacheService;
+    private final UrlExistenceFilterService urlExistenceFilterService;
+
+    @KafkaListener(
+        topics = "${kafka.topics.url-tombstones:url.tombstones}",
+        groupId = "url-service-tombstones-${id-generator.node-id:dev}",
+        containerFactory = "stringKafkaListenerContainerFactory",
+        properties = "auto.offset.reset=latest"
+    )
+    public void handleTombstone(@Payload String messagePayload) {
+        UrlTombstoneMessage message;
+        try {
+            message = objectMapper.readValue(messagePayload, UrlTombstoneMessage.class);
+        } catch (JsonProcessingException e) {
+            log.error("Failed to parse URL tombstone: {}", messagePayload, e);
+            return;
+        }
+        if (message.getUrlIds() == null || message.getUrlIds().isEmpty()) {
+            return;
+        }
+
+        List<String> shortCodes = message.getUrlIds().stream().map(shortCodeCodec::encode).toList();
+        urlRedirectCacheService.onUrlsPurged(shortCodes);
+        urlExistenceFilterService.onUrlsPurged(shortCodes.size());
+        log.debug("Applied URL tombstone: urlIds={}", shortCodes.size());
+    }
+}
@@ -0,0 +1,307 @@
+package org.example.service.kafka.codec;
+
+import org.example.common.id.SnowflakeIdGenerator;
+import org.example.dto.kafka.ClickEventMessage;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Compact binary encoding of {@link ClickEventMessage} (see kafka-schemas/click-event-binary.md).
+ * <pre>
+ * byte    magic (0xC1)
+ * byte    version
+ * varint  flags
+ * urlId           varint if FLAG_URL_ID_NUMERIC, else string
+ * shortCode       string
+ * userId          varint if FLAG_USER_ID_NUMERIC, else string
+ * timestamp       varint (epoch millis UTC + 1), 0 = null
+ * ipAddress       string
+ * userAgent       string
+ * referrer        string
+ * correlationId   8 bytes if FLAG_CORRELATION_ID_SNOWFLAKE, 16 bytes if FLAG_CORRELATION_ID_UUID, else string
+ * location        country, city, region strings, only if FLAG_LOCATION
+ * </pre>
+ * Strings are varint(UTF-8 length + 1) followed by the bytes, 0 meaning null.
+ * Later versions only append fields and flag bits, so a decoder ignores trailing bytes and unknown flags.
+ */
+public final class ClickEventBinaryCodec {
+
+    public static final byte MAGIC = (byte) 0xC1;
+    public static final byte VERSION = 1;
+
+    private static final int FLAG_URL_ID_NUMERIC = 1;
+    private static final int FLAG_USER_ID_NUMERIC = 1 << 1;
+    private static final int FLAG_CORRELATION_ID_UUID = 1 << 2;
+    private static final int FLAG_LOCATION = 1 << 3;
+    private static final int FLAG_CORRELATION_ID_SNOWFLAKE = 1 << 4;
+
+    private ClickEventBinaryCodec() {
+    }
+
+    public static byte[] encode(ClickEventMessage message) {
+        long correlationSnowflake = parseSnowflake(message.getCorrelationId());
+        UUID correlationUuid = correlationSnowflake < 0 ? parseUuid(message.getCorrelationId()) : null;
+
+        int flags = 0;
+        if (isCanonicalLong(message.getUrlId())) {
+            flags |= FLAG_URL_ID_NUMERIC;
+        }
+        if (isCanonicalLong(message.getUserId())) {
+            flags |= FLAG_USER_ID_NUMERIC;
+        }
+        if (correlationSnowflake >= 0) {
+            flags |= FLAG_CORRELATION_ID_SNOWFLAKE;
+        } else if (correlationUuid != null) {
+            flags |= FLAG_CORRELATION_ID_UUID;
+        }
+        if (message.getLocation() != null) {
+            flags |= FLAG_LOCATION;
+        }
+
+        Writer writer = new Writer(estimateSize(message));
+        writer.writeByte(MAGIC);
+        writer.writeByte(VERSION);
+        writer.writeVarLong(flags);
+
+        if ((flags & FLAG_URL_ID_NUMERIC) != 0) {
+            writer.writeVarLong(Long.parseLong(message.getUrlId()));
+        } else {
+            writer.writeString(message.getUrlId());
+        }
+        writer.writeString(message.getShortCode());
+        if ((flags & FLAG_USER_ID_NUMERIC) != 0) {
+            writer.writeVarLong(Long.parseLong(message.getUserId()));
+        } else {
+            writer.writeString(message.getUserId());
+        }
+        writer.writeVarLong(message.getTimestamp() != null
+                ? message.getTimestamp().toInstant(ZoneOffset.UTC).toEpochMilli() + 1 : 0);
+        writer.writeString(message.getIpAddress());
+        writer.writeString(message.getUserAgent());
+        writer.writeString(message.getReferrer());
+        if (correlationSnowflake >= 0) {
+            writer.writeLong(correlationSnowflake);
+        } else if (correlationUuid != null) {
+            writer.writeLong(correlationUuid.getMostSignificantBits());
+            writer.writeLong(correlationUuid.getLeastSignificantBits());
+        } else {
+            writer.writeString(message.getCorrelationId());
+        }
+        if (message.getLocation() != null) {
+            writer.writeString(message.getLocation().getCountry());
+            writer.writeString(message.getLocation().getCity());
+            writer.writeString(message.getLocation().getRegion());
+        }
+
+        return writer.toByteArray();
+    }
+
+    public static ClickEventMessage decode(byte[] data) {
+        Reader reader = new Reader(data);
+        if (reader.readByte() != MAGIC) {
+            throw new IllegalArgumentException("Not a binary click event");
+        }
+        byte version = reader.readByte();
+        if (version < 1 || version > VERSION) {
+            throw new IllegalArgumentException("Unsupported click event version: " + version);
+        }
+        long flags = reader.readVarLong();
+
+        ClickEventMessage message = new ClickEventMessage();
+        message.setUrlId((flags & FLAG_URL_ID_NUMERIC) != 0
+                ? Long.toString(reader.readVarLong()) : reader.readString());
+        message.setShortCode(reader.readString());
+        message.setUserId((flags & FLAG_USER_ID_NUMERIC) != 0
+                ? Long.toString(reader.readVarLong()) : reader.readString());
+        long timestamp = reader.readVarLong();
+        if (timestamp != 0) {
+            message.setTimestamp(LocalDateTime.ofInstant(Instant.ofEpochMilli(timestamp - 1), ZoneOffset.UTC));
+        }
+        message.setIpAddress(reader.readString());
+        message.setUserAgent(reader.readString());
+        message.setReferrer(reader.readString());
+        if ((flags & FLAG_CORRELATION_ID_SNOWFLAKE) != 0) {
+            message.setCorrelationId(SnowflakeIdGenerator.toString(reader.readLong()));
+        } else if ((flags & FLAG_CORRELATION_ID_UUID) != 0) {
+            message.setCorrelationId(new UUID(reader.readLong(), reader.readLong()).toString());
+        } else {
+            message.setCorrelationId(reader.readString());
+        }
+        if ((flags & FLAG_LOCATION) != 0) {
+            message.setLocation(ClickEventMessage.LocationInfo.builder()
+                    .country(reader.readString())
+                    .city(reader.readString())
+                    .region(reader.readString())
+                    .build());
+        }
+        return message;
+    }
+
+    /**
+     * True only for decimal strings that parse back to the same text, so the numeric form round-trips exactly
+     */
+    private static boolean isCanonicalLong(String value) {
+        if (value == null || value.isEmpty() || value.length() > 18) {
+            return false;
+        }
+        if (value.length() > 1 && value.charAt(0) == '0') {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Snowflake id of a canonical (upper-case) id string, -1 for anything else, so the 8-byte form round-trips exactly
+     */
+    private static long parseSnowflake(String value) {
+        if (value == null || value.length() != SnowflakeIdGenerator.STRING_LENGTH) {
+            return -1;
+        }
+        try {
+            long id = SnowflakeIdGenerator.parse(value);
+            return SnowflakeIdGenerator.toString(id).equals(value) ? id : -1;
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Parse only the canonical lower-case form, so toString() of the result gives back the same text
+     */
+    private static UUID parseUuid(String value) {
+        if (value == null || value.length() != 36) {
+            return null;
+        }
+        try {
+            UUID uuid = UUID.fromString(value);
+            return uuid.toString().equals(value) ? uuid : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static int estimateSize(ClickEventMessage message) {
+        return 64 + length(message.getUserAgent()) + length(message.getReferrer()) + length(message.getShortCode());
+    }
+
+    private static int length(String value) {
+        return value != null ? value.length() : 0;
+    }
+
+    private static final class Writer {
+        private byte[] buffer;
+        private int position;
+
+        Writer(int initialCapacity) {
+            this.buffer = new byte[initialCapacity];
+        }
+
+        void writeByte(byte value) {
+            ensureCapacity(1);
+            buffer[position++] = value;
+        }
+
+        void writeLong(long value) {
+            ensureCapacity(8);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                buffer[position++] = (byte) (value >>> shift);
+            }
+        }
+
+        void writeVarLong(long value) {
+            ensureCapacity(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[position++] = (byte) value;
+        }
+
+        void writeString(String value) {
+            if (value == null) {
+                writeVarLong(0);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(bytes.length + 1L);
+            ensureCapacity(bytes.length);
+            System.arraycopy(bytes, 0, buffer, position, bytes.length);
+            position += bytes.length;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, position);
+        }
+
+        private void ensureCapacity(int extra) {
+            if (position + extra > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + extra));
+            }
+        }
+    }
+
+    private static final class Reader {
+        private final byte[] data;
+        private int position;
+
+        Reader(byte[] data) {
+            this.data = data;
+        }
+
+        byte readByte() {
+            require(1);
+            return data[position++];
+        }
+
+        long readLong() {
+            require(8);
+            long value = 0;
+            for (int i = 0; i < 8; i++) {
+                value = (value << 8) | (data[position++] & 0xFF);
+            }
+            return value;
+        }
+
+        long readVarLong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Malformed varint in click event");
+        }
+
+        String readString() {
+            long length = readVarLong() - 1;
+            if (length < 0) {
+                return null;
+            }
+            if (length > data.length - position) {
+                throw new IllegalArgumentException("Truncated click event");
+            }
+            String value = new String(data, position, (int) length, StandardCharsets.UTF_8);
+            position += (int) length;
+            return value;
+        }
+
+        private void require(int bytes) {
+            if (data == null || position + bytes > data.length) {
+                throw new IllegalArgumentException("Truncated click event");
+            }
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package org.example.service.kafka.codec;
+
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+import org.example.dto.kafka.ClickEventMessage;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Value serializer for the shared producer.
+ * {@link ClickEventMessage} is written in the configured click event format and tagged with the
+ * {@value #FORMAT_HEADER} header so consumers can pick the matching decoder; every other value goes through
+ * Spring's JsonSerializer unchanged.
+ */
+public class ClickEventSerializer implements Serializer<Object> {
+
+    public static final String FORMAT_HEADER = "content-format";
+    public static final String FORMAT_JSON = "click-event-json";
+    public static final String FORMAT_BINARY = "click-event-binary-v" + ClickEventBinaryCodec.VERSION;
+
+    /** Producer config key, "json" (default) or "binary" */
+    public static final String CLICK_EVENT_FORMAT_CONFIG = "click.event.format";
+
+    private final JsonSerializer<Object> jsonSerializer = new JsonSerializer<>();
+
+    private boolean binary;
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        jsonSerializer.configure(configs, isKey);
+        binary = "binary".equalsIgnoreCase(String.valueOf(configs.get(CLICK_EVENT_FORMAT_CONFIG)));
+    }
+
+    @Override
+    public byte[] serialize(String topic, Object data) {
+        return jsonSerializer.serialize(topic, data);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, Object data) {
+        if (!(data instanceof ClickEventMessage)) {
+            return jsonSerializer.serialize(topic, headers, data);
+        }
+
+        headers.remove(FORMAT_HEADER);
+        if (binary) {
+            headers.add(FORMAT_HEADER, FORMAT_BINARY.getBytes(StandardCharsets.UTF_8));
+            return ClickEventBinaryCodec.encode((ClickEventMessage) data);
+        }
+        headers.add(FORMAT_HEADER, FORMAT_JSON.getBytes(StandardCharsets.UTF_8));
+        return jsonSerializer.serialize(topic, headers, data);
+    }
+
+    @Override
+    public void close() {
+        jsonSerializer.close();
+    }
+}
@@ -0,0 +1,275 @@
+package org.example.service.password;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.example.exception.PasswordHashingRejectedException;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Password hashing and verification on the bounded passwordHashingExecutor instead of the request thread.
+ * The algorithm and its cost come from the PasswordEncoder bean, see PasswordEncoderConfig.
+ * <p>
+ * Work is rejected with {@link PasswordHashingRejectedException} instead of queueing without bound when
+ * <ul>
+ *     <li>the executor queue is full,</li>
+ *     <li>the key (short code and client IP, short code, user id) already has {@code password-hashing.per-key-limit}
+ *     operations in flight, so guessing one link's password cannot take the whole pool. Visitors of a protected
+ *     link are keyed by {@link #clientKey}: a key of the short code alone would let anyone lock every visitor
+ *     out of the link,</li>
+ *     <li>the result is not ready within {@code password-hashing.wait-timeout-ms}.</li>
+ * </ul>
+ * Queue wait and compute time are published as histograms per operation.
+ * <p>
+ * A successful verification of a hash written with an older algorithm or a lower cost re-hashes the password
+ * in the background, when the pool has an idle thread, and hands the new hash to the caller to store.
+ */
+@Slf4j
+@Service
+public class PasswordHashingService {
+
+    private static final String HASH = "hash";
+    private static final String VERIFY = "verify";
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolTaskExecutor executor;
+    private final int perKeyLimit;
+    private final long waitTimeoutMs;
+
+    // Operations in flight per key, entries are removed when they drop to zero
+    private final ConcurrentHashMap<String, Integer> inFlightByKey = new ConcurrentHashMap<>();
+
+    // Stale hashes with a re-hash queued or running, a hot link would otherwise re-hash once per click
+    private final Set<String> rehashing = ConcurrentHashMap.newKeySet();
+
+    private final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+    private final boolean cpuTimeSupported;
+    // Moving average of the CPU time of one verification, racy updates only skew the estimate
+    private volatile double verifyCpuNanosAverage;
+
+    private final Timer hashQueueWait;
+    private final Timer hashCompute;
+    private final Timer verifyQueueWait;
+    private final Timer verifyCompute;
+    private final Counter rejectedSaturated;
+    private final Counter rejectedKeyLimit;
+    private final Counter rejectedTimeout;
+    private final Counter rehashed;
+
+    public PasswordHashingService(PasswordEncoder passwordEncoder,
+                                  @Qualifier("passwordHashingExecutor") ThreadPoolTaskExecutor executor,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${password-hashing.per-key-limit:2}") int perKeyLimit,
+                                  @Value("${password-hashing.wait-timeout-ms:2000}") long waitTimeoutMs) {
+        this.passwordEncoder = passwordEncoder;
+        this.executor = executor;
+        this.perKeyLimit = perKeyLimit;
+        this.waitTimeoutMs = waitTimeoutMs;
+        this.cpuTimeSupported = threadMXBean.isCurrentThreadCpuTimeSupported();
+
+        this.hashQueueWait = queueWaitTimer(meterRegistry, HASH);
+        this.hashCompute = computeTimer(meterRegistry, HASH);
+        this.verifyQueueWait = queueWaitTimer(meterRegistry, VERIFY);
+        this.verifyCompute = computeTimer(meterRegistry, VERIFY);
+        this.rejectedSaturated = rejectedCounter(meterRegistry, "saturated");
+        this.rejectedKeyLimit = rejectedCounter(meterRegistry, "key_limit");
+        this.rejectedTimeout = rejectedCounter(meterRegistry, "timeout");
+        this.rehashed = Counter.builder("password.hashing.rehashed")
+                .description("Stale hashes upgraded to the current algorithm and cost after a successful verification")
+                .register(meterRegistry);
+
+        Gauge.builder("password.hashing.queue.depth", executor, e -> e.getThreadPoolExecutor().getQueue().size())
+                .register(meterRegistry);
+        Gauge.builder("password.hashing.active", executor, ThreadPoolTaskExecutor::getActiveCount)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Per-key cap key for an unauthenticated caller acting on a link
+     */
+    public static String clientKey(String shortCode, String clientIp) {
+        return shortCode + '|' + clientIp;
+    }
+
+    /**
+     * Hash of a new password with the current algorithm and cost
+     *
+     * @param key caps concurrent operations for one caller, null for no per-key cap
+     */
+    public String hash(String key, String password) {
+        return execute(key, hashQueueWait, hashCompute, () -> passwordEncoder.encode(password));
+    }
+
+    /**
+     * Verification of a password against a stored hash of any supported algorithm and cost
+     *
+     * @param key caps concurrent operations for one caller, null for no per-key cap
+     */
+    public boolean matches(String key, String password, String passwordHash) {
+        return execute(key, verifyQueueWait, verifyCompute, () -> {
+            long cpuStart = cpuTimeSupported ? threadMXBean.getCurrentThreadCpuTime() : 0;
+            boolean matches = passwordEncoder.matches(password, passwordHash);
+            if (cpuTimeSupported) {
+                long cpu = threadMXBean.getCurrentThreadCpuTime() - cpuStart;
+                double average = verifyCpuNanosAverage;
+                verifyCpuNanosAverage = average == 0 ? cpu : average + (cpu - average) * 0.1;
+            }
+            return matches;
+        });
+    }
+
+    /**
+     * Verification that also upgrades a stale hash: {@code onRehash} receives the new hash on a password-hashing
+     * thread and must store it only if the stored hash is still {@code passwordHash}
+     */
+    public boolean matches(String key, String password, String passwordHash, Consumer<String> onRehash) {
+        boolean matches = matches(key, password, passwordHash);
+        if (matches && passwordEncoder.upgradeEncoding(passwordHash)) {
+            scheduleRehash(password, passwordHash, onRehash);
+        }
+        return matches;
+    }
+
+    /**
+     * Average CPU time of one verification, what a caller saves by skipping it
+     */
+    public double getVerifyCpuNanosAverage() {
+        return verifyCpuNanosAverage;
+    }
+
+    private <T> T execute(String key, Timer queueWait, Timer compute, Supplier<T> work) {
+        if (key != null && !tryAcquire(key)) {
+            rejectedKeyLimit.increment();
+            throw new PasswordHashingRejectedException("Too many concurrent password operations for " + key);
+        }
+
+        // Claimed by whoever comes first: the worker to run the task, or a timed out caller to cancel it
+        AtomicBoolean claimed = new AtomicBoolean();
+        long submittedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                if (!claimed.compareAndSet(false, true)) {
+                    return null;
+                }
+                long startedAt = System.nanoTime();
+                queueWait.record(startedAt - submittedAt, TimeUnit.NANOSECONDS);
+                try {
+                    return work.get();
+                } finally {
+                    compute.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                    release(key);
+                }
+            });
+        } catch (TaskRejectedException e) {
+            release(key);
+            rejectedSaturated.increment();
+            throw new PasswordHashingRejectedException("Password hashing pool is saturated", e);
+        }
+
+        try {
+            return future.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            if (claimed.compareAndSet(false, true)) {
+                // Still queued, the worker will skip it
+                release(key);
+            }
+            rejectedTimeout.increment();
+            throw new PasswordHashingRejectedException("Password hashing timed out after " + waitTimeoutMs + " ms", e);
+        } catch (InterruptedException e) {
+            if (claimed.compareAndSet(false, true)) {
+                release(key);
+            }
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingRejectedException("Interrupted while waiting for password hashing", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    /**
+     * Best effort: skipped while every thread is busy or the queue is full, the next successful verification retries
+     */
+    private void scheduleRehash(String password, String passwordHash, Consumer<String> onRehash) {
+        if (executor.getActiveCount() >= executor.getMaxPoolSize() || !rehashing.add(passwordHash)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    onRehash.accept(passwordEncoder.encode(password));
+                    rehashed.increment();
+                } catch (RuntimeException e) {
+                    log.warn("Failed to store re-hashed password", e);
+                } finally {
+                    rehashing.remove(passwordHash);
+                }
+            });
+        } catch (TaskRejectedException e) {
+            rehashing.remove(passwordHash);
+        }
+    }
+
+    private boolean tryAcquire(String key) {
+        boolean[] acquired = new boolean[1];
+        inFlightByKey.compute(key, (k, inFlight) -> {
+            int current = inFlight == null ? 0 : inFlight;
+            if (current >= perKeyLimit) {
+                return inFlight;
+            }
+            acquired[0] = true;
+            return current + 1;
+        });
+        return acquired[0];
+    }
+
+    private void release(String key) {
+        if (key != null) {
+            inFlightByKey.computeIfPresent(key, (k, inFlight) -> inFlight > 1 ? inFlight - 1 : null);
+        }
+    }
+
+    private static Timer queueWaitTimer(MeterRegistry meterRegistry, String operation) {
+        return Timer.builder("password.hashing.queue.wait")
+                .description("Time BCrypt work waited for a password-hashing thread")
+                .tag("operation", operation)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private static Timer computeTimer(MeterRegistry meterRegistry, String operation) {
+        return Timer.builder("password.hashing.compute")
+                .description("Time spent in BCrypt on a password-hashing thread")
+                .tag("operation", operation)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private static Counter rejectedCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("password.hashing.rejected")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
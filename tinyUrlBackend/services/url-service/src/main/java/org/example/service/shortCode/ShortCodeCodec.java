@@ -0,0 +1,66 @@
+package org.example.service.shortCode;
+
+import org.example.util.Base62Util;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Maps URL ids to short codes according to the configured mode:
+ * <ul>
+ *     <li>PLAIN - Base62 of the id (original behaviour)</li>
+ *     <li>FIXED - Base62 of the id, left-padded to a fixed width</li>
+ *     <li>OBFUSCATED - Base62 of a keyed bijective permutation of the id, fixed width, so codes are not sequential</li>
+ * </ul>
+ * Changing the mode changes the code of every existing URL, so it must be chosen before links are handed out.
+ */
+@Component
+public class ShortCodeCodec {
+
+    public enum Mode {
+        PLAIN, FIXED, OBFUSCATED
+    }
+
+    private static final int OBFUSCATED_WIDTH = 8;
+
+    private final Mode mode;
+    private final int width;
+    private final long obfuscationKey;
+
+    public ShortCodeCodec(@Value("${url.short-code.mode:PLAIN}") Mode mode,
+                          @Value("${url.short-code.width:7}") int width,
+                          @Value("${url.short-code.obfuscation-key:0}") long obfuscationKey) {
+        this.mode = mode;
+        this.width = mode == Mode.OBFUSCATED ? OBFUSCATED_WIDTH : width;
+        this.obfuscationKey = obfuscationKey;
+    }
+
+    public String encode(long id) {
+        switch (mode) {
+            case FIXED:
+                return Base62Util.idToBase62(id, width);
+            case OBFUSCATED:
+                return Base62Util.idToBase62(Base62Util.obfuscate(id, obfuscationKey), width);
+            case PLAIN:
+            default:
+                return Base62Util.idToBase62(id);
+        }
+    }
+
+    /**
+     * Decode a short code to its id without allocating, returns Base62Util.INVALID for malformed codes.
+     * Only the code encode() returns for the id is accepted (no extra leading zeros, no other widths), so each URL
+     * has a single code and cache and lock keys built from it cannot be split across aliases.
+     */
+    public long decode(CharSequence shortCode) {
+        switch (mode) {
+            case FIXED:
+                return Base62Util.decodeFixed(shortCode, width);
+            case OBFUSCATED:
+                long value = Base62Util.decodeFixed(shortCode, width);
+                return value == Base62Util.INVALID ? value : Base62Util.deobfuscate(value, obfuscationKey);
+            case PLAIN:
+            default:
+                return Base62Util.decode(shortCode);
+        }
+    }
+}
@@ -1,23 +1,211 @@
 package org.example.util;
 
+/**
+ * Table-driven Base62 codec for short codes.
+ * Decoding works on any CharSequence or byte range without allocating, and rejects invalid characters and
+ * values that do not fit in a positive long.
+ * decode(CharSequence) and decodeFixed() only accept the canonical form that the matching encoder produces, so
+ * every id has exactly one code; the range decoders only validate the digits.
+ */
 public class Base62Util {
     private static final String BASE62 = "0123456789abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ";
+    private static final char[] ALPHABET = BASE62.toCharArray();
+    private static final byte[] DIGITS = new byte[128];
+
+    /** Longest code that can represent a positive long (62^11 > 2^63) */
+    public static final int MAX_LENGTH = 11;
+
+    /** Returned by the non-throwing decoders for invalid input */
+    public static final long INVALID = -1L;
+
+    /** Ids handled by obfuscate()/deobfuscate(): 47 bits always fit in 8 characters (62^8 > 2^47) */
+    public static final int OBFUSCATED_BITS = 47;
+    private static final long OBFUSCATED_MASK = (1L << OBFUSCATED_BITS) - 1;
+    private static final long MULTIPLIER_1 = 0x5DEECE66DL;
+    private static final long MULTIPLIER_2 = 0x2545F4914F6CDD1DL & OBFUSCATED_MASK;
+    private static final long MULTIPLIER_1_INVERSE = inverse(MULTIPLIER_1);
+    private static final long MULTIPLIER_2_INVERSE = inverse(MULTIPLIER_2);
+    private static final long MAX_BEFORE_MULTIPLY = Long.MAX_VALUE / 62;
+
+    static {
+        java.util.Arrays.fill(DIGITS, (byte) -1);
+        for (int i = 0; i < ALPHABET.length; i++) {
+            DIGITS[ALPHABET[i]] = (byte) i;
+        }
+    }
 
     public static String idToBase62 (Long id) {
-        StringBuilder sb = new StringBuilder();
-        while (id > 0) {
-            int remainder = (int) (id % 62);
-            sb.append(BASE62.charAt(remainder));
-            id /= 62;
+        if (id == null || id < 0) {
+            throw new IllegalArgumentException("Id must be a non-negative number: " + id);
+        }
+        char[] buffer = new char[MAX_LENGTH];
+        int start = encode(id, buffer);
+        return new String(buffer, start, MAX_LENGTH - start);
+    }
+
+    /**
+     * Encode left-padded with '0' to exactly {@code width} characters
+     */
+    public static String idToBase62(long id, int width) {
+        if (id < 0) {
+            throw new IllegalArgumentException("Id must be a non-negative number: " + id);
+        }
+        if (width < 1 || width > MAX_LENGTH) {
+            throw new IllegalArgumentException("Width must be between 1 and " + MAX_LENGTH);
+        }
+        char[] buffer = new char[MAX_LENGTH];
+        int start = encode(id, buffer);
+        if (MAX_LENGTH - start > width) {
+            throw new IllegalArgumentException("Id " + id + " does not fit in " + width + " characters");
+        }
+        for (int i = MAX_LENGTH - width; i < start; i++) {
+            buffer[i] = ALPHABET[0];
         }
-        return sb.reverse().toString();
+        return new String(buffer, MAX_LENGTH - width, width);
     }
 
+    /**
+     * Encode into the tail of {@code buffer} (length >= MAX_LENGTH) and return the index of the first character
+     */
+    public static int encode(long id, char[] buffer) {
+        int pos = MAX_LENGTH;
+        do {
+            buffer[--pos] = ALPHABET[(int) (id % 62)];
+            id /= 62;
+        } while (id > 0);
+        return pos;
+    }
+
+    /**
+     * Decode a short code, throwing IllegalArgumentException if it is not valid Base62 or does not fit in a long
+     */
     public static Long base62ToId(String base62) {
+        long id = decode(base62);
+        if (id == INVALID) {
+            throw new IllegalArgumentException("Invalid short code: " + base62);
+        }
+        return id;
+    }
+
+    /**
+     * Decode without allocating, returns INVALID for empty, too long, non-Base62 or overflowing input and for
+     * codes with leading zeros, which idToBase62(Long) never produces
+     */
+    public static long decode(CharSequence base62) {
+        if (base62 == null || (base62.length() > 1 && base62.charAt(0) == ALPHABET[0])) {
+            return INVALID;
+        }
+        return decode(base62, 0, base62.length());
+    }
+
+    /**
+     * Decode a code produced by idToBase62(id, width), returns INVALID unless it is exactly {@code width} characters
+     */
+    public static long decodeFixed(CharSequence base62, int width) {
+        if (base62 == null || base62.length() != width) {
+            return INVALID;
+        }
+        return decode(base62, 0, width);
+    }
+
+    /**
+     * Decode the characters in [start, end) without allocating, returns INVALID for invalid input.
+     * Leading zeros are accepted, so the result is not necessarily canonical.
+     */
+    public static long decode(CharSequence base62, int start, int end) {
+        if (base62 == null || start < 0 || end > base62.length()) {
+            return INVALID;
+        }
+        int length = end - start;
+        if (length <= 0 || length > MAX_LENGTH) {
+            return INVALID;
+        }
+
         long id = 0;
-        for (int i = 0; i < base62.length(); i++) {
-            id = id * 62 + BASE62.indexOf(base62.charAt(i));
+        for (int i = start; i < end; i++) {
+            char c = base62.charAt(i);
+            int digit = c < 128 ? DIGITS[c] : -1;
+            if (digit < 0 || id > MAX_BEFORE_MULTIPLY) {
+                return INVALID;
+            }
+            id = id * 62 + digit;
+            if (id < 0) {
+                return INVALID;
+            }
         }
         return id;
     }
+
+    /**
+     * Decode ASCII bytes without allocating, returns INVALID for invalid input.
+     * Leading zeros are accepted, so the result is not necessarily canonical.
+     */
+    public static long decode(byte[] source, int offset, int length) {
+        if (source == null || length <= 0 || length > MAX_LENGTH || offset < 0 || offset + length > source.length) {
+            return INVALID;
+        }
+
+        long id = 0;
+        for (int i = offset; i < offset + length; i++) {
+            int digit = source[i] >= 0 ? DIGITS[source[i]] : -1;
+            if (digit < 0 || id > MAX_BEFORE_MULTIPLY) {
+                return INVALID;
+            }
+            id = id * 62 + digit;
+            if (id < 0) {
+                return INVALID;
+            }
+        }
+        return id;
+    }
+
+    public static boolean isValid(CharSequence base62) {
+        return decode(base62) != INVALID;
+    }
+
+    /**
+     * Bijective permutation of [0, 2^47) so consecutive ids do not produce consecutive codes.
+     * The key selects one of 2^47 permutations; deobfuscate() with the same key is the exact inverse.
+     */
+    public static long obfuscate(long id, long key) {
+        if (id < 0 || id > OBFUSCATED_MASK) {
+            throw new IllegalArgumentException("Id out of obfuscation range: " + id);
+        }
+        long x = id ^ (key & OBFUSCATED_MASK);
+        x = (x * MULTIPLIER_1) & OBFUSCATED_MASK;
+        x ^= x >>> 24;
+        x = (x * MULTIPLIER_2) & OBFUSCATED_MASK;
+        x ^= x >>> 19;
+        return x;
+    }
+
+    public static long deobfuscate(long value, long key) {
+        if (value < 0 || value > OBFUSCATED_MASK) {
+            return INVALID;
+        }
+        long x = unshiftRightXor(value, 19);
+        x = (x * MULTIPLIER_2_INVERSE) & OBFUSCATED_MASK;
+        x = unshiftRightXor(x, 24);
+        x = (x * MULTIPLIER_1_INVERSE) & OBFUSCATED_MASK;
+        return x ^ (key & OBFUSCATED_MASK);
+    }
+
+    private static long unshiftRightXor(long value, int shift) {
+        long x = value;
+        for (int i = shift; i < OBFUSCATED_BITS; i += shift) {
+            x = value ^ (x >>> shift);
+        }
+        return x;
+    }
+
+    /**
+     * Multiplicative inverse of an odd number modulo 2^47 (Newton iteration)
+     */
+    private static long inverse(long odd) {
+        long inverse = odd;
+        for (int i = 0; i < 5; i++) {
+            inverse *= 2 - odd * inverse;
+        }
+        return inverse & OBFUSCATED_MASK;
+    }
 }
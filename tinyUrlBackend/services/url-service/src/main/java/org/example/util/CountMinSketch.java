@@ -0,0 +1,109 @@
+package org.example.util;
+
+import java.util.Arrays;
+
+/**
+ * Count-Min Sketch: frequency estimates for any number of distinct keys in a fixed depth x width counter table.
+ * An estimate never undercounts; it overcounts by at most e / width of the total with probability 1 - e^-depth.
+ * Updates are conservative (only the rows holding the current minimum grow), which keeps the overcount well below
+ * that bound for skewed traffic.
+ * <p>
+ * Keys are passed as 64-bit hashes, see {@link #hash(String)}. Not thread-safe.
+ */
+public class CountMinSketch {
+
+    private final int depth;
+    private final int mask;
+    private final int[][] counters;
+    private long total;
+
+    /**
+     * @param depth number of rows (independent hash functions)
+     * @param width counters per row, must be a power of two
+     */
+    public CountMinSketch(int depth, int width) {
+        if (depth < 1 || width < 2 || Integer.bitCount(width) != 1) {
+            throw new IllegalArgumentException("Depth must be >= 1 and width a power of two >= 2: " + depth + "x" + width);
+        }
+        this.depth = depth;
+        this.mask = width - 1;
+        this.counters = new int[depth][width];
+    }
+
+    /**
+     * 64-bit FNV-1a over the UTF-16 chars, finished with the murmur3 mixer so every bit depends on every char
+     */
+    public static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * Add count occurrences of a key and return its new estimate
+     */
+    public int add(long keyHash, int count) {
+        total += count;
+        int estimate = estimate(keyHash);
+
+        // Conservative update: raise every row to at most the new estimate, saturating instead of overflowing
+        int updated = (int) Math.min((long) estimate + count, Integer.MAX_VALUE);
+        for (int row = 0; row < depth; row++) {
+            int[] counterRow = counters[row];
+            int index = index(keyHash, row);
+            if (counterRow[index] < updated) {
+                counterRow[index] = updated;
+            }
+        }
+        return updated;
+    }
+
+    public int estimate(long keyHash) {
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters[row][index(keyHash, row)]);
+        }
+        return estimate;
+    }
+
+    /**
+     * Sum of all counts added since the last clear
+     */
+    public long total() {
+        return total;
+    }
+
+    /**
+     * Upper bound of the overcount of any estimate (with probability 1 - e^-depth): e / width of the total
+     */
+    public long errorBound() {
+        return (long) Math.ceil(Math.E / (mask + 1) * total);
+    }
+
+    /**
+     * Column of a key in a row: the key hash re-mixed with a per-row constant. Deriving all rows from two halves
+     * of one hash (h1 + row * h2) would make keys sharing both halves modulo width collide in every row.
+     */
+    private int index(long keyHash, int row) {
+        long h = keyHash + (row + 1) * 0x9e3779b97f4a7c15L;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return (int) h & mask;
+    }
+
+    public void clear() {
+        for (int[] counterRow : counters) {
+            Arrays.fill(counterRow, 0);
+        }
+        total = 0;
+    }
+}
@@ -0,0 +1,116 @@
+package org.example.util;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free multi-producer / multi-consumer ring buffer (Vyukov's sequenced array queue).
+ * Each slot carries a sequence number telling producers and consumers whose turn it is, so offer() and poll()
+ * only CAS the shared tail/head counter and never block. offer() returns false instead of waiting when full.
+ */
+public class RingBuffer<E> {
+    // Producer (tail) and consumer (head) counters, 8 longs apart so they sit on different cache lines
+    private static final int TAIL = 8;
+    private static final int HEAD = 16;
+
+    private final int mask;
+    private final AtomicReferenceArray<E> elements;
+    private final AtomicLongArray sequences;
+    private final AtomicLongArray counters = new AtomicLongArray(24);
+
+    public RingBuffer(int capacity) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two >= 2: " + capacity);
+        }
+        this.mask = capacity - 1;
+        this.elements = new AtomicReferenceArray<>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Add an element, returns false without waiting if the buffer is full
+     */
+    public boolean offer(E element) {
+        if (element == null) {
+            throw new NullPointerException("element");
+        }
+
+        long position = counters.get(TAIL);
+        while (true) {
+            int index = (int) (position & mask);
+            long diff = sequences.get(index) - position;
+            if (diff == 0) {
+                if (counters.compareAndSet(TAIL, position, position + 1)) {
+                    elements.lazySet(index, element);
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+                position = counters.get(TAIL);
+            } else if (diff < 0) {
+                return false;
+            } else {
+                position = counters.get(TAIL);
+            }
+        }
+    }
+
+    /**
+     * Remove the oldest element, null if the buffer is empty
+     */
+    public E poll() {
+        long position = counters.get(HEAD);
+        while (true) {
+            int index = (int) (position & mask);
+            long diff = sequences.get(index) - (position + 1);
+            if (diff == 0) {
+                if (counters.compareAndSet(HEAD, position, position + 1)) {
+                    E element = elements.get(index);
+                    elements.lazySet(index, null);
+                    sequences.set(index, position + mask + 1);
+                    return element;
+                }
+                position = counters.get(HEAD);
+            } else if (diff < 0) {
+                return null;
+            } else {
+                position = counters.get(HEAD);
+            }
+        }
+    }
+
+    /**
+     * Move up to {@code maxElements} elements into {@code target}, returns how many were moved
+     */
+    public int drainTo(Collection<? super E> target, int maxElements) {
+        int drained = 0;
+        while (drained < maxElements) {
+            E element = poll();
+            if (element == null) {
+                break;
+            }
+            target.add(element);
+            drained++;
+        }
+        return drained;
+    }
+
+    /**
+     * Approximate number of elements, exact when no offer/poll is in progress
+     */
+    public int size() {
+        long size = counters.get(TAIL) - counters.get(HEAD);
+        return (int) Math.max(0, Math.min(size, capacity()));
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+}
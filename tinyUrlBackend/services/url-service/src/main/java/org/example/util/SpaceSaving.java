@@ -0,0 +1,128 @@
+package org.example.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Space-Saving top-k summary (Metwally et al.): monitors at most capacity keys. A new key takes over the slot of
+ * the smallest one and inherits its count as error, so any key with more than total / capacity occurrences is
+ * guaranteed to be monitored and a monitored key's count overestimates by at most its error.
+ * <p>
+ * Slots sit in a min-heap ordered by count, so an update costs a map lookup plus O(log capacity). Not thread-safe.
+ */
+public class SpaceSaving {
+
+    private final int capacity;
+    private final Slot[] heap;
+    private final Map<String, Slot> slots;
+    private int size;
+
+    public SpaceSaving(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be >= 1: " + capacity);
+        }
+        this.capacity = capacity;
+        this.heap = new Slot[capacity];
+        this.slots = new HashMap<>(capacity * 2);
+    }
+
+    public void add(String key, int count) {
+        Slot slot = slots.get(key);
+        if (slot == null) {
+            if (size < capacity) {
+                slot = new Slot(key, size);
+                heap[size++] = slot;
+                slots.put(key, slot);
+                siftUp(slot.index);
+            } else {
+                // Take over the smallest slot, its count becomes the new key's possible overcount
+                slot = heap[0];
+                slots.remove(slot.key);
+                slot.key = key;
+                slot.error = slot.count;
+                slots.put(key, slot);
+            }
+        }
+        slot.count = Math.min(slot.count + count, Long.MAX_VALUE / 2);
+        siftDown(slot.index);
+    }
+
+    /**
+     * Monitored keys, unordered
+     */
+    public List<Entry> entries() {
+        List<Entry> entries = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            entries.add(new Entry(heap[i].key, heap[i].count, heap[i].error));
+        }
+        return entries;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            heap[i] = null;
+        }
+        slots.clear();
+        size = 0;
+    }
+
+    private void siftUp(int index) {
+        Slot slot = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (heap[parent].count <= slot.count) {
+                break;
+            }
+            place(heap[parent], index);
+            index = parent;
+        }
+        place(slot, index);
+    }
+
+    private void siftDown(int index) {
+        Slot slot = heap[index];
+        int half = size >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            int right = child + 1;
+            if (right < size && heap[right].count < heap[child].count) {
+                child = right;
+            }
+            if (slot.count <= heap[child].count) {
+                break;
+            }
+            place(heap[child], index);
+            index = child;
+        }
+        place(slot, index);
+    }
+
+    private void place(Slot slot, int index) {
+        heap[index] = slot;
+        slot.index = index;
+    }
+
+    private static final class Slot {
+        private String key;
+        private long count;
+        private long error;
+        private int index;
+
+        private Slot(String key, int index) {
+            this.key = key;
+            this.index = index;
+        }
+    }
+
+    /**
+     * A monitored key: count may overestimate by up to error, count - error is a guaranteed lower bound
+     */
+    public record Entry(String key, long count, long error) {
+    }
+}
@@ -0,0 +1,149 @@
+package org.example.util;
+
+/**
+ * Hierarchical timing wheel of (id, deadline) timers.
+ * Level 0 has {@code wheelSize} slots of {@code tickMs}, every level above has slots as wide as the whole level below,
+ * and as many levels are stacked as it takes to cover the requested span. Scheduling is O(1), and a timer is moved
+ * down at most once per level as the wheel turns, so the cost of a tick does not grow with the number of pending
+ * timers the way a priority queue's does.
+ * <p>
+ * A timer fires on the first {@link #advance} after the tick containing its deadline has ended: at most one tick
+ * late, never early. Not thread safe, the owner drives it from a single thread.
+ */
+public class TimingWheel {
+
+    @FunctionalInterface
+    public interface ExpiryHandler {
+        void expired(long id, long deadlineMs);
+    }
+
+    private final long tickMs;
+    private final int wheelSize;
+    // Slot width of each level
+    private final long[] slotMs;
+    // Slots are intrusive singly linked lists of timers
+    private final Timer[][] slots;
+    // Start of the tick in progress, every tick before it has fired
+    private long currentMs;
+    private int size;
+
+    /**
+     * @param spanMs how far past the current time deadlines may be scheduled
+     * @param startMs current time
+     */
+    public TimingWheel(long tickMs, int wheelSize, long spanMs, long startMs) {
+        if (tickMs <= 0 || wheelSize < 2 || spanMs <= 0) {
+            throw new IllegalArgumentException("tickMs and spanMs must be positive and wheelSize at least 2");
+        }
+        this.tickMs = tickMs;
+        this.wheelSize = wheelSize;
+
+        int levels = 1;
+        long levelSpan = Math.multiplyExact(tickMs, wheelSize);
+        while (levelSpan <= spanMs) {
+            levelSpan = Math.multiplyExact(levelSpan, wheelSize);
+            levels++;
+        }
+        this.slotMs = new long[levels];
+        this.slotMs[0] = tickMs;
+        for (int level = 1; level < levels; level++) {
+            slotMs[level] = slotMs[level - 1] * wheelSize;
+        }
+        this.slots = new Timer[levels][wheelSize];
+        this.currentMs = Math.floorDiv(startMs, tickMs) * tickMs;
+    }
+
+    /**
+     * Add a timer. A deadline that already passed fires on the next tick.
+     *
+     * @throws IllegalArgumentException if the deadline is beyond the span of the wheel
+     */
+    public void schedule(long id, long deadlineMs) {
+        place(new Timer(id, deadlineMs));
+        size++;
+    }
+
+    /**
+     * Fire every timer whose tick ended at or before {@code nowMs}
+     */
+    public void advance(long nowMs, ExpiryHandler handler) {
+        if (size == 0) {
+            // Nothing can fire, skip the idle ticks
+            currentMs = Math.max(currentMs, Math.floorDiv(nowMs, tickMs) * tickMs);
+            return;
+        }
+
+        while (currentMs + tickMs <= nowMs) {
+            Timer timer = take(0, currentMs);
+            currentMs += tickMs;
+            while (timer != null) {
+                Timer next = timer.next;
+                timer.next = null;
+                size--;
+                handler.expired(timer.id, timer.deadlineMs);
+                timer = next;
+            }
+            cascade();
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * On entering a new slot of a higher level, move its timers down. Highest level first, so a timer moved down two
+     * levels at once lands in a slot that is not emptied again before it is due.
+     */
+    private void cascade() {
+        for (int level = slotMs.length - 1; level > 0; level--) {
+            if (Math.floorMod(currentMs, slotMs[level]) != 0) {
+                continue;
+            }
+            Timer timer = take(level, currentMs);
+            while (timer != null) {
+                Timer next = timer.next;
+                place(timer);
+                timer = next;
+            }
+        }
+    }
+
+    private void place(Timer timer) {
+        long deadline = Math.max(timer.deadlineMs, currentMs);
+        for (int level = 0; level < slotMs.length; level++) {
+            long width = slotMs[level];
+            // Each level covers wheelSize slots from the one containing the current time
+            long levelStart = Math.floorDiv(currentMs, width) * width;
+            if (deadline < levelStart + width * wheelSize) {
+                int slot = slotIndex(level, deadline);
+                timer.next = slots[level][slot];
+                slots[level][slot] = timer;
+                return;
+            }
+        }
+        throw new IllegalArgumentException("Deadline " + timer.deadlineMs + " is beyond the span of the timing wheel");
+    }
+
+    private Timer take(int level, long timeMs) {
+        int slot = slotIndex(level, timeMs);
+        Timer head = slots[level][slot];
+        slots[level][slot] = null;
+        return head;
+    }
+
+    private int slotIndex(int level, long timeMs) {
+        return (int) Math.floorMod(Math.floorDiv(timeMs, slotMs[level]), (long) wheelSize);
+    }
+
+    private static final class Timer {
+        private final long id;
+        private final long deadlineMs;
+        private Timer next;
+
+        private Timer(long id, long deadlineMs) {
+            this.id = id;
+            this.deadlineMs = deadlineMs;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package org.example.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Fixed-width dedup key of an original URL: SHA-256 of its exact UTF-8 bytes, the same value as
+ * {@code UNHEX(SHA2(original_url, 256))} in MySQL. Backs the unique index on {@code urls.original_url_hash},
+ * which replaces uniqueness on the TEXT column.
+ */
+public class UrlHashUtil {
+
+    public static final int HASH_LENGTH = 32;
+
+    private static final MessageDigest PROTOTYPE;
+
+    static {
+        try {
+            PROTOTYPE = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    public static byte[] hash(String originalUrl) {
+        MessageDigest digest;
+        try {
+            // Cloning skips the provider lookup of getInstance()
+            digest = (MessageDigest) PROTOTYPE.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException("SHA-256 provider does not support clone", e);
+        }
+        return digest.digest(originalUrl.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Map key form of a hash, byte[] has identity equality
+     */
+    public static String toHex(byte[] hash) {
+        return HexFormat.of().formatHex(hash);
+    }
+}
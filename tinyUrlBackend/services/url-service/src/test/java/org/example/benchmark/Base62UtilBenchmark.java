@@ -0,0 +1,95 @@
+package org.example.benchmark;
+
+import org.example.util.Base62Util;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Table-driven Base62Util vs the previous indexOf/StringBuilder implementation.
+ * Run with:
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=org.openjdk.jmh.Main -Dexec.args="Base62UtilBenchmark -prof gc"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class Base62UtilBenchmark {
+
+    private static final int SAMPLES = 1024;
+
+    private final long[] ids = new long[SAMPLES];
+    private final String[] codes = new String[SAMPLES];
+    private int index;
+
+    @Setup
+    public void setUp() {
+        for (int i = 0; i < SAMPLES; i++) {
+            ids[i] = ThreadLocalRandom.current().nextLong(1, 3_500_000_000_000L); // up to 7 characters
+            codes[i] = Base62Util.idToBase62(ids[i]);
+        }
+    }
+
+    private int next() {
+        index = (index + 1) & (SAMPLES - 1);
+        return index;
+    }
+
+    @Benchmark
+    public String encodeLegacy() {
+        return LegacyBase62.idToBase62(ids[next()]);
+    }
+
+    @Benchmark
+    public String encodeTable() {
+        return Base62Util.idToBase62(ids[next()]);
+    }
+
+    @Benchmark
+    public void decodeLegacy(Blackhole blackhole) {
+        blackhole.consume(LegacyBase62.base62ToId(codes[next()]));
+    }
+
+    @Benchmark
+    public void decodeTable(Blackhole blackhole) {
+        blackhole.consume(Base62Util.decode(codes[next()]));
+    }
+
+    /**
+     * Copy of the implementation Base62Util replaced, kept only as the baseline
+     */
+    static final class LegacyBase62 {
+        private static final String BASE62 = "0123456789abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ";
+
+        static String idToBase62(Long id) {
+            StringBuilder sb = new StringBuilder();
+            while (id > 0) {
+                int remainder = (int) (id % 62);
+                sb.append(BASE62.charAt(remainder));
+                id /= 62;
+            }
+            return sb.reverse().toString();
+        }
+
+        static Long base62ToId(String base62) {
+            long id = 0;
+            for (int i = 0; i < base62.length(); i++) {
+                id = id * 62 + BASE62.indexOf(base62.charAt(i));
+            }
+            return id;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package org.example.benchmark;
+
+import org.example.common.cache.codec.BinaryCacheSerializer;
+import org.example.config.cache.codec.UrlInfoCacheDataCodec;
+import org.example.config.cache.codec.UrlRedirectCacheDataCodec;
+import org.example.entity.Url;
+import org.example.service.data.UrlInfoCacheData;
+import org.example.service.data.UrlRedirectCacheData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Redis cache values: GenericJackson2JsonRedisSerializer (previous format) vs BinaryCacheSerializer.
+ * Bytes per entry are printed once per shape at setup; urlInfoCache has no JSON baseline because the JSON
+ * serializer cannot write its LocalDateTime fields.
+ * <ul>
+ *     <li>PLAIN - typical link, no password, no expiry</li>
+ *     <li>PROTECTED - BCrypt password hash and an expiry</li>
+ *     <li>LONG - 2 KB tracking URL, above the compression threshold</li>
+ * </ul>
+ * Run with:
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=org.openjdk.jmh.Main -Dexec.args="CacheCodecBenchmark -prof gc"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CacheCodecBenchmark {
+
+    @Param({"PLAIN", "PROTECTED", "LONG"})
+    private String shape;
+
+    private GenericJackson2JsonRedisSerializer json;
+    private BinaryCacheSerializer binary;
+
+    private UrlRedirectCacheData redirectData;
+    private UrlInfoCacheData infoData;
+    private byte[] redirectJson;
+    private byte[] redirectBinary;
+    private byte[] infoBinary;
+
+    @Setup
+    public void setUp() {
+        json = new GenericJackson2JsonRedisSerializer();
+        binary = new BinaryCacheSerializer(List.of(new UrlRedirectCacheDataCodec(), new UrlInfoCacheDataCodec()),
+                json, true, 512);
+
+        String originalUrl = "https://example.com/some/reasonably/long/path?utm_source=newsletter&utm_medium=email";
+        if (shape.equals("LONG")) {
+            StringBuilder url = new StringBuilder("https://shop.example.com/checkout?session=");
+            for (int i = 0; url.length() < 2048; i++) {
+                url.append("&item").append(i).append("=sku-").append(100000 + i * 37).append("&utm_content=banner");
+            }
+            originalUrl = url.toString();
+        }
+        boolean protectedLink = shape.equals("PROTECTED");
+        String passwordHash = protectedLink ? "{bcrypt}$2a$10$N9qo8uLOickgx2ZMRZoMyeIjZAgcfl7p92ldGxad68LJZdL17lhWy" : null;
+        LocalDateTime createdAt = LocalDateTime.of(2026, 3, 14, 15, 9, 26);
+
+        redirectData = UrlRedirectCacheData.builder()
+                .urlId(1_234_567_890_123L)
+                .shortCode("8M0kX2q")
+                .originalUrl(originalUrl)
+                .passwordHash(passwordHash)
+                .status(Url.UrlStatus.ACTIVE)
+                .expiresAtMillis(protectedLink ? 1_799_999_999_000L : null)
+                .build();
+        infoData = UrlInfoCacheData.builder()
+                .shortCode("8M0kX2q")
+                .originalUrl(originalUrl)
+                .title("Spring newsletter")
+                .passwordHash(passwordHash)
+                .status(Url.UrlStatus.ACTIVE)
+                .createdAt(createdAt)
+                .updatedAt(createdAt.plusDays(2))
+                .expiresAt(protectedLink ? createdAt.plusYears(1) : null)
+                .build();
+
+        redirectJson = json.serialize(redirectData);
+        redirectBinary = binary.serialize(redirectData);
+        infoBinary = binary.serialize(infoData);
+        System.out.printf("%n%s bytes per entry: urlRedirectCache json=%d binary=%d, urlInfoCache binary=%d%n",
+                shape, redirectJson.length, redirectBinary.length, infoBinary.length);
+    }
+
+    @Benchmark
+    public byte[] redirectEncodeJson() {
+        return json.serialize(redirectData);
+    }
+
+    @Benchmark
+    public byte[] redirectEncodeBinary() {
+        return binary.serialize(redirectData);
+    }
+
+    @Benchmark
+    public Object redirectDecodeJson() {
+        return json.deserialize(redirectJson);
+    }
+
+    @Benchmark
+    public Object redirectDecodeBinary() {
+        return binary.deserialize(redirectBinary);
+    }
+
+    @Benchmark
+    public byte[] infoEncodeBinary() {
+        return binary.serialize(infoData);
+    }
+
+    @Benchmark
+    public Object infoDecodeBinary() {
+        return binary.deserialize(infoBinary);
+    }
+}
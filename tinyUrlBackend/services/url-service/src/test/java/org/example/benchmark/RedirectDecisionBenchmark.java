@@ -0,0 +1,113 @@
+package org.example.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.constants.ErrorCode;
+import org.example.dto.response.ApiResponse;
+import org.example.dto.response.RedirectResponse;
+import org.example.entity.Url;
+import org.example.service.UrlRedirect.RedirectDecisionFactory;
+import org.example.service.data.RedirectDecision;
+import org.example.service.data.UrlRedirectCacheData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of serving a cached redirect: re-evaluating UrlRedirectCacheData, mapping the ErrorCode and
+ * serializing the JSON response on every request (previous path) vs reading the precomputed RedirectDecision.
+ * Run with:
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=org.openjdk.jmh.Main -Dexec.args="RedirectDecisionBenchmark -prof gc"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RedirectDecisionBenchmark {
+
+    private ObjectMapper objectMapper;
+    private UrlRedirectCacheData data;
+    private RedirectDecision decision;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new ObjectMapper();
+        data = UrlRedirectCacheData.builder()
+                .urlId(123456789L)
+                .shortCode("8M0kX")
+                .originalUrl("https://example.com/some/reasonably/long/path?utm_source=newsletter&utm_medium=email")
+                .status(Url.UrlStatus.ACTIVE)
+                .build();
+        decision = new RedirectDecisionFactory(objectMapper, 302, 0, "").create(data);
+    }
+
+    @Benchmark
+    public void nativeRedirectPerRequest(Blackhole blackhole) {
+        ErrorCode errorCode;
+        if (!data.isAvailableForRedirect()) {
+            errorCode = data.getStatus() == Url.UrlStatus.EXPIRED ? ErrorCode.URL_EXPIRED : ErrorCode.URL_DISABLED;
+        } else if (data.isPasswordProtected()) {
+            errorCode = ErrorCode.PASSWORD_REQUIRED;
+        } else {
+            errorCode = ErrorCode.SUCCESS;
+        }
+
+        if (errorCode == ErrorCode.SUCCESS) {
+            blackhole.consume(HttpStatus.valueOf(302).value());
+            blackhole.consume(data.getOriginalUrl());
+            blackhole.consume(CacheControl.noStore().getHeaderValue());
+        } else {
+            blackhole.consume(getHttpStatus(errorCode).value());
+        }
+    }
+
+    @Benchmark
+    public void nativeRedirectPrecomputed(Blackhole blackhole) {
+        blackhole.consume(decision.getHttpStatus());
+        blackhole.consume(decision.getLocation());
+        blackhole.consume(decision.getCacheControl());
+    }
+
+    @Benchmark
+    public byte[] jsonRedirectPerRequest() throws Exception {
+        if (!data.isAvailableForRedirect()) {
+            return objectMapper.writeValueAsBytes(ApiResponse.error("URL has expired", ErrorCode.URL_EXPIRED.toString()));
+        }
+        RedirectResponse response = RedirectResponse.builder()
+                .originalUrl(data.getOriginalUrl())
+                .passwordRequired(data.isPasswordProtected())
+                .shortCode(data.getShortCode())
+                .build();
+        return objectMapper.writeValueAsBytes(ApiResponse.success("Redirect URL retrieved", response));
+    }
+
+    @Benchmark
+    public byte[] jsonRedirectPrecomputed() {
+        return decision.getJsonBody();
+    }
+
+    private HttpStatus getHttpStatus(ErrorCode errorCode) {
+        switch (errorCode) {
+            case URL_NOT_FOUND:
+                return HttpStatus.NOT_FOUND;
+            case URL_EXPIRED:
+            case URL_DISABLED:
+                return HttpStatus.GONE;
+            default:
+                return HttpStatus.INTERNAL_SERVER_ERROR;
+        }
+    }
+}
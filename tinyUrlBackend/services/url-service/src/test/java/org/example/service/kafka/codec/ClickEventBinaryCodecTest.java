@@ -0,0 +1,75 @@
+package org.example.service.kafka.codec;
+
+import org.example.common.id.SnowflakeIdGenerator;
+import org.example.dto.kafka.ClickEventMessage;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ClickEventBinaryCodecTest {
+
+    @Test
+    void roundTripsEveryField() {
+        ClickEventMessage message = message("0H2X8KQ4RZ9M1");
+        message.setUserId("42");
+        message.setTimestamp(LocalDateTime.of(2026, 10, 18, 12, 30, 15, 123_000_000));
+        message.setReferrer("https://example.com/ünïcode");
+        message.setLocation(ClickEventMessage.LocationInfo.builder().country("DE").city("Berlin").build());
+
+        assertEquals(message, ClickEventBinaryCodec.decode(ClickEventBinaryCodec.encode(message)));
+    }
+
+    @Test
+    void snowflakeCorrelationIdIsEightBytes() {
+        String id = new SnowflakeIdGenerator(7).nextIdString();
+        int withSnowflake = ClickEventBinaryCodec.encode(message(id)).length;
+        int withNull = ClickEventBinaryCodec.encode(message(null)).length;
+
+        // a null string is one byte
+        assertEquals(withNull - 1 + 8, withSnowflake);
+        assertEquals(id, ClickEventBinaryCodec.decode(ClickEventBinaryCodec.encode(message(id))).getCorrelationId());
+    }
+
+    @Test
+    void uuidCorrelationIdIsSixteenBytes() {
+        String uuid = "3f2a6c1e-9b7d-4e5f-8a1b-2c3d4e5f6a7b";
+        int withUuid = ClickEventBinaryCodec.encode(message(uuid)).length;
+        int withNull = ClickEventBinaryCodec.encode(message(null)).length;
+
+        assertEquals(withNull - 1 + 16, withUuid);
+        assertEquals(uuid, ClickEventBinaryCodec.decode(ClickEventBinaryCodec.encode(message(uuid))).getCorrelationId());
+    }
+
+    @Test
+    void nonCanonicalCorrelationIdsStayStrings() {
+        for (String id : new String[]{"0h2x8kq4rz9m1", "ZZZZZZZZZZZZZ", "0H2X8KQ4RZ9M", "3F2A6C1E-9B7D-4E5F-8A1B-2C3D4E5F6A7B",
+                "not-an-id", ""}) {
+            assertEquals(id, ClickEventBinaryCodec.decode(ClickEventBinaryCodec.encode(message(id))).getCorrelationId());
+        }
+        assertNull(ClickEventBinaryCodec.decode(ClickEventBinaryCodec.encode(message(null))).getCorrelationId());
+    }
+
+    @Test
+    void rejectsForeignAndTruncatedPayloads() {
+        byte[] encoded = ClickEventBinaryCodec.encode(message("0H2X8KQ4RZ9M1"));
+        byte[] truncated = Arrays.copyOf(encoded, encoded.length - 3);
+
+        assertThrows(IllegalArgumentException.class, () -> ClickEventBinaryCodec.decode("{}".getBytes()));
+        assertThrows(IllegalArgumentException.class, () -> ClickEventBinaryCodec.decode(truncated));
+    }
+
+    private static ClickEventMessage message(String correlationId) {
+        ClickEventMessage message = new ClickEventMessage();
+        message.setUrlId("123456789");
+        message.setShortCode("aZ3kP9q");
+        message.setIpAddress("203.0.113.9");
+        message.setUserAgent("Mozilla/5.0");
+        message.setCorrelationId(correlationId);
+        return message;
+    }
+}
@@ -0,0 +1,91 @@
+package org.example.service.shortCode;
+
+import org.example.util.Base62Util;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ShortCodeCodecTest {
+
+    private static final long KEY = 0x1F2E3D4C5B6AL;
+
+    private final ShortCodeCodec plain = new ShortCodeCodec(ShortCodeCodec.Mode.PLAIN, 7, 0);
+    private final ShortCodeCodec fixed = new ShortCodeCodec(ShortCodeCodec.Mode.FIXED, 7, 0);
+    private final ShortCodeCodec obfuscated = new ShortCodeCodec(ShortCodeCodec.Mode.OBFUSCATED, 7, KEY);
+
+    @Test
+    void decodeInvertsEncodeInEveryMode() {
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < 100_000; i++) {
+            long id = i < 1000 ? i : random.nextLong(1L << Base62Util.OBFUSCATED_BITS);
+            assertEquals(id, plain.decode(plain.encode(id)));
+            assertEquals(id, obfuscated.decode(obfuscated.encode(id)));
+            if (id < 3_521_614_606_208L) { // 62^7
+                assertEquals(id, fixed.decode(fixed.encode(id)));
+            }
+        }
+        assertEquals(Long.MAX_VALUE, plain.decode(plain.encode(Long.MAX_VALUE)));
+    }
+
+    @Test
+    void everyAcceptedCodeIsTheEncodingOfItsId() {
+        SplittableRandom random = new SplittableRandom(7);
+        String alphabet = "0123456789abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ";
+        for (int i = 0; i < 100_000; i++) {
+            StringBuilder code = new StringBuilder();
+            int length = 1 + random.nextInt(Base62Util.MAX_LENGTH);
+            for (int j = 0; j < length; j++) {
+                // Bias towards '0' so leading-zero aliases come up often
+                code.append(random.nextInt(4) == 0 ? '0' : alphabet.charAt(random.nextInt(62)));
+            }
+            assertCanonical(plain, code.toString());
+            assertCanonical(fixed, code.toString());
+            assertCanonical(obfuscated, code.toString());
+        }
+    }
+
+    @Test
+    void rejectsLeadingZeroAliasesInPlainMode() {
+        assertEquals(0, plain.decode("0"));
+        assertEquals(61, plain.decode("Z"));
+        assertEquals(Base62Util.INVALID, plain.decode("0Z"));
+        assertEquals(Base62Util.INVALID, plain.decode("00"));
+        assertEquals(Base62Util.INVALID, Base62Util.decode("0abc"));
+    }
+
+    @Test
+    void rejectsOtherWidthsInFixedAndObfuscatedModes() {
+        String code = fixed.encode(12345);
+        assertEquals(7, code.length());
+        assertEquals(12345, fixed.decode(code));
+        assertEquals(Base62Util.INVALID, fixed.decode(code.substring(1)));
+        assertEquals(Base62Util.INVALID, fixed.decode("0" + code));
+        assertEquals(Base62Util.INVALID, fixed.decode(plain.encode(12345)));
+
+        String obfuscatedCode = obfuscated.encode(12345);
+        assertEquals(8, obfuscatedCode.length());
+        assertEquals(Base62Util.INVALID, obfuscated.decode("0" + obfuscatedCode));
+        // 8 characters but above 2^47, outside the permutation's range
+        assertEquals(Base62Util.INVALID, obfuscated.decode("ZZZZZZZZ"));
+    }
+
+    @Test
+    void rejectsMalformedCodes() {
+        for (ShortCodeCodec codec : new ShortCodeCodec[]{plain, fixed, obfuscated}) {
+            assertEquals(Base62Util.INVALID, codec.decode(null));
+            assertEquals(Base62Util.INVALID, codec.decode(""));
+            assertEquals(Base62Util.INVALID, codec.decode("abc-def"));
+            assertEquals(Base62Util.INVALID, codec.decode("abcdéfg"));
+        }
+        assertEquals(Base62Util.INVALID, plain.decode("ZZZZZZZZZZZ")); // 62^11 - 1 overflows a long
+    }
+
+    private static void assertCanonical(ShortCodeCodec codec, String code) {
+        long id = codec.decode(code);
+        if (id != Base62Util.INVALID) {
+            assertEquals(code, codec.encode(id), "alias accepted for id " + id);
+        }
+    }
+}
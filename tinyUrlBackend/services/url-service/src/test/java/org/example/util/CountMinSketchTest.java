@@ -0,0 +1,86 @@
+package org.example.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CountMinSketchTest {
+
+    @Test
+    void estimatesNeverUndercountAndStayWithinTheErrorBound() {
+        int depth = 4;
+        CountMinSketch sketch = new CountMinSketch(depth, 1024);
+        Map<Long, Integer> counts = new HashMap<>();
+        SplittableRandom random = new SplittableRandom(3);
+        // Skewed like real traffic: a few hot keys, a long tail of rare ones
+        for (int i = 0; i < 200_000; i++) {
+            int rank = (int) Math.floor(Math.pow(20_000, random.nextDouble()));
+            long keyHash = CountMinSketch.hash("code-" + rank);
+            int count = 1 + random.nextInt(3);
+            sketch.add(keyHash, count);
+            counts.merge(keyHash, count, Integer::sum);
+        }
+
+        long total = counts.values().stream().mapToLong(Integer::longValue).sum();
+        assertEquals(total, sketch.total());
+        long bound = sketch.errorBound();
+        assertEquals((long) Math.ceil(Math.E / 1024 * total), bound);
+
+        int outsideBound = 0;
+        for (Map.Entry<Long, Integer> entry : counts.entrySet()) {
+            int estimate = sketch.estimate(entry.getKey());
+            assertTrue(estimate >= entry.getValue(), "undercount");
+            if (estimate - entry.getValue() > bound) {
+                outsideBound++;
+            }
+        }
+        // The bound holds with probability 1 - e^-depth per key
+        assertTrue(outsideBound <= counts.size() * Math.exp(-depth), outsideBound + " keys outside the bound");
+    }
+
+    @Test
+    void fewKeysInAWideSketchAreCountedExactly() {
+        CountMinSketch sketch = new CountMinSketch(4, 4096);
+        for (int i = 0; i < 10; i++) {
+            for (int j = 0; j <= i; j++) {
+                sketch.add(CountMinSketch.hash("key-" + i), 7);
+            }
+        }
+        for (int i = 0; i < 10; i++) {
+            assertEquals(7 * (i + 1), sketch.estimate(CountMinSketch.hash("key-" + i)));
+        }
+        assertEquals(0, sketch.estimate(CountMinSketch.hash("absent")));
+    }
+
+    @Test
+    void addReturnsTheNewEstimateAndSaturates() {
+        CountMinSketch sketch = new CountMinSketch(2, 16);
+        long key = CountMinSketch.hash("hot");
+        assertEquals(5, sketch.add(key, 5));
+        assertEquals(Integer.MAX_VALUE, sketch.add(key, Integer.MAX_VALUE));
+        assertEquals(Integer.MAX_VALUE, sketch.estimate(key));
+    }
+
+    @Test
+    void clearForgetsEverything() {
+        CountMinSketch sketch = new CountMinSketch(4, 64);
+        sketch.add(CountMinSketch.hash("a"), 10);
+        sketch.clear();
+        assertEquals(0, sketch.estimate(CountMinSketch.hash("a")));
+        assertEquals(0, sketch.total());
+        assertEquals(0, sketch.errorBound());
+    }
+
+    @Test
+    void rejectsInvalidShapes() {
+        assertThrows(IllegalArgumentException.class, () -> new CountMinSketch(0, 64));
+        assertThrows(IllegalArgumentException.class, () -> new CountMinSketch(4, 1));
+        assertThrows(IllegalArgumentException.class, () -> new CountMinSketch(4, 100));
+    }
+}
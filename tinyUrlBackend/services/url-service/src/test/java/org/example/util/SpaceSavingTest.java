@@ -0,0 +1,103 @@
+package org.example.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SpaceSavingTest {
+
+    @Test
+    void countsExactlyWhileEveryKeyFits() {
+        SpaceSaving summary = new SpaceSaving(8);
+        for (int i = 0; i < 8; i++) {
+            summary.add("key-" + i, i + 1);
+            summary.add("key-" + i, 1);
+        }
+        Map<String, SpaceSaving.Entry> entries = byKey(summary.entries());
+        assertEquals(8, summary.size());
+        for (int i = 0; i < 8; i++) {
+            SpaceSaving.Entry entry = entries.get("key-" + i);
+            assertEquals(i + 2, entry.count());
+            assertEquals(0, entry.error());
+        }
+    }
+
+    @Test
+    void retainsEveryKeyAboveTotalOverCapacity() {
+        int capacity = 64;
+        SpaceSaving summary = new SpaceSaving(capacity);
+        Map<String, Long> counts = new HashMap<>();
+        SplittableRandom random = new SplittableRandom(5);
+        // 10 heavy keys among 100 000 one-off keys, interleaved
+        for (int i = 0; i < 100_000; i++) {
+            String key = random.nextInt(5) == 0 ? "heavy-" + random.nextInt(10) : "rare-" + i;
+            summary.add(key, 1);
+            counts.merge(key, 1L, Long::sum);
+        }
+
+        long total = counts.values().stream().mapToLong(Long::longValue).sum();
+        Map<String, SpaceSaving.Entry> entries = byKey(summary.entries());
+        assertEquals(capacity, entries.size());
+        for (Map.Entry<String, Long> count : counts.entrySet()) {
+            if (count.getValue() > total / capacity) {
+                assertNotNull(entries.get(count.getKey()), count.getKey() + " dropped");
+            }
+        }
+        // Every monitored count brackets the true count
+        for (SpaceSaving.Entry entry : entries.values()) {
+            long actual = counts.get(entry.key());
+            assertTrue(entry.count() >= actual, "undercount of " + entry.key());
+            assertTrue(entry.count() - entry.error() <= actual, "lower bound above the true count of " + entry.key());
+        }
+    }
+
+    @Test
+    void newKeyTakesOverTheSmallestSlotAndInheritsItsCountAsError() {
+        SpaceSaving summary = new SpaceSaving(2);
+        summary.add("a", 5);
+        summary.add("b", 3);
+        summary.add("c", 1);
+
+        Map<String, SpaceSaving.Entry> entries = byKey(summary.entries());
+        assertEquals(Map.of("a", 5L, "c", 4L), entries.values().stream()
+                .collect(Collectors.toMap(SpaceSaving.Entry::key, SpaceSaving.Entry::count)));
+        assertEquals(3, entries.get("c").error());
+
+        // c is now the smallest and is the next to go
+        summary.add("d", 1);
+        entries = byKey(summary.entries());
+        assertEquals(5, entries.get("d").count());
+        assertEquals(4, entries.get("d").error());
+        assertNotNull(entries.get("a"));
+    }
+
+    @Test
+    void clearEmptiesTheSummary() {
+        SpaceSaving summary = new SpaceSaving(4);
+        summary.add("a", 1);
+        summary.clear();
+        assertEquals(0, summary.size());
+        assertTrue(summary.entries().isEmpty());
+        summary.add("b", 2);
+        assertEquals(List.of(new SpaceSaving.Entry("b", 2, 0)), summary.entries());
+    }
+
+    @Test
+    void rejectsInvalidCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new SpaceSaving(0));
+    }
+
+    private static Map<String, SpaceSaving.Entry> byKey(List<SpaceSaving.Entry> entries) {
+        return entries.stream().collect(Collectors.toMap(SpaceSaving.Entry::key, Function.identity()));
+    }
+}
@@ -0,0 +1,154 @@
+package org.example.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TimingWheelTest {
+
+    private static final long TICK = 10;
+    private static final int WHEEL_SIZE = 8;
+
+    @Test
+    void firesOnTheFirstAdvanceAfterTheDeadlineTickEnds() {
+        TimingWheel wheel = new TimingWheel(TICK, WHEEL_SIZE, 1000, 0);
+        wheel.schedule(1, 0);
+        wheel.schedule(2, 9);
+        wheel.schedule(3, 10);
+        wheel.schedule(4, 79);
+        wheel.schedule(5, 80);
+
+        Map<Long, Long> fired = driveByMillis(wheel, 0, 200);
+
+        assertEquals(10L, fired.get(1L));
+        assertEquals(10L, fired.get(2L));
+        assertEquals(20L, fired.get(3L));
+        assertEquals(80L, fired.get(4L));
+        assertEquals(90L, fired.get(5L));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void cascadedTimersFireExactlyOneTickBoundaryAfterTheirDeadline() {
+        // 3 levels: slots of 10, 80 and 640 ms, covering 5120 ms
+        TimingWheel wheel = new TimingWheel(TICK, WHEEL_SIZE, 1000, 3);
+        SplittableRandom random = new SplittableRandom(11);
+        Map<Long, Long> deadlines = new HashMap<>();
+        for (long id = 0; id < 5000; id++) {
+            long deadline = random.nextLong(0, 5120);
+            deadlines.put(id, deadline);
+            wheel.schedule(id, deadline);
+        }
+
+        Map<Long, Long> fired = driveByMillis(wheel, 0, 5200);
+
+        assertEquals(deadlines.size(), fired.size());
+        deadlines.forEach((id, deadline) ->
+                assertEquals(Math.floorDiv(deadline, TICK) * TICK + TICK, fired.get(id), "timer " + id));
+    }
+
+    @Test
+    void oneLargeAdvanceFiresEverythingDueInTickOrder() {
+        TimingWheel wheel = new TimingWheel(TICK, WHEEL_SIZE, 5000, 0);
+        long[] deadlines = {4999, 5, 640, 95, 639, 2000, 80};
+        for (int i = 0; i < deadlines.length; i++) {
+            wheel.schedule(i, deadlines[i]);
+        }
+
+        List<Long> order = new ArrayList<>();
+        wheel.advance(2010, (id, deadlineMs) -> order.add(deadlineMs));
+
+        assertEquals(List.of(5L, 80L, 95L, 639L, 640L, 2000L), order);
+        assertEquals(1, wheel.size());
+
+        wheel.advance(5010, (id, deadlineMs) -> order.add(deadlineMs));
+        assertEquals(4999L, order.get(order.size() - 1));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void pastDeadlinesFireOnTheNextTick() {
+        TimingWheel wheel = new TimingWheel(TICK, WHEEL_SIZE, 1000, 500);
+        wheel.schedule(1, 100);
+        wheel.schedule(2, -50);
+
+        Map<Long, Long> fired = driveByMillis(wheel, 500, 520);
+
+        assertEquals(510L, fired.get(1L));
+        assertEquals(510L, fired.get(2L));
+    }
+
+    @Test
+    void rejectsDeadlinesBeyondTheSpan() {
+        TimingWheel wheel = new TimingWheel(TICK, WHEEL_SIZE, 1000, 0);
+        wheel.schedule(1, 5119);
+        assertThrows(IllegalArgumentException.class, () -> wheel.schedule(2, 5120));
+        assertEquals(1, wheel.size());
+
+        // The span moves with the current time, a whole top level slot at a time: at 1000 it starts at 640
+        wheel.advance(1000, (id, deadlineMs) -> { });
+        wheel.schedule(3, 5759);
+        assertThrows(IllegalArgumentException.class, () -> wheel.schedule(4, 5760));
+    }
+
+    @Test
+    void rejectsInvalidSizes() {
+        assertThrows(IllegalArgumentException.class, () -> new TimingWheel(0, WHEEL_SIZE, 1000, 0));
+        assertThrows(IllegalArgumentException.class, () -> new TimingWheel(TICK, 1, 1000, 0));
+        assertThrows(IllegalArgumentException.class, () -> new TimingWheel(TICK, WHEEL_SIZE, 0, 0));
+    }
+
+    @Test
+    void rescheduledIdsFireOncePerScheduleAndCanBeReArmedFromTheHandler() {
+        TimingWheel wheel = new TimingWheel(TICK, WHEEL_SIZE, 1000, 0);
+        // No cancel: moving a deadline adds a second timer, the owner ignores the superseded one
+        wheel.schedule(1, 50);
+        wheel.schedule(1, 300);
+        assertEquals(2, wheel.size());
+
+        List<Long> fired = new ArrayList<>();
+        for (long now = 0; now <= 1000; now++) {
+            TimingWheel.ExpiryHandler handler = (id, deadlineMs) -> {
+                fired.add(deadlineMs);
+                if (deadlineMs == 300) {
+                    wheel.schedule(id, deadlineMs + 400);
+                }
+            };
+            wheel.advance(now, handler);
+        }
+
+        assertEquals(List.of(50L, 300L, 700L), fired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void idleWheelSkipsAheadAndSchedulesRelativeToTheNewTime() {
+        TimingWheel wheel = new TimingWheel(TICK, WHEEL_SIZE, 1000, 0);
+        wheel.advance(1_000_000, (id, deadlineMs) -> { });
+
+        wheel.schedule(1, 1_000_015);
+        Map<Long, Long> fired = driveByMillis(wheel, 1_000_000, 1_000_100);
+
+        assertEquals(Map.of(1L, 1_000_020L), fired);
+    }
+
+    /**
+     * Advance one millisecond at a time and record when each id fired
+     */
+    private static Map<Long, Long> driveByMillis(TimingWheel wheel, long fromMs, long toMs) {
+        Map<Long, Long> fired = new HashMap<>();
+        for (long now = fromMs; now <= toMs; now++) {
+            long at = now;
+            wheel.advance(now, (id, deadlineMs) -> assertNull(fired.put(id, at), "fired twice: " + id));
+        }
+        return fired;
+    }
+}
@@ -0,0 +1,117 @@
+package org.example.config.cache.codec;
+
+import org.example.common.cache.codec.CacheBinaryReader;
+import org.example.common.cache.codec.CacheBinaryWriter;
+import org.example.common.cache.codec.CacheValueCodec;
+import org.example.entity.User;
+import org.example.service.data.UserInfoCacheData;
+import org.springframework.stereotype.Component;
+
+/**
+ * userInfoCache values.
+ * <pre>
+ * v1: varint presence bits, then the present fields in bit order:
+ *     email, passwordHash, fullName strings, emailVerified byte, status enum,
+ *     createdAt, updatedAt, lastLoginAt date-times
+ * </pre>
+ */
+@Component
+public class UserInfoCacheDataCodec implements CacheValueCodec<UserInfoCacheData> {
+
+    // Append only, the index is the wire code
+    private static final User.UserStatus[] STATUSES = {User.UserStatus.ACTIVE, User.UserStatus.DISABLED};
+
+    private static final int EMAIL = 1;
+    private static final int PASSWORD_HASH = 1 << 1;
+    private static final int FULL_NAME = 1 << 2;
+    private static final int EMAIL_VERIFIED = 1 << 3;
+    private static final int STATUS = 1 << 4;
+    private static final int CREATED_AT = 1 << 5;
+    private static final int UPDATED_AT = 1 << 6;
+    private static final int LAST_LOGIN_AT = 1 << 7;
+
+    @Override
+    public int typeId() {
+        return 1;
+    }
+
+    @Override
+    public Class<UserInfoCacheData> type() {
+        return UserInfoCacheData.class;
+    }
+
+    @Override
+    public int version() {
+        return 1;
+    }
+
+    @Override
+    public void encode(UserInfoCacheData value, CacheBinaryWriter writer) {
+        int present = (value.getEmail() != null ? EMAIL : 0)
+                | (value.getPasswordHash() != null ? PASSWORD_HASH : 0)
+                | (value.getFullName() != null ? FULL_NAME : 0)
+                | (value.getEmailVerified() != null ? EMAIL_VERIFIED : 0)
+                | (value.getStatus() != null ? STATUS : 0)
+                | (value.getCreatedAt() != null ? CREATED_AT : 0)
+                | (value.getUpdatedAt() != null ? UPDATED_AT : 0)
+                | (value.getLastLoginAt() != null ? LAST_LOGIN_AT : 0);
+        writer.writeVarLong(present);
+
+        if ((present & EMAIL) != 0) {
+            writer.writeString(value.getEmail());
+        }
+        if ((present & PASSWORD_HASH) != 0) {
+            writer.writeString(value.getPasswordHash());
+        }
+        if ((present & FULL_NAME) != 0) {
+            writer.writeString(value.getFullName());
+        }
+        if ((present & EMAIL_VERIFIED) != 0) {
+            writer.writeByte(value.getEmailVerified() ? 1 : 0);
+        }
+        if ((present & STATUS) != 0) {
+            writer.writeEnum(value.getStatus(), STATUSES);
+        }
+        if ((present & CREATED_AT) != 0) {
+            writer.writeDateTime(value.getCreatedAt());
+        }
+        if ((present & UPDATED_AT) != 0) {
+            writer.writeDateTime(value.getUpdatedAt());
+        }
+        if ((present & LAST_LOGIN_AT) != 0) {
+            writer.writeDateTime(value.getLastLoginAt());
+        }
+    }
+
+    @Override
+    public UserInfoCacheData decode(CacheBinaryReader reader, int version) {
+        long present = reader.readVarLong();
+
+        UserInfoCacheData value = new UserInfoCacheData();
+        if ((present & EMAIL) != 0) {
+            value.setEmail(reader.readString());
+        }
+        if ((present & PASSWORD_HASH) != 0) {
+            value.setPasswordHash(reader.readString());
+        }
+        if ((present & FULL_NAME) != 0) {
+            value.setFullName(reader.readString());
+        }
+        if ((present & EMAIL_VERIFIED) != 0) {
+            value.setEmailVerified(reader.readByte() != 0);
+        }
+        if ((present & STATUS) != 0) {
+            value.setStatus(reader.readEnum(STATUSES));
+        }
+        if ((present & CREATED_AT) != 0) {
+            value.setCreatedAt(reader.readDateTime());
+        }
+        if ((present & UPDATED_AT) != 0) {
+            value.setUpdatedAt(reader.readDateTime());
+        }
+        if ((present & LAST_LOGIN_AT) != 0) {
+            value.setLastLoginAt(reader.readDateTime());
+        }
+        return value;
+    }
+}
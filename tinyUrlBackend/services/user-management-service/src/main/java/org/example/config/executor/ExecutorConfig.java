@@ -0,0 +1,41 @@
+package org.example.config.executor;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Dedicated executors for work that must not compete with request handling for the request threads
+ */
+@Configuration
+public class ExecutorConfig {
+
+    @Value("${password-hashing.pool-size:0}")
+    private int passwordHashingPoolSize;
+
+    @Value("${password-hashing.queue-capacity:64}")
+    private int passwordHashingQueueCapacity;
+
+    /**
+     * Executor for BCrypt hashing and verification, sized so a login burst can never take every core.
+     * A full queue rejects the submit, see PasswordHashingService.
+     */
+    @Bean(name = "passwordHashingExecutor")
+    public ThreadPoolTaskExecutor passwordHashingExecutor() {
+        int poolSize = passwordHashingPoolSize > 0
+                ? passwordHashingPoolSize
+                : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(passwordHashingQueueCapacity);
+        executor.setThreadNamePrefix("password-hashing-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.initialize();
+        return executor;
+    }
+}
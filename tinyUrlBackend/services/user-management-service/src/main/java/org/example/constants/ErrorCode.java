@@ -7,6 +7,7 @@ public enum ErrorCode {
     USER_NOT_EXISTED("USER_NOT_EXISTED"),
     PASSWORD_IN_CORRECT("PASSWORD_IN_CORRECT"),
     SYSTEM_ERROR("SYSTEM_ERROR"),
+    SYSTEM_BUSY("SYSTEM_BUSY"),
     UNIDENTIFIED_TOKEN("UNIDENTIFIED_TOKEN"),
     INTERNAL_SERVER_ERROR("INTERNAL_SERVER_ERROR"),
     INVALID_INPUT("INVALID_INPUT"),
@@ -1,8 +1,11 @@
 package org.example.controller;
 
+import jakarta.servlet.http.HttpServletRequest;
 import org.example.constants.ErrorCode;
 import org.example.dto.request.*;
 import org.example.dto.response.*;
+import org.example.ratelimit.web.ClientIpResolver;
+import org.example.ratelimit.web.RateLimit;
 import org.example.service.authFogetPassword.AuthForgetPasswordService;
 import org.example.service.authLogin.AuthLoginService;
 import org.example.service.authLogin.factory.AuthLoginServiceFactoryFinder;
@@ -38,11 +41,15 @@ public class UserController {
     @Autowired
     private PublicKeyProviderService publicKeyProviderService;
 
+    @Autowired
+    private ClientIpResolver clientIpResolver;
+
     /**
      * User login endpoint
      */
     @PostMapping("/login")
-    public ResponseEntity<ApiResponse<AuthResponse>> login(@RequestBody LoginRequest request) {
+    @RateLimit(policy = "user-login")
+    public ResponseEntity<ApiResponse<AuthResponse>> login(@RequestBody LoginRequest request, HttpServletRequest httpRequest) {
         try {
             // Get appropriate login service based on login type
             AuthLoginService authLoginService = authLoginServiceFactoryFinder.getFactory(request.getLoginType()).getAuthService();
@@ -54,6 +61,7 @@ public class UserController {
                     .loginType(request.getLoginType())
                     .googleToken(request.getGoogleToken())
                     .facebookToken(request.getFacebookToken())
+                    .clientIp(clientIpResolver.resolve(httpRequest))
                     .build();
 
             // Call service
@@ -87,13 +95,15 @@ public class UserController {
      * User registration endpoint
      */
     @PostMapping("/register")
-    public ResponseEntity<ApiResponse<RegisterResponse>> register(@RequestBody RegisterRequest request) {
+    @RateLimit(policy = "user-register")
+    public ResponseEntity<ApiResponse<RegisterResponse>> register(@RequestBody RegisterRequest request, HttpServletRequest httpRequest) {
         try {
             // Convert request to service input data
             RegisterIData inputData = RegisterIData.builder()
                     .fullName(request.getUsername())
                     .password(request.getPassword())
                     .email(request.getEmail())
+                    .clientIp(clientIpResolver.resolve(httpRequest))
                     .build();
 
             // Call service
@@ -273,6 +283,7 @@ public class UserController {
      * Resend email verification endpoint
      */
     @PostMapping("/resend-verification")
+    @RateLimit(policy = "user-mail")
     public ResponseEntity<ApiResponse<String>> resendVerificationEmail(@RequestParam String email) {
         try {
             // Convert to service input data
@@ -303,6 +314,7 @@ public class UserController {
      * Forgot password endpoint - send reset email
      */
     @PostMapping("/forgot-password")
+    @RateLimit(policy = "user-mail")
     public ResponseEntity<ApiResponse<String>> forgotPassword(@RequestBody ForgotPasswordRequest request) {
         try {
             // Convert to service input data
@@ -359,6 +371,8 @@ public class UserController {
                 return HttpStatus.BAD_REQUEST;
             case UNIDENTIFIED_TOKEN:
                 return HttpStatus.UNAUTHORIZED;
+            case SYSTEM_BUSY:
+                return HttpStatus.SERVICE_UNAVAILABLE;
             case SYSTEM_ERROR:
             default:
                 return HttpStatus.INTERNAL_SERVER_ERROR;
@@ -379,6 +393,8 @@ public class UserController {
                 return "Incorrect password";
             case UNIDENTIFIED_TOKEN:
                 return "Invalid or expired token";
+            case SYSTEM_BUSY:
+                return "System is busy, please try again later";
             case SYSTEM_ERROR:
                 return "System error occurred";
             default:
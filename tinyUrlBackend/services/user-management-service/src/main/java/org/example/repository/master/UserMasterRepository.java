@@ -63,4 +63,15 @@ public interface UserMasterRepository extends JpaRepository<User, Long> {
     void updatePassword(@Param("userId") Long userId, 
                        @Param("passwordHash") String passwordHash, 
                        @Param("updateTime") LocalDateTime updateTime);
+
+    /**
+     * Replace a stale password hash with an upgraded hash of the same password.
+     * Only applies if the stored hash is unchanged, so a password changed in the meantime is never overwritten.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.passwordHash = :newHash WHERE u.id = :userId AND u.passwordHash = :oldHash")
+    int upgradePasswordHash(@Param("userId") Long userId,
+                            @Param("oldHash") String oldHash,
+                            @Param("newHash") String newHash);
 }
@@ -3,10 +3,11 @@ package org.example.service.authLogin;
 import org.example.config.jwt.JwtService;
 import org.example.constants.ErrorCode;
 import org.example.entity.User;
+import org.example.exception.PasswordHashingRejectedException;
 import org.example.repository.master.UserMasterRepository;
 import org.example.service.data.AuthenticateLoginIData;
 import org.example.service.data.AuthenticateLoginOData;
-import org.example.util.HashAndCompareUtil;
+import org.example.service.password.PasswordHashingService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
@@ -22,6 +23,9 @@ public class PasswordAuthLoginService implements AuthLoginService {
     @Autowired
     private JwtService jwtService;
 
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+
     @Override
     public AuthenticateLoginOData authenticate(AuthenticateLoginIData input) {
         AuthenticateLoginOData ret = new AuthenticateLoginOData();
@@ -36,7 +40,12 @@ public class PasswordAuthLoginService implements AuthLoginService {
 
             User user = getUser.get();
 
-            if(!HashAndCompareUtil.compare(input.getPassword(), user.getPasswordHash())) {
+            // Capped per email and client IP so password guessing against one account cannot take the whole hashing pool,
+            // without letting that guessing lock the owner out from their own address
+            // A hash with an outdated algorithm or cost is upgraded in the background
+            if(!passwordHashingService.matches(PasswordHashingService.clientKey(user.getEmail(), input.getClientIp()),
+                    input.getPassword(), user.getPasswordHash(),
+                    newHash -> userMasterRepository.upgradePasswordHash(user.getId(), user.getPasswordHash(), newHash))) {
                 ret.setErrCode(ErrorCode.PASSWORD_IN_CORRECT);
                 return ret;
             }
@@ -48,6 +57,8 @@ public class PasswordAuthLoginService implements AuthLoginService {
             ret.setAccessToken(jwtAccessToken);
             ret.setRefreshToken(jwtRefreshToken);
 
+        } catch (PasswordHashingRejectedException e) {
+            ret.setErrCode(ErrorCode.SYSTEM_BUSY);
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
@@ -2,10 +2,11 @@ package org.example.service.authRegister;
 
 import org.example.constants.ErrorCode;
 import org.example.entity.User;
+import org.example.exception.PasswordHashingRejectedException;
 import org.example.repository.master.UserMasterRepository;
 import org.example.service.EmailVerification.EmailVerificationService;
 import org.example.service.data.*;
-import org.example.util.HashAndCompareUtil;
+import org.example.service.password.PasswordHashingService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.redis.core.StringRedisTemplate;
@@ -27,6 +28,9 @@ public class DefaultAuthRegisterService implements AuthRegisterService {
     @Autowired
     private EmailVerificationService emailVerificationService;
 
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+
     @Override
     public RegisterOData register(RegisterIData input) {
         RegisterOData ret = new RegisterOData();
@@ -43,7 +47,8 @@ public class DefaultAuthRegisterService implements AuthRegisterService {
             User newUser = new User();
             newUser.setEmail(input.getEmail());
             newUser.setFullName(input.getFullName());
-            newUser.setPasswordHash(HashAndCompareUtil.hash(input.getPassword()));
+            newUser.setPasswordHash(passwordHashingService.hash(
+                    PasswordHashingService.clientKey(input.getEmail(), input.getClientIp()), input.getPassword()));
 
             newUser = userMasterRepository.save(newUser);
 
@@ -51,6 +56,9 @@ public class DefaultAuthRegisterService implements AuthRegisterService {
             ret.setEmail(newUser.getEmail());
             ret.setUserId(newUser.getId());
 
+            return ret;
+        } catch (PasswordHashingRejectedException e) {
+            ret.setErrCode(ErrorCode.SYSTEM_BUSY);
             return ret;
         } catch (Exception e) {
             throw new RuntimeException(e);
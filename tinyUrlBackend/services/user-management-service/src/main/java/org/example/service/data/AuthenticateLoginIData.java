@@ -16,4 +16,5 @@ public class AuthenticateLoginIData {
     private AuthLoginServiceFactoryFinder.AuthenticationType loginType; // PASSWORD, GOOGLE, FACEBOOK
     private String googleToken;
     private String facebookToken;
+    private String clientIp;
 }
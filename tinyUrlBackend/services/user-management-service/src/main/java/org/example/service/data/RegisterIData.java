@@ -13,4 +13,5 @@ public class RegisterIData {
     private String email;
     private String password;
     private String fullName;
+    private String clientIp;
 }
@@ -3,9 +3,10 @@ package org.example.service.userManagement;
 import jakarta.transaction.Transactional;
 import org.example.constants.ErrorCode;
 import org.example.entity.User;
+import org.example.exception.PasswordHashingRejectedException;
 import org.example.repository.master.UserMasterRepository;
 import org.example.service.data.*;
-import org.example.util.HashAndCompareUtil;
+import org.example.service.password.PasswordHashingService;
 import org.redisson.api.RLock;
 import org.redisson.api.RedissonClient;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -26,6 +27,9 @@ public class DefaultUserManagementService implements UserManagementService {
     @Autowired
     private RedissonClient redissonClient;
 
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+
     @Override
     public UserInfoOData getUserInfo(UserInfoIData input) {
         UserInfoOData ret = new UserInfoOData();
@@ -92,7 +96,7 @@ public class DefaultUserManagementService implements UserManagementService {
 
             // Verify current password if provided
             if (input.getCurrentPassword() != null && !input.getCurrentPassword().isEmpty()) {
-                if (!HashAndCompareUtil.compare(input.getCurrentPassword(), user.getPasswordHash())) {
+                if (!passwordHashingService.matches(String.valueOf(input.getUserId()), input.getCurrentPassword(), user.getPasswordHash())) {
                     ret.setMessage("Current password is incorrect");
                     return ret;
                 }
@@ -149,6 +153,9 @@ public class DefaultUserManagementService implements UserManagementService {
             updatedInfo.setErrCode(ErrorCode.SUCCESS);
             ret.setUpdatedUserInfo(updatedInfo);
 
+        } catch (PasswordHashingRejectedException e) {
+            ret.setMessage("System is busy, please try again later");
+            ret.setSuccess(false);
         } catch (Exception e) {
             ret.setMessage("System error occurred: " + e.getMessage());
             ret.setSuccess(false);